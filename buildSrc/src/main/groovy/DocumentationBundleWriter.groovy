@@ -0,0 +1,93 @@
+import java.nio.charset.StandardCharsets
+
+/**
+ * Writes the documentation for every (section, key) into a single bundle file, instead of one HTML file per (section, key).
+ *
+ * Many options (everything from systemd.exec, systemd.kill and systemd.resource-control) have identical documentation in
+ * several sections, so documents are content addressed and each distinct document is only stored once.
+ *
+ * The format of the file is (all integers are big endian, as written by DataOutputStream):
+ *
+ * <pre>
+ * int    magic (SDOC)
+ * int    format version
+ *
+ * int    number of entries (n)
+ * int    number of slots in the hash table (a power of two, at least 2n)
+ * int[]  the hash table, each slot is an entry index or -1 if empty, entries are found by linear probing from
+ *        (name.hashCode() &amp; (slots - 1)) where name is "Section/Key" and hashCode() is java.lang.String's.
+ *
+ *   int    name hash
+ *   int    name offset, name length (UTF-8 bytes in the data area)
+ *   int    document offset, document length (UTF-8 bytes in the data area)
+ *
+ * int    number of distinct documents
+ * int    length of the data area
+ * byte[] the data area
+ * </pre>
+ *
+ * The reader for this format is DocumentationBundle in the plugin, if you change anything here you must bump the version there too.
+ */
+class DocumentationBundleWriter {
+
+  static final int MAGIC = 0x53444f43
+
+  static final int FORMAT_VERSION = 1
+
+  /**
+   * Writes the bundle.
+   *
+   * @param documents map from "Section/Key" to the HTML documentation
+   * @param bundleFile the file to write
+   */
+  static void write(Map<String, String> documents, File bundleFile) {
+    ByteArrayOutputStream data = new ByteArrayOutputStream()
+    Map<String, int[]> documentLocations = [:]
+
+    List<String> names = new ArrayList<>(new TreeSet<>(documents.keySet()))
+    int[][] entries = new int[names.size()][]
+
+    names.eachWithIndex { String name, int i ->
+      byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8)
+      int nameOffset = data.size()
+      data.write(nameBytes)
+
+      int[] documentLocation = documentLocations[documents[name]]
+      if (documentLocation == null) {
+        byte[] documentBytes = documents[name].getBytes(StandardCharsets.UTF_8)
+        documentLocation = [data.size(), documentBytes.length] as int[]
+        data.write(documentBytes)
+        documentLocations[documents[name]] = documentLocation
+      }
+
+      entries[i] = [name.hashCode(), nameOffset, nameBytes.length, documentLocation[0], documentLocation[1]] as int[]
+    }
+
+    int slotCount = Integer.highestOneBit(Math.max(2, names.size() * 2) - 1) << 1
+    int[] slots = new int[slotCount]
+    Arrays.fill(slots, -1)
+
+    entries.eachWithIndex { int[] entry, int i ->
+      int slot = entry[0] & (slotCount - 1)
+      while (slots[slot] != -1) {
+        slot = (slot + 1) & (slotCount - 1)
+      }
+      slots[slot] = i
+    }
+
+    bundleFile.parentFile.mkdirs()
+    bundleFile.withDataOutputStream { DataOutputStream out ->
+      out.writeInt(MAGIC)
+      out.writeInt(FORMAT_VERSION)
+
+      out.writeInt(entries.length)
+      out.writeInt(slotCount)
+      slots.each { out.writeInt(it) }
+      entries.each { int[] entry -> entry.each { out.writeInt(it) } }
+
+      out.writeInt(documentLocations.size())
+      out.writeInt(data.size())
+      data.writeTo(out)
+    }
+  }
+}
@@ -20,6 +20,7 @@ import javax.xml.xpath.XPath
 import javax.xml.xpath.XPathConstants
 import javax.xml.xpath.XPathFactory
 import java.util.regex.Matcher
+import java.util.regex.Pattern
 
 /**
  * This task scans the systemd source code man pages to extract the set of available options as well as (eventually) documentation.
@@ -120,6 +121,16 @@ class GenerateDataFromManPages extends DefaultTask {
 
   Map<String /* Section */, Map<String /*Keyword*/, Map<String /*Attribute*/, String /*Value*/>>> sectionToKeyWordMap = [:]
 
+  /**
+   * Map from "Section/Key" to the HTML documentation for that key, this is written out as one bundle at the end.
+   */
+  Map<String, String> documentation = new TreeMap<>()
+
+  /**
+   * Deprecated options say so in their documentation, e.g., "This setting is deprecated. Use <var>MemoryMax=</var> instead."
+   */
+  static final Pattern DEPRECATED_COMMENT_REGEX = Pattern.compile("setting.+deprecated. Use (.+) instead.", Pattern.DOTALL)
+
   final XPath xpath
 
   final DocumentBuilderFactory dbf
@@ -151,6 +162,8 @@ class GenerateDataFromManPages extends DefaultTask {
 
     logger.debug("Complete")
 
+    extractDeprecations()
+
     def json = JsonOutput.toJson(this.sectionToKeyWordMap)
     json = JsonOutput.prettyPrint(json)
 
@@ -161,6 +174,33 @@ class GenerateDataFromManPages extends DefaultTask {
 
     logger.debug("Output: $json")
 
+    DocumentationBundleWriter.write(documentation, new File(this.generatedJsonFileLocation.getAbsolutePath() + "/documentation.bin"))
+
+    logger.debug("Wrote documentation for ${documentation.size()} keys (${new HashSet<>(documentation.values()).size()} distinct)")
+
+  }
+
+  /**
+   * Records for every deprecated key (i.e., one whose documentation says so) the text that describes the replacement as well as
+   * the replacement keys (space separated), so that the plugin doesn't need to scan the documentation when highlighting.
+   */
+  private void extractDeprecations() {
+    documentation.each { String sectionAndKey, String html ->
+      def (String section, String key) = sectionAndKey.split("/")
+
+      Map<String, String> attributes = sectionToKeyWordMap[section]?.get(key)
+      Matcher m = DEPRECATED_COMMENT_REGEX.matcher(html)
+
+      if (attributes != null && m.find()) {
+        // Get rid of the var tags.
+        String replacement = m.group(1).replaceAll("</?var>", "")
+
+        attributes["deprecatedReplacement"] = replacement
+        attributes["replacedBy"] = (replacement =~ /(\w+)=/).collect { it[1] }.join(" ")
+
+        logger.debug("$sectionAndKey is deprecated, replaced by ${attributes["replacedBy"]}")
+      }
+    }
   }
 
   /**
@@ -250,7 +290,7 @@ class GenerateDataFromManPages extends DefaultTask {
   }
 
   /**
-   * Generates individual HTML files for use as inline documentation
+   * Generates the HTML for use as inline documentation
    *
    * We proceed in two steps
    *
@@ -306,7 +346,7 @@ class GenerateDataFromManPages extends DefaultTask {
   }
 
   /**
-   * Converts a post XSLT transformed document into individual files.
+   * Converts a post XSLT transformed document into HTML for each parameter, which is recorded under every section it applies to.
    *
    * Expected structure of the XML is:
    *
@@ -357,25 +397,18 @@ class GenerateDataFromManPages extends DefaultTask {
 
       List<String> foo = fileAndSectionTitleToSectionName[sourceFileName]['sections'][sectionTitle]
 
-      for(String sectionName : foo)
-      {
-        File outputFile = new File(this.generatedJsonFileLocation.getAbsolutePath() + "/documents/completion/" + sectionName + "/" + name + ".html")
-        outputFile.getParentFile().mkdirs()
-
-        Writer write = new BufferedWriter(new FileWriter(outputFile))
-
-        Node paragraphContent
-        for(int j = 0; j < paragraphList.getLength(); j++)
-        {
-          paragraphContent = paragraphList.item(j)
+      StringBuilder html = new StringBuilder()
 
-          write.write("<p>")
-          write.write(innerXml(paragraphContent))
-          write.write("</p>\n")
-        }
+      for(int j = 0; j < paragraphList.getLength(); j++)
+      {
+        html.append("<p>")
+        html.append(innerXml(paragraphList.item(j)))
+        html.append("</p>\n")
+      }
 
-        write.flush()
-        write.close()
+      for(String sectionName : foo)
+      {
+        documentation[sectionName + "/" + name] = html.toString()
       }
 
     }
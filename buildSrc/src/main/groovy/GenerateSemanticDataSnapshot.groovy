@@ -0,0 +1,164 @@
+import groovy.json.JsonSlurper
+import org.gradle.api.DefaultTask
+import org.gradle.api.tasks.InputFile
+import org.gradle.api.tasks.OutputFile
+import org.gradle.api.tasks.TaskAction
+
+import java.nio.charset.StandardCharsets
+import java.util.regex.Matcher
+import java.util.regex.Pattern
+
+/**
+ * This task compiles the semantic data generated from systemd (the keyword map from the man pages and the validator table
+ * from load-fragment-gperf.gperf) into a single binary snapshot, so that the plugin doesn't need to parse JSON or run
+ * regular expressions over the gperf file when it starts.
+ *
+ * The format of the file is (all integers are big endian, as written by DataOutputStream):
+ *
+ * <pre>
+ * int    magic (SDAT)
+ * int    format version
+ *
+ * int    number of strings in the string pool (n)
+ * int[]  n + 1 offsets into the pool, string i is the UTF-8 bytes between offset[i] and offset[i+1]
+ * byte[] the pool
+ *
+ * int    number of sections with keywords
+ *   int    section name (string id)
+ *   int    number of keywords
+ *     int    keyword, values, declaredUnderKeyword, declaredInFile, deprecatedReplacement, replacedBy (string ids)
+ *
+ * int    number of sections with validators
+ *   int    section name (string id)
+ *   int    number of keywords
+ *     int    keyword, validator (string ids)
+ * </pre>
+ *
+ * Missing attributes are written as string id -1.
+ *
+ * The reader for this format is SemanticDataSnapshot in the plugin, if you change anything here you must bump the version there too.
+ */
+class GenerateSemanticDataSnapshot extends DefaultTask {
+
+  static final int MAGIC = 0x53444154
+
+  static final int FORMAT_VERSION = 2
+
+  /**
+   * This is the same pattern the plugin used to use at runtime to scan the gperf file.
+   */
+  static final Pattern LINE_MATCHER = Pattern.compile('^(?<Section>[A-Z][a-z]+).(?<Key>\\w+),\\s*(?<Validator>\\w+)\\s*,.+$')
+
+  @InputFile
+  File sectionToKeywordMapJsonFile
+
+  @InputFile
+  File loadFragmentGperfFile
+
+  @OutputFile
+  File snapshotFile
+
+  private final Map<String, Integer> stringIds = [:]
+
+  private final List<String> strings = []
+
+  @TaskAction
+  void start() {
+    Map<String, Map<String, Map<String, String>>> sectionToKeywordMap =
+      (Map<String, Map<String, Map<String, String>>>) new JsonSlurper().parse(sectionToKeywordMapJsonFile, "UTF-8")
+
+    Map<String, Map<String, String>> sectionToKeyAndValidatorMap = readValidators()
+
+    ByteArrayOutputStream body = new ByteArrayOutputStream()
+    DataOutputStream out = new DataOutputStream(body)
+
+    out.writeInt(sectionToKeywordMap.size())
+    new TreeMap<>(sectionToKeywordMap).each { String section, Map<String, Map<String, String>> keywords ->
+      out.writeInt(idOf(section))
+      out.writeInt(keywords.size())
+      new TreeMap<>(keywords).each { String keyword, Map<String, String> attributes ->
+        out.writeInt(idOf(keyword))
+        out.writeInt(idOf(attributes["values"]))
+        out.writeInt(idOf(attributes["declaredUnderKeyword"]))
+        out.writeInt(idOf(attributes["declaredInFile"]))
+        out.writeInt(idOf(attributes["deprecatedReplacement"]))
+        out.writeInt(idOf(attributes["replacedBy"]))
+      }
+    }
+
+    out.writeInt(sectionToKeyAndValidatorMap.size())
+    sectionToKeyAndValidatorMap.each { String section, Map<String, String> keywords ->
+      out.writeInt(idOf(section))
+      out.writeInt(keywords.size())
+      keywords.each { String keyword, String validator ->
+        out.writeInt(idOf(keyword))
+        out.writeInt(idOf(validator))
+      }
+    }
+
+    out.flush()
+
+    snapshotFile.parentFile.mkdirs()
+    snapshotFile.withDataOutputStream { DataOutputStream file ->
+      file.writeInt(MAGIC)
+      file.writeInt(FORMAT_VERSION)
+      writeStringPool(file)
+      body.writeTo(file)
+    }
+
+    logger.debug("Wrote ${strings.size()} strings to ${snapshotFile}")
+  }
+
+  /**
+   * Scans the gperf file for section, key and validator triples.
+   *
+   * @return map of section -> key -> validator
+   */
+  private Map<String, Map<String, String>> readValidators() {
+    Map<String, Map<String, String>> sectionToKeyAndValidatorMap = new TreeMap<>()
+
+    loadFragmentGperfFile.eachLine("UTF-8") { String line ->
+      Matcher m = LINE_MATCHER.matcher(line)
+
+      if (m.find()) {
+        sectionToKeyAndValidatorMap.computeIfAbsent(m.group("Section"), { k -> new TreeMap<>() })
+          .put(m.group("Key"), m.group("Validator"))
+      }
+    }
+
+    return sectionToKeyAndValidatorMap
+  }
+
+  private int idOf(String value) {
+    if (value == null) {
+      return -1
+    }
+
+    Integer id = stringIds[value]
+
+    if (id == null) {
+      id = strings.size()
+      strings.add(value)
+      stringIds[value] = id
+    }
+
+    return id
+  }
+
+  private void writeStringPool(DataOutputStream out) {
+    List<byte[]> encoded = strings.collect { it.getBytes(StandardCharsets.UTF_8) }
+
+    out.writeInt(encoded.size())
+
+    int offset = 0
+    out.writeInt(offset)
+    for (byte[] bytes : encoded) {
+      offset += bytes.length
+      out.writeInt(offset)
+    }
+
+    for (byte[] bytes : encoded) {
+      out.write(bytes)
+    }
+  }
+}
@@ -0,0 +1,248 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import com.google.common.collect.ImmutableSet;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lints many unit files in parallel on a fork-join pool.
+ * <p></p>
+ * The list of files is split in halves until the pieces are small enough to be worth a task, each worker thread lints with its own
+ * {@link UnitFileLinter} (which reuses its buffers from one file to the next), and results are handed to the {@link ProblemReporter} as
+ * soon as each file is done.
+ */
+public final class BatchLinter {
+
+  /**
+   * The extensions of the unit files the plugin supports, plus <code>.conf</code> for drop-ins (see {@link #isUnitFile(Path)}).
+   */
+  private static final Set<String> UNIT_FILE_EXTENSIONS =
+    ImmutableSet.of("automount", "device", "mount", "path", "service", "slice", "socket", "swap", "target", "timer");
+
+  private static final String DROP_IN_EXTENSION = ".conf";
+
+  private static final String DROP_IN_DIRECTORY_SUFFIX = ".d";
+
+  /**
+   * Files per task below which a task lints its files itself rather than splitting them further.
+   */
+  private static final int FILES_PER_TASK = 16;
+
+  private final ForkJoinPool pool;
+
+  private final ThreadLocal<UnitFileLinter> linters;
+
+  /**
+   * Creates a linter.
+   *
+   * @param sdr         the semantic data to check against
+   * @param parallelism the number of threads to lint with
+   */
+  public BatchLinter(SemanticDataRepository sdr, int parallelism) {
+    this.pool = new ForkJoinPool(parallelism);
+    this.linters = ThreadLocal.withInitial(() -> new UnitFileLinter(sdr));
+  }
+
+  /**
+   * Returns whether a file is a unit file, or a drop-in (i.e., a <code>.conf</code> file in a directory such as
+   * <code>foo.service.d</code>).
+   *
+   * @param file the file
+   * @return true if it should be linted
+   */
+  public static boolean isUnitFile(Path file) {
+    Path fileName = file.getFileName();
+
+    if (fileName == null) {
+      return false;
+    }
+
+    String name = fileName.toString();
+
+    if (name.endsWith(DROP_IN_EXTENSION)) {
+      Path parent = file.getParent();
+      return parent != null && parent.getFileName() != null && parent.getFileName().toString().endsWith(DROP_IN_DIRECTORY_SUFFIX);
+    }
+
+    int dot = name.lastIndexOf('.');
+
+    return dot > 0 && UNIT_FILE_EXTENSIONS.contains(name.substring(dot + 1));
+  }
+
+  /**
+   * Finds the unit files in some files and directories.
+   *
+   * @param roots files (which are included whatever their names) and directories (which are searched recursively)
+   * @return the unit files
+   * @throws IOException if a directory can't be read
+   */
+  public static List<Path> findUnitFiles(List<Path> roots) throws IOException {
+    List<Path> files = new ArrayList<>();
+
+    for (Path root : roots) {
+      if (!Files.isDirectory(root)) {
+        files.add(root);
+        continue;
+      }
+
+      Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          if (attrs.isRegularFile() && isUnitFile(file)) {
+            files.add(file);
+          }
+
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+
+    return files;
+  }
+
+  /**
+   * Lints files, reporting the problems in each as soon as it is done (so not in the order of the list).
+   *
+   * @param files    the files
+   * @param reporter receives the problems, it is started and finished around the run (finished even if the run fails)
+   * @return the counts and time taken
+   * @throws IOException if the reporter fails
+   */
+  public Summary lint(List<Path> files, ProblemReporter reporter) throws IOException {
+    long start = System.nanoTime();
+    Summary summary = new Summary(files.size());
+
+    reporter.start();
+
+    try {
+      pool.invoke(new LintTask(files, 0, files.size(), reporter, summary));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      reporter.finish();
+    }
+
+    summary.nanos = System.nanoTime() - start;
+    return summary;
+  }
+
+  /**
+   * Stops the worker threads.
+   */
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private final class LintTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<Path> files;
+
+    private final int start;
+
+    private final int end;
+
+    private final ProblemReporter reporter;
+
+    private final Summary summary;
+
+    LintTask(List<Path> files, int start, int end, ProblemReporter reporter, Summary summary) {
+      this.files = files;
+      this.start = start;
+      this.end = end;
+      this.reporter = reporter;
+      this.summary = summary;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start > FILES_PER_TASK) {
+        int middle = (start + end) >>> 1;
+        invokeAll(new LintTask(files, start, middle, reporter, summary), new LintTask(files, middle, end, reporter, summary));
+        return;
+      }
+
+      UnitFileLinter linter = linters.get();
+
+      try {
+        for (int i = start; i < end; i++) {
+          Path file = files.get(i);
+          List<Problem> problems;
+
+          try {
+            problems = linter.lint(file);
+          } catch (IOException e) {
+            summary.failedFiles.incrementAndGet();
+            reporter.failed(file, e);
+            continue;
+          }
+
+          summary.problems.addAndGet(problems.size());
+          reporter.report(file, problems);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * What a run of {@link #lint(List, ProblemReporter)} did.
+   */
+  public static final class Summary {
+
+    private final int files;
+
+    private final AtomicInteger failedFiles = new AtomicInteger();
+
+    private final AtomicInteger problems = new AtomicInteger();
+
+    private long nanos;
+
+    Summary(int files) {
+      this.files = files;
+    }
+
+    public int getFiles() {
+      return files;
+    }
+
+    public int getFailedFiles() {
+      return failedFiles.get();
+    }
+
+    public int getProblems() {
+      return problems.get();
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public double getFilesPerSecond() {
+      return nanos == 0 ? 0 : files * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("Linted %d files in %d ms (%.0f files/sec), %d problems, %d files could not be read", files, nanos / 1_000_000,
+        getFilesPerSecond(), getProblems(), getFailedFiles());
+    }
+  }
+}
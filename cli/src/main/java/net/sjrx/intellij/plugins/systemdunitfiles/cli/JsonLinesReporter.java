@@ -0,0 +1,71 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes one JSON object per line for each problem, e.g.,
+ * <pre>
+ * {"file":"/etc/systemd/system/a.service","rule":"InvalidValue","line":3,"column":6,"offset":24,"length":4,"message":"..."}
+ * </pre>
+ * and one with an <code>error</code> instead of a rule for each file that couldn't be read. Lines are flushed after each file so that
+ * they can be consumed while the linter is still running.
+ */
+public final class JsonLinesReporter implements ProblemReporter {
+
+  private final JsonGenerator generator;
+
+  public JsonLinesReporter(OutputStream out) throws IOException {
+    generator = new JsonFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    // Objects are separated by the newlines written below, not by the default space
+    generator.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void start() {
+  }
+
+  @Override
+  public synchronized void report(Path file, List<Problem> problems) throws IOException {
+    if (problems.isEmpty()) {
+      return;
+    }
+
+    for (Problem problem : problems) {
+      generator.writeStartObject();
+      generator.writeStringField("file", file.toString());
+      generator.writeStringField("rule", problem.getRule().getId());
+      generator.writeNumberField("line", problem.getLine());
+      generator.writeNumberField("column", problem.getColumn());
+      generator.writeNumberField("offset", problem.getOffset());
+      generator.writeNumberField("length", problem.getLength());
+      generator.writeStringField("message", problem.getMessage());
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    generator.flush();
+  }
+
+  @Override
+  public synchronized void failed(Path file, IOException cause) throws IOException {
+    generator.writeStartObject();
+    generator.writeStringField("file", file.toString());
+    generator.writeStringField("error", String.valueOf(cause.getMessage()));
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+    generator.flush();
+  }
+
+  @Override
+  public synchronized void finish() throws IOException {
+    generator.flush();
+  }
+}
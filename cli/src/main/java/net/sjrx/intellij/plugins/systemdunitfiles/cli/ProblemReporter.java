@@ -0,0 +1,42 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes out the problems found by {@link BatchLinter} as each file is checked.
+ * <p></p>
+ * A run is {@link #start()}, any number of calls to {@link #report(Path, List)} and {@link #failed(Path, IOException)} from the threads
+ * doing the linting, then {@link #finish()}. In watch mode there is a run for each batch of changes.
+ */
+public interface ProblemReporter {
+
+  /**
+   * Called before any file of a run is reported.
+   */
+  void start() throws IOException;
+
+  /**
+   * Called once for each file that was checked, may be called concurrently.
+   *
+   * @param file     the file
+   * @param problems the problems in the file, possibly empty
+   */
+  void report(Path file, List<Problem> problems) throws IOException;
+
+  /**
+   * Called for each file that couldn't be read, may be called concurrently.
+   *
+   * @param file  the file
+   * @param cause why it couldn't be read
+   */
+  void failed(Path file, IOException cause) throws IOException;
+
+  /**
+   * Called after all the files of a run are reported.
+   */
+  void finish() throws IOException;
+}
@@ -0,0 +1,151 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.LintRule;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a <a href="https://docs.oasis-open.org/sarif/sarif/v2.1.0/sarif-v2.1.0.html">SARIF 2.1.0</a> log, as read by code scanning
+ * tools.
+ * <p></p>
+ * The results are written out as files are checked, rather than building the whole log in memory. Each run (i.e., each batch of changes
+ * in watch mode) is a complete log on its own line.
+ */
+public final class SarifReporter implements ProblemReporter {
+
+  private static final String SCHEMA = "https://json.schemastore.org/sarif-2.1.0.json";
+
+  private static final String TOOL_NAME = "unit-file-lint";
+
+  private static final String TOOL_URI = "https://github.com/SJrX/systemdUnitFilePlugin";
+
+  private final JsonGenerator generator;
+
+  private final List<Path> failedFiles = new ArrayList<>();
+
+  private final List<String> failures = new ArrayList<>();
+
+  public SarifReporter(OutputStream out) throws IOException {
+    generator = new JsonFactory().createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  @Override
+  public synchronized void start() throws IOException {
+    failedFiles.clear();
+    failures.clear();
+
+    generator.writeStartObject();
+    generator.writeStringField("$schema", SCHEMA);
+    generator.writeStringField("version", "2.1.0");
+    generator.writeArrayFieldStart("runs");
+    generator.writeStartObject();
+
+    generator.writeObjectFieldStart("tool");
+    generator.writeObjectFieldStart("driver");
+    generator.writeStringField("name", TOOL_NAME);
+    generator.writeStringField("informationUri", TOOL_URI);
+    generator.writeArrayFieldStart("rules");
+    for (LintRule rule : LintRule.values()) {
+      generator.writeStartObject();
+      generator.writeStringField("id", rule.getId());
+      writeMessage("shortDescription", rule.getDescription());
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeEndObject();
+
+    generator.writeArrayFieldStart("results");
+  }
+
+  @Override
+  public synchronized void report(Path file, List<Problem> problems) throws IOException {
+    if (problems.isEmpty()) {
+      return;
+    }
+
+    String uri = file.toUri().toString();
+
+    for (Problem problem : problems) {
+      generator.writeStartObject();
+      generator.writeStringField("ruleId", problem.getRule().getId());
+      generator.writeNumberField("ruleIndex", problem.getRule().ordinal());
+      generator.writeStringField("level", "warning");
+      writeMessage("message", problem.getMessage());
+
+      generator.writeArrayFieldStart("locations");
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("physicalLocation");
+      generator.writeObjectFieldStart("artifactLocation");
+      generator.writeStringField("uri", uri);
+      generator.writeEndObject();
+      generator.writeObjectFieldStart("region");
+      generator.writeNumberField("startLine", problem.getLine());
+      generator.writeNumberField("startColumn", problem.getColumn());
+      generator.writeNumberField("charOffset", problem.getOffset());
+      generator.writeNumberField("charLength", problem.getLength());
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeEndArray();
+
+      generator.writeEndObject();
+    }
+
+    generator.flush();
+  }
+
+  @Override
+  public synchronized void failed(Path file, IOException cause) {
+    // Notifications go in the invocation, which comes after the results
+    failedFiles.add(file);
+    failures.add(String.valueOf(cause.getMessage()));
+  }
+
+  @Override
+  public synchronized void finish() throws IOException {
+    generator.writeEndArray();
+
+    generator.writeArrayFieldStart("invocations");
+    generator.writeStartObject();
+    generator.writeBooleanField("executionSuccessful", failedFiles.isEmpty());
+    generator.writeArrayFieldStart("toolExecutionNotifications");
+    for (int i = 0; i < failedFiles.size(); i++) {
+      generator.writeStartObject();
+      generator.writeStringField("level", "error");
+      writeMessage("message", failures.get(i));
+      generator.writeArrayFieldStart("locations");
+      generator.writeStartObject();
+      generator.writeObjectFieldStart("physicalLocation");
+      generator.writeObjectFieldStart("artifactLocation");
+      generator.writeStringField("uri", failedFiles.get(i).toUri().toString());
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeEndObject();
+      generator.writeEndArray();
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeEndArray();
+
+    generator.writeEndObject();
+    generator.writeEndArray();
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+    generator.flush();
+  }
+
+  private void writeMessage(String fieldName, String text) throws IOException {
+    generator.writeObjectFieldStart(fieldName);
+    generator.writeStringField("text", text);
+    generator.writeEndObject();
+  }
+}
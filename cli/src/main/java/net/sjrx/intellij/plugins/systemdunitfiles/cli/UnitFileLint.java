@@ -0,0 +1,117 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line entry point, which lints unit files with the same checks as the plugin's inspections.
+ * <p></p>
+ * Problems are written to standard out as JSON lines or SARIF, the number of files linted (and files per second) to standard error. The
+ * exit code is 0 if there were no problems, 1 if there were and 2 if the arguments were wrong or a file couldn't be read.
+ */
+public final class UnitFileLint {
+
+  private static final String USAGE =
+    "Usage: unit-file-lint [--format=jsonl|sarif] [--threads=N] [--watch] <file or directory>...\n"
+    + "\n"
+    + "Directories are searched for unit files (*.service, *.socket, *.timer, ...) and drop-ins (*.d/*.conf).\n"
+    + "\n"
+    + "  --format=jsonl  write one JSON object per problem and line (the default)\n"
+    + "  --format=sarif  write a SARIF 2.1.0 log\n"
+    + "  --threads=N     lint with N threads (default: the number of processors)\n"
+    + "  --watch         keep running and lint files again when they change (each batch of changes is a separate SARIF log)\n";
+
+  private static final int EXIT_NO_PROBLEMS = 0;
+
+  private static final int EXIT_PROBLEMS = 1;
+
+  private static final int EXIT_ERROR = 2;
+
+  private UnitFileLint() {
+  }
+
+  public static void main(String[] args) throws IOException {
+    System.exit(run(args, System.out, System.err));
+  }
+
+  static int run(String[] args, PrintStream out, PrintStream err) throws IOException {
+    String format = "jsonl";
+    int threads = Runtime.getRuntime().availableProcessors();
+    boolean watch = false;
+    List<Path> roots = new ArrayList<>();
+
+    for (String arg : args) {
+      if (arg.startsWith("--format=")) {
+        format = arg.substring("--format=".length());
+      } else if (arg.startsWith("--threads=")) {
+        try {
+          threads = Integer.parseInt(arg.substring("--threads=".length()));
+        } catch (NumberFormatException e) {
+          threads = 0;
+        }
+        if (threads < 1) {
+          return usage(err, "Invalid number of threads: " + arg);
+        }
+      } else if (arg.equals("--watch")) {
+        watch = true;
+      } else if (arg.startsWith("--")) {
+        return usage(err, "Unknown option: " + arg);
+      } else {
+        Path root = Paths.get(arg);
+        if (!Files.exists(root)) {
+          return usage(err, "No such file or directory: " + arg);
+        }
+        roots.add(root);
+      }
+    }
+
+    if (roots.isEmpty()) {
+      return usage(err, "No files or directories given");
+    }
+
+    ProblemReporter reporter;
+    switch (format) {
+      case "jsonl":
+        reporter = new JsonLinesReporter(out);
+        break;
+      case "sarif":
+        reporter = new SarifReporter(out);
+        break;
+      default:
+        return usage(err, "Unknown format: " + format);
+    }
+
+    BatchLinter linter = new BatchLinter(SemanticDataRepository.getInstance(), threads);
+
+    try {
+      BatchLinter.Summary summary = linter.lint(BatchLinter.findUnitFiles(roots), reporter);
+      err.println(summary);
+
+      if (watch) {
+        new UnitFileWatcher(linter, reporter, err, roots).watch();
+      }
+
+      if (summary.getFailedFiles() > 0) {
+        return EXIT_ERROR;
+      }
+
+      return summary.getProblems() > 0 ? EXIT_PROBLEMS : EXIT_NO_PROBLEMS;
+    } finally {
+      linter.shutdown();
+    }
+  }
+
+  private static int usage(PrintStream err, String message) {
+    err.println(message);
+    err.println();
+    err.print(USAGE);
+    return EXIT_ERROR;
+  }
+}
@@ -0,0 +1,157 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches files and directories with a {@link WatchService}, and lints only the unit files that were created or changed.
+ * <p></p>
+ * Editors often write a file in several steps (or several files at once), so after the first change the watcher waits until nothing has
+ * changed for {@link #QUIET_PERIOD_MILLIS} and lints everything that changed in between as one run.
+ */
+final class UnitFileWatcher {
+
+  private static final long QUIET_PERIOD_MILLIS = 100;
+
+  private final BatchLinter linter;
+
+  private final ProblemReporter reporter;
+
+  private final PrintStream log;
+
+  /**
+   * The directory each key watches, and whether its subdirectories are watched too (they aren't when only a file in it was given).
+   */
+  private final Map<WatchKey, Path> directories = new HashMap<>();
+
+  private final Set<WatchKey> recursiveKeys = new HashSet<>();
+
+  private final Set<Path> watchedFiles = new HashSet<>();
+
+  private final List<Path> roots;
+
+  UnitFileWatcher(BatchLinter linter, ProblemReporter reporter, PrintStream log, List<Path> roots) {
+    this.linter = linter;
+    this.reporter = reporter;
+    this.log = log;
+    this.roots = roots;
+  }
+
+  /**
+   * Watches until the thread is interrupted.
+   *
+   * @throws IOException if a directory can't be watched or the reporter fails
+   */
+  void watch() throws IOException {
+    try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+      for (Path root : roots) {
+        if (Files.isDirectory(root)) {
+          registerTree(watchService, root, null);
+        } else {
+          Path file = root.toAbsolutePath();
+          watchedFiles.add(file);
+          directories.put(file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY), file.getParent());
+        }
+      }
+
+      while (!Thread.currentThread().isInterrupted()) {
+        Set<Path> changed = new LinkedHashSet<>();
+
+        WatchKey key = watchService.take();
+
+        while (key != null) {
+          collectChanges(watchService, key, changed);
+          key = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        }
+
+        List<Path> files = new ArrayList<>();
+        for (Path file : changed) {
+          if (Files.isRegularFile(file)) {
+            files.add(file);
+          }
+        }
+
+        if (!files.isEmpty()) {
+          log.println(linter.lint(files, reporter));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void collectChanges(WatchService watchService, WatchKey key, Set<Path> changed) throws IOException {
+    Path directory = directories.get(key);
+    boolean recursive = recursiveKeys.contains(key);
+
+    for (WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+        // Events were lost, so anything may have changed
+        changed.addAll(BatchLinter.findUnitFiles(roots));
+        continue;
+      }
+
+      Path path = directory.resolve((Path) event.context());
+
+      if (!recursive) {
+        if (watchedFiles.contains(path)) {
+          changed.add(path);
+        }
+      } else if (Files.isDirectory(path)) {
+        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+          registerTree(watchService, path, changed);
+        }
+      } else if (BatchLinter.isUnitFile(path)) {
+        changed.add(path);
+      }
+    }
+
+    if (!key.reset()) {
+      directories.remove(key);
+      recursiveKeys.remove(key);
+    }
+  }
+
+  /**
+   * Watches a directory and everything under it, adding the unit files already in it to <code>found</code> (if given) as they could have
+   * been created before the directory was watched.
+   */
+  private void registerTree(WatchService watchService, Path root, Set<Path> found) throws IOException {
+    Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+        WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        directories.put(key, dir);
+        recursiveKeys.add(key);
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (found != null && attrs.isRegularFile() && BatchLinter.isUnitFile(file)) {
+          found.add(file);
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+  }
+}
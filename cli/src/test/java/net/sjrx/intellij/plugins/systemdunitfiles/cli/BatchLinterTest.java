@@ -0,0 +1,259 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.cli;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.apache.commons.io.FileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class BatchLinterTest extends TestCase {
+
+  private static final int FILES = 200;
+
+  private Path root;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    root = Files.createTempDirectory("unit-file-lint");
+
+    Path system = Files.createDirectories(root.resolve("system"));
+    for (int i = 0; i < FILES; i++) {
+      // Every tenth file has one unknown key
+      write(system.resolve("unit-" + i + ".service"), "[Service]\nType=simple\n" + (i % 10 == 0 ? "Unknown=1\n" : ""));
+    }
+
+    write(Files.createDirectories(system.resolve("unit-0.service.d")).resolve("override.conf"), "[Service]\nKillMode=never\n");
+    write(system.resolve("README.md"), "Not a unit file=really\n");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.deleteDirectory(root.toFile());
+    super.tearDown();
+  }
+
+  public void testUnitFilesAndDropInsAreFound() throws IOException {
+    // Exercise SUT
+    List<Path> files = BatchLinter.findUnitFiles(Collections.singletonList(root));
+
+    // Verification
+    assertEquals(FILES + 1, files.size());
+    assertTrue(files.contains(root.resolve("system/unit-0.service.d/override.conf")));
+    assertFalse(BatchLinter.isUnitFile(Paths.get("/etc/other.conf")));
+    assertFalse(BatchLinter.isUnitFile(Paths.get("/etc/.service")));
+  }
+
+  public void testJsonLinesHaveOneProblemPerLine() throws IOException {
+    // Fixture Setup
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BatchLinter linter = new BatchLinter(SemanticDataRepository.getInstance(), 4);
+
+    // Exercise SUT
+    BatchLinter.Summary summary = linter.lint(BatchLinter.findUnitFiles(Collections.singletonList(root)), new JsonLinesReporter(out));
+    linter.shutdown();
+
+    // Verification
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertEquals(FILES / 10 + 1, lines.length);
+    assertEquals(lines.length, summary.getProblems());
+    assertEquals(FILES + 1, summary.getFiles());
+
+    ObjectMapper mapper = new ObjectMapper();
+    Set<String> rules = new HashSet<>();
+    for (String line : lines) {
+      JsonNode problem = mapper.readTree(line);
+      rules.add(problem.get("rule").asText());
+
+      if (problem.get("rule").asText().equals("UnknownKeyInSection")) {
+        assertEquals(3, problem.get("line").asInt());
+        assertEquals(1, problem.get("column").asInt());
+        assertEquals("Unknown".length(), problem.get("length").asInt());
+      }
+    }
+    assertEquals(new HashSet<>(Arrays.asList("UnknownKeyInSection", "InvalidValue")), rules);
+  }
+
+  public void testJsonLinesAreWrittenExactly() throws IOException {
+    // Fixture Setup
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonLinesReporter reporter = new JsonLinesReporter(out);
+    List<Problem> problems = new UnitFileLinter(SemanticDataRepository.getInstance()).lint("[Service]\nUnknown=1\nOther=2\n");
+
+    // Exercise SUT
+    reporter.start();
+    reporter.report(Paths.get("a.service"), problems);
+    reporter.failed(Paths.get("b.service"), new IOException("Permission denied"));
+    reporter.finish();
+
+    // Verification
+    String expected = "{\"file\":\"a.service\",\"rule\":\"UnknownKeyInSection\",\"line\":2,\"column\":1,\"offset\":10,\"length\":7,"
+                      + "\"message\":\"" + UnitFileLinter.UNKNOWN_KEY_MESSAGE + "\"}\n"
+                      + "{\"file\":\"a.service\",\"rule\":\"UnknownKeyInSection\",\"line\":3,\"column\":1,\"offset\":20,\"length\":5,"
+                      + "\"message\":\"" + UnitFileLinter.UNKNOWN_KEY_MESSAGE + "\"}\n"
+                      + "{\"file\":\"b.service\",\"error\":\"Permission denied\"}\n";
+
+    assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  public void testReporterIsFinishedWhenReportingFails() throws IOException {
+    // Fixture Setup
+    boolean[] finished = new boolean[1];
+    ProblemReporter reporter = new ProblemReporter() {
+      @Override
+      public void start() {
+      }
+
+      @Override
+      public void report(Path file, List<Problem> problems) throws IOException {
+        throw new IOException("Disk full");
+      }
+
+      @Override
+      public void failed(Path file, IOException cause) {
+      }
+
+      @Override
+      public void finish() {
+        finished[0] = true;
+      }
+    };
+
+    BatchLinter linter = new BatchLinter(SemanticDataRepository.getInstance(), 2);
+
+    // Exercise SUT
+    try {
+      linter.lint(BatchLinter.findUnitFiles(Collections.singletonList(root)), reporter);
+      fail("Expected the reporter's exception");
+    } catch (IOException e) {
+      // Verification
+      assertEquals("Disk full", e.getMessage());
+    } finally {
+      linter.shutdown();
+    }
+
+    assertTrue(finished[0]);
+  }
+
+  public void testSarifLogListsRulesAndResults() throws IOException {
+    // Fixture Setup
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    BatchLinter linter = new BatchLinter(SemanticDataRepository.getInstance(), 2);
+    List<Path> files = new ArrayList<>(BatchLinter.findUnitFiles(Collections.singletonList(root)));
+    files.add(root.resolve("missing.service"));
+
+    // Exercise SUT
+    linter.lint(files, new SarifReporter(out));
+    linter.shutdown();
+
+    // Verification
+    JsonNode log = new ObjectMapper().readTree(out.toByteArray());
+    assertEquals("2.1.0", log.get("version").asText());
+    JsonNode run = log.get("runs").get(0);
+    assertEquals(3, run.get("tool").get("driver").get("rules").size());
+    assertEquals(FILES / 10 + 1, run.get("results").size());
+
+    JsonNode region = run.get("results").get(0).get("locations").get(0).get("physicalLocation").get("region");
+    assertTrue(region.get("startLine").asInt() > 0);
+
+    JsonNode invocation = run.get("invocations").get(0);
+    assertFalse(invocation.get("executionSuccessful").asBoolean());
+    assertEquals(1, invocation.get("toolExecutionNotifications").size());
+  }
+
+  public void testExitCodes() throws IOException {
+    // Fixture Setup
+    PrintStream out = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+    ByteArrayOutputStream errBytes = new ByteArrayOutputStream();
+    PrintStream err = new PrintStream(errBytes, true, "UTF-8");
+    Path clean = root.resolve("system/unit-1.service");
+
+    // Exercise SUT & Verification
+    assertEquals(0, UnitFileLint.run(new String[] {clean.toString()}, out, err));
+    assertEquals(1, UnitFileLint.run(new String[] {"--threads=2", root.toString()}, out, err));
+    assertEquals(2, UnitFileLint.run(new String[] {"--format=xml", root.toString()}, out, err));
+    assertEquals(2, UnitFileLint.run(new String[] {root.resolve("missing").toString()}, out, err));
+
+    assertTrue(new String(errBytes.toByteArray(), StandardCharsets.UTF_8).contains("files/sec"));
+  }
+
+  public void testWatchLintsOnlyChangedFiles() throws Exception {
+    // Fixture Setup
+    List<Path> reported = Collections.synchronizedList(new ArrayList<>());
+    ProblemReporter reporter = new ProblemReporter() {
+      @Override
+      public void start() {
+      }
+
+      @Override
+      public void report(Path file, List<Problem> problems) {
+        reported.add(file);
+      }
+
+      @Override
+      public void failed(Path file, IOException cause) {
+      }
+
+      @Override
+      public void finish() {
+      }
+    };
+
+    BatchLinter linter = new BatchLinter(SemanticDataRepository.getInstance(), 1);
+    PrintStream log = new PrintStream(new ByteArrayOutputStream(), true, "UTF-8");
+    UnitFileWatcher watcher = new UnitFileWatcher(linter, reporter, log, Collections.singletonList(root));
+
+    Thread thread = new Thread(() -> {
+      try {
+        watcher.watch();
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+    });
+    thread.start();
+
+    try {
+      // Exercise SUT (giving the watcher a moment to register the directories first)
+      Path changed = root.resolve("system/unit-5.service");
+      Path created = Files.createDirectories(root.resolve("new")).resolve("new.socket");
+
+      for (int attempt = 0; attempt < 100 && !(reported.contains(changed) && reported.contains(created)); attempt++) {
+        Thread.sleep(100);
+        if (attempt == 5) {
+          write(changed, "[Service]\nType=forking\n");
+          Thread.sleep(200);
+          write(created, "[Socket]\n");
+        }
+      }
+
+      // Verification
+      assertTrue(reported.toString(), reported.contains(changed));
+      assertTrue(reported.toString(), reported.contains(created));
+      assertFalse(reported.toString(), reported.contains(root.resolve("system/unit-6.service")));
+    } finally {
+      thread.interrupt();
+      thread.join();
+      linter.shutdown();
+    }
+  }
+
+  private static void write(Path file, String text) throws IOException {
+    Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,104 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A strongly connected component of a {@link DependencyGraph} with more than one unit (or a unit that depends on itself), i.e., units
+ * that wait for each other.
+ */
+public final class DependencyCycle {
+
+  /**
+   * The graphs cycles are found in.
+   */
+  public enum Kind {
+    /**
+     * <code>After=</code> and <code>Before=</code>. systemd breaks an ordering cycle at boot by deleting one of the jobs in it, so one of
+     * the units doesn't start.
+     */
+    ORDERING("Ordering cycle"),
+
+    /**
+     * <code>Requires=</code>, <code>BindsTo=</code> and <code>RequiredBy=</code>. A unit in a requirement loop is stopped whenever any
+     * of the others fails or stops.
+     */
+    REQUIREMENT("Requirement loop");
+
+    private final String description;
+
+    Kind(String description) {
+      this.description = description;
+    }
+
+    public String getDescription() {
+      return description;
+    }
+  }
+
+  private final Kind kind;
+
+  private final List<String> units;
+
+  private final List<DependencyEdge> edges;
+
+  private final List<DependencyEdge> shortestLoop;
+
+  DependencyCycle(Kind kind, List<String> units, List<DependencyEdge> edges, List<DependencyEdge> shortestLoop) {
+    this.kind = kind;
+    this.units = Collections.unmodifiableList(units);
+    this.edges = Collections.unmodifiableList(edges);
+    this.shortestLoop = Collections.unmodifiableList(shortestLoop);
+  }
+
+  public Kind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns the units in the cycle.
+   *
+   * @return the unit names, sorted
+   */
+  public List<String> getUnits() {
+    return units;
+  }
+
+  /**
+   * Returns every edge between the units in the cycle, removing all the edges of one of its loops breaks that loop.
+   *
+   * @return the edges, by file and offset
+   */
+  public List<DependencyEdge> getEdges() {
+    return edges;
+  }
+
+  /**
+   * Returns one of the shortest loops in the cycle, starting from the first unit.
+   *
+   * @return the edges, each starting where the previous one ends
+   */
+  public List<DependencyEdge> getShortestLoop() {
+    return shortestLoop;
+  }
+
+  /**
+   * Describes the cycle by its shortest loop.
+   *
+   * @return e.g., <code>Ordering cycle: a.service -&gt; b.service -&gt; a.service</code>
+   */
+  public String getMessage() {
+    StringBuilder message = new StringBuilder(kind.getDescription()).append(": ").append(shortestLoop.get(0).getFrom());
+
+    for (DependencyEdge edge : shortestLoop) {
+      message.append(" -> ").append(edge.getTo());
+    }
+
+    return message.toString();
+  }
+
+  @Override
+  public String toString() {
+    return getMessage();
+  }
+}
@@ -0,0 +1,71 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+/**
+ * An edge of a {@link DependencyGraph}, with the dependency it comes from.
+ * <p></p>
+ * Edges point from the unit that waits to the one it waits for: <code>After=b.service</code> in <code>a.service</code> and
+ * <code>Before=a.service</code> in <code>b.service</code> are both an ordering edge from <code>a.service</code> to
+ * <code>b.service</code>, <code>Requires=b.service</code> in <code>a.service</code> and <code>RequiredBy=a.service</code> in
+ * <code>b.service</code> both a requirement edge.
+ */
+public final class DependencyEdge {
+
+  private final DependencyCycle.Kind kind;
+
+  private final String from;
+
+  private final String to;
+
+  private final String path;
+
+  private final UnitDependency dependency;
+
+  final int fromId;
+
+  final int toId;
+
+  DependencyEdge(DependencyCycle.Kind kind, String from, String to, String path, UnitDependency dependency, int fromId, int toId) {
+    this.kind = kind;
+    this.from = from;
+    this.to = to;
+    this.path = path;
+    this.dependency = dependency;
+    this.fromId = fromId;
+    this.toId = toId;
+  }
+
+  public DependencyCycle.Kind getKind() {
+    return kind;
+  }
+
+  public String getFrom() {
+    return from;
+  }
+
+  public String getTo() {
+    return to;
+  }
+
+  /**
+   * Returns the file the dependency is in.
+   *
+   * @return the path, as it was given to {@link DependencyGraph#update(String, String, java.util.List)}
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Returns the dependency, with the offset of the unit name in the file.
+   *
+   * @return the dependency
+   */
+  public UnitDependency getDependency() {
+    return dependency;
+  }
+
+  @Override
+  public String toString() {
+    return from + " -> " + to + " (" + dependency.getType().getKey() + "=" + dependency.getUnitName() + " in " + path + ")";
+  }
+}
@@ -0,0 +1,425 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ordering and requirement graphs of the units in a set of files, and the cycles in them (see {@link DependencyCycle}).
+ * <p></p>
+ * Files are added, changed and removed one at a time, and cycles are found with Tarjan's algorithm when they are asked for. Only what
+ * can have changed is searched again: the units reachable from the units whose edges changed (a new loop must go through a changed
+ * edge, so its units are reachable from the edge's start), plus the units of the cycles those units were in before (which may have
+ * split). Everything else keeps its components from the previous search. Tarjan's algorithm is run without recursion, so long chains of
+ * units don't overflow the stack.
+ * <p></p>
+ * Names with specifiers (e.g., <code>%i</code>) are left out, as are units named only by files that were since removed (unit names are
+ * never forgotten, they just end up without edges). Instances aren't thread safe.
+ */
+public final class DependencyGraph {
+
+  /**
+   * The size of a cycle's component is kept for every unit in it, -1 for units that aren't in a cycle.
+   */
+  private static final int NO_CYCLE = -1;
+
+  private final Map<String, Integer> ids = new HashMap<>();
+
+  private final List<String> names = new ArrayList<>();
+
+  /**
+   * Path -> the edges of the dependencies in the file.
+   */
+  private final Map<String, List<DependencyEdge>> edgesByPath = new HashMap<>();
+
+  private final Graph[] graphs = new Graph[DependencyCycle.Kind.values().length];
+
+  private int visited;
+
+  public DependencyGraph() {
+    for (DependencyCycle.Kind kind : DependencyCycle.Kind.values()) {
+      graphs[kind.ordinal()] = new Graph(kind);
+    }
+  }
+
+  /**
+   * Adds a unit file or drop-in, or replaces its dependencies if it changed.
+   *
+   * @param path         the path of the file
+   * @param unitName     the unit the file configures, see {@link UnitNames#getUnitName(String, String)}
+   * @param dependencies the dependencies in the file, see {@link UnitDependencyCollector}
+   */
+  public void update(String path, String unitName, List<UnitDependency> dependencies) {
+    remove(path);
+
+    if (unitName.indexOf('%') >= 0) {
+      return;
+    }
+
+    List<DependencyEdge> edges = new ArrayList<>();
+
+    for (UnitDependency dependency : dependencies) {
+      String other = dependency.getUnitName();
+
+      if (other.indexOf('%') >= 0) {
+        continue;
+      }
+
+      switch (dependency.getType()) {
+        case AFTER:
+          edges.add(edge(DependencyCycle.Kind.ORDERING, unitName, other, path, dependency));
+          break;
+        case BEFORE:
+          edges.add(edge(DependencyCycle.Kind.ORDERING, other, unitName, path, dependency));
+          break;
+        case REQUIRES:
+        case BINDS_TO:
+          edges.add(edge(DependencyCycle.Kind.REQUIREMENT, unitName, other, path, dependency));
+          break;
+        case REQUIRED_BY:
+          edges.add(edge(DependencyCycle.Kind.REQUIREMENT, other, unitName, path, dependency));
+          break;
+        default:
+          break;
+      }
+    }
+
+    if (!edges.isEmpty()) {
+      edgesByPath.put(path, edges);
+
+      for (DependencyEdge edge : edges) {
+        graphs[edge.getKind().ordinal()].add(edge);
+      }
+    }
+  }
+
+  /**
+   * Removes a file.
+   *
+   * @param path the path of the file
+   */
+  public void remove(String path) {
+    List<DependencyEdge> edges = edgesByPath.remove(path);
+
+    if (edges != null) {
+      for (DependencyEdge edge : edges) {
+        graphs[edge.getKind().ordinal()].remove(edge);
+      }
+    }
+  }
+
+  /**
+   * Returns the cycles, searching again where files changed since the last call.
+   *
+   * @return the cycles, ordering cycles first and then by their first unit
+   */
+  public List<DependencyCycle> getCycles() {
+    visited = 0;
+    List<DependencyCycle> cycles = new ArrayList<>();
+
+    for (Graph graph : graphs) {
+      graph.search();
+      cycles.addAll(graph.cycles.values());
+    }
+
+    cycles.sort(Comparator.comparing(DependencyCycle::getKind).thenComparing(cycle -> cycle.getUnits().get(0)));
+
+    return cycles;
+  }
+
+  /**
+   * Returns the cycles with edges that come from a file.
+   *
+   * @param path the path of the file
+   * @return the cycles, see {@link #getCycles()}
+   */
+  public List<DependencyCycle> getCycles(String path) {
+    List<DependencyCycle> cycles = getCycles();
+    List<DependencyCycle> inFile = new ArrayList<>();
+
+    for (DependencyCycle cycle : cycles) {
+      for (DependencyEdge edge : cycle.getEdges()) {
+        if (edge.getPath().equals(path)) {
+          inFile.add(cycle);
+          break;
+        }
+      }
+    }
+
+    return inFile;
+  }
+
+  /**
+   * Returns the number of units the last call to {@link #getCycles()} searched.
+   */
+  int getVisited() {
+    return visited;
+  }
+
+  private DependencyEdge edge(DependencyCycle.Kind kind, String from, String to, String path, UnitDependency dependency) {
+    return new DependencyEdge(kind, from, to, path, dependency, getId(from), getId(to));
+  }
+
+  private int getId(String name) {
+    Integer id = ids.get(name);
+
+    if (id == null) {
+      id = names.size();
+      ids.put(name, id);
+      names.add(name);
+
+      for (Graph graph : graphs) {
+        graph.addNode();
+      }
+    }
+
+    return id;
+  }
+
+  /**
+   * One of the graphs, with the strongly connected components from the last search.
+   */
+  private final class Graph {
+
+    private final DependencyCycle.Kind kind;
+
+    private final List<List<DependencyEdge>> outEdges = new ArrayList<>();
+
+    /**
+     * The id of the first unit of the cycle each unit is in, or {@link #NO_CYCLE}.
+     */
+    private int[] cycleOf = new int[16];
+
+    /**
+     * The id of the first unit of a cycle -> the cycle.
+     */
+    private final Map<Integer, DependencyCycle> cycles = new HashMap<>();
+
+    /**
+     * The units whose edges changed since the last search.
+     */
+    private final Set<Integer> changed = new HashSet<>();
+
+    // Tarjan's state, by unit id. Units were reached in the current search if their epoch is the search's.
+    private int epoch;
+    private int[] reachedIn = new int[16];
+    private int[] index = new int[16];
+    private int[] lowLink = new int[16];
+    private int[] nextEdge = new int[16];
+    private boolean[] onStack = new boolean[16];
+
+    private Graph(DependencyCycle.Kind kind) {
+      this.kind = kind;
+      Arrays.fill(cycleOf, NO_CYCLE);
+    }
+
+    private void addNode() {
+      int size = outEdges.size();
+      outEdges.add(new ArrayList<>(2));
+
+      if (size == cycleOf.length) {
+        int capacity = size * 2;
+        cycleOf = Arrays.copyOf(cycleOf, capacity);
+        Arrays.fill(cycleOf, size, capacity, NO_CYCLE);
+        reachedIn = Arrays.copyOf(reachedIn, capacity);
+        index = Arrays.copyOf(index, capacity);
+        lowLink = Arrays.copyOf(lowLink, capacity);
+        nextEdge = Arrays.copyOf(nextEdge, capacity);
+        onStack = Arrays.copyOf(onStack, capacity);
+      }
+    }
+
+    private void add(DependencyEdge edge) {
+      outEdges.get(edge.fromId).add(edge);
+      changed.add(edge.fromId);
+    }
+
+    private void remove(DependencyEdge edge) {
+      List<DependencyEdge> edges = outEdges.get(edge.fromId);
+
+      for (int i = 0; i < edges.size(); i++) {
+        if (edges.get(i) == edge) {
+          edges.remove(i);
+          break;
+        }
+      }
+
+      changed.add(edge.fromId);
+    }
+
+    private void search() {
+      if (changed.isEmpty()) {
+        return;
+      }
+
+      Set<Integer> roots = new HashSet<>(changed);
+      for (int unit : changed) {
+        DependencyCycle cycle = cycles.get(cycleOf[unit]);
+        if (cycle != null) {
+          for (String name : cycle.getUnits()) {
+            roots.add(ids.get(name));
+          }
+        }
+      }
+      changed.clear();
+
+      epoch++;
+      List<Integer> reached = new ArrayList<>();
+      List<int[]> components = new ArrayList<>();
+
+      for (int root : roots) {
+        if (reachedIn[root] != epoch) {
+          strongConnect(root, reached, components);
+        }
+      }
+
+      // The reached units' old cycles are replaced by what was found
+      for (int unit : reached) {
+        if (cycleOf[unit] != NO_CYCLE) {
+          cycles.remove(cycleOf[unit]);
+          cycleOf[unit] = NO_CYCLE;
+        }
+      }
+
+      for (int[] component : components) {
+        if (component.length > 1 || dependsOnItself(component[0])) {
+          DependencyCycle cycle = createCycle(component);
+          int first = ids.get(cycle.getUnits().get(0));
+
+          cycles.put(first, cycle);
+          for (int unit : component) {
+            cycleOf[unit] = first;
+          }
+        }
+      }
+
+      visited += reached.size();
+    }
+
+    private void strongConnect(int root, List<Integer> reached, List<int[]> components) {
+      int counter = reached.size();
+      ArrayDeque<Integer> stack = new ArrayDeque<>();
+      ArrayDeque<Integer> path = new ArrayDeque<>();
+
+      reach(root, counter++, reached, stack, path);
+
+      while (!path.isEmpty()) {
+        int unit = path.peek();
+        List<DependencyEdge> edges = outEdges.get(unit);
+
+        if (nextEdge[unit] < edges.size()) {
+          int next = edges.get(nextEdge[unit]++).toId;
+
+          if (reachedIn[next] != epoch) {
+            reach(next, counter++, reached, stack, path);
+          } else if (onStack[next]) {
+            lowLink[unit] = Math.min(lowLink[unit], index[next]);
+          }
+          continue;
+        }
+
+        path.pop();
+        if (!path.isEmpty()) {
+          int caller = path.peek();
+          lowLink[caller] = Math.min(lowLink[caller], lowLink[unit]);
+        }
+
+        if (lowLink[unit] == index[unit]) {
+          List<Integer> component = new ArrayList<>();
+          int member;
+          do {
+            member = stack.pop();
+            onStack[member] = false;
+            component.add(member);
+          } while (member != unit);
+
+          components.add(component.stream().mapToInt(Integer::intValue).toArray());
+        }
+      }
+    }
+
+    private void reach(int unit, int order, List<Integer> reached, ArrayDeque<Integer> stack, ArrayDeque<Integer> path) {
+      reachedIn[unit] = epoch;
+      index[unit] = order;
+      lowLink[unit] = order;
+      nextEdge[unit] = 0;
+      onStack[unit] = true;
+      stack.push(unit);
+      path.push(unit);
+      reached.add(unit);
+    }
+
+    private boolean dependsOnItself(int unit) {
+      for (DependencyEdge edge : outEdges.get(unit)) {
+        if (edge.toId == unit) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    private DependencyCycle createCycle(int[] component) {
+      Set<Integer> members = new HashSet<>();
+      List<String> units = new ArrayList<>();
+
+      for (int unit : component) {
+        members.add(unit);
+        units.add(names.get(unit));
+      }
+      Collections.sort(units);
+
+      List<DependencyEdge> edges = new ArrayList<>();
+      for (int unit : component) {
+        for (DependencyEdge edge : outEdges.get(unit)) {
+          if (members.contains(edge.toId)) {
+            edges.add(edge);
+          }
+        }
+      }
+      edges.sort(Comparator.comparing(DependencyEdge::getPath).thenComparingInt(edge -> edge.getDependency().getOffset()));
+
+      return new DependencyCycle(kind, units, edges, findShortestLoop(ids.get(units.get(0)), members));
+    }
+
+    /**
+     * Breadth first search from a unit back to itself, within its component.
+     */
+    private List<DependencyEdge> findShortestLoop(int start, Set<Integer> members) {
+      Map<Integer, DependencyEdge> reachedBy = new HashMap<>();
+      ArrayDeque<Integer> queue = new ArrayDeque<>();
+      queue.add(start);
+
+      while (!queue.isEmpty()) {
+        int unit = queue.poll();
+
+        for (DependencyEdge edge : outEdges.get(unit)) {
+          if (!members.contains(edge.toId) || reachedBy.containsKey(edge.toId)) {
+            continue;
+          }
+
+          reachedBy.put(edge.toId, edge);
+
+          if (edge.toId == start) {
+            List<DependencyEdge> loop = new ArrayList<>();
+            for (DependencyEdge back = edge; loop.isEmpty() || back.toId != start; back = reachedBy.get(back.fromId)) {
+              loop.add(0, back);
+            }
+            return loop;
+          }
+
+          queue.add(edge.toId);
+        }
+      }
+
+      throw new IllegalStateException("No loop through " + names.get(start) + " in its component");
+    }
+  }
+}
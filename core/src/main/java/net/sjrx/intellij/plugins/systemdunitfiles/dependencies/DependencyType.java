@@ -0,0 +1,102 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The keys whose values are lists of other units, see systemd.unit(5), plus the keys that name the unit a socket, timer or path unit
+ * activates.
+ * <p></p>
+ * The types in the <code>[Install]</code> section point the other way, e.g., <code>WantedBy=b.target</code> in <code>a.service</code> adds
+ * <code>Wants=a.service</code> to <code>b.target</code> when the unit is enabled, see {@link #getForwardType()}.
+ */
+public enum DependencyType {
+  REQUIRES("Unit", "Requires"),
+  REQUISITE("Unit", "Requisite"),
+  WANTS("Unit", "Wants"),
+  BINDS_TO("Unit", "BindsTo"),
+  PART_OF("Unit", "PartOf"),
+  UPHOLDS("Unit", "Upholds"),
+  CONFLICTS("Unit", "Conflicts"),
+  BEFORE("Unit", "Before"),
+  AFTER("Unit", "After"),
+  ON_FAILURE("Unit", "OnFailure"),
+  ON_SUCCESS("Unit", "OnSuccess"),
+  PROPAGATES_RELOAD_TO("Unit", "PropagatesReloadTo"),
+  RELOAD_PROPAGATED_FROM("Unit", "ReloadPropagatedFrom"),
+  PROPAGATES_STOP_TO("Unit", "PropagatesStopTo"),
+  STOP_PROPAGATED_FROM("Unit", "StopPropagatedFrom"),
+  JOINS_NAMESPACE_OF("Unit", "JoinsNamespaceOf"),
+  WANTED_BY("Install", "WantedBy", WANTS),
+  REQUIRED_BY("Install", "RequiredBy", REQUIRES),
+  UPHELD_BY("Install", "UpheldBy", UPHOLDS),
+  ALSO("Install", "Also"),
+  SOCKET_SERVICE("Socket", "Service"),
+  TIMER_UNIT("Timer", "Unit"),
+  PATH_UNIT("Path", "Unit");
+
+  private static final Map<String, Map<String, DependencyType>> TYPES_BY_SECTION_AND_KEY = new HashMap<>();
+
+  static {
+    for (DependencyType type : values()) {
+      TYPES_BY_SECTION_AND_KEY.computeIfAbsent(type.section, section -> new HashMap<>()).put(type.key, type);
+    }
+  }
+
+  private final String section;
+
+  private final String key;
+
+  private final DependencyType forwardType;
+
+  DependencyType(String section, String key) {
+    this(section, key, null);
+  }
+
+  DependencyType(String section, String key, DependencyType forwardType) {
+    this.section = section;
+    this.key = key;
+    this.forwardType = forwardType;
+  }
+
+  /**
+   * Returns the type of the values of a key.
+   *
+   * @param section the section name
+   * @param key     the key
+   * @return the type, or null if the key isn't a list of units
+   */
+  public static DependencyType forKey(String section, String key) {
+    Map<String, DependencyType> types = TYPES_BY_SECTION_AND_KEY.get(section);
+
+    return types == null ? null : types.get(key);
+  }
+
+  /**
+   * Returns whether a section has any keys that are lists of units.
+   *
+   * @param section the section name
+   * @return true for, e.g., Unit and Install
+   */
+  public static boolean hasDependencies(String section) {
+    return TYPES_BY_SECTION_AND_KEY.containsKey(section);
+  }
+
+  public String getSection() {
+    return section;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the dependency the other unit gets on this one when this one is enabled, for the types in the <code>[Install]</code>
+   * section.
+   *
+   * @return the type, e.g., {@link #WANTS} for {@link #WANTED_BY}, or null if this type doesn't point the other way
+   */
+  public DependencyType getForwardType() {
+    return forwardType;
+  }
+}
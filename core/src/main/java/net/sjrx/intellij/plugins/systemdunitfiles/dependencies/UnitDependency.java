@@ -0,0 +1,65 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import java.util.Objects;
+
+/**
+ * A unit named in the value of one of the keys in {@link DependencyType}.
+ */
+public final class UnitDependency {
+
+  private final DependencyType type;
+
+  private final String unitName;
+
+  private final int offset;
+
+  public UnitDependency(DependencyType type, String unitName, int offset) {
+    this.type = type;
+    this.unitName = unitName;
+    this.offset = offset;
+  }
+
+  public DependencyType getType() {
+    return type;
+  }
+
+  /**
+   * Returns the unit name as written, e.g., <code>network-online.target</code> or <code>getty@tty1.service</code>.
+   *
+   * @return the name
+   */
+  public String getUnitName() {
+    return unitName;
+  }
+
+  /**
+   * Returns the offset of the name in the file, the name is always on one line.
+   *
+   * @return the offset
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof UnitDependency)) {
+      return false;
+    }
+    UnitDependency that = (UnitDependency) o;
+    return offset == that.offset && type == that.type && unitName.equals(that.unitName);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(type, unitName, offset);
+  }
+
+  @Override
+  public String toString() {
+    return type.getKey() + "=" + unitName + " @" + offset;
+  }
+}
@@ -0,0 +1,102 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileHandler;
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileStreamParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the units a unit file names in the keys of {@link DependencyType}, without building a tree (see {@link UnitFileStreamParser}).
+ * <p></p>
+ * Values are split on white space, each name is on a single line as a line continuation reads as a space. Names are reported as written,
+ * including specifiers such as <code>%i</code>. Instances aren't thread safe, use one per thread.
+ */
+public final class UnitDependencyCollector {
+
+  private final UnitFileStreamParser parser = new UnitFileStreamParser();
+
+  private final Handler handler = new Handler();
+
+  /**
+   * Finds the dependencies in a UTF-8 encoded file.
+   *
+   * @param file the file
+   * @return the dependencies, in the order they appear in the file
+   * @throws IOException if the file can't be read
+   */
+  public List<UnitDependency> collect(Path file) throws IOException {
+    handler.dependencies = new ArrayList<>();
+    parser.parse(file, handler);
+    return handler.dependencies;
+  }
+
+  /**
+   * Finds the dependencies in the text of a file.
+   *
+   * @param text the text
+   * @return the dependencies, in the order they appear in the text
+   */
+  public List<UnitDependency> collect(CharSequence text) {
+    handler.dependencies = new ArrayList<>();
+    parser.parse(text, handler);
+    return handler.dependencies;
+  }
+
+  private static final class Handler implements UnitFileHandler {
+
+    private List<UnitDependency> dependencies;
+
+    private String section;
+
+    private DependencyType type;
+
+    @Override
+    public void startDocument(CharSequence text) {
+      section = null;
+      type = null;
+    }
+
+    @Override
+    public void startSection(CharSequence name, int offset) {
+      String sectionName = name.toString();
+
+      section = DependencyType.hasDependencies(sectionName) ? sectionName : null;
+      type = null;
+    }
+
+    @Override
+    public void key(CharSequence key, int offset) {
+      type = section == null ? null : DependencyType.forKey(section, key.toString());
+    }
+
+    @Override
+    public void valueSegment(CharSequence text, int offset) {
+      if (type == null) {
+        return;
+      }
+
+      int length = text.length();
+
+      for (int i = 0; i < length; i++) {
+        if (text.charAt(i) <= ' ') {
+          continue;
+        }
+
+        int start = i;
+        while (i < length && text.charAt(i) > ' ') {
+          i++;
+        }
+
+        dependencies.add(new UnitDependency(type, text.subSequence(start, i).toString(), offset + start));
+      }
+    }
+
+    @Override
+    public void endValue(int offset) {
+      type = null;
+    }
+  }
+}
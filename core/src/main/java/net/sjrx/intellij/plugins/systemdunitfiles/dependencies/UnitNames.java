@@ -0,0 +1,76 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Set;
+
+/**
+ * Unit names, see systemd.unit(5): a unit is named after the file that configures it (e.g., <code>sshd.service</code>), drop-ins
+ * configure the unit their directory is named after (e.g., <code>sshd.service.d/override.conf</code>), and an instance of a template
+ * (e.g., <code>getty@tty1.service</code>) is configured by the template's file (<code>getty@.service</code>).
+ */
+public final class UnitNames {
+
+  /**
+   * The unit types, i.e., the suffixes of unit names.
+   */
+  public static final Set<String> UNIT_TYPES =
+    ImmutableSet.of("automount", "device", "mount", "path", "scope", "service", "slice", "socket", "swap", "target", "timer");
+
+  private static final String DROP_IN_EXTENSION = ".conf";
+
+  private static final String DROP_IN_DIRECTORY_SUFFIX = ".d";
+
+  private UnitNames() {
+  }
+
+  /**
+   * Returns whether a string is a unit name, i.e., a non-empty prefix and one of the {@link #UNIT_TYPES} as its suffix.
+   *
+   * @param name the string
+   * @return true if it is a unit name
+   */
+  public static boolean isUnitName(String name) {
+    int dot = name.lastIndexOf('.');
+
+    return dot > 0 && UNIT_TYPES.contains(name.substring(dot + 1));
+  }
+
+  /**
+   * Returns the name of the unit a file configures.
+   *
+   * @param fileName      the name of the file
+   * @param directoryName the name of the directory the file is in, or null
+   * @return the unit name, or null if the file isn't a unit file or a drop-in
+   */
+  public static String getUnitName(String fileName, String directoryName) {
+    if (isUnitName(fileName)) {
+      return fileName;
+    }
+
+    if (fileName.endsWith(DROP_IN_EXTENSION) && directoryName != null && directoryName.endsWith(DROP_IN_DIRECTORY_SUFFIX)) {
+      String unitName = directoryName.substring(0, directoryName.length() - DROP_IN_DIRECTORY_SUFFIX.length());
+      return isUnitName(unitName) ? unitName : null;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the template an instance is made from.
+   *
+   * @param unitName the name of a unit
+   * @return the template name (e.g., <code>getty@.service</code> for <code>getty@tty1.service</code>), or null if the unit isn't an
+   *         instance
+   */
+  public static String getTemplateName(String unitName) {
+    int at = unitName.indexOf('@');
+    int dot = unitName.lastIndexOf('.');
+
+    if (at <= 0 || dot < at + 2) {
+      return null;
+    }
+
+    return unitName.substring(0, at + 1) + unitName.substring(dot);
+  }
+}
@@ -0,0 +1,74 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+/**
+ * An assignment to a key in a unit file or drop-in.
+ */
+public final class Assignment {
+
+  private final String path;
+
+  private final String section;
+
+  private final String key;
+
+  private final String value;
+
+  private final int offset;
+
+  Assignment(String path, String section, String key, String value, int offset) {
+    this.path = path;
+    this.section = section;
+    this.key = key;
+    this.value = value;
+    this.offset = offset;
+  }
+
+  /**
+   * Returns the path of the file the assignment is in.
+   *
+   * @return the path, as given to {@link EffectiveConfigurationEngine#update(String, CharSequence)}
+   */
+  public String getPath() {
+    return path;
+  }
+
+  public String getSection() {
+    return section;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the value, with the lines of a continued value joined by spaces.
+   *
+   * @return the value, empty for an assignment that resets the option
+   */
+  public String getValue() {
+    return value;
+  }
+
+  /**
+   * Returns whether this is an empty assignment, which resets the option unless it is a {@link MergeKind#APPEND_ONLY_LIST}.
+   *
+   * @return true if the value is empty
+   */
+  public boolean isEmpty() {
+    return value.isEmpty();
+  }
+
+  /**
+   * Returns the offset of the key in the file.
+   *
+   * @return the offset
+   */
+  public int getOffset() {
+    return offset;
+  }
+
+  @Override
+  public String toString() {
+    return key + "=" + value + " (" + path + " @" + offset + ")";
+  }
+}
@@ -0,0 +1,122 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The configuration of a unit after its file and drop-ins are merged, like <code>systemctl cat</code> shows the files and
+ * <code>systemctl show</code> the result.
+ */
+public final class EffectiveConfiguration {
+
+  private final String unitName;
+
+  private final String unitFile;
+
+  private final List<String> dropIns;
+
+  /**
+   * Section -> key -> option, in the order they first appear.
+   */
+  private final Map<String, Map<String, EffectiveOption>> options;
+
+  EffectiveConfiguration(String unitName, String unitFile, List<String> dropIns, Map<String, Map<String, EffectiveOption>> options) {
+    this.unitName = unitName;
+    this.unitFile = unitFile;
+    this.dropIns = Collections.unmodifiableList(dropIns);
+    this.options = options;
+  }
+
+  public String getUnitName() {
+    return unitName;
+  }
+
+  /**
+   * Returns the file the unit is loaded from, for an instance without a file of its own the template's file.
+   *
+   * @return the path, or null if there are only drop-ins for the unit
+   */
+  public String getUnitFile() {
+    return unitFile;
+  }
+
+  /**
+   * Returns the drop-ins, in the order they are applied (by file name, of those with the same name only the one first in the search
+   * path).
+   *
+   * @return the paths
+   */
+  public List<String> getDropIns() {
+    return dropIns;
+  }
+
+  /**
+   * Returns whether a file is part of the configuration.
+   *
+   * @param path the path of the file
+   * @return true if it is the unit file or one of the drop-ins that are applied
+   */
+  public boolean isSource(String path) {
+    return path.equals(unitFile) || dropIns.contains(path);
+  }
+
+  /**
+   * Returns an option.
+   *
+   * @param section the section name
+   * @param key     the key
+   * @return the option, or null if the key isn't assigned in the section
+   */
+  public EffectiveOption getOption(String section, String key) {
+    Map<String, EffectiveOption> sectionOptions = options.get(section);
+
+    return sectionOptions == null ? null : sectionOptions.get(key);
+  }
+
+  /**
+   * Returns all the options.
+   *
+   * @return the options, by section in the order sections and keys first appear
+   */
+  public List<EffectiveOption> getOptions() {
+    List<EffectiveOption> all = new ArrayList<>();
+    options.values().forEach(sectionOptions -> all.addAll(sectionOptions.values()));
+    return all;
+  }
+
+  /**
+   * Writes the configuration as a unit file, with the files it comes from in a comment at the top. Options that were reset are left
+   * out, lists have one assignment per value.
+   *
+   * @return the text
+   */
+  public String format() {
+    StringBuilder text = new StringBuilder();
+
+    if (unitFile != null) {
+      text.append("# ").append(unitFile).append('\n');
+    }
+    for (String dropIn : dropIns) {
+      text.append("# ").append(dropIn).append('\n');
+    }
+
+    for (Map.Entry<String, Map<String, EffectiveOption>> section : options.entrySet()) {
+      text.append('\n').append('[').append(section.getKey()).append("]\n");
+
+      for (EffectiveOption option : section.getValue().values()) {
+        for (Assignment assignment : option.getEffectiveAssignments()) {
+          text.append(option.getKey()).append('=').append(assignment.getValue()).append('\n');
+        }
+      }
+    }
+
+    return text.toString();
+  }
+
+  @Override
+  public String toString() {
+    return "EffectiveConfiguration{" + unitName + ", " + unitFile + ", " + dropIns + "}";
+  }
+}
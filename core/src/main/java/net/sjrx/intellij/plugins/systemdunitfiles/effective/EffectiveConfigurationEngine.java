@@ -0,0 +1,361 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileHandler;
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileStreamParser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Merges units with their drop-ins the way systemd loads them, see systemd.unit(5):
+ * <ul>
+ *   <li>the unit file is the one first in the {@link SearchPath}, for an instance without a file of its own the template's,</li>
+ *   <li>drop-ins are the <code>.conf</code> files in <code>foo.service.d</code> directories (and the template's) anywhere in the search
+ *       path, of those with the same file name only the one first in the search path, and they are applied after the unit file in order
+ *       of their file names,</li>
+ *   <li>the assignments to each key then combine according to its {@link MergeKind}.</li>
+ * </ul>
+ * <p></p>
+ * Files are parsed once when they are added or change. Configurations are merged when asked for and kept until one of their files
+ * changes, so a change to a drop-in only merges its unit again (or, for a template's drop-in, its instances). Instances aren't thread
+ * safe.
+ */
+public final class EffectiveConfigurationEngine {
+
+  private final SearchPath searchPath;
+
+  private final SemanticDataRepository sdr;
+
+  private final UnitFileStreamParser parser = new UnitFileStreamParser();
+
+  private final AssignmentCollector collector = new AssignmentCollector();
+
+  /**
+   * Path -> file.
+   */
+  private final Map<String, SourceFile> files = new HashMap<>();
+
+  /**
+   * Unit name -> the unit files with that name (in different directories of the search path).
+   */
+  private final Map<String, List<SourceFile>> unitFiles = new HashMap<>();
+
+  /**
+   * Unit name -> the drop-ins in directories for that name.
+   */
+  private final Map<String, List<SourceFile>> dropIns = new HashMap<>();
+
+  private final Map<String, EffectiveConfiguration> configurations = new HashMap<>();
+
+  private int merges;
+
+  /**
+   * Creates an engine.
+   *
+   * @param searchPath where units are loaded from
+   * @param sdr        the semantic data, for whether keys are lists, or null to only treat dependencies as lists
+   */
+  public EffectiveConfigurationEngine(SearchPath searchPath, SemanticDataRepository sdr) {
+    this.searchPath = searchPath;
+    this.sdr = sdr;
+  }
+
+  /**
+   * Adds a unit file or drop-in, or replaces it if it changed.
+   *
+   * @param path the path of the file, with / as the separator
+   * @param text the text of the file
+   * @return false if the file isn't a unit file or a drop-in, and so is ignored
+   */
+  public boolean update(String path, CharSequence text) {
+    int slash = path.lastIndexOf('/');
+    String fileName = path.substring(slash + 1);
+    String directory = slash < 0 ? "" : path.substring(0, slash);
+    String directoryName = directory.substring(directory.lastIndexOf('/') + 1);
+    String unitName = UnitNames.getUnitName(fileName, directoryName);
+
+    if (unitName == null) {
+      return false;
+    }
+
+    remove(path);
+
+    boolean dropIn = !unitName.equals(fileName);
+    // A drop-in's precedence is that of the directory its .d directory is in
+    String searchDirectory = dropIn ? directory.substring(0, Math.max(directory.lastIndexOf('/'), 0)) : directory;
+
+    SourceFile file = new SourceFile(path, fileName, unitName, dropIn, searchPath.getPrecedence(searchDirectory), collect(path, text));
+    files.put(path, file);
+    (dropIn ? dropIns : unitFiles).computeIfAbsent(unitName, name -> new ArrayList<>()).add(file);
+    invalidate(unitName);
+
+    return true;
+  }
+
+  /**
+   * Removes a file.
+   *
+   * @param path the path of the file
+   */
+  public void remove(String path) {
+    SourceFile file = files.remove(path);
+
+    if (file == null) {
+      return;
+    }
+
+    Map<String, List<SourceFile>> byUnitName = file.dropIn ? dropIns : unitFiles;
+    List<SourceFile> sameUnit = byUnitName.get(file.unitName);
+    sameUnit.remove(file);
+    if (sameUnit.isEmpty()) {
+      byUnitName.remove(file.unitName);
+    }
+
+    invalidate(file.unitName);
+  }
+
+  /**
+   * Returns the paths of the files that were added.
+   *
+   * @return the paths
+   */
+  public Set<String> getPaths() {
+    return Collections.unmodifiableSet(files.keySet());
+  }
+
+  /**
+   * Returns the names of the units that have a unit file.
+   *
+   * @return the names, including templates
+   */
+  public Set<String> getUnitNames() {
+    return Collections.unmodifiableSet(unitFiles.keySet());
+  }
+
+  /**
+   * Returns the merged configuration of a unit.
+   *
+   * @param unitName the unit name, e.g., <code>sshd.service</code> or <code>getty@tty1.service</code>
+   * @return the configuration, or null if there is neither a unit file nor a drop-in for the unit
+   */
+  public EffectiveConfiguration getEffectiveConfiguration(String unitName) {
+    EffectiveConfiguration configuration = configurations.get(unitName);
+
+    if (configuration == null) {
+      configuration = merge(unitName);
+
+      if (configuration != null) {
+        configurations.put(unitName, configuration);
+      }
+    }
+
+    return configuration;
+  }
+
+  /**
+   * Returns the number of times a configuration was merged, i.e., not returned from the cache.
+   */
+  int getMerges() {
+    return merges;
+  }
+
+  private void invalidate(String unitName) {
+    configurations.remove(unitName);
+
+    if (isTemplate(unitName)) {
+      configurations.keySet().removeIf(name -> unitName.equals(UnitNames.getTemplateName(name)));
+    }
+  }
+
+  private EffectiveConfiguration merge(String unitName) {
+    String templateName = UnitNames.getTemplateName(unitName);
+
+    // The unit's own file, otherwise the template's
+    SourceFile unitFile = first(unitFiles.get(unitName));
+    if (unitFile == null && templateName != null) {
+      unitFile = first(unitFiles.get(templateName));
+    }
+
+    Map<String, SourceFile> dropInsByFileName = new TreeMap<>();
+    addDropIns(dropInsByFileName, dropIns.get(unitName));
+    if (templateName != null) {
+      addDropIns(dropInsByFileName, dropIns.get(templateName));
+    }
+
+    if (unitFile == null && dropInsByFileName.isEmpty()) {
+      return null;
+    }
+
+    merges++;
+
+    List<SourceFile> sources = new ArrayList<>();
+    if (unitFile != null) {
+      sources.add(unitFile);
+    }
+    sources.addAll(dropInsByFileName.values());
+
+    // Section -> key -> assignments, in the order they first appear
+    Map<String, Map<String, List<Assignment>>> assignments = new LinkedHashMap<>();
+    for (SourceFile source : sources) {
+      for (Assignment assignment : source.assignments) {
+        assignments.computeIfAbsent(assignment.getSection(), section -> new LinkedHashMap<>())
+          .computeIfAbsent(assignment.getKey(), key -> new ArrayList<>()).add(assignment);
+      }
+    }
+
+    Map<String, Map<String, EffectiveOption>> options = new LinkedHashMap<>();
+    assignments.forEach((section, keys) -> {
+      Map<String, EffectiveOption> sectionOptions = new LinkedHashMap<>();
+      keys.forEach((key, keyAssignments) ->
+        sectionOptions.put(key, new EffectiveOption(section, key, MergeKind.forKey(sdr, section, key), keyAssignments)));
+      options.put(section, sectionOptions);
+    });
+
+    List<String> dropInPaths = new ArrayList<>();
+    dropInsByFileName.values().forEach(dropIn -> dropInPaths.add(dropIn.path));
+
+    return new EffectiveConfiguration(unitName, unitFile == null ? null : unitFile.path, dropInPaths, options);
+  }
+
+  private static SourceFile first(List<SourceFile> candidates) {
+    return candidates == null ? null : Collections.min(candidates, SourceFile.PRECEDENCE);
+  }
+
+  /**
+   * Adds drop-ins, of those with the same file name keeping the one first in the search path. The unit's own drop-ins have to be added
+   * before the template's, so that they win in the same directory, like systemd looks in <code>foo@bar.service.d</code> before
+   * <code>foo@.service.d</code>.
+   */
+  private static void addDropIns(Map<String, SourceFile> dropInsByFileName, List<SourceFile> candidates) {
+    if (candidates == null) {
+      return;
+    }
+
+    Map<String, SourceFile> added = new HashMap<>();
+
+    for (SourceFile candidate : candidates) {
+      SourceFile existing = dropInsByFileName.get(candidate.fileName);
+      boolean sameUnit = existing != null && existing == added.get(candidate.fileName);
+
+      if (existing == null
+          || (sameUnit && SourceFile.PRECEDENCE.compare(candidate, existing) < 0)
+          || (!sameUnit && candidate.precedence < existing.precedence)) {
+        dropInsByFileName.put(candidate.fileName, candidate);
+        added.put(candidate.fileName, candidate);
+      }
+    }
+  }
+
+  private static boolean isTemplate(String unitName) {
+    int at = unitName.indexOf('@');
+    return at > 0 && unitName.lastIndexOf('.') == at + 1;
+  }
+
+  private List<Assignment> collect(String path, CharSequence text) {
+    collector.path = path;
+    collector.assignments = new ArrayList<>();
+    parser.parse(text, collector);
+    return collector.assignments;
+  }
+
+  /**
+   * A unit file or drop-in.
+   */
+  private static final class SourceFile {
+
+    /**
+     * Files first in the search path first, then by path so that the order doesn't depend on the order files were added in.
+     */
+    private static final Comparator<SourceFile> PRECEDENCE =
+      Comparator.<SourceFile>comparingInt(file -> file.precedence).thenComparing(file -> file.path);
+
+    private final String path;
+
+    private final String fileName;
+
+    private final String unitName;
+
+    private final boolean dropIn;
+
+    private final int precedence;
+
+    private final List<Assignment> assignments;
+
+    private SourceFile(String path, String fileName, String unitName, boolean dropIn, int precedence, List<Assignment> assignments) {
+      this.path = path;
+      this.fileName = fileName;
+      this.unitName = unitName;
+      this.dropIn = dropIn;
+      this.precedence = precedence;
+      this.assignments = assignments;
+    }
+  }
+
+  /**
+   * Collects the assignments of a file, with the lines of continued values joined by spaces like systemd does.
+   */
+  private static final class AssignmentCollector implements UnitFileHandler {
+
+    private String path;
+
+    private List<Assignment> assignments;
+
+    private String section;
+
+    private String key;
+
+    private int keyOffset;
+
+    private final StringBuilder value = new StringBuilder();
+
+    @Override
+    public void startDocument(CharSequence text) {
+      section = null;
+      key = null;
+    }
+
+    @Override
+    public void startSection(CharSequence name, int offset) {
+      section = name.toString();
+      key = null;
+    }
+
+    @Override
+    public void key(CharSequence key, int offset) {
+      this.key = section == null ? null : key.toString();
+      keyOffset = offset;
+      value.setLength(0);
+    }
+
+    @Override
+    public void valueSegment(CharSequence text, int offset) {
+      if (key != null) {
+        value.append(text.toString().trim());
+      }
+    }
+
+    @Override
+    public void continuation(int offset) {
+      if (key != null) {
+        value.append(' ');
+      }
+    }
+
+    @Override
+    public void endValue(int offset) {
+      if (key != null) {
+        assignments.add(new Assignment(path, section, key, value.toString().trim(), keyOffset));
+        key = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The assignments to a key in a unit and its drop-ins, and which of them are in effect.
+ */
+public final class EffectiveOption {
+
+  private final String section;
+
+  private final String key;
+
+  private final MergeKind kind;
+
+  private final List<Assignment> assignments;
+
+  /**
+   * For each assignment, the one that overrides it (a later assignment to a scalar or a later reset of a list), or null if it is in
+   * effect.
+   */
+  private final Assignment[] overriddenBy;
+
+  private final List<Assignment> effectiveAssignments;
+
+  EffectiveOption(String section, String key, MergeKind kind, List<Assignment> assignments) {
+    this.section = section;
+    this.key = key;
+    this.kind = kind;
+    this.assignments = Collections.unmodifiableList(assignments);
+    this.overriddenBy = new Assignment[assignments.size()];
+
+    List<Assignment> effective = new ArrayList<>();
+    int last = assignments.size() - 1;
+
+    switch (kind) {
+      case SCALAR:
+        for (int i = 0; i < last; i++) {
+          overriddenBy[i] = assignments.get(last);
+        }
+        if (last >= 0 && !assignments.get(last).isEmpty()) {
+          effective.add(assignments.get(last));
+        }
+        break;
+      case LIST:
+        Assignment reset = null;
+        for (int i = last; i >= 0; i--) {
+          Assignment assignment = assignments.get(i);
+          overriddenBy[i] = reset;
+          if (reset == null && !assignment.isEmpty()) {
+            effective.add(0, assignment);
+          }
+          if (reset == null && assignment.isEmpty()) {
+            reset = assignment;
+          }
+        }
+        break;
+      default:
+        for (Assignment assignment : assignments) {
+          if (!assignment.isEmpty()) {
+            effective.add(assignment);
+          }
+        }
+        break;
+    }
+
+    this.effectiveAssignments = Collections.unmodifiableList(effective);
+  }
+
+  public String getSection() {
+    return section;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public MergeKind getKind() {
+    return kind;
+  }
+
+  /**
+   * Returns every assignment to the key, in the order systemd applies them.
+   *
+   * @return the assignments, including the ones that aren't in effect
+   */
+  public List<Assignment> getAssignments() {
+    return assignments;
+  }
+
+  /**
+   * Returns the assignments in effect: the last one for a scalar, the ones after the last reset for a list.
+   *
+   * @return the assignments, empty if the option was reset
+   */
+  public List<Assignment> getEffectiveAssignments() {
+    return effectiveAssignments;
+  }
+
+  /**
+   * Returns the value of the option, for a list the values joined by spaces.
+   *
+   * @return the value, or null if the option was reset
+   */
+  public String getValue() {
+    if (effectiveAssignments.isEmpty()) {
+      return null;
+    }
+
+    if (effectiveAssignments.size() == 1) {
+      return effectiveAssignments.get(0).getValue();
+    }
+
+    StringBuilder value = new StringBuilder();
+    for (Assignment assignment : effectiveAssignments) {
+      if (value.length() > 0) {
+        value.append(' ');
+      }
+      value.append(assignment.getValue());
+    }
+
+    return value.toString();
+  }
+
+  /**
+   * Finds an assignment.
+   *
+   * @param path   the path of the file it is in
+   * @param offset the offset of its key
+   * @return the assignment, or null if there isn't one there
+   */
+  public Assignment findAssignment(String path, int offset) {
+    for (Assignment assignment : assignments) {
+      if (assignment.getOffset() == offset && assignment.getPath().equals(path)) {
+        return assignment;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns what overrides an assignment.
+   *
+   * @param assignment one of {@link #getAssignments()}
+   * @return the later assignment that replaces it or resets the list it is in, or null if the assignment is in effect (or is the reset)
+   */
+  public Assignment getOverriddenBy(Assignment assignment) {
+    for (int i = 0; i < assignments.size(); i++) {
+      if (assignments.get(i) == assignment) {
+        return overriddenBy[i];
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public String toString() {
+    return section + "." + key + "=" + getValue();
+  }
+}
@@ -0,0 +1,105 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.google.common.collect.ImmutableSet;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.Set;
+
+/**
+ * How the assignments to a key in a unit and its drop-ins combine, which depends on the function systemd parses the key with.
+ */
+public enum MergeKind {
+  /**
+   * The last assignment wins, an empty assignment resets the option to its default.
+   */
+  SCALAR,
+
+  /**
+   * Every assignment adds to a list (e.g., <code>ExecStartPre=</code> or <code>Environment=</code>), an empty assignment clears the list.
+   */
+  LIST,
+
+  /**
+   * Every assignment adds to a list that can't be cleared, an empty assignment does nothing. These are the dependencies in the
+   * <code>[Unit]</code> section (e.g., <code>After=</code>).
+   */
+  APPEND_ONLY_LIST;
+
+  /**
+   * The functions in load-fragment-gperf whose assignments add to a list.
+   */
+  private static final Set<String> LIST_PARSERS = ImmutableSet.of(
+    "config_parse_address_families",
+    "config_parse_bind_paths",
+    "config_parse_blockio_bandwidth",
+    "config_parse_blockio_device_weight",
+    "config_parse_capability_set",
+    "config_parse_device_allow",
+    "config_parse_documentation",
+    "config_parse_environ",
+    "config_parse_exec",
+    "config_parse_exec_directories",
+    "config_parse_io_device_latency",
+    "config_parse_io_device_weight",
+    "config_parse_io_limit",
+    "config_parse_ip_address_access",
+    "config_parse_log_extra_fields",
+    "config_parse_namespace_path_strv",
+    "config_parse_pass_environ",
+    "config_parse_path_spec",
+    "config_parse_restrict_namespaces",
+    "config_parse_service_sockets",
+    "config_parse_set_status",
+    "config_parse_socket_listen",
+    "config_parse_strv",
+    "config_parse_syscall_archs",
+    "config_parse_syscall_filter",
+    "config_parse_temporary_filesystems",
+    "config_parse_timer",
+    "config_parse_unit_condition_path",
+    "config_parse_unit_condition_string",
+    "config_parse_unit_env_file",
+    "config_parse_unit_path_strv_printf",
+    "config_parse_unit_requires_mounts_for",
+    "config_parse_unset_environ",
+    "config_parse_user_group_strv");
+
+  private static final String DEPENDENCY_PARSER = "config_parse_unit_deps";
+
+  /**
+   * Returns how the assignments to a key combine.
+   *
+   * @param sdr     the semantic data, or null to only go by the dependency keys
+   * @param section the section name
+   * @param key     the key
+   * @return the kind, {@link #SCALAR} for keys we don't know about
+   */
+  public static MergeKind forKey(SemanticDataRepository sdr, String section, String key) {
+    DependencyType type = DependencyType.forKey(section, key);
+
+    if (type != null) {
+      switch (type.getSection()) {
+        case "Unit":
+          return APPEND_ONLY_LIST;
+        case "Install":
+          // Parsed as lists of strings when the unit is enabled
+          return LIST;
+        default:
+          return SCALAR;
+      }
+    }
+
+    if ("Install".equals(section) && "Alias".equals(key)) {
+      return LIST;
+    }
+
+    String parser = sdr == null ? null : sdr.getParserFunctionName(section, key);
+
+    if (DEPENDENCY_PARSER.equals(parser)) {
+      return APPEND_ONLY_LIST;
+    }
+
+    return LIST_PARSERS.contains(parser) ? LIST : SCALAR;
+  }
+}
@@ -0,0 +1,65 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * The directories systemd loads units from, in order of precedence, see systemd.unit(5).
+ * <p></p>
+ * Files don't have to be in these exact directories: a file is in one when its directory ends with it, so that a tree laid out like the
+ * root file system (e.g., <code>rootfs/etc/systemd/system</code>) anywhere in a project works. Files that aren't in any of them come
+ * after those that are.
+ */
+public final class SearchPath {
+
+  /**
+   * The unit search path of the system manager.
+   */
+  public static final SearchPath SYSTEM = new SearchPath(ImmutableList.of(
+    "/etc/systemd/system.control",
+    "/run/systemd/system.control",
+    "/run/systemd/transient",
+    "/run/systemd/generator.early",
+    "/etc/systemd/system",
+    "/etc/systemd/system.attached",
+    "/run/systemd/system",
+    "/run/systemd/system.attached",
+    "/run/systemd/generator",
+    "/usr/local/lib/systemd/system",
+    "/usr/lib/systemd/system",
+    "/lib/systemd/system",
+    "/run/systemd/generator.late"));
+
+  private final List<String> directories;
+
+  public SearchPath(List<String> directories) {
+    this.directories = ImmutableList.copyOf(directories);
+  }
+
+  public List<String> getDirectories() {
+    return directories;
+  }
+
+  /**
+   * Returns the precedence of a directory, lower is more important.
+   *
+   * @param directory the path of a directory, with / as the separator
+   * @return the index of the longest directory of the search path the directory ends with, or the number of directories if there is none
+   */
+  public int getPrecedence(String directory) {
+    int precedence = directories.size();
+    int longest = 0;
+
+    for (int i = 0; i < directories.size(); i++) {
+      String searchDirectory = directories.get(i);
+
+      if (searchDirectory.length() > longest && directory.endsWith(searchDirectory)) {
+        precedence = i;
+        longest = searchDirectory.length();
+      }
+    }
+
+    return precedence;
+  }
+}
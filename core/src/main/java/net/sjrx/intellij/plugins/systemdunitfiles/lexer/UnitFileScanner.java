@@ -0,0 +1,424 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+/**
+ * Splits unit files into tokens, exactly like the lexer generated from SystemdUnitFile.flex but without depending on the IntelliJ
+ * platform, tokens and lexical states are plain ints.
+ * <p></p>
+ * The generated lexer runs a DFA over code points with %unicode character class tables, and tries several overlapping rules on each
+ * value (e.g., CONTINUING_VALUE and COMPLETED_VALUE), so long values are scanned more than once. This scanner instead looks at each
+ * character of a value once, and classifies ASCII characters with a single table lookup, falling back to a method call only for other
+ * characters.
+ * <p></p>
+ * The JFlex specification stays the reference for the syntax, if it changes this class must change with it (UnitFileFastLexerTest
+ * compares the two on a corpus of unit files). Instances aren't thread safe, but are cheap and can be reused with
+ * {@link #reset(CharSequence, int, int, int)}.
+ */
+public final class UnitFileScanner implements UnitFileTokenSource {
+
+  /*
+   * Lexical states, these have the same values as the ones in the generated lexer.
+   */
+
+  public static final int YYINITIAL = 0;
+
+  public static final int IN_SECTION = 2;
+
+  public static final int WAITING_FOR_SEPARATOR = 4;
+
+  public static final int WAITING_FOR_VALUE = 6;
+
+  public static final int VALUE_CONTINUATION = 8;
+
+  /*
+   * Tokens, these are named after the token types in UnitFileElementTypeHolder.
+   */
+
+  public static final int NO_TOKEN = -1;
+
+  public static final int COMMENT = 0;
+
+  public static final int COMPLETED_VALUE = 1;
+
+  public static final int CONTINUING_VALUE = 2;
+
+  public static final int CRLF = 3;
+
+  public static final int KEY = 4;
+
+  public static final int SECTION = 5;
+
+  public static final int SEPARATOR = 6;
+
+  public static final int BAD_CHARACTER = 7;
+
+  /**
+   * NONCRLF in the specification, anything but a line terminator.
+   */
+  private static final int NON_CRLF = 1;
+
+  /**
+   * WHITE_SPACE in the specification.
+   */
+  private static final int WHITE_SPACE = 2;
+
+  /**
+   * A single KEY_CHARACTER in the specification (the escaped space is handled separately).
+   */
+  private static final int KEY_CHARACTER = 4;
+
+  /**
+   * SAME_LINE_WHITESPACE in the specification.
+   */
+  private static final int SAME_LINE_WHITESPACE = 8;
+
+  private static final byte[] ASCII_CLASSES = new byte[128];
+
+  static {
+    for (char c = 0; c < ASCII_CLASSES.length; c++) {
+      int classes = NON_CRLF | KEY_CHARACTER;
+
+      switch (c) {
+        case '\n':
+        case '\f':
+          classes = WHITE_SPACE;
+          break;
+        case '\r':
+        case '\u000B':
+          classes = KEY_CHARACTER;
+          break;
+        case ' ':
+        case '\t':
+          classes = NON_CRLF | WHITE_SPACE | SAME_LINE_WHITESPACE;
+          break;
+        case '=':
+        case '\\':
+          classes = NON_CRLF;
+          break;
+        default:
+          break;
+      }
+
+      ASCII_CLASSES[c] = (byte) classes;
+    }
+  }
+
+  private CharSequence buffer = "";
+
+  private int bufferEnd;
+
+  private int tokenStart;
+
+  private int tokenEnd;
+
+  private int state = YYINITIAL;
+
+  /**
+   * Starts scanning a range of a buffer.
+   *
+   * @param buffer       the text
+   * @param start        the offset to start at
+   * @param end          the offset to stop at
+   * @param initialState the lexical state at the start offset, e.g., {@link #YYINITIAL}
+   */
+  public void reset(CharSequence buffer, int start, int end, int initialState) {
+    this.buffer = buffer;
+    this.tokenStart = start;
+    this.tokenEnd = start;
+    this.bufferEnd = end;
+    this.state = initialState;
+  }
+
+  /**
+   * Scans the next token.
+   *
+   * @return the token (e.g., {@link #KEY}), or {@link #NO_TOKEN} at the end of the range
+   */
+  @Override
+  public int advance() {
+    tokenStart = tokenEnd;
+
+    if (tokenStart >= bufferEnd) {
+      return NO_TOKEN;
+    }
+
+    switch (state) {
+      case YYINITIAL:
+        return lexOutsideProperty(false);
+      case IN_SECTION:
+        return lexOutsideProperty(true);
+      case WAITING_FOR_SEPARATOR:
+        return lexSeparator();
+      case WAITING_FOR_VALUE:
+        return lexValue(false);
+      case VALUE_CONTINUATION:
+        return lexValue(true);
+      default:
+        throw new IllegalStateException("Unknown lexical state " + state);
+    }
+  }
+
+  @Override
+  public int getTokenStart() {
+    return tokenStart;
+  }
+
+  @Override
+  public int getTokenEnd() {
+    return tokenEnd;
+  }
+
+  /**
+   * Returns the lexical state after the current token.
+   *
+   * @return the state, e.g., {@link #IN_SECTION}
+   */
+  @Override
+  public int getState() {
+    return state;
+  }
+
+  public void setState(int state) {
+    this.state = state;
+  }
+
+  /**
+   * Lexes in YYINITIAL and IN_SECTION, where the rules for comments, section headers, white space and (in a section) keys apply.
+   */
+  private int lexOutsideProperty(boolean inSection) {
+    char c = buffer.charAt(tokenStart);
+
+    if (is(c, WHITE_SPACE)) {
+      tokenEnd = skip(tokenStart, WHITE_SPACE);
+      return CRLF;
+    }
+
+    // The longest match wins, and on a tie the earlier rule in the specification, so the candidates are tried in that order and only
+    // replace the current one if they are strictly longer.
+    int end = tokenStart;
+    int type = NO_TOKEN;
+    int nextState = state;
+
+    if (c == '#' || c == ';') {
+      end = endOfLine(tokenStart + 1);
+      type = COMMENT;
+    } else if (c == '[') {
+      int sectionEnd = sectionHeaderEnd();
+
+      if (sectionEnd > tokenStart) {
+        end = sectionEnd;
+        type = SECTION;
+        nextState = IN_SECTION;
+      }
+
+      int incompleteEnd = incompleteSectionHeaderEnd();
+
+      if (incompleteEnd > end) {
+        end = incompleteEnd;
+        type = BAD_CHARACTER;
+        nextState = state;
+      }
+    }
+
+    if (inSection) {
+      int keyEnd = keyEnd();
+
+      if (keyEnd > end) {
+        end = keyEnd;
+        type = KEY;
+        nextState = WAITING_FOR_SEPARATOR;
+      }
+    }
+
+    if (type == NO_TOKEN) {
+      return badCharacter();
+    }
+
+    tokenEnd = end;
+    state = nextState;
+    return type;
+  }
+
+  private int lexSeparator() {
+    int i = skip(tokenStart, SAME_LINE_WHITESPACE);
+
+    if (i == bufferEnd || buffer.charAt(i) != '=') {
+      return badCharacter();
+    }
+
+    tokenEnd = skip(i + 1, SAME_LINE_WHITESPACE);
+    state = WAITING_FOR_VALUE;
+    return SEPARATOR;
+  }
+
+  /**
+   * Lexes in WAITING_FOR_VALUE and VALUE_CONTINUATION, where a value runs to the end of the line and continues on the next one if the
+   * line ends with a backslash. Between continued lines, comments and blank lines are allowed too.
+   */
+  private int lexValue(boolean continuation) {
+    char c = buffer.charAt(tokenStart);
+
+    if (continuation && (c == '#' || c == ';')) {
+      // A comment is the same length as a value on the same line, and its rule comes first.
+      tokenEnd = endOfLine(tokenStart + 1);
+      return COMMENT;
+    }
+
+    int i = tokenStart;
+    char last = 0;
+
+    while (i < bufferEnd) {
+      char current = buffer.charAt(i);
+
+      if (current < ASCII_CLASSES.length ? (ASCII_CLASSES[current] & NON_CRLF) == 0 : !isNonCrlf(current)) {
+        break;
+      }
+
+      last = current;
+      i++;
+    }
+
+    int valueEnd = i < bufferEnd && buffer.charAt(i) == '\n' ? i + 1 : i;
+
+    if (continuation && is(c, WHITE_SPACE)) {
+      int whiteSpaceEnd = skip(tokenStart, WHITE_SPACE);
+
+      if (whiteSpaceEnd > valueEnd) {
+        tokenEnd = whiteSpaceEnd;
+        return CRLF;
+      }
+    }
+
+    if (valueEnd == tokenStart) {
+      return badCharacter();
+    }
+
+    tokenEnd = valueEnd;
+
+    if (last == '\\') {
+      state = VALUE_CONTINUATION;
+      return CONTINUING_VALUE;
+    }
+
+    state = IN_SECTION;
+    return COMPLETED_VALUE;
+  }
+
+  /**
+   * Matches SECTION_HEADER, i.e., everything up to the first ] (which may be on a later line), trailing white space and the new line.
+   *
+   * @return the end of the header, or the token start if there is none
+   */
+  private int sectionHeaderEnd() {
+    int i = tokenStart + 1;
+
+    if (i == bufferEnd || buffer.charAt(i) == ']') {
+      return tokenStart;
+    }
+
+    while (i < bufferEnd && buffer.charAt(i) != ']') {
+      i++;
+    }
+
+    if (i == bufferEnd) {
+      return tokenStart;
+    }
+
+    i = skip(i + 1, SAME_LINE_WHITESPACE);
+
+    return i < bufferEnd && buffer.charAt(i) == '\n' ? i + 1 : i;
+  }
+
+  /**
+   * Matches INCOMPLETE_SECTION_HEADER, i.e., everything up to a ] or the end of the line.
+   */
+  private int incompleteSectionHeaderEnd() {
+    int i = tokenStart + 1;
+
+    while (i < bufferEnd) {
+      char c = buffer.charAt(i);
+
+      if (c == ']') {
+        return i;
+      }
+
+      i++;
+
+      if (c == '\n') {
+        return i;
+      }
+    }
+
+    return i;
+  }
+
+  private int keyEnd() {
+    int i = tokenStart;
+
+    while (i < bufferEnd) {
+      char c = buffer.charAt(i);
+
+      if (is(c, KEY_CHARACTER)) {
+        i++;
+      } else if (c == '\\' && i + 1 < bufferEnd && buffer.charAt(i + 1) == ' ') {
+        i += 2;
+      } else {
+        break;
+      }
+    }
+
+    return i;
+  }
+
+  /**
+   * Skips to the end of the line, including the new line.
+   */
+  private int endOfLine(int start) {
+    int i = skip(start, NON_CRLF);
+
+    return i < bufferEnd && buffer.charAt(i) == '\n' ? i + 1 : i;
+  }
+
+  private int skip(int start, int characterClass) {
+    int i = start;
+
+    while (i < bufferEnd && is(buffer.charAt(i), characterClass)) {
+      i++;
+    }
+
+    return i;
+  }
+
+  /**
+   * Returns a single code point as a bad character, like the catch all rule in the specification (which matches a surrogate pair as one
+   * character).
+   */
+  private int badCharacter() {
+    int end = tokenStart + 1;
+
+    if (Character.isHighSurrogate(buffer.charAt(tokenStart)) && end < bufferEnd && Character.isLowSurrogate(buffer.charAt(end))) {
+      end++;
+    }
+
+    tokenEnd = end;
+    return BAD_CHARACTER;
+  }
+
+  private static boolean is(char c, int characterClass) {
+    if (c < ASCII_CLASSES.length) {
+      return (ASCII_CLASSES[c] & characterClass) != 0;
+    }
+
+    switch (characterClass) {
+      case NON_CRLF:
+        return isNonCrlf(c);
+      case KEY_CHARACTER:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isNonCrlf(char c) {
+    return c != '\u0085' && c != '\u2028' && c != '\u2029';
+  }
+}
@@ -0,0 +1,26 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+/**
+ * A sequence of the tokens of {@link UnitFileScanner}, either scanned as they are asked for or replayed from tokens scanned earlier (e.g.,
+ * kept per line by an editor, so that only changed lines are scanned again).
+ */
+public interface UnitFileTokenSource {
+
+  /**
+   * Moves to the next token.
+   *
+   * @return the token (e.g., {@link UnitFileScanner#KEY}), or {@link UnitFileScanner#NO_TOKEN} at the end
+   */
+  int advance();
+
+  int getTokenStart();
+
+  int getTokenEnd();
+
+  /**
+   * Returns the lexical state after the current token (or after the last token at the end).
+   *
+   * @return the state, e.g., {@link UnitFileScanner#IN_SECTION}
+   */
+  int getState();
+}
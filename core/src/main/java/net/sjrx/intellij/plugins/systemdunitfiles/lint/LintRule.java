@@ -0,0 +1,37 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lint;
+
+/**
+ * The checks {@link UnitFileLinter} runs, each the same as one of the plugin's inspections.
+ */
+public enum LintRule {
+  UNKNOWN_KEY_IN_SECTION("UnknownKeyInSection", "Key is not known in its section"),
+  INVALID_VALUE("InvalidValue", "Value is not valid for its key"),
+  DEPRECATED_OPTIONS("DeprecatedOptions", "Key is deprecated");
+
+  private final String id;
+
+  private final String description;
+
+  LintRule(String id, String description) {
+    this.id = id;
+    this.description = description;
+  }
+
+  /**
+   * Returns the id of the rule, which is the short name of the inspection that does the same check in the IDE.
+   *
+   * @return the id, e.g., UnknownKeyInSection
+   */
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Returns a one line description of the rule.
+   *
+   * @return the description
+   */
+  public String getDescription() {
+    return description;
+  }
+}
@@ -0,0 +1,79 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lint;
+
+import java.util.Objects;
+
+/**
+ * A problem {@link UnitFileLinter} found in a unit file.
+ * <p></p>
+ * Offsets are in chars of the decoded file, lines and columns start at 1 (columns are also counted in chars).
+ */
+public final class Problem {
+
+  private final LintRule rule;
+
+  private final String message;
+
+  private final int offset;
+
+  private final int length;
+
+  private final int line;
+
+  private final int column;
+
+  Problem(LintRule rule, String message, int offset, int length, int line, int column) {
+    this.rule = rule;
+    this.message = message;
+    this.offset = offset;
+    this.length = length;
+    this.line = line;
+    this.column = column;
+  }
+
+  public LintRule getRule() {
+    return rule;
+  }
+
+  public String getMessage() {
+    return message;
+  }
+
+  public int getOffset() {
+    return offset;
+  }
+
+  public int getLength() {
+    return length;
+  }
+
+  public int getLine() {
+    return line;
+  }
+
+  public int getColumn() {
+    return column;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Problem)) {
+      return false;
+    }
+    Problem that = (Problem) o;
+    return rule == that.rule && message.equals(that.message) && offset == that.offset && length == that.length && line == that.line
+           && column == that.column;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(rule, message, offset, length, line, column);
+  }
+
+  @Override
+  public String toString() {
+    return "Problem{rule=" + rule.getId() + ", line=" + line + ", column=" + column + ", message='" + message + "'}";
+  }
+}
@@ -0,0 +1,265 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lint;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileTokenSource;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.DeprecationInfo;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.OptionValueInformation;
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileHandler;
+import net.sjrx.intellij.plugins.systemdunitfiles.streaming.UnitFileStreamParser;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the checks of the plugin's inspections (see {@link LintRule}) over unit files outside of the IDE.
+ * <p></p>
+ * Files are parsed with {@link UnitFileStreamParser} and checked as they are parsed, values are joined over their continuation lines the
+ * same way as in the editor. Instances aren't thread safe, use one per thread, the repository can be shared.
+ */
+public final class UnitFileLinter {
+
+  /**
+   * The message for {@link LintRule#UNKNOWN_KEY_IN_SECTION}.
+   */
+  public static final String UNKNOWN_KEY_MESSAGE =
+    "This key is unrecognized which will cause systemd to generate a warning when loading this unit.";
+
+  private static final String IGNORED_SECTION_OR_KEY_PREFIX = "X-";
+
+  private final SemanticDataRepository sdr;
+
+  private final UnitFileStreamParser parser = new UnitFileStreamParser();
+
+  private final ProblemCollector collector = new ProblemCollector();
+
+  public UnitFileLinter(SemanticDataRepository sdr) {
+    this.sdr = sdr;
+  }
+
+  /**
+   * Returns the message for {@link LintRule#DEPRECATED_OPTIONS}.
+   *
+   * @param deprecation what replaces the key
+   * @return the message
+   */
+  public static String getDeprecatedOptionMessage(DeprecationInfo deprecation) {
+    return "This option is deprecated. Use " + deprecation.getReplacementText() + " instead.";
+  }
+
+  /**
+   * Checks a UTF-8 encoded file.
+   *
+   * @param file the file
+   * @return the problems, in the order they appear in the file
+   * @throws IOException if the file can't be read
+   */
+  public List<Problem> lint(Path file) throws IOException {
+    collector.problems = new ArrayList<>();
+    parser.parse(file, collector);
+    return collector.problems;
+  }
+
+  /**
+   * Checks the text of a file.
+   *
+   * @param text the text
+   * @return the problems, in the order they appear in the text
+   */
+  public List<Problem> lint(CharSequence text) {
+    collector.problems = new ArrayList<>();
+    parser.parse(text, collector);
+    return collector.problems;
+  }
+
+  /**
+   * Checks the text of a file, given its tokens, e.g., when they are kept between edits.
+   *
+   * @param text   the text
+   * @param tokens the tokens of the text
+   * @return the problems, in the order they appear in the text
+   */
+  public List<Problem> lint(CharSequence text, UnitFileTokenSource tokens) {
+    collector.problems = new ArrayList<>();
+    parser.parse(text, tokens, collector);
+    return collector.problems;
+  }
+
+  private final class ProblemCollector implements UnitFileHandler {
+
+    private final StringBuilder value = new StringBuilder();
+
+    private List<Problem> problems;
+
+    private CharSequence text;
+
+    private int lineNumber;
+
+    private int lineStart;
+
+    private int scannedTo;
+
+    private boolean inSection;
+
+    private boolean ignoredSection;
+
+    private int sectionId;
+
+    private int keyId;
+
+    private int valueStart;
+
+    @Override
+    public void startDocument(CharSequence text) {
+      this.text = text;
+      lineNumber = 1;
+      lineStart = 0;
+      scannedTo = 0;
+      inSection = false;
+    }
+
+    @Override
+    public void startSection(CharSequence name, int offset) {
+      String sectionName = name.toString();
+
+      inSection = true;
+      ignoredSection = sectionName.startsWith(IGNORED_SECTION_OR_KEY_PREFIX);
+      sectionId = sdr.getSectionSymbols().getId(sectionName);
+    }
+
+    @Override
+    public void key(CharSequence key, int offset) {
+      keyId = sdr.getKeySymbols().getId(key, 0, key.length());
+      valueStart = -1;
+      value.setLength(0);
+
+      if (!inSection) {
+        return;
+      }
+
+      if (!ignoredSection && !startsWith(key, IGNORED_SECTION_OR_KEY_PREFIX) && !sdr.isKeyAllowedInSection(sectionId, keyId)) {
+        report(LintRule.UNKNOWN_KEY_IN_SECTION, UNKNOWN_KEY_MESSAGE, offset, escapedLength(key));
+      }
+
+      if (sectionId != SymbolTable.NOT_FOUND) {
+        DeprecationInfo deprecation = sdr.getDeprecation(sectionId, keyId);
+
+        if (deprecation != null) {
+          report(LintRule.DEPRECATED_OPTIONS, getDeprecatedOptionMessage(deprecation), offset, escapedLength(key));
+        }
+      }
+    }
+
+    @Override
+    public void valueSegment(CharSequence segment, int offset) {
+      if (valueStart < 0) {
+        valueStart = offset;
+      }
+
+      int start = 0;
+      int end = segment.length();
+
+      while (start < end && segment.charAt(start) <= ' ') {
+        start++;
+      }
+
+      value.append(segment, start, end);
+    }
+
+    @Override
+    public void continuation(int offset) {
+      // A line ending in a backslash reads as a trailing space
+      value.append(' ');
+    }
+
+    @Override
+    public void endValue(int offset) {
+      if (!inSection) {
+        return;
+      }
+
+      int start = 0;
+      int end = value.length();
+
+      while (start < end && value.charAt(start) <= ' ') {
+        start++;
+      }
+      while (end > start && value.charAt(end - 1) <= ' ') {
+        end--;
+      }
+
+      if (end > start && value.charAt(end - 1) == '\\') {
+        // The last line ends in a backslash followed by white space, it reads as a trailing space.
+        end--;
+        while (end > start && value.charAt(end - 1) <= ' ') {
+          end--;
+        }
+      }
+
+      OptionValueInformation validator = sdr.getMemoizingOptionValidator(sectionId, keyId);
+
+      // Only build the value as a String (and the message) when there is something to report.
+      if (!validator.isValid(value, start, end)) {
+        String errorMessage = validator.getErrorMessage(value.substring(start, end));
+
+        if (errorMessage != null) {
+          report(LintRule.INVALID_VALUE, errorMessage, valueStart, offset - valueStart);
+        }
+      }
+    }
+
+    @Override
+    public void endDocument() {
+      text = null;
+    }
+
+    private void report(LintRule rule, String message, int offset, int length) {
+      if (offset < scannedTo) {
+        lineNumber = 1;
+        lineStart = 0;
+        scannedTo = 0;
+      }
+
+      for (int i = scannedTo; i < offset; i++) {
+        if (text.charAt(i) == '\n') {
+          lineNumber++;
+          lineStart = i + 1;
+        }
+      }
+
+      scannedTo = offset;
+      problems.add(new Problem(rule, message, offset, length, lineNumber, offset - lineStart + 1));
+    }
+  }
+
+  private static boolean startsWith(CharSequence text, String prefix) {
+    if (text.length() < prefix.length()) {
+      return false;
+    }
+
+    for (int i = 0; i < prefix.length(); i++) {
+      if (text.charAt(i) != prefix.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * The length of a key in the file, where each space is escaped with a backslash.
+   */
+  private static int escapedLength(CharSequence key) {
+    int length = key.length();
+
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) == ' ') {
+        length++;
+      }
+    }
+
+    return length;
+  }
+}
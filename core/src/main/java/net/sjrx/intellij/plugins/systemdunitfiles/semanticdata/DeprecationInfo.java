@@ -0,0 +1,64 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Describes what replaces a deprecated key, as extracted from the systemd documentation when the plugin is built.
+ */
+public final class DeprecationInfo {
+
+  private final String replacementText;
+
+  private final List<String> replacementKeys;
+
+  DeprecationInfo(String replacementText, String replacementKeys) {
+    this.replacementText = replacementText;
+    this.replacementKeys = replacementKeys == null
+                           ? ImmutableList.of()
+                           : ImmutableList.copyOf(Splitter.on(' ').omitEmptyStrings().split(replacementKeys));
+  }
+
+  /**
+   * Returns the text from the documentation describing the replacement.
+   *
+   * @return text such as "MemoryMax=" or "CPUWeight= and StartupCPUWeight="
+   */
+  public String getReplacementText() {
+    return replacementText;
+  }
+
+  /**
+   * Returns the keys that replace the deprecated one.
+   *
+   * @return the key names (without the trailing =), possibly empty if the documentation doesn't name a key.
+   */
+  public List<String> getReplacementKeys() {
+    return replacementKeys;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof DeprecationInfo)) {
+      return false;
+    }
+    DeprecationInfo that = (DeprecationInfo) o;
+    return replacementText.equals(that.replacementText) && replacementKeys.equals(that.replacementKeys);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(replacementText, replacementKeys);
+  }
+
+  @Override
+  public String toString() {
+    return "DeprecationInfo{replacementText='" + replacementText + "', replacementKeys=" + replacementKeys + '}';
+  }
+}
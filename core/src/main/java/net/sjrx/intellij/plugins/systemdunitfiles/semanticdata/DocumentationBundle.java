@@ -0,0 +1,216 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reader for the documentation bundle that is generated at build time by the GenerateDataFromManPages task.
+ * <p></p>
+ * The bundle holds the HTML documentation of every key in every section, see DocumentationBundleWriter for a description of the format.
+ * Lookups hash the section and key name, probe the index and decode the document directly out of the buffer, only absolute reads are
+ * used so a bundle can be shared between threads.
+ */
+final class DocumentationBundle {
+
+  static final String RESOURCE_NAME = "documentation.bin";
+
+  private static final int MAGIC = 0x53444f43;
+
+  private static final int FORMAT_VERSION = 1;
+
+  private static final int ENTRY_SIZE = 5;
+
+  private static final int HASH = 0;
+  private static final int NAME_OFFSET = 1;
+  private static final int NAME_LENGTH = 2;
+  private static final int DOCUMENT_OFFSET = 3;
+  private static final int DOCUMENT_LENGTH = 4;
+
+  private final ByteBuffer buffer;
+
+  private final int entryCount;
+
+  private final int mask;
+
+  private final int slotsStart;
+
+  private final int entriesStart;
+
+  private final int documentCount;
+
+  private final int dataStart;
+
+  private DocumentationBundle(ByteBuffer buffer, int entryCount, int slotCount, int slotsStart, int entriesStart, int documentCount,
+                              int dataStart) {
+    this.buffer = buffer;
+    this.entryCount = entryCount;
+    this.mask = slotCount - 1;
+    this.slotsStart = slotsStart;
+    this.entriesStart = entriesStart;
+    this.documentCount = documentCount;
+    this.dataStart = dataStart;
+  }
+
+  /**
+   * Opens the bundle from the class path.
+   *
+   * @param semanticDataRoot the directory in the class path that contains the bundle.
+   * @return the bundle or null if there isn't one.
+   * @throws IOException if the bundle could not be read.
+   */
+  static DocumentationBundle load(String semanticDataRoot) throws IOException {
+    ByteBuffer buffer = ResourceBuffers.open(semanticDataRoot + RESOURCE_NAME);
+
+    if (buffer == null) {
+      return null;
+    }
+
+    return read(buffer);
+  }
+
+  /**
+   * Validates the header of a bundle, the documents themselves are only decoded when they are looked up.
+   *
+   * @param buffer the buffer containing the bundle, it must not be modified afterwards.
+   * @return the bundle
+   * @throws IOException if the data isn't a bundle or is a bundle in a format we don't understand.
+   */
+  static DocumentationBundle read(ByteBuffer buffer) throws IOException {
+    int start = buffer.position();
+
+    if (buffer.remaining() < 16 || buffer.getInt(start) != MAGIC) {
+      throw new IOException("Documentation bundle is corrupt");
+    }
+
+    int version = buffer.getInt(start + 4);
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Documentation bundle has version " + version + " but expected " + FORMAT_VERSION);
+    }
+
+    int entryCount = buffer.getInt(start + 8);
+    int slotCount = buffer.getInt(start + 12);
+
+    if (entryCount < 0 || slotCount <= entryCount || Integer.bitCount(slotCount) != 1) {
+      throw new IOException("Documentation bundle is corrupt");
+    }
+
+    int slotsStart = start + 16;
+    int entriesStart = slotsStart + slotCount * 4;
+    int trailerStart = entriesStart + entryCount * ENTRY_SIZE * 4;
+
+    if (trailerStart + 8 > buffer.limit()) {
+      throw new IOException("Documentation bundle is corrupt");
+    }
+
+    int documentCount = buffer.getInt(trailerStart);
+    int dataLength = buffer.getInt(trailerStart + 4);
+    int dataStart = trailerStart + 8;
+
+    if (dataLength < 0 || dataStart + dataLength > buffer.limit()) {
+      throw new IOException("Documentation bundle is corrupt");
+    }
+
+    return new DocumentationBundle(buffer, entryCount, slotCount, slotsStart, entriesStart, documentCount, dataStart);
+  }
+
+  /**
+   * Returns the documentation for a key in a section.
+   *
+   * @param section the section name (e.g., Unit, Install, Service)
+   * @param key     the key name
+   * @return the HTML documentation or null if there isn't any
+   */
+  String getDocumentation(String section, String key) {
+    int hash = hash(section, key);
+    int slot = hash & mask;
+
+    int entry;
+    while ((entry = buffer.getInt(slotsStart + slot * 4)) != -1) {
+      if (getEntryField(entry, HASH) == hash && nameEquals(entry, section, key)) {
+        return decode(getEntryField(entry, DOCUMENT_OFFSET), getEntryField(entry, DOCUMENT_LENGTH));
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns the number of (section, key) pairs that have documentation.
+   *
+   * @return number of entries
+   */
+  int size() {
+    return entryCount;
+  }
+
+  /**
+   * Returns the number of distinct documents, entries with the same documentation share one document.
+   *
+   * @return number of documents
+   */
+  int getDocumentCount() {
+    return documentCount;
+  }
+
+  /**
+   * Computes the same value as ({@code section + "/" + key}).hashCode() without building the string.
+   */
+  private static int hash(String section, String key) {
+    int hash = section.hashCode();
+    hash = 31 * hash + '/';
+
+    for (int i = 0; i < key.length(); i++) {
+      hash = 31 * hash + key.charAt(i);
+    }
+
+    return hash;
+  }
+
+  /**
+   * Compares the stored name against "section/key", names are section and key names from systemd, which are ASCII, so we compare
+   * bytes against chars directly.
+   */
+  private boolean nameEquals(int entry, String section, String key) {
+    int length = getEntryField(entry, NAME_LENGTH);
+
+    if (length != section.length() + 1 + key.length()) {
+      return false;
+    }
+
+    int offset = dataStart + getEntryField(entry, NAME_OFFSET);
+
+    for (int i = 0; i < section.length(); i++) {
+      if (buffer.get(offset++) != section.charAt(i)) {
+        return false;
+      }
+    }
+
+    if (buffer.get(offset++) != '/') {
+      return false;
+    }
+
+    for (int i = 0; i < key.length(); i++) {
+      if (buffer.get(offset++) != key.charAt(i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private int getEntryField(int entry, int field) {
+    return buffer.getInt(entriesStart + (entry * ENTRY_SIZE + field) * 4);
+  }
+
+  private String decode(int offset, int length) {
+    byte[] bytes = new byte[length];
+
+    ByteBuffer document = buffer.duplicate();
+    document.position(dataStart + offset);
+    document.get(bytes);
+
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,65 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only view of the keywords allowed in a section, backed by a bit set of key ids.
+ * <p></p>
+ * Because key ids are assigned in sorted order, iteration is in sorted order.
+ */
+final class KeywordSet extends AbstractSet<String> {
+  
+  private final BitSet keyIds;
+  
+  private final SymbolTable keySymbols;
+  
+  private final int size;
+  
+  KeywordSet(BitSet keyIds, SymbolTable keySymbols) {
+    this.keyIds = keyIds;
+    this.keySymbols = keySymbols;
+    this.size = keyIds.cardinality();
+  }
+  
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof String)) {
+      return false;
+    }
+    
+    int keyId = keySymbols.getId((String) o);
+    
+    return keyId != SymbolTable.NOT_FOUND && keyIds.get(keyId);
+  }
+  
+  @Override
+  public Iterator<String> iterator() {
+    return new Iterator<String>() {
+      private int next = keyIds.nextSetBit(0);
+      
+      @Override
+      public boolean hasNext() {
+        return next >= 0;
+      }
+      
+      @Override
+      public String next() {
+        if (next < 0) {
+          throw new NoSuchElementException();
+        }
+        
+        String symbol = keySymbols.getSymbol(next);
+        next = keyIds.nextSetBit(next + 1);
+        return symbol;
+      }
+    };
+  }
+  
+  @Override
+  public int size() {
+    return size;
+  }
+}
@@ -0,0 +1,52 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import org.apache.commons.io.IOUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Helper for opening the generated semantic data files.
+ */
+final class ResourceBuffers {
+  
+  private ResourceBuffers() {
+  }
+  
+  /**
+   * Opens a resource from the class path as a byte buffer.
+   * <p></p>
+   * If the resource lives directly on the file system (e.g., when running from an exploded build) it is memory mapped,
+   * otherwise (i.e., it's in the plugin jar) it is read in one go.
+   *
+   * @param resourceName the name of the resource on the class path
+   * @return a read only buffer, or null if the resource doesn't exist
+   * @throws IOException if the resource exists but can't be read
+   */
+  static ByteBuffer open(String resourceName) throws IOException {
+    URL url = ResourceBuffers.class.getClassLoader().getResource(resourceName);
+    
+    if (url == null) {
+      return null;
+    }
+    
+    if ("file".equals(url.getProtocol())) {
+      try (RandomAccessFile raf = new RandomAccessFile(new File(url.toURI()), "r")) {
+        FileChannel channel = raf.getChannel();
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      } catch (URISyntaxException e) {
+        throw new IOException("Could not convert " + url + " to a file", e);
+      }
+    }
+    
+    try (InputStream is = url.openStream()) {
+      return ByteBuffer.wrap(IOUtils.toByteArray(is)).asReadOnlyBuffer();
+    }
+  }
+}
@@ -0,0 +1,710 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableSortedSet;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.BooleanOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.DocumentationOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.KillModeOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.MemoizingOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.ModeStringOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.NullOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.OptionValueInformation;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.RestartOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.ServiceTypeOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.ValidationResultCache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Repository of everything we know about systemd unit files (sections, keys, validators and documentation).
+ * <p></p>
+ * Instances are immutable once constructed, all lookups are read only, so the singleton can be shared between
+ * highlighting threads without any locking.
+ */
+public class SemanticDataRepository {
+  
+  
+  private static final Logger LOG = Logger.getLogger(SemanticDataRepository.class.getName());
+  private static final String SEMANTIC_DATA_ROOT = "net/sjrx/intellij/plugins/systemdunitfiles/semanticdata/";
+  private static final OptionValueInformation NULL_VALIDATOR = new NullOptionValue();
+  private static final long MAXIMUM_MEMOIZED_VALUES = 10_000;
+  private static final Pattern LINE_MATCHER = Pattern.compile("^(?<Section>[A-Z][a-z]+).(?<Key>\\w+),\\s*(?<Validator>\\w+)\\s*,.+$");
+  
+  private static volatile SemanticDataRepository instance;
+  
+  /*
+   * Every section, key and validator name is given a dense id, and all the per section data below is indexed by those ids.
+   */
+  private final SymbolTable sectionSymbols;
+  private final SymbolTable keySymbols;
+  private final SymbolTable validatorSymbols;
+  
+  /**
+   * The sections that have documented keywords (i.e., the ones we know about), sorted.
+   */
+  private final Set<String> allowedSectionNames;
+  
+  /**
+   * Section id -> set of key ids documented in that section.
+   */
+  private final BitSet[] allowedKeysBySection;
+  
+  /**
+   * Section id -> view of the above as names.
+   */
+  private final List<Set<String>> allowedKeywordsBySection;
+  
+  /**
+   * Section id -> key id -> documentation location, null if the key isn't documented in the section.
+   * <p></p>
+   * The options shared between unit types (from systemd.exec, systemd.kill and systemd.resource-control) have identical
+   * data in every section, so only one instance is kept and shared between sections.
+   */
+  private final KeywordData[][] keywordDataBySection;
+  
+  /**
+   * Section id -> key id -> validator id, or {@link SymbolTable#NOT_FOUND}.
+   */
+  private final int[][] validatorIdsBySection;
+  
+  /**
+   * Validator id -> implementation, {@link #NULL_VALIDATOR} for those we haven't implemented.
+   */
+  private final OptionValueInformation[] validatorsById;
+  
+  /**
+   * Validator id -> implementation behind {@link #validationResultCache}, {@link #NULL_VALIDATOR} for those we haven't implemented.
+   */
+  private final OptionValueInformation[] memoizingValidatorsById;
+  
+  /**
+   * Results of validating values, shared by all the validators.
+   */
+  private final ValidationResultCache validationResultCache = new ValidationResultCache(MAXIMUM_MEMOIZED_VALUES);
+  
+  /**
+   * Documentation for every key, or null if it isn't available.
+   */
+  private final DocumentationBundle documentationBundle;
+  
+  /**
+   * Whether the keyword and validator data came from the snapshot, rather than the JSON and gperf files.
+   */
+  private final boolean loadedFromSnapshot;
+  
+  SemanticDataRepository() {
+    
+    SemanticDataSnapshot snapshot;
+    try {
+      snapshot = SemanticDataSnapshot.load(SEMANTIC_DATA_ROOT);
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Could not load semantic data snapshot, falling back to JSON and gperf files", e);
+      snapshot = null;
+    }
+    
+    Map<String, Map<String, Map<String, String>>> sectionNameToKeyValues;
+    Map</* Section */ String, Map</* Key */ String, /* Validator */ String>> sectionToKeyAndValidatorMap;
+    
+    loadedFromSnapshot = snapshot != null;
+    
+    if (snapshot != null) {
+      sectionNameToKeyValues = snapshot.getSectionNameToKeyValues();
+      sectionToKeyAndValidatorMap = snapshot.getSectionToKeyAndValidatorMap();
+    } else {
+      sectionNameToKeyValues = loadSectionToKeywordMapFromJson();
+      sectionToKeyAndValidatorMap = loadValidatorMapFromGperf();
+    }
+    
+    // Build the symbol tables
+    Set<String> sections = new HashSet<>(sectionNameToKeyValues.keySet());
+    sections.addAll(sectionToKeyAndValidatorMap.keySet());
+    
+    Set<String> keys = new HashSet<>();
+    Set<String> validators = new HashSet<>();
+    sectionNameToKeyValues.values().forEach(keywords -> keys.addAll(keywords.keySet()));
+    sectionToKeyAndValidatorMap.values().forEach(keywords -> {
+      keys.addAll(keywords.keySet());
+      validators.addAll(keywords.values());
+    });
+    
+    sectionSymbols = SymbolTable.of(sections);
+    keySymbols = SymbolTable.of(keys);
+    validatorSymbols = SymbolTable.of(validators);
+    
+    allowedSectionNames = ImmutableSortedSet.copyOf(sectionNameToKeyValues.keySet());
+    
+    // Keywords and their documentation
+    List<Set<String>> allowedKeywords = new ArrayList<>(sectionSymbols.size());
+    allowedKeysBySection = new BitSet[sectionSymbols.size()];
+    keywordDataBySection = new KeywordData[sectionSymbols.size()][];
+    
+    Map<KeywordData, KeywordData> internedKeywordData = new HashMap<>();
+    
+    for (int sectionId = 0; sectionId < sectionSymbols.size(); sectionId++) {
+      Map<String, Map<String, String>> keywords =
+        sectionNameToKeyValues.getOrDefault(sectionSymbols.getSymbol(sectionId), Collections.emptyMap());
+      
+      BitSet allowedKeys = new BitSet(keySymbols.size());
+      KeywordData[] keywordData = new KeywordData[keySymbols.size()];
+      
+      for (Map.Entry<String, Map<String, String>> keyword : keywords.entrySet()) {
+        int keyId = keySymbols.getId(keyword.getKey());
+        
+        allowedKeys.set(keyId);
+        
+        Map<String, String> attributes = keyword.getValue();
+        String deprecatedReplacement = attributes.get("deprecatedReplacement");
+        
+        KeywordData data = new KeywordData(attributes.get("declaredUnderKeyword"), attributes.get("declaredInFile"),
+          deprecatedReplacement == null ? null : new DeprecationInfo(deprecatedReplacement, attributes.get("replacedBy")));
+        keywordData[keyId] = internedKeywordData.computeIfAbsent(data, Function.identity());
+      }
+      
+      allowedKeysBySection[sectionId] = allowedKeys;
+      allowedKeywords.add(new KeywordSet(allowedKeys, keySymbols));
+      keywordDataBySection[sectionId] = keywordData;
+    }
+    
+    allowedKeywordsBySection = Collections.unmodifiableList(allowedKeywords);
+    
+    // Validators
+    validatorIdsBySection = new int[sectionSymbols.size()][];
+    
+    for (int sectionId = 0; sectionId < sectionSymbols.size(); sectionId++) {
+      int[] validatorIds = new int[keySymbols.size()];
+      Arrays.fill(validatorIds, SymbolTable.NOT_FOUND);
+      
+      Map<String, String> keywords =
+        sectionToKeyAndValidatorMap.getOrDefault(sectionSymbols.getSymbol(sectionId), Collections.emptyMap());
+      
+      for (Map.Entry<String, String> keyword : keywords.entrySet()) {
+        validatorIds[keySymbols.getId(keyword.getKey())] = validatorSymbols.getId(keyword.getValue());
+      }
+      
+      validatorIdsBySection[sectionId] = validatorIds;
+    }
+    
+    OptionValueInformation[] ovis = {new BooleanOptionValue(),
+      new DocumentationOptionValue(),
+      new KillModeOptionValue(),
+      new ModeStringOptionValue(),
+      new RestartOptionValue(),
+      new ServiceTypeOptionValue(),
+      NULL_VALIDATOR };
+    
+    validatorsById = new OptionValueInformation[validatorSymbols.size()];
+    Arrays.fill(validatorsById, NULL_VALIDATOR);
+    
+    for (OptionValueInformation ovi : ovis) {
+      int validatorId = validatorSymbols.getId(ovi.getValidatorName());
+      
+      if (validatorId != SymbolTable.NOT_FOUND) {
+        validatorsById[validatorId] = ovi;
+      }
+    }
+    
+    memoizingValidatorsById = new OptionValueInformation[validatorsById.length];
+    
+    for (int validatorId = 0; validatorId < validatorsById.length; validatorId++) {
+      OptionValueInformation ovi = validatorsById[validatorId];
+      memoizingValidatorsById[validatorId] = ovi == NULL_VALIDATOR ? NULL_VALIDATOR : new MemoizingOptionValue(ovi, validationResultCache);
+    }
+    
+    documentationBundle = loadDocumentationBundle();
+  }
+  
+  private static DocumentationBundle loadDocumentationBundle() {
+    try {
+      DocumentationBundle bundle = DocumentationBundle.load(SEMANTIC_DATA_ROOT);
+      
+      if (bundle == null) {
+        LOG.warning("Documentation bundle is missing, no documentation will be available for keys");
+      }
+      
+      return bundle;
+    } catch (IOException e) {
+      LOG.log(Level.WARNING, "Could not load documentation bundle, no documentation will be available for keys", e);
+      return null;
+    }
+  }
+  
+  /**
+   * Loads the keyword data from the JSON file generated from the man pages.
+   * <p></p>
+   * This is only used when the binary snapshot is unavailable (and for comparing against it).
+   *
+   * @return map of section -> key -> attribute -> value
+   */
+  static Map<String, Map<String, Map<String, String>>> loadSectionToKeywordMapFromJson() {
+    URL sectionToKeywordMapJsonFile =
+      SemanticDataRepository.class.getClassLoader().getResource(SEMANTIC_DATA_ROOT + "sectionToKeywordMap.json");
+    
+    final ObjectMapper mapper = new ObjectMapper();
+    
+    try {
+      return mapper.readValue(sectionToKeywordMapJsonFile, new TypeReference<Map<String, Map<String, Map<String, String>>>>() {
+      });
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to initialize data for systemd inspections plugin", e);
+    }
+  }
+  
+  /**
+   * Scans the gperf file from systemd for the validator of each key.
+   * <p></p>
+   * This is only used when the binary snapshot is unavailable (and for comparing against it).
+   *
+   * @return map of section -> key -> validator name
+   */
+  static Map<String, Map<String, String>> loadValidatorMapFromGperf() {
+    Map<String, Map<String, String>> sectionToKeyAndValidatorMap = new TreeMap<>();
+    
+    try (BufferedReader fr = new BufferedReader(new InputStreamReader(
+      SemanticDataRepository.class.getClassLoader().getResourceAsStream(SEMANTIC_DATA_ROOT + "load-fragment-gperf.gperf")
+    ))) {
+      String line;
+    
+    
+      while ((line = fr.readLine()) != null) {
+      
+        Matcher m = LINE_MATCHER.matcher(line);
+      
+        if (m.find()) {
+          String section = m.group("Section");
+          String key = m.group("Key");
+          String validator = m.group("Validator");
+        
+          sectionToKeyAndValidatorMap.computeIfAbsent(section, k -> new TreeMap<>()).put(key, validator);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to initialize data for systemd inspections plugin", e);
+    }
+    
+    return sectionToKeyAndValidatorMap;
+  }
+  
+  /**
+   * Returns the allowed section names.
+   *
+   * @return a set of allow section names
+   */
+  public Set<String> getAllowedSectionNames() {
+    return allowedSectionNames;
+  }
+  
+  /**
+   * Returns the allowed keywords by a given section name.
+   *
+   * @param section the section name (e.g., Unit, Install, Service)
+   * @return set of allowed names.
+   */
+  public Set<String> getAllowedKeywordsInSection(String section) {
+    int sectionId = sectionSymbols.getId(section);
+    
+    if (sectionId == SymbolTable.NOT_FOUND) {
+      return Collections.emptySet();
+    }
+    
+    return allowedKeywordsBySection.get(sectionId);
+  }
+  
+  /**
+   * Returns whether a key is allowed in a section.
+   *
+   * @param sectionId the section id (from {@link #getSectionSymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @param keyId the key id (from {@link #getKeySymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @return true if the key is documented as being part of the section
+   */
+  public boolean isKeyAllowedInSection(int sectionId, int keyId) {
+    return sectionId != SymbolTable.NOT_FOUND && keyId != SymbolTable.NOT_FOUND && allowedKeysBySection[sectionId].get(keyId);
+  }
+  
+  /**
+   * Returns whether a key is allowed in a section.
+   *
+   * @param section the section name (e.g., Unit, Install, Service)
+   * @param keyName the key name
+   * @return true if the key is documented as being part of the section
+   */
+  public boolean isKeyAllowedInSection(String section, String keyName) {
+    return isKeyAllowedInSection(sectionSymbols.getId(section), keySymbols.getId(keyName));
+  }
+  
+  /**
+   * Returns the ids of every section we know about.
+   *
+   * @return the symbol table for section names
+   */
+  public SymbolTable getSectionSymbols() {
+    return sectionSymbols;
+  }
+  
+  /**
+   * Returns the ids of every key we know about.
+   *
+   * @return the symbol table for key names
+   */
+  public SymbolTable getKeySymbols() {
+    return keySymbols;
+  }
+  
+  /**
+   * Returns the location (by keyword) for a specific keyword.
+   * <p></p>
+   * Some keys are documented together in systemd (e.g., After= and Before=), we can only
+   * link to one of them, so this method will tell us what to link to.
+   *
+   * @param section - section name
+   * @param keyName - key name
+   * @return String or null
+   */
+  public String getKeywordLocationInDocumentation(String section, String keyName) {
+    KeywordData data = getKeywordData(section, keyName);
+    
+    return data == null ? null : data.declaredUnderKeyword;
+  }
+  
+  /**
+   * Returns the location in filename for a specific keyword.
+   * <p></p>
+   * Some keys are shared between many different types of units (e.g., WorkingDirectory= is in systemd.exec but shows up in [Service],
+   * [Socket], etc...
+   *
+   * @param section - section name
+   * @param keyName - key name
+   * @return String or null
+   */
+  public String getKeywordFileLocationInDocumentation(String section, String keyName) {
+    KeywordData data = getKeywordData(section, keyName);
+    
+    return data == null ? null : data.declaredInFile;
+  }
+  
+  /**
+   * Returns whether a key is deprecated in a section, and what replaces it.
+   *
+   * @param section - section name
+   * @param keyName - key name
+   * @return the deprecation or null if the key isn't deprecated (or isn't known)
+   */
+  public DeprecationInfo getDeprecation(String section, String keyName) {
+    return getDeprecation(sectionSymbols.getId(section), keySymbols.getId(keyName));
+  }
+  
+  /**
+   * Returns whether a key is deprecated in a section, and what replaces it.
+   *
+   * @param sectionId the section id (from {@link #getSectionSymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @param keyId the key id (from {@link #getKeySymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @return the deprecation or null if the key isn't deprecated (or isn't known)
+   */
+  public DeprecationInfo getDeprecation(int sectionId, int keyId) {
+    KeywordData data = getKeywordData(sectionId, keyId);
+    
+    return data == null ? null : data.deprecation;
+  }
+  
+  private KeywordData getKeywordData(String section, String keyName) {
+    return getKeywordData(sectionSymbols.getId(section), keySymbols.getId(keyName));
+  }
+  
+  private KeywordData getKeywordData(int sectionId, int keyId) {
+    if (sectionId == SymbolTable.NOT_FOUND || keyId == SymbolTable.NOT_FOUND) {
+      return null;
+    }
+    
+    return keywordDataBySection[sectionId][keyId];
+  }
+  
+  /**
+   * Returns a URL to the section name man page.
+   *
+   * @param sectionName - the name of the section name
+   * @return - best URL for the section name or null if the section is unknown
+   */
+  public String getUrlForSectionName(String sectionName) {
+    switch (sectionName) {
+      case "Mount":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.mount.html";
+      case "Automount":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.automount.html";
+      case "Install":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.unit.html#%5BInstall%5D%20Section%20Options";
+      case "Path":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.path.html";
+      case "Service":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.service.html";
+      case "Slice":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.slice.html";
+      case "Socket":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.socket.html";
+      case "Swap":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.swap.html";
+      case "Timer":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.timer.html";
+      case "Unit":
+        return "https://www.freedesktop.org/software/systemd/man/systemd.unit.html#%5BUnit%5D%20Section%20Options";
+      default:
+        return null;
+    }
+  }
+  
+  /**
+   * Returns a document blurb for a Section.
+   *
+   * @param sectionName the name of the section.
+   * @return string
+   */
+  public String getDocumentationContentForSection(String sectionName) {
+    switch (sectionName) {
+      case "Mount":
+        return " Mount files must include a [Mount] section, which carries information\n"
+               + "       about the file system mount points it supervises. A number of options\n"
+               + "       that may be used in this section are shared with other unit types.\n"
+               + "       These options are documented in <a href=\"http://man7.org/linux/man-pages/man5/systemd.exec.5.html\">"
+               + "systemd.exec(5)</a> and <a href=\"http://man7.org/linux/man-pages/man5/systemd.kill.5.html\">systemd.kill(5)</a>.";
+      
+      case "Automount":
+        return "Automount files must include an [Automount] section, which carries\n"
+               + "       information about the file system automount points it supervises.";
+      
+      case "Install":
+        return "Unit files may include an \"[Install]\" section, which carries\n"
+               + "       installation information for the unit. This section is not\n"
+               + "       interpreted by <a href=\"http://man7.org/linux/man-pages/man1/systemd.1.html\">systemd(1)</a> during runtime; it is"
+               + "       used by the <b>enable</b> and <b>disable </b>commands of the"
+               + "       <a href=\"http://man7.org/linux/man-pages/man1/systemctl.1.html\">systemctl(1)</a> tool during installation of\n"
+               + "       a unit. ";
+      case "Path":
+        return "Path files must include a [Path] section, which carries information\n"
+               + "       about the path(s) it monitors";
+      
+      case "Service":
+        return "Service files must include a \"[Service]\" section, which carries\n"
+               + "information about the service and the process it supervises. A number\n"
+               + "of options that may be used in this section are shared with other\n"
+               + "unit types. These options are documented in <a href=\"http://man7.org/linux/man-pages/man5/systemd.exec.5.html\">systemd.exec(5)</a>,\n"
+               + "<a href=\"http://man7.org/linux/man-pages/man5/systemd.kill.5.html\">systemd.kill(5)</a> and "
+               + "<a href=\"http://man7.org/linux/man-pages/man5/systemd.resource-control.5.html\">systemd.resource-control(5)</a>.";
+      case "Slice":
+        return "The slice specific configuration\n"
+               + "       options are configured in the [Slice] section. Currently, only\n"
+               + "       generic resource control settings as described in\n"
+               + "       <a href=\"http://man7.org/linux/man-pages/man5/systemd.resource-control.5.html\">systemd.resource-control(5)</a> are allowed.\n";
+      
+      
+      case "Socket":
+        return "Socket files must include a [Socket] section, which carries\n"
+               + "       information about the socket or FIFO it supervises. A number of\n"
+               + "       options that may be used in this section are shared with other unit\n"
+               + "       types. These options are documented in <a href=\"http://man7.org/linux/man-pages/man5/systemd.exec.5.html\">"
+               + "       systemd.exec(5)</a> and <a href=\"http://man7.org/linux/man-pages/man5/systemd.kill.5.html\">systemd.kill(5)</a>.";
+      case "Swap":
+        return "Swap files must include a [Swap] section, which carries information\n"
+               + " about the swap device it supervises. A number of options that may be\n"
+               + " used in this section are shared with other unit types. These options\n"
+               + " are documented in <a href=\"http://man7.org/linux/man-pages/man5/systemd.exec.5.html\">systemd.exec(5)</a>"
+               + " and <a href=\"http://man7.org/linux/man-pages/man5/systemd.kill.5.html\">systemd.kill(5)</a>";
+      
+      case "Timer":
+        return " Timer files must include a [Timer] section, which carries information\n"
+               + " about the timer it defines.";
+      
+      case "Unit":
+        return "The unit file may include a [Unit] section, which carries generic\n"
+               + " information about the unit that is not dependent on the type of unit.";
+      
+      default:
+        return null;
+    }
+  }
+  
+  /**
+   * Return the documentation for this key.
+   *
+   * @param sectionName the section name to lookup (e.g., Unit, Install, Service)
+   * @param keyName     the key name to look up
+   * @return either the first paragraph from the HTML description or null if no description was found
+   */
+  public String getDocumentationContentForKeyInSection(String sectionName, String keyName) {
+    
+    if (!isKeyAllowedInSection(sectionName, keyName)) {
+      return null;
+    }
+    
+    if (documentationBundle == null) {
+      return null;
+    }
+    
+    return documentationBundle.getDocumentation(sectionName, keyName);
+  }
+  
+  /**
+   * Gets the validator for a section name and key name.
+   *
+   * @param sectionName the name of the section we are looking up
+   * @param keyName - the keyname to look up
+   * @return the validator
+   */
+  public OptionValueInformation getOptionValidator(String sectionName, String keyName) {
+    return getOptionValidator(sectionSymbols.getId(sectionName), keySymbols.getId(keyName));
+  }
+  
+  /**
+   * Gets the validator for a section and key.
+   *
+   * @param sectionId the section id (from {@link #getSectionSymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @param keyId the key id (from {@link #getKeySymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @return the validator
+   */
+  public OptionValueInformation getOptionValidator(int sectionId, int keyId) {
+    if (sectionId == SymbolTable.NOT_FOUND || keyId == SymbolTable.NOT_FOUND) {
+      return NULL_VALIDATOR;
+    }
+    
+    int validatorId = validatorIdsBySection[sectionId][keyId];
+    
+    return validatorId == SymbolTable.NOT_FOUND ? NULL_VALIDATOR : validatorsById[validatorId];
+  }
+  
+  /**
+   * Returns the name of the function systemd parses the values of a key with, from load-fragment-gperf (e.g.,
+   * <code>config_parse_exec</code>), which says, e.g., whether assignments add to a list or replace the value.
+   * <p></p>
+   * Validators are looked up by the same name (see {@link OptionValueInformation#getValidatorName()}), but this returns the name even if
+   * there is no validator for it.
+   *
+   * @param sectionName the name of the section
+   * @param keyName the key
+   * @return the function name, or null if the key isn't in the gperf file
+   */
+  public String getParserFunctionName(String sectionName, String keyName) {
+    int sectionId = sectionSymbols.getId(sectionName);
+    int keyId = keySymbols.getId(keyName);
+    
+    if (sectionId == SymbolTable.NOT_FOUND || keyId == SymbolTable.NOT_FOUND) {
+      return null;
+    }
+    
+    int validatorId = validatorIdsBySection[sectionId][keyId];
+    
+    return validatorId == SymbolTable.NOT_FOUND ? null : validatorSymbols.getSymbol(validatorId);
+  }
+  
+  /**
+   * Gets the validator for a section and key, with the results of validation remembered in {@link #getValidationResultCache()}.
+   * <p></p>
+   * Use this when validating many values, e.g., in inspections, where the same values occur over and over again.
+   *
+   * @param sectionId the section id (from {@link #getSectionSymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @param keyId the key id (from {@link #getKeySymbols()}), or {@link SymbolTable#NOT_FOUND}
+   * @return the validator
+   */
+  public OptionValueInformation getMemoizingOptionValidator(int sectionId, int keyId) {
+    if (sectionId == SymbolTable.NOT_FOUND || keyId == SymbolTable.NOT_FOUND) {
+      return NULL_VALIDATOR;
+    }
+    
+    int validatorId = validatorIdsBySection[sectionId][keyId];
+    
+    return validatorId == SymbolTable.NOT_FOUND ? NULL_VALIDATOR : memoizingValidatorsById[validatorId];
+  }
+  
+  /**
+   * Returns the cache behind {@link #getMemoizingOptionValidator(int, int)}.
+   *
+   * @return the cache, including its hit and miss counts
+   */
+  public ValidationResultCache getValidationResultCache() {
+    return validationResultCache;
+  }
+  
+  /**
+   * Returns whether the keyword and validator data came from the snapshot, tests use this to check the snapshot is on the classpath.
+   */
+  boolean isLoadedFromSnapshot() {
+    return loadedFromSnapshot;
+  }
+  
+  
+  
+  /**
+   * Gets the Semantic Data Repository, which is created on first use.
+   * <p></p>
+   * Creating it takes a while, inside the IDE SemanticDataService decides when that happens so that it isn't on the EDT, callers that
+   * shouldn't block should get the repository from there instead.
+   *
+   * <p></p>
+   * If creating it fails, the exception is thrown to the caller and the next call tries again.
+   *
+   * @return singleton instance
+   */
+  public static SemanticDataRepository getInstance() {
+    SemanticDataRepository repository = instance;
+    
+    return repository != null ? repository : createInstance();
+  }
+  
+  private static synchronized SemanticDataRepository createInstance() {
+    if (instance == null) {
+      instance = new SemanticDataRepository();
+    }
+    
+    return instance;
+  }
+  
+  /**
+   * Where a keyword is documented (and whether it is deprecated), instances are shared between all the sections a keyword appears in.
+   */
+  private static final class KeywordData {
+    private final String declaredUnderKeyword;
+    private final String declaredInFile;
+    private final DeprecationInfo deprecation;
+    
+    private KeywordData(String declaredUnderKeyword, String declaredInFile, DeprecationInfo deprecation) {
+      this.declaredUnderKeyword = declaredUnderKeyword;
+      this.declaredInFile = declaredInFile;
+      this.deprecation = deprecation;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof KeywordData)) {
+        return false;
+      }
+      KeywordData that = (KeywordData) o;
+      return Objects.equals(declaredUnderKeyword, that.declaredUnderKeyword) && Objects.equals(declaredInFile, that.declaredInFile)
+             && Objects.equals(deprecation, that.deprecation);
+    }
+    
+    @Override
+    public int hashCode() {
+      return Objects.hash(declaredUnderKeyword, declaredInFile, deprecation);
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Reader for the binary snapshot of the semantic data that is generated at build time by the GenerateSemanticDataSnapshot task.
+ * <p></p>
+ * See that task for a description of the format.
+ */
+final class SemanticDataSnapshot {
+
+  static final String RESOURCE_NAME = "semanticData.bin";
+
+  private static final int MAGIC = 0x53444154;
+
+  private static final int FORMAT_VERSION = 2;
+
+  private final Map<String, Map<String, Map<String, String>>> sectionNameToKeyValues;
+
+  private final Map<String, Map<String, String>> sectionToKeyAndValidatorMap;
+
+  private SemanticDataSnapshot(Map<String, Map<String, Map<String, String>>> sectionNameToKeyValues,
+                               Map<String, Map<String, String>> sectionToKeyAndValidatorMap) {
+    this.sectionNameToKeyValues = sectionNameToKeyValues;
+    this.sectionToKeyAndValidatorMap = sectionToKeyAndValidatorMap;
+  }
+
+  /**
+   * Loads the snapshot from the class path.
+   *
+   * @param semanticDataRoot the directory in the class path that contains the snapshot.
+   * @return the snapshot or null if there isn't one.
+   * @throws IOException if the snapshot could not be read.
+   */
+  static SemanticDataSnapshot load(String semanticDataRoot) throws IOException {
+    ByteBuffer buffer = ResourceBuffers.open(semanticDataRoot + RESOURCE_NAME);
+
+    if (buffer == null) {
+      return null;
+    }
+
+    return read(buffer);
+  }
+
+  /**
+   * Decodes a snapshot.
+   *
+   * @param buffer the buffer containing the snapshot, it's position will be moved to the end of the snapshot.
+   * @return the snapshot
+   * @throws IOException if the data isn't a snapshot, is truncated or is a snapshot in a format we don't understand.
+   */
+  static SemanticDataSnapshot read(ByteBuffer buffer) throws IOException {
+    if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    int version = buffer.getInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Semantic data snapshot has version " + version + " but expected " + FORMAT_VERSION);
+    }
+
+    String[] strings = readStringPool(buffer);
+
+    Map<String, Map<String, Map<String, String>>> sectionNameToKeyValues = new TreeMap<>();
+
+    // A section is at least its name and keyword count, a keyword its name and five attributes
+    int sectionCount = readCount(buffer, 8);
+    for (int i = 0; i < sectionCount; i++) {
+      String section = readString(buffer, strings);
+      int keywordCount = readCount(buffer, 24);
+
+      Map<String, Map<String, String>> keywords = new TreeMap<>();
+      for (int j = 0; j < keywordCount; j++) {
+        String keyword = readString(buffer, strings);
+
+        Map<String, String> attributes = new HashMap<>(8);
+        putIfPresent(attributes, "values", strings, buffer.getInt());
+        putIfPresent(attributes, "declaredUnderKeyword", strings, buffer.getInt());
+        putIfPresent(attributes, "declaredInFile", strings, buffer.getInt());
+        putIfPresent(attributes, "deprecatedReplacement", strings, buffer.getInt());
+        putIfPresent(attributes, "replacedBy", strings, buffer.getInt());
+
+        keywords.put(keyword, attributes);
+      }
+
+      sectionNameToKeyValues.put(section, keywords);
+    }
+
+    Map<String, Map<String, String>> sectionToKeyAndValidatorMap = new TreeMap<>();
+
+    int validatorSectionCount = readCount(buffer, 8);
+    for (int i = 0; i < validatorSectionCount; i++) {
+      String section = readString(buffer, strings);
+      int keywordCount = readCount(buffer, 8);
+
+      Map<String, String> validators = new TreeMap<>();
+      for (int j = 0; j < keywordCount; j++) {
+        validators.put(readString(buffer, strings), readString(buffer, strings));
+      }
+
+      sectionToKeyAndValidatorMap.put(section, validators);
+    }
+
+    return new SemanticDataSnapshot(sectionNameToKeyValues, sectionToKeyAndValidatorMap);
+  }
+
+  private static String[] readStringPool(ByteBuffer buffer) throws IOException {
+    int count = readCount(buffer, 4);
+
+    if (buffer.remaining() < 4 * (count + 1)) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    int[] offsets = new int[count + 1];
+    for (int i = 0; i <= count; i++) {
+      offsets[i] = buffer.getInt();
+
+      if (offsets[i] < (i == 0 ? 0 : offsets[i - 1])) {
+        throw new IOException("Semantic data snapshot is corrupt");
+      }
+    }
+
+    if (buffer.remaining() < offsets[count]) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    byte[] pool = new byte[offsets[count]];
+    buffer.get(pool);
+
+    String[] strings = new String[count];
+    for (int i = 0; i < count; i++) {
+      strings[i] = new String(pool, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+    }
+
+    return strings;
+  }
+
+  /**
+   * Reads the number of items that follow, checking that there is room for them so that a truncated snapshot is rejected.
+   */
+  private static int readCount(ByteBuffer buffer, int minimumItemSize) throws IOException {
+    if (buffer.remaining() < 4) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    int count = buffer.getInt();
+    if (count < 0 || (long) count * minimumItemSize > buffer.remaining()) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    return count;
+  }
+
+  private static String readString(ByteBuffer buffer, String[] strings) throws IOException {
+    if (buffer.remaining() < 4) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    return getString(strings, buffer.getInt());
+  }
+
+  private static String getString(String[] strings, int id) throws IOException {
+    if (id < 0 || id >= strings.length) {
+      throw new IOException("Semantic data snapshot is corrupt");
+    }
+
+    return strings[id];
+  }
+
+  private static void putIfPresent(Map<String, String> attributes, String name, String[] strings, int id) throws IOException {
+    if (id >= 0) {
+      attributes.put(name, getString(strings, id));
+    }
+  }
+
+  Map<String, Map<String, Map<String, String>>> getSectionNameToKeyValues() {
+    return sectionNameToKeyValues;
+  }
+
+  Map<String, Map<String, String>> getSectionToKeyAndValidatorMap() {
+    return sectionToKeyAndValidatorMap;
+  }
+}
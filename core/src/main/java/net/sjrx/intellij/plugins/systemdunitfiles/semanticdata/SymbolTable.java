@@ -0,0 +1,158 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * An immutable table that maps each symbol (e.g., a section name, key name or validator name) to a dense int id.
+ * <p></p>
+ * Ids are assigned in sorted order of the symbols, so iterating over ids (e.g., the set bits of a BitSet) yields the symbols sorted.
+ * <p></p>
+ * Lookups use open addressing over primitive arrays, so they don't allocate.
+ */
+public final class SymbolTable {
+
+  /**
+   * The id returned for symbols that aren't in the table.
+   */
+  public static final int NOT_FOUND = -1;
+
+  private final String[] symbolsById;
+
+  private final String[] slots;
+
+  private final int[] slotIds;
+
+  private final int mask;
+
+  private SymbolTable(String[] symbolsById) {
+    this.symbolsById = symbolsById;
+
+    int capacity = Integer.highestOneBit(Math.max(2, symbolsById.length * 2) - 1) << 1;
+    this.slots = new String[capacity];
+    this.slotIds = new int[capacity];
+    this.mask = capacity - 1;
+
+    for (int id = 0; id < symbolsById.length; id++) {
+      int slot = symbolsById[id].hashCode() & mask;
+      while (slots[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = symbolsById[id];
+      slotIds[slot] = id;
+    }
+  }
+
+  /**
+   * Creates a symbol table from a collection of symbols, duplicates are ignored.
+   *
+   * @param symbols the symbols
+   * @return a new table
+   */
+  public static SymbolTable of(Collection<String> symbols) {
+    return new SymbolTable(new TreeSet<>(symbols).toArray(new String[0]));
+  }
+
+  /**
+   * Returns the id for a symbol.
+   *
+   * @param symbol the symbol to look up (may be null)
+   * @return the id, or {@link #NOT_FOUND}
+   */
+  public int getId(String symbol) {
+    if (symbol == null) {
+      return NOT_FOUND;
+    }
+
+    int slot = symbol.hashCode() & mask;
+
+    String candidate;
+    while ((candidate = slots[slot]) != null) {
+      if (candidate.equals(symbol)) {
+        return slotIds[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return NOT_FOUND;
+  }
+
+  /**
+   * Returns the id for a symbol given as a range of some text, without copying it out.
+   *
+   * @param text  the text containing the symbol
+   * @param start the start of the symbol (inclusive)
+   * @param end   the end of the symbol (exclusive)
+   * @return the id, or {@link #NOT_FOUND}
+   */
+  public int getId(CharSequence text, int start, int end) {
+    // Same hash as String.hashCode(), which is what the slots were built with
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + text.charAt(i);
+    }
+
+    int slot = hash & mask;
+
+    String candidate;
+    while ((candidate = slots[slot]) != null) {
+      if (regionEquals(candidate, text, start, end)) {
+        return slotIds[slot];
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    return NOT_FOUND;
+  }
+
+  private static boolean regionEquals(String candidate, CharSequence text, int start, int end) {
+    if (candidate.length() != end - start) {
+      return false;
+    }
+
+    for (int i = 0; i < candidate.length(); i++) {
+      if (candidate.charAt(i) != text.charAt(start + i)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Returns the symbol for an id.
+   *
+   * @param id the id of a symbol in this table
+   * @return the symbol
+   */
+  public String getSymbol(int id) {
+    return symbolsById[id];
+  }
+
+  /**
+   * Returns the canonical instance of a symbol, so that callers holding on to many copies of the same string can share one.
+   *
+   * @param symbol the symbol
+   * @return the instance stored in the table, or the argument itself if it's not in the table.
+   */
+  public String intern(String symbol) {
+    int id = getId(symbol);
+
+    return id == NOT_FOUND ? symbol : symbolsById[id];
+  }
+
+  /**
+   * Returns the number of symbols, ids range from 0 (inclusive) to this value (exclusive).
+   *
+   * @return number of symbols
+   */
+  public int size() {
+    return symbolsById.length;
+  }
+
+  @Override
+  public String toString() {
+    return "SymbolTable" + Arrays.toString(symbolsById);
+  }
+}
@@ -15,6 +15,8 @@ public class BooleanOptionValue implements OptionValueInformation {
   private static final Set<String> validValuesLowerCase
     = ImmutableSet.of("1","yes","y","true","t", "on", "0","no", "n", "false", "f", "off");
   
+  private static final String[] validValuesArray = validValuesLowerCase.toArray(new String[0]);
+  
   private static final Set<String> autoCompleteValues = ImmutableSet.of("on", "off", "yes", "no", "true", "false");
 
   @Override
@@ -22,9 +24,14 @@ public class BooleanOptionValue implements OptionValueInformation {
     return autoCompleteValues;
   }
   
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    return CharSequenceRanges.regionEqualsAny(text, start, end, validValuesArray, true);
+  }
+  
   @Override
   public String getErrorMessage(String value) {
-    if (validValuesLowerCase.contains(value.toLowerCase())) {
+    if (isValid(value, 0, value.length())) {
       return null;
     } else {
       return "This option takes a boolean value, " + value + " must be one of: " + validValuesLowerCase;
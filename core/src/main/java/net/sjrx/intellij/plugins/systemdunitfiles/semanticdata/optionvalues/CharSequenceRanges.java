@@ -0,0 +1,73 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+/**
+ * Allocation free helpers for validators that work on ranges of a CharSequence.
+ */
+final class CharSequenceRanges {
+  
+  private CharSequenceRanges() {
+  }
+  
+  /**
+   * Returns whether a character is whitespace, in the same sense as \s in a regular expression.
+   */
+  static boolean isWhitespace(char c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+  
+  /**
+   * Returns whether the range is equal to a string.
+   *
+   * @param ignoreCase if true, ASCII letters are compared without regard to case
+   */
+  static boolean regionEquals(CharSequence text, int start, int end, String value, boolean ignoreCase) {
+    if (end - start != value.length()) {
+      return false;
+    }
+    
+    return regionMatches(text, start, value, ignoreCase);
+  }
+  
+  /**
+   * Returns whether the range is equal to any of the values.
+   *
+   * @param ignoreCase if true, ASCII letters are compared without regard to case
+   */
+  static boolean regionEqualsAny(CharSequence text, int start, int end, String[] values, boolean ignoreCase) {
+    for (String value : values) {
+      if (regionEquals(text, start, end, value, ignoreCase)) {
+        return true;
+      }
+    }
+    
+    return false;
+  }
+  
+  /**
+   * Returns whether the range starts with a prefix.
+   */
+  static boolean startsWith(CharSequence text, int start, int end, String prefix) {
+    if (end - start < prefix.length()) {
+      return false;
+    }
+    
+    return regionMatches(text, start, prefix, false);
+  }
+  
+  private static boolean regionMatches(CharSequence text, int start, String value, boolean ignoreCase) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = text.charAt(start + i);
+      char v = value.charAt(i);
+      
+      if (c != v && !(ignoreCase && toLowerCaseAscii(c) == toLowerCaseAscii(v))) {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
+  private static char toLowerCaseAscii(char c) {
+    return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+  }
+}
@@ -0,0 +1,94 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * This validator is used for the config_parse_documentation validator.
+ * <p></p>
+ * While this is only use for one key, it is fairly popular in the source code, so we implemented it.
+ * <p></p>
+ * Source code is from
+ * <p></p>
+ * load-fragment.c ~ line 2600
+ * web-util.c ~ line
+ *
+ */
+public class DocumentationOptionValue implements OptionValueInformation {
+  
+  private static final String[] validPrefixes = {"http://", "https://", "file:/", "info:", "man:"};
+  
+  @Override
+  public Set<String> getAutoCompleteOptions() {
+    return Collections.emptySet();
+  }
+  
+  /**
+   * Checks that every whitespace separated value starts with one of the prefixes (this loose validation is what systemd does).
+   */
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    return findInvalidValue(text, start, end) < 0;
+  }
+  
+  @Override
+  public String getErrorMessage(String values) {
+    int invalidValueStart = findInvalidValue(values, 0, values.length());
+    
+    if (invalidValueStart < 0) {
+      return null;
+    }
+    
+    int invalidValueEnd = endOfValue(values, invalidValueStart, values.length());
+    
+    return "Documentation " + values.substring(invalidValueStart, invalidValueEnd)
+           + " does not match expected syntax, each value should be a space separated list beginning with (http://, https://, file:/, info:, man:)";
+  }
+  
+  /**
+   * Returns the start of the first value that doesn't have a valid prefix, or -1 if they are all fine.
+   * <p></p>
+   * Like String.split("\\s+"), a leading run of whitespace (or no text at all) is treated as an empty value.
+   */
+  private static int findInvalidValue(CharSequence text, int start, int end) {
+    int valueStart = start;
+    
+    do {
+      int valueEnd = endOfValue(text, valueStart, end);
+      
+      if (!hasValidPrefix(text, valueStart, valueEnd)) {
+        return valueStart;
+      }
+      
+      valueStart = valueEnd;
+      while (valueStart < end && CharSequenceRanges.isWhitespace(text.charAt(valueStart))) {
+        valueStart++;
+      }
+    } while (valueStart < end);
+    
+    return -1;
+  }
+  
+  private static int endOfValue(CharSequence text, int start, int end) {
+    int i = start;
+    while (i < end && !CharSequenceRanges.isWhitespace(text.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+  
+  private static boolean hasValidPrefix(CharSequence text, int start, int end) {
+    for (String prefix : validPrefixes) {
+      if (CharSequenceRanges.startsWith(text, start, end, prefix)) {
+        return true;
+      }
+    }
+    
+    return false;
+  }
+  
+  @Override
+  public String getValidatorName() {
+    return "config_parse_documentation";
+  }
+}
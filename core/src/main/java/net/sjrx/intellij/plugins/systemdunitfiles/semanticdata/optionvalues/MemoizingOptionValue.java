@@ -0,0 +1,53 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import java.util.Set;
+
+/**
+ * Puts a {@link ValidationResultCache} in front of a validator.
+ */
+public final class MemoizingOptionValue implements OptionValueInformation {
+  
+  private final OptionValueInformation delegate;
+  
+  private final ValidationResultCache cache;
+  
+  /**
+   * Creates a validator that remembers the results of another.
+   *
+   * @param delegate the validator that does the work
+   * @param cache    the cache, which may be shared between validators
+   */
+  public MemoizingOptionValue(OptionValueInformation delegate, ValidationResultCache cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+  
+  /**
+   * Returns the validator that does the work.
+   *
+   * @return the validator
+   */
+  public OptionValueInformation getDelegate() {
+    return delegate;
+  }
+  
+  @Override
+  public Set<String> getAutoCompleteOptions() {
+    return delegate.getAutoCompleteOptions();
+  }
+  
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    return cache.getErrorMessage(delegate, text, start, end) == null;
+  }
+  
+  @Override
+  public String getErrorMessage(String value) {
+    return cache.getErrorMessage(delegate, value, 0, value.length());
+  }
+  
+  @Override
+  public String getValidatorName() {
+    return delegate.getValidatorName();
+  }
+}
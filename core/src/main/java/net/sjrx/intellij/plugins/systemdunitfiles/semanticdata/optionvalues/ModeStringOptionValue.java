@@ -15,9 +15,31 @@ public class ModeStringOptionValue implements OptionValueInformation {
     return Collections.emptySet();
   }
   
+  /**
+   * Equivalent to matching [0-7]{3,4}.
+   */
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    int length = end - start;
+    
+    if (length != 3 && length != 4) {
+      return false;
+    }
+    
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+      
+      if (c < '0' || c > '7') {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
   @Override
   public String getErrorMessage(String value) {
-    if (value.matches("[0-7]{3,4}")) {
+    if (isValid(value, 0, value.length())) {
       return null;
     } else {
       return "Value is expected to be a 3 or 4 digit octal number not: " + value;
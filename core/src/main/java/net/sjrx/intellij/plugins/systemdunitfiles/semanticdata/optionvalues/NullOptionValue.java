@@ -13,6 +13,11 @@ public class NullOptionValue implements OptionValueInformation {
     return Collections.emptySet();
   }
   
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    return true;
+  }
+  
   @Override
   public String getErrorMessage(String value) {
     return null;
@@ -2,7 +2,7 @@ package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
 
 import java.util.Set;
 
-public interface OptionValueInformation {
+public interface OptionValueInformation extends OptionValueRangeValidator {
   
   /**
    * Returns the set of auto complete options for this option.
@@ -17,6 +17,16 @@ public interface OptionValueInformation {
    */
   public String getErrorMessage(String value);
   
+  /**
+   * Validates a range of text, by default by building the value and calling {@link #getErrorMessage(String)}.
+   * <p></p>
+   * Implementations should override this with a version that doesn't allocate.
+   */
+  @Override
+  default boolean isValid(CharSequence text, int start, int end) {
+    return getErrorMessage(text.subSequence(start, end).toString()) == null;
+  }
+  
   /**
    * Get the name of the validator that this implements.
    *
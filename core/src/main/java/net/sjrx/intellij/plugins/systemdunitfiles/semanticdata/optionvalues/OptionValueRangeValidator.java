@@ -0,0 +1,20 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+/**
+ * Validates a value in place, over a range of some larger text (e.g., the document), instead of over a String built for the purpose.
+ * <p></p>
+ * Implementations must not allocate when the value is valid, as this is called for every value in every highlighting pass. The error
+ * message is only needed (and only built) for invalid values, see {@link OptionValueInformation#getErrorMessage(String)}.
+ */
+public interface OptionValueRangeValidator {
+  
+  /**
+   * Validates whether or not the value is valid.
+   *
+   * @param text  the text containing the value, for values with continuation lines this is a view that joins the lines
+   * @param start the start of the value in the text (inclusive), leading whitespace has already been skipped
+   * @param end   the end of the value in the text (exclusive), trailing whitespace has already been skipped
+   * @return <code>true</code> if the value is fine.
+   */
+  boolean isValid(CharSequence text, int start, int end);
+}
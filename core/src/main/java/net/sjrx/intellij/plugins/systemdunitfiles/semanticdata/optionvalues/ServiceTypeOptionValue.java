@@ -15,14 +15,21 @@ public class ServiceTypeOptionValue implements OptionValueInformation {
   
   private static final Set<String> validOptions = ImmutableSet.of("simple", "forking", "oneshot", "dbus", "notify", "idle", "exec");
   
+  private static final String[] validOptionsArray = validOptions.toArray(new String[0]);
+  
   @Override
   public Set<String> getAutoCompleteOptions() {
     return validOptions;
   }
   
+  @Override
+  public boolean isValid(CharSequence text, int start, int end) {
+    return CharSequenceRanges.regionEqualsAny(text, start, end, validOptionsArray, false);
+  }
+  
   @Override
   public String getErrorMessage(String value) {
-    if (validOptions.contains(value)) {
+    if (isValid(value, 0, value.length())) {
       return null;
     } else {
       return "Expected value " + value + " does not match one of the expected options: " + validOptions;
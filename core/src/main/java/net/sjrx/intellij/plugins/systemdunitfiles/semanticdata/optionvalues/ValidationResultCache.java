@@ -0,0 +1,161 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+import java.util.Optional;
+
+/**
+ * A bounded, thread safe cache of validation results keyed by validator and value.
+ * <p></p>
+ * Unit files repeat the same values over and over (e.g., Type=notify or Restart=on-failure), so with this in front of the validators the
+ * cost of validation scales with the number of distinct values rather than the number of occurrences.
+ * <p></p>
+ * Lookups are done with a per thread probe key over the range of text being validated, so a hit doesn't need the value as a String and
+ * doesn't allocate. Only a miss copies the value out of the text to store it.
+ */
+public final class ValidationResultCache {
+  
+  private final Cache<ValueKey, Optional<String>> cache;
+  
+  private final ThreadLocal<ValueKey> probes = ThreadLocal.withInitial(ValueKey::new);
+  
+  /**
+   * Creates a new cache.
+   *
+   * @param maximumSize the maximum number of (validator, value) pairs to remember
+   */
+  public ValidationResultCache(long maximumSize) {
+    cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+  
+  /**
+   * Validates a value, or returns the result from the last time this value was validated with this validator.
+   *
+   * @param validator the validator
+   * @param text      the text containing the value
+   * @param start     the start of the value in the text (inclusive)
+   * @param end       the end of the value in the text (exclusive)
+   * @return <code>null</code> if the value is fine, the message from {@link OptionValueInformation#getErrorMessage(String)} otherwise.
+   */
+  public String getErrorMessage(OptionValueInformation validator, CharSequence text, int start, int end) {
+    ValueKey probe = probes.get().set(validator, text, start, end);
+    
+    Optional<String> result;
+    try {
+      result = cache.getIfPresent(probe);
+    } finally {
+      probe.clear();
+    }
+    
+    if (result == null) {
+      String value = text.subSequence(start, end).toString();
+      
+      result = validator.isValid(text, start, end) ? Optional.empty() : Optional.ofNullable(validator.getErrorMessage(value));
+      
+      cache.put(new ValueKey().set(validator, value, 0, value.length()), result);
+    }
+    
+    return result.orElse(null);
+  }
+  
+  /**
+   * Returns the number of lookups that were answered from the cache.
+   *
+   * @return hit count
+   */
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+  
+  /**
+   * Returns the number of lookups that had to run the validator.
+   *
+   * @return miss count
+   */
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+  
+  /**
+   * Returns all the statistics about the cache.
+   *
+   * @return statistics (including hits, misses and evictions)
+   */
+  public CacheStats getStats() {
+    return cache.stats();
+  }
+  
+  /**
+   * Returns the approximate number of values in the cache.
+   *
+   * @return size
+   */
+  public long size() {
+    return cache.size();
+  }
+  
+  /**
+   * Key for a validator and value, where the value is a range of some text.
+   * <p></p>
+   * Keys stored in the cache are over a String that was copied out of the text and never change, the per thread probes are reused for
+   * every lookup and never stored.
+   */
+  private static final class ValueKey {
+    private OptionValueInformation validator;
+    private CharSequence text;
+    private int start;
+    private int end;
+    private int hash;
+    
+    private ValueKey set(OptionValueInformation validator, CharSequence text, int start, int end) {
+      this.validator = validator;
+      this.text = text;
+      this.start = start;
+      this.end = end;
+      
+      int h = System.identityHashCode(validator);
+      for (int i = start; i < end; i++) {
+        h = 31 * h + text.charAt(i);
+      }
+      this.hash = h;
+      
+      return this;
+    }
+    
+    private void clear() {
+      this.validator = null;
+      this.text = null;
+    }
+    
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ValueKey)) {
+        return false;
+      }
+      
+      ValueKey that = (ValueKey) o;
+      
+      if (hash != that.hash || validator != that.validator || end - start != that.end - that.start) {
+        return false;
+      }
+      
+      for (int i = 0; i < end - start; i++) {
+        if (text.charAt(start + i) != that.text.charAt(that.start + i)) {
+          return false;
+        }
+      }
+      
+      return true;
+    }
+  }
+}
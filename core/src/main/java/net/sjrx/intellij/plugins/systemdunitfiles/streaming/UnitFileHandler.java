@@ -0,0 +1,90 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.streaming;
+
+/**
+ * Receives the events from {@link UnitFileStreamParser}, in the order the parts appear in the file.
+ * <p></p>
+ * A property is reported as {@link #key(CharSequence, int)}, followed by one {@link #valueSegment(CharSequence, int)} per line of the
+ * value, with a {@link #continuation(int)} between lines (and possibly comments), and finally {@link #endValue(int)}. Text that doesn't
+ * fit the syntax is reported with {@link #badCharacters(CharSequence, int)}, e.g., if a key isn't followed by a separator, everything up
+ * to the next separator is bad, and a value only follows that separator.
+ * <p></p>
+ * Like in SAX, the character sequences passed to the handler are only valid during the call, as the parser reuses its buffers, use
+ * {@link CharSequence#toString()} to keep them. All methods do nothing by default.
+ */
+public interface UnitFileHandler {
+
+  /**
+   * Called once before everything else, e.g., to work out line numbers from the offsets in the other events.
+   *
+   * @param text the whole (decoded) text being parsed, only valid until the end of the document like the other sequences
+   */
+  default void startDocument(CharSequence text) {
+  }
+
+  /**
+   * Called at the start of a section.
+   *
+   * @param name   the section name without the brackets (e.g., Service)
+   * @param offset the offset of the opening bracket
+   */
+  default void startSection(CharSequence name, int offset) {
+  }
+
+  /**
+   * Called at the start of a property.
+   *
+   * @param key    the key, with escaped spaces (i.e., <code>\ </code>) replaced by spaces
+   * @param offset the offset of the key
+   */
+  default void key(CharSequence key, int offset) {
+  }
+
+  /**
+   * Called for each line of a value.
+   *
+   * @param text   the text on the line, without the new line or the line continuation character, possibly empty
+   * @param offset the offset of the text
+   */
+  default void valueSegment(CharSequence text, int offset) {
+  }
+
+  /**
+   * Called when a line of a value ends with a line continuation character, so the value continues on the next line.
+   *
+   * @param offset the offset of the backslash
+   */
+  default void continuation(int offset) {
+  }
+
+  /**
+   * Called at the end of a value, including at the end of the file in the middle of a continued value.
+   *
+   * @param offset the offset after the last character of the value (excluding the new line)
+   */
+  default void endValue(int offset) {
+  }
+
+  /**
+   * Called for comments, between properties and between the lines of a value.
+   *
+   * @param text   the comment including the # or ; but without the new line
+   * @param offset the offset of the comment
+   */
+  default void comment(CharSequence text, int offset) {
+  }
+
+  /**
+   * Called for text that isn't valid where it is, e.g., a property before the first section or a key without a separator.
+   *
+   * @param text   the text
+   * @param offset the offset of the text
+   */
+  default void badCharacters(CharSequence text, int offset) {
+  }
+
+  /**
+   * Called once after everything else.
+   */
+  default void endDocument() {
+  }
+}
@@ -0,0 +1,237 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.streaming;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileScanner;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileTokenSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses unit files without the IntelliJ platform, reporting what it finds to a {@link UnitFileHandler} as it goes instead of building a
+ * tree.
+ * <p></p>
+ * The tokens come from {@link UnitFileScanner}, so the syntax (including line continuations and comments between the lines of a value)
+ * is the same as in the editor. The buffers used to decode files are kept and reused, so parsing any number of files needs only as much
+ * memory as the largest of them. Instances aren't thread safe, use one per thread.
+ */
+public final class UnitFileStreamParser {
+
+  /**
+   * Files at least this large are memory mapped, smaller ones are read into a reused buffer, which is cheaper than setting up a mapping.
+   */
+  private static final int MAPPING_THRESHOLD = 1024 * 1024;
+
+  private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+
+  private final UnitFileScanner scanner = new UnitFileScanner();
+
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                                                               .onMalformedInput(CodingErrorAction.REPLACE)
+                                                               .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  private final StringBuilder unescapedKey = new StringBuilder();
+
+  private ByteBuffer bytes = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+  private CharBuffer chars = CharBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+  /**
+   * Parses a UTF-8 encoded file.
+   *
+   * @param file    the file
+   * @param handler receives the events
+   * @throws IOException if the file can't be read
+   */
+  public void parse(Path file, UnitFileHandler handler) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(file + " is too large to be a unit file (" + size + " bytes)");
+      }
+
+      if (size >= MAPPING_THRESHOLD) {
+        parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, size), handler);
+        return;
+      }
+
+      ByteBuffer buffer = bytesWithCapacity((int) size);
+
+      while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        // Keep reading, the file may have been truncated in the meantime in which case we parse what we got
+      }
+
+      buffer.flip();
+      parse(buffer, handler);
+    }
+  }
+
+  /**
+   * Parses UTF-8 encoded text, e.g., a memory mapped file. Malformed input is replaced with U+FFFD.
+   *
+   * @param utf8    the text, from its position to its limit (the position is advanced to the limit)
+   * @param handler receives the events
+   */
+  public void parse(ByteBuffer utf8, UnitFileHandler handler) {
+    // UTF-8 never decodes to more chars than it has bytes
+    CharBuffer decoded = charsWithCapacity(utf8.remaining());
+
+    decoder.reset();
+    CoderResult result = decoder.decode(utf8, decoded, true);
+
+    if (result.isUnderflow()) {
+      result = decoder.flush(decoded);
+    }
+
+    if (!result.isUnderflow()) {
+      throw new IllegalStateException("Could not decode unit file: " + result);
+    }
+
+    decoded.flip();
+    parse(decoded, handler);
+  }
+
+  /**
+   * Parses text, e.g., a {@link CharBuffer} (in which case offsets are relative to its position).
+   *
+   * @param text    the text
+   * @param handler receives the events
+   */
+  public void parse(CharSequence text, UnitFileHandler handler) {
+    scanner.reset(text, 0, text.length(), UnitFileScanner.YYINITIAL);
+    parse(text, scanner, handler);
+  }
+
+  /**
+   * Reports the events for tokens of some text that were scanned elsewhere, e.g., kept from an earlier scan of the text.
+   *
+   * @param text    the text
+   * @param tokens  the tokens of the whole text, starting in {@link UnitFileScanner#YYINITIAL}
+   * @param handler receives the events
+   */
+  public void parse(CharSequence text, UnitFileTokenSource tokens, UnitFileHandler handler) {
+    int length = text.length();
+    int badCharactersStart = -1;
+    int valueEnd = -1;
+
+    handler.startDocument(text);
+
+    for (int token = tokens.advance(); token != UnitFileScanner.NO_TOKEN; token = tokens.advance()) {
+      int start = tokens.getTokenStart();
+      int end = tokens.getTokenEnd();
+
+      if (token == UnitFileScanner.BAD_CHARACTER) {
+        // The scanner returns bad characters one at a time
+        if (badCharactersStart < 0) {
+          badCharactersStart = start;
+        }
+        continue;
+      }
+
+      if (badCharactersStart >= 0) {
+        handler.badCharacters(text.subSequence(badCharactersStart, start), badCharactersStart);
+        badCharactersStart = -1;
+      }
+
+      switch (token) {
+        case UnitFileScanner.SECTION:
+          handler.startSection(text.subSequence(start + 1, indexOf(text, ']', start, end)), start);
+          break;
+        case UnitFileScanner.KEY:
+          handler.key(unescapeKey(text, start, end), start);
+          break;
+        case UnitFileScanner.CONTINUING_VALUE:
+          int backslash = text.charAt(end - 1) == '\n' ? end - 2 : end - 1;
+          handler.valueSegment(text.subSequence(start, backslash), start);
+          handler.continuation(backslash);
+          valueEnd = backslash + 1;
+          break;
+        case UnitFileScanner.COMPLETED_VALUE:
+          valueEnd = text.charAt(end - 1) == '\n' ? end - 1 : end;
+          handler.valueSegment(text.subSequence(start, valueEnd), start);
+          handler.endValue(valueEnd);
+          break;
+        case UnitFileScanner.COMMENT:
+          handler.comment(text.subSequence(start, text.charAt(end - 1) == '\n' ? end - 1 : end), start);
+          break;
+        default:
+          // Separators and white space
+          break;
+      }
+    }
+
+    if (badCharactersStart >= 0) {
+      handler.badCharacters(text.subSequence(badCharactersStart, length), badCharactersStart);
+    }
+
+    // Finish a value that the end of the file cut short, so that every separator is followed by a complete value
+    if (tokens.getState() == UnitFileScanner.WAITING_FOR_VALUE) {
+      handler.valueSegment("", length);
+      handler.endValue(length);
+    } else if (tokens.getState() == UnitFileScanner.VALUE_CONTINUATION) {
+      handler.endValue(valueEnd);
+    }
+
+    handler.endDocument();
+  }
+
+  private CharSequence unescapeKey(CharSequence text, int start, int end) {
+    int escape = indexOf(text, '\\', start, end);
+
+    if (escape == end) {
+      return text.subSequence(start, end);
+    }
+
+    // The scanner only allows a backslash in a key when it escapes a space
+    unescapedKey.setLength(0);
+
+    for (int i = start; i < end; i++) {
+      char c = text.charAt(i);
+
+      if (c == '\\') {
+        c = text.charAt(++i);
+      }
+
+      unescapedKey.append(c);
+    }
+
+    return unescapedKey;
+  }
+
+  private static int indexOf(CharSequence text, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) == c) {
+        return i;
+      }
+    }
+
+    return end;
+  }
+
+  private ByteBuffer bytesWithCapacity(int capacity) {
+    if (bytes.capacity() < capacity) {
+      bytes = ByteBuffer.allocate(Math.max(capacity, bytes.capacity() * 2));
+    }
+
+    bytes.clear();
+    bytes.limit(capacity);
+    return bytes;
+  }
+
+  private CharBuffer charsWithCapacity(int capacity) {
+    if (chars.capacity() < capacity) {
+      chars = CharBuffer.allocate(Math.max(capacity, chars.capacity() * 2));
+    }
+
+    chars.clear();
+    return chars;
+  }
+}
@@ -0,0 +1,77 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The times <code>systemd-analyze</code> measured for the units of one boot of a host, merged from any number of outputs, see
+ * {@link SystemdAnalyzeParser}.
+ */
+public final class MeasuredBoot {
+
+  private final String host;
+
+  private final Map<String, MeasuredUnit> units = new LinkedHashMap<>();
+
+  /**
+   * Creates an empty boot.
+   *
+   * @param host the host it was measured on
+   */
+  public MeasuredBoot(String host) {
+    this.host = host;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * Returns the times of a unit.
+   *
+   * @param unitName the unit name
+   * @return the times, or null if the unit wasn't measured
+   */
+  public MeasuredUnit getUnit(String unitName) {
+    return units.get(unitName);
+  }
+
+  /**
+   * Returns the times of every unit.
+   *
+   * @return the units, in the order they were first read
+   */
+  public Collection<MeasuredUnit> getUnits() {
+    return Collections.unmodifiableCollection(units.values());
+  }
+
+  /**
+   * Records the times of a unit, keeping those an earlier output had but this one doesn't.
+   *
+   * @param unitName       the unit name
+   * @param activeAtMillis when the unit became active, or {@link MeasuredUnit#UNKNOWN}
+   * @param durationMillis how long it took to start, or {@link MeasuredUnit#UNKNOWN}
+   */
+  public void record(String unitName, long activeAtMillis, long durationMillis) {
+    MeasuredUnit previous = units.get(unitName);
+
+    if (previous != null) {
+      activeAtMillis = activeAtMillis == MeasuredUnit.UNKNOWN ? previous.getActiveAtMillis() : activeAtMillis;
+      durationMillis = durationMillis == MeasuredUnit.UNKNOWN ? previous.getDurationMillis() : durationMillis;
+    }
+
+    units.put(unitName, new MeasuredUnit(host, unitName, activeAtMillis, durationMillis));
+  }
+
+  /**
+   * Drops the units that don't match, e.g., those that aren't in a project, so large outputs don't keep every unit of every host.
+   *
+   * @param keep whether to keep a unit, by name
+   */
+  public void retain(Predicate<String> keep) {
+    units.keySet().removeIf(keep.negate());
+  }
+}
@@ -0,0 +1,77 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+/**
+ * How long a unit took to start on a host, as <code>systemd-analyze</code> measured it.
+ */
+public final class MeasuredUnit {
+
+  /**
+   * A time that the output didn't have.
+   */
+  public static final long UNKNOWN = -1;
+
+  private final String host;
+
+  private final String unitName;
+
+  private final long activeAtMillis;
+
+  private final long durationMillis;
+
+  MeasuredUnit(String host, String unitName, long activeAtMillis, long durationMillis) {
+    this.host = host;
+    this.unitName = unitName;
+    this.activeAtMillis = activeAtMillis;
+    this.durationMillis = durationMillis;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  public String getUnitName() {
+    return unitName;
+  }
+
+  /**
+   * Returns when the unit became active, from <code>critical-chain</code> and <code>plot</code>.
+   *
+   * @return the time in milliseconds since the boot started, or {@link #UNKNOWN}
+   */
+  public long getActiveAtMillis() {
+    return activeAtMillis;
+  }
+
+  /**
+   * Returns how long the unit took to start, from <code>blame</code>, <code>critical-chain</code> and <code>plot</code>.
+   *
+   * @return the time in milliseconds, or {@link #UNKNOWN}
+   */
+  public long getDurationMillis() {
+    return durationMillis;
+  }
+
+  /**
+   * Writes the times like <code>systemd-analyze critical-chain</code> does.
+   *
+   * @return e.g., <code>@1s 200ms +700ms</code>
+   */
+  public String format() {
+    StringBuilder text = new StringBuilder();
+
+    if (activeAtMillis != UNKNOWN) {
+      text.append('@').append(TimeSpans.format(activeAtMillis));
+    }
+
+    if (durationMillis != UNKNOWN) {
+      text.append(text.length() > 0 ? " +" : "+").append(TimeSpans.format(durationMillis));
+    }
+
+    return text.toString();
+  }
+
+  @Override
+  public String toString() {
+    return unitName + " " + format() + " (" + host + ")";
+  }
+}
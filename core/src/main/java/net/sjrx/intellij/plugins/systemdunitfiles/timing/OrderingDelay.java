@@ -0,0 +1,59 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+/**
+ * A unit that was measured to wait on one of the units it is ordered after for longer than on all the others, so that dropping or
+ * speeding up that ordering dependency would let it start that much sooner.
+ */
+public final class OrderingDelay {
+
+  private final String host;
+
+  private final String unitName;
+
+  private final String dependency;
+
+  private final long delayMillis;
+
+  OrderingDelay(String host, String unitName, String dependency, long delayMillis) {
+    this.host = host;
+    this.unitName = unitName;
+    this.dependency = dependency;
+    this.delayMillis = delayMillis;
+  }
+
+  public String getHost() {
+    return host;
+  }
+
+  /**
+   * Returns the unit that waited.
+   *
+   * @return the unit name
+   */
+  public String getUnitName() {
+    return unitName;
+  }
+
+  /**
+   * Returns the unit it waited for the longest.
+   *
+   * @return the unit name
+   */
+  public String getDependency() {
+    return dependency;
+  }
+
+  /**
+   * Returns how much longer it waited for the dependency than for any other unit.
+   *
+   * @return the time in milliseconds, or {@link TimeSpans#INFINITY}
+   */
+  public long getDelayMillis() {
+    return delayMillis;
+  }
+
+  @Override
+  public String toString() {
+    return unitName + " waited " + TimeSpans.format(delayMillis) + " longer for " + dependency + " (" + host + ")";
+  }
+}
@@ -0,0 +1,109 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the output of <code>systemd-analyze blame</code>, <code>critical-chain</code> and <code>plot</code> a line at a time, so that
+ * outputs of any size can be read without holding them in memory. Each line is recognized on its own, so outputs can be concatenated, and
+ * lines that are none of these (headers, SVG markup) are skipped.
+ * <ul>
+ *   <li><code>blame</code>: <code>1min 2.345s foo.service</code>, how long the unit took to start</li>
+ *   <li><code>critical-chain</code>: <code>└─foo.service @1.234s +700ms</code>, when it became active and how long it took</li>
+ *   <li><code>plot</code>: <code>&lt;text class="left" x="25.000" y="..."&gt;foo.service (700ms)&lt;/text&gt;</code>, where the x position
+ *   is when it started activating</li>
+ * </ul>
+ */
+public final class SystemdAnalyzeParser {
+
+  /**
+   * Pixels per millisecond in <code>plot</code>'s time axis.
+   */
+  private static final double PLOT_PIXELS_PER_MILLI = 0.1;
+
+  /**
+   * How far <code>plot</code> puts labels from the start of their bar.
+   */
+  private static final double PLOT_LABEL_OFFSET = 5.0;
+
+  private static final Pattern PLOT_LABEL = Pattern.compile(
+    "<text class=\"(left|right)\" x=\"([0-9.]+)\"[^>]*>\\s*(\\S+)\\s*\\(([^)]+)\\)\\s*</text>");
+
+  /**
+   * The tree is drawn with box drawing characters, or ASCII ones without a UTF-8 locale.
+   */
+  private static final Pattern CHAIN_LINE = Pattern.compile(
+    "^[\\s\\u2502\\u2514\\u251c\\u2500|`\\-]*(\\S+)\\s+@([^+]+?)(?:\\s+\\+(.+?))?\\s*$");
+
+  private static final Pattern BLAME_LINE = Pattern.compile("^\\s*(\\d.*?)\\s+(\\S+)\\s*$");
+
+  /**
+   * Reads an output.
+   *
+   * @param reader the output
+   * @param boot   where the times are recorded
+   * @return the number of lines with the times of a unit
+   * @throws IOException if reading fails
+   */
+  public int parse(BufferedReader reader, MeasuredBoot boot) throws IOException {
+    int units = 0;
+
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      if (parseLine(line, boot)) {
+        units++;
+      }
+    }
+
+    return units;
+  }
+
+  /**
+   * Reads a line of an output.
+   *
+   * @param line the line, without the line break
+   * @param boot where the times are recorded
+   * @return true if the line had the times of a unit
+   */
+  public boolean parseLine(String line, MeasuredBoot boot) {
+    if (line.contains("<text")) {
+      Matcher label = PLOT_LABEL.matcher(line);
+      long duration = label.find() ? TimeSpans.parse(label.group(4)) : TimeSpans.INVALID;
+
+      if (duration == TimeSpans.INVALID || !UnitNames.isUnitName(label.group(3))) {
+        return false;
+      }
+
+      double x = Double.parseDouble(label.group(2)) + (label.group(1).equals("left") ? -PLOT_LABEL_OFFSET : PLOT_LABEL_OFFSET);
+      long activating = Math.max(Math.round(x / PLOT_PIXELS_PER_MILLI), 0);
+      boot.record(label.group(3), TimeSpans.add(activating, duration), duration);
+      return true;
+    }
+
+    if (line.contains(" @")) {
+      Matcher chain = CHAIN_LINE.matcher(line);
+      long activeAt = chain.matches() ? TimeSpans.parse(chain.group(2)) : TimeSpans.INVALID;
+
+      if (activeAt == TimeSpans.INVALID || !UnitNames.isUnitName(chain.group(1))) {
+        return false;
+      }
+
+      long duration = chain.group(3) == null ? TimeSpans.INVALID : TimeSpans.parse(chain.group(3));
+      boot.record(chain.group(1), activeAt, duration == TimeSpans.INVALID ? MeasuredUnit.UNKNOWN : duration);
+      return true;
+    }
+
+    Matcher blame = BLAME_LINE.matcher(line);
+    long duration = blame.matches() ? TimeSpans.parse(blame.group(1)) : TimeSpans.INVALID;
+
+    if (duration == TimeSpans.INVALID || !UnitNames.isUnitName(blame.group(2))) {
+      return false;
+    }
+
+    boot.record(blame.group(2), MeasuredUnit.UNKNOWN, duration);
+    return true;
+  }
+}
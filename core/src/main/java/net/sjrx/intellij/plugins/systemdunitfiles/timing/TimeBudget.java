@@ -0,0 +1,128 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The worst case time of a boot or a shutdown, as the critical path of units that wait for each other.
+ */
+public final class TimeBudget {
+
+  private final String title;
+
+  private final long totalMillis;
+
+  private final List<Step> steps;
+
+  TimeBudget(String title, long totalMillis, List<Step> steps) {
+    this.title = title;
+    this.totalMillis = totalMillis;
+    this.steps = Collections.unmodifiableList(steps);
+  }
+
+  /**
+   * Returns what was analyzed.
+   *
+   * @return e.g., <code>Boot to multi-user.target</code>
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Returns how long it takes in the worst case.
+   *
+   * @return the time in milliseconds, or {@link TimeSpans#INFINITY} if a unit on the path can wait forever
+   */
+  public long getTotalMillis() {
+    return totalMillis;
+  }
+
+  /**
+   * Returns the units on the critical path, in the order they start (or stop).
+   *
+   * @return the steps, each starting when the previous one is done
+   */
+  public List<Step> getSteps() {
+    return steps;
+  }
+
+  /**
+   * Writes the budget as text, with a line per unit on the critical path and how much it contributes.
+   *
+   * @return the text
+   */
+  public String format() {
+    StringBuilder text = new StringBuilder();
+    text.append(title).append(": worst case ").append(TimeSpans.format(totalMillis)).append('\n');
+
+    for (Step step : steps) {
+      text.append("  @").append(TimeSpans.format(step.startsAtMillis)).append(' ').append(step.unitName).append(" +")
+        .append(TimeSpans.format(step.durationMillis)).append(" (").append(step.reason).append(")\n");
+    }
+
+    return text.toString();
+  }
+
+  @Override
+  public String toString() {
+    return title + ": " + TimeSpans.format(totalMillis) + " " + steps;
+  }
+
+  /**
+   * A unit on the critical path.
+   */
+  public static final class Step {
+
+    private final String unitName;
+
+    private final long startsAtMillis;
+
+    private final long durationMillis;
+
+    private final String reason;
+
+    Step(String unitName, long startsAtMillis, long durationMillis, String reason) {
+      this.unitName = unitName;
+      this.startsAtMillis = startsAtMillis;
+      this.durationMillis = durationMillis;
+      this.reason = reason;
+    }
+
+    public String getUnitName() {
+      return unitName;
+    }
+
+    /**
+     * Returns when the unit starts (or stops) in the worst case, relative to the start of the boot (or shutdown).
+     *
+     * @return the time in milliseconds, or {@link TimeSpans#INFINITY}
+     */
+    public long getStartsAtMillis() {
+      return startsAtMillis;
+    }
+
+    /**
+     * Returns how long the unit contributes.
+     *
+     * @return the time in milliseconds, or {@link TimeSpans#INFINITY}
+     */
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    /**
+     * Returns where the duration comes from, see {@link UnitTiming#getStartReason()}.
+     *
+     * @return the reason
+     */
+    public String getReason() {
+      return reason;
+    }
+
+    @Override
+    public String toString() {
+      return unitName + "+" + TimeSpans.format(durationMillis);
+    }
+  }
+}
@@ -0,0 +1,519 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveConfigurationEngine;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.SearchPath;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * Works out how long a boot to a target and a shutdown can take in the worst case, from the timeouts of the units and the ordering
+ * dependencies between them.
+ * <p></p>
+ * A boot starts every unit the target pulls in (<code>Requires=</code>, <code>Wants=</code>, ..., and the <code>[Install]</code> section of
+ * units as if they were enabled), and a unit is done once the units it is ordered after are done and it started itself. A shutdown stops
+ * every unit, and a unit is stopped once the units ordered after it are stopped and it stopped itself. The critical path is the chain of
+ * units that waited on each other the longest. Of the default dependencies systemd adds, only the ordering of targets after the units
+ * they pull in is modelled.
+ * <p></p>
+ * The same paths can be worked out from the times a boot was measured to take (see {@link MeasuredBoot}), to compare them with the
+ * worst case and to find the ordering dependencies that held units up the most.
+ * <p></p>
+ * Results are cached. When a file changes only its unit's timing is read again, and if its dependencies are the same only the units that
+ * wait for it are computed again.
+ */
+public final class TimeBudgetAnalyzer {
+
+  /**
+   * The default of <code>DefaultTimeoutStartSec=</code> and <code>DefaultTimeoutStopSec=</code>, see systemd-system.conf(5).
+   */
+  public static final long DEFAULT_TIMEOUT_MILLIS = 90_000;
+
+  private final EffectiveConfigurationEngine engine;
+
+  private final long[] defaults;
+
+  /**
+   * Path -> the unit the file (or drop-in) configures.
+   */
+  private final Map<String, String> paths = new HashMap<>();
+
+  private final Set<String> dirty = new LinkedHashSet<>();
+
+  private final Map<String, UnitTiming> timings = new HashMap<>();
+
+  private boolean graphValid;
+
+  /**
+   * Unit -> the units it is ordered after, so it waits for them when starting (and they wait for it when stopping).
+   */
+  private final Map<String, Set<String>> waitsFor = new HashMap<>();
+
+  /**
+   * Unit -> the units that are ordered after it.
+   */
+  private final Map<String, Set<String>> waitedForBy = new HashMap<>();
+
+  /**
+   * Unit -> the units starting it pulls in.
+   */
+  private final Map<String, Set<String>> pulls = new HashMap<>();
+
+  /**
+   * Target -> the units started to reach it, with when they are done.
+   */
+  private final Map<String, Memo> boots = new HashMap<>();
+
+  /**
+   * Unit -> when it is stopped, counted from the start of the shutdown.
+   */
+  private final Memo shutdown = new Memo(Collections.emptySet());
+
+  private int evaluations;
+
+  /**
+   * Creates an analyzer with systemd's default timeouts.
+   *
+   * @param searchPath where units are loaded from
+   * @param sdr        the semantic data, for whether keys are lists
+   */
+  public TimeBudgetAnalyzer(SearchPath searchPath, SemanticDataRepository sdr) {
+    this(searchPath, sdr, DEFAULT_TIMEOUT_MILLIS, DEFAULT_TIMEOUT_MILLIS);
+  }
+
+  /**
+   * Creates an analyzer.
+   *
+   * @param searchPath               where units are loaded from
+   * @param sdr                      the semantic data, for whether keys are lists
+   * @param defaultTimeoutStartMillis the manager's <code>DefaultTimeoutStartSec=</code>
+   * @param defaultTimeoutStopMillis  the manager's <code>DefaultTimeoutStopSec=</code>
+   */
+  public TimeBudgetAnalyzer(SearchPath searchPath, SemanticDataRepository sdr, long defaultTimeoutStartMillis,
+                            long defaultTimeoutStopMillis) {
+    this.engine = new EffectiveConfigurationEngine(searchPath, sdr);
+    this.defaults = new long[] {defaultTimeoutStartMillis, defaultTimeoutStopMillis};
+  }
+
+  /**
+   * Adds a unit file or drop-in, or replaces it if it changed.
+   *
+   * @param path the path of the file, with / as the separator
+   * @param text the text of the file
+   * @return false if the file isn't a unit file or a drop-in, and so is ignored
+   */
+  public boolean update(String path, CharSequence text) {
+    if (!engine.update(path, text)) {
+      return false;
+    }
+
+    int slash = path.lastIndexOf('/');
+    String directory = slash < 0 ? "" : path.substring(0, slash);
+    String unitName = UnitNames.getUnitName(path.substring(slash + 1), directory.substring(directory.lastIndexOf('/') + 1));
+
+    String previous = paths.put(path, unitName);
+    if (previous != null) {
+      markDirty(previous);
+    }
+    markDirty(unitName);
+
+    return true;
+  }
+
+  /**
+   * Removes a file.
+   *
+   * @param path the path of the file
+   */
+  public void remove(String path) {
+    String unitName = paths.remove(path);
+
+    if (unitName != null) {
+      engine.remove(path);
+      markDirty(unitName);
+    }
+  }
+
+  /**
+   * Returns the timing of a unit.
+   *
+   * @param unitName the unit name
+   * @return the timing, units without a file start and stop right away
+   */
+  public UnitTiming getTiming(String unitName) {
+    refresh();
+
+    UnitTiming timing = timings.get(unitName);
+    return timing != null ? timing : UnitTiming.of(unitName, engine.getEffectiveConfiguration(unitName), defaults);
+  }
+
+  /**
+   * Works out the worst case time until a target is reached.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @return the critical path, ending with the target
+   */
+  public TimeBudget analyzeBoot(String target) {
+    refresh();
+
+    Memo memo = boots.computeIfAbsent(target, name -> new Memo(transaction(name)));
+    evaluate(target, memo, waitsFor, unit -> timing(unit).getStartMillis());
+
+    List<TimeBudget.Step> steps = new ArrayList<>();
+    for (String unit = target; unit != null; unit = memo.via.get(unit)) {
+      long duration = timing(unit).getStartMillis();
+      steps.add(0, step(unit, memo.done.get(unit), duration, timing(unit).getStartReason()));
+    }
+
+    return new TimeBudget("Boot to " + target, memo.done.get(target), steps);
+  }
+
+  /**
+   * Works out the worst case time until every unit is stopped.
+   *
+   * @return the critical path, starting with the unit that is stopped first
+   */
+  public TimeBudget analyzeShutdown() {
+    refresh();
+
+    String last = null;
+    for (String unit : new ArrayList<>(timings.keySet())) {
+      evaluate(unit, shutdown, waitedForBy, name -> timing(name).getStopMillis());
+
+      if (last == null || shutdown.done.get(unit) > shutdown.done.get(last)) {
+        last = unit;
+      }
+    }
+
+    List<TimeBudget.Step> steps = new ArrayList<>();
+    for (String unit = last; unit != null; unit = shutdown.via.get(unit)) {
+      long duration = timing(unit).getStopMillis();
+      steps.add(0, step(unit, shutdown.done.get(unit), duration, timing(unit).getStopReason()));
+    }
+
+    return new TimeBudget("Shutdown", last == null ? 0 : shutdown.done.get(last), steps);
+  }
+
+  /**
+   * Works out the critical path to a target from the times a boot was measured to take instead of the timeouts, along the same ordering
+   * dependencies. Units that weren't measured count as starting right away.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @param boot   the measured times
+   * @return the critical path, ending with the target
+   */
+  public TimeBudget analyzeMeasuredBoot(String target, MeasuredBoot boot) {
+    refresh();
+
+    Memo memo = new Memo(transaction(target));
+    evaluate(target, memo, waitsFor, unit -> measuredDuration(boot, unit));
+
+    List<TimeBudget.Step> steps = new ArrayList<>();
+    for (String unit = target; unit != null; unit = memo.via.get(unit)) {
+      MeasuredUnit measured = boot.getUnit(unit);
+      String reason = measured == null ? "not measured" : "measured " + measured.format();
+      steps.add(0, step(unit, memo.done.get(unit), measuredDuration(boot, unit), reason));
+    }
+
+    return new TimeBudget("Measured boot to " + target + " on " + boot.getHost(), memo.done.get(target), steps);
+  }
+
+  /**
+   * Finds the units of a measured boot that waited for one of the units they are ordered after for longer than for all the others.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @param boot   the measured times
+   * @return the delays, longest first
+   */
+  public List<OrderingDelay> findOrderingDelays(String target, MeasuredBoot boot) {
+    refresh();
+
+    Memo memo = new Memo(transaction(target));
+    List<OrderingDelay> delays = new ArrayList<>();
+
+    for (String unit : memo.units) {
+      evaluate(unit, memo, waitsFor, name -> measuredDuration(boot, name));
+      String longest = memo.via.get(unit);
+
+      if (longest == null) {
+        continue;
+      }
+
+      long others = 0;
+      for (String other : waitsFor.getOrDefault(unit, Collections.emptySet())) {
+        Long done = memo.includes(other) && !other.equals(longest) ? memo.done.get(other) : null;
+
+        if (done != null) {
+          others = Math.max(others, done);
+        }
+      }
+
+      long longestDone = memo.done.get(longest);
+      delays.add(new OrderingDelay(boot.getHost(), unit, longest, longestDone == TimeSpans.INFINITY ? longestDone : longestDone - others));
+    }
+
+    delays.sort(Comparator.comparingLong(OrderingDelay::getDelayMillis).reversed().thenComparing(OrderingDelay::getUnitName));
+    return delays;
+  }
+
+  /**
+   * Returns the number of times a unit's finish time was computed, i.e., not taken from the cache.
+   */
+  int getEvaluations() {
+    return evaluations;
+  }
+
+  private void markDirty(String unitName) {
+    dirty.add(unitName);
+
+    // Instances are configured by their template
+    for (String known : timings.keySet()) {
+      if (unitName.equals(UnitNames.getTemplateName(known))) {
+        dirty.add(known);
+      }
+    }
+  }
+
+  private void refresh() {
+    for (String unit : dirty) {
+      if (isTemplate(unit)) {
+        continue;
+      }
+
+      UnitTiming previous = timings.get(unit);
+      UnitTiming timing = UnitTiming.of(unit, engine.getEffectiveConfiguration(unit), defaults);
+
+      if (previous == null || !previous.hasSameDependencies(timing)) {
+        graphValid = false;
+        continue;
+      }
+
+      timings.put(unit, timing);
+
+      if (previous.getStartMillis() != timing.getStartMillis()) {
+        for (Memo memo : boots.values()) {
+          memo.forget(unit, waitedForBy);
+        }
+      }
+
+      if (previous.getStopMillis() != timing.getStopMillis()) {
+        shutdown.forget(unit, waitsFor);
+      }
+    }
+
+    if (!graphValid) {
+      rebuild();
+    }
+    dirty.clear();
+  }
+
+  /**
+   * Reads the timing of every unit with a file and of every unit they refer to, and links them up.
+   */
+  private void rebuild() {
+    Map<String, UnitTiming> previous = new HashMap<>(timings);
+    timings.clear();
+    waitsFor.clear();
+    waitedForBy.clear();
+    pulls.clear();
+    boots.clear();
+    shutdown.clear();
+
+    Deque<String> todo = new ArrayDeque<>(paths.values());
+    while (!todo.isEmpty()) {
+      String unit = todo.pop();
+
+      if (timings.containsKey(unit) || isTemplate(unit)) {
+        continue;
+      }
+
+      UnitTiming timing = previous.get(unit);
+      if (timing == null || dirty.contains(unit)) {
+        timing = UnitTiming.of(unit, engine.getEffectiveConfiguration(unit), defaults);
+      }
+      timings.put(unit, timing);
+
+      for (String other : timing.getAfter()) {
+        link(waitsFor, unit, other);
+        link(waitedForBy, other, unit);
+      }
+      for (String other : timing.getBefore()) {
+        link(waitsFor, other, unit);
+        link(waitedForBy, unit, other);
+      }
+      for (String other : timing.getPulls()) {
+        link(pulls, unit, other);
+      }
+      for (String other : timing.getPulledBy()) {
+        link(pulls, other, unit);
+      }
+
+      todo.addAll(timing.getAfter());
+      todo.addAll(timing.getBefore());
+      todo.addAll(timing.getPulls());
+      todo.addAll(timing.getPulledBy());
+    }
+
+    // Targets are ordered after the units they pull in, unless that is the wrong way around
+    for (Map.Entry<String, Set<String>> entry : pulls.entrySet()) {
+      String unit = entry.getKey();
+
+      if (unit.endsWith(".target")) {
+        for (String other : entry.getValue()) {
+          if (!waitsFor.getOrDefault(other, Collections.emptySet()).contains(unit)) {
+            link(waitsFor, unit, other);
+            link(waitedForBy, other, unit);
+          }
+        }
+      }
+    }
+
+    graphValid = true;
+  }
+
+  private Set<String> transaction(String target) {
+    Set<String> units = new HashSet<>();
+    Deque<String> todo = new ArrayDeque<>();
+    todo.push(target);
+
+    while (!todo.isEmpty()) {
+      String unit = todo.pop();
+
+      if (units.add(unit)) {
+        todo.addAll(pulls.getOrDefault(unit, Collections.emptySet()));
+      }
+    }
+
+    return units;
+  }
+
+  /**
+   * Computes when a unit is done, after the units it waits for, without recursing so long chains don't overflow the stack. Units it waits
+   * for through a cycle are left out, as systemd breaks the cycle.
+   */
+  private void evaluate(String unit, Memo memo, Map<String, Set<String>> edges, ToLongFunction<String> duration) {
+    Set<String> expanded = new HashSet<>();
+    Deque<String> stack = new ArrayDeque<>();
+    stack.push(unit);
+
+    while (!stack.isEmpty()) {
+      String current = stack.peek();
+
+      if (memo.done.containsKey(current)) {
+        stack.pop();
+        continue;
+      }
+
+      Set<String> waits = edges.getOrDefault(current, Collections.emptySet());
+
+      if (expanded.add(current)) {
+        for (String other : waits) {
+          if (memo.includes(other) && !expanded.contains(other) && !memo.done.containsKey(other)) {
+            stack.push(other);
+          }
+        }
+        continue;
+      }
+
+      stack.pop();
+      long ready = 0;
+      String via = null;
+
+      for (String other : waits) {
+        Long done = memo.includes(other) ? memo.done.get(other) : null;
+
+        if (done != null && done > ready) {
+          ready = done;
+          via = other;
+        }
+      }
+
+      memo.done.put(current, TimeSpans.add(ready, duration.applyAsLong(current)));
+      memo.via.put(current, via);
+      evaluations++;
+    }
+  }
+
+  private static long measuredDuration(MeasuredBoot boot, String unit) {
+    MeasuredUnit measured = boot.getUnit(unit);
+    return measured == null || measured.getDurationMillis() == MeasuredUnit.UNKNOWN ? 0 : measured.getDurationMillis();
+  }
+
+  private UnitTiming timing(String unit) {
+    return timings.computeIfAbsent(unit, name -> UnitTiming.of(name, null, defaults));
+  }
+
+  private static TimeBudget.Step step(String unit, long done, long duration, String reason) {
+    // An unbounded wait makes everything after it unbounded too
+    long startsAt = done == TimeSpans.INFINITY ? TimeSpans.INFINITY : done - duration;
+    return new TimeBudget.Step(unit, startsAt, duration, reason);
+  }
+
+  private static void link(Map<String, Set<String>> edges, String from, String to) {
+    edges.computeIfAbsent(from, name -> new LinkedHashSet<>()).add(to);
+  }
+
+  private static boolean isTemplate(String unitName) {
+    int at = unitName.indexOf('@');
+    return at > 0 && unitName.lastIndexOf('.') == at + 1;
+  }
+
+  /**
+   * When units are done, and which unit they waited for the longest.
+   */
+  private static final class Memo {
+
+    private final Set<String> units;
+
+    private final Map<String, Long> done = new HashMap<>();
+
+    private final Map<String, String> via = new HashMap<>();
+
+    private Memo(Set<String> units) {
+      this.units = units;
+    }
+
+    /**
+     * Returns whether a unit takes part, an empty set means all of them do.
+     */
+    private boolean includes(String unit) {
+      return units.isEmpty() || units.contains(unit);
+    }
+
+    /**
+     * Forgets when a unit and everything that waits for it are done.
+     */
+    private void forget(String unit, Map<String, Set<String>> waitingOn) {
+      Set<String> seen = new HashSet<>();
+      Deque<String> todo = new ArrayDeque<>();
+      todo.push(unit);
+
+      while (!todo.isEmpty()) {
+        String current = todo.pop();
+
+        if (seen.add(current)) {
+          done.remove(current);
+          via.remove(current);
+          todo.addAll(waitingOn.getOrDefault(current, Collections.emptySet()));
+        }
+      }
+    }
+
+    private void clear() {
+      done.clear();
+      via.clear();
+    }
+  }
+}
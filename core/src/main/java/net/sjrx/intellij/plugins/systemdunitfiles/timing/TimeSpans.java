@@ -0,0 +1,148 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+
+/**
+ * Parses and formats time spans the way systemd writes them, see systemd.time(7), e.g., <code>90</code>, <code>1min 30s</code> or
+ * <code>infinity</code>. Spans are kept in milliseconds.
+ */
+public final class TimeSpans {
+
+  /**
+   * A timeout that is disabled, so the wait is unbounded.
+   */
+  public static final long INFINITY = Long.MAX_VALUE;
+
+  /**
+   * Returned by {@link #parse(String)} for values that aren't time spans.
+   */
+  public static final long INVALID = -1;
+
+  private static final double MICROS_PER_MILLI = 1000;
+
+  /**
+   * Unit -> the number of microseconds in it.
+   */
+  private static final Map<String, Double> UNITS = ImmutableMap.<String, Double>builder()
+    .put("us", 1.0).put("\u00b5s", 1.0).put("usec", 1.0)
+    .put("ms", 1e3).put("msec", 1e3)
+    .put("s", 1e6).put("sec", 1e6).put("second", 1e6).put("seconds", 1e6)
+    .put("m", 60e6).put("min", 60e6).put("minute", 60e6).put("minutes", 60e6)
+    .put("h", 3600e6).put("hr", 3600e6).put("hour", 3600e6).put("hours", 3600e6)
+    .put("d", 86400e6).put("day", 86400e6).put("days", 86400e6)
+    .put("w", 604800e6).put("week", 604800e6).put("weeks", 604800e6)
+    .put("M", 2629800e6).put("month", 2629800e6).put("months", 2629800e6)
+    .put("y", 31557600e6).put("year", 31557600e6).put("years", 31557600e6)
+    .build();
+
+  private static final long[] FORMAT_MILLIS = {86_400_000, 3_600_000, 60_000, 1000, 1};
+
+  private static final String[] FORMAT_UNITS = {"d", "h", "min", "s", "ms"};
+
+  private TimeSpans() {
+  }
+
+  /**
+   * Parses a time span, numbers without a unit are seconds.
+   *
+   * @param value the value, e.g., <code>5min 20s</code>
+   * @return the span in milliseconds (rounded), {@link #INFINITY} for <code>infinity</code>, or {@link #INVALID}
+   */
+  public static long parse(String value) {
+    String text = value.trim();
+
+    if (text.equals("infinity")) {
+      return INFINITY;
+    }
+
+    if (text.isEmpty()) {
+      return INVALID;
+    }
+
+    double micros = 0;
+    int i = 0;
+
+    while (i < text.length()) {
+      int start = i;
+      while (i < text.length() && (Character.isDigit(text.charAt(i)) || text.charAt(i) == '.')) {
+        i++;
+      }
+      if (start == i) {
+        return INVALID;
+      }
+
+      double number;
+      try {
+        number = Double.parseDouble(text.substring(start, i));
+      } catch (NumberFormatException e) {
+        return INVALID;
+      }
+
+      while (i < text.length() && text.charAt(i) == ' ') {
+        i++;
+      }
+
+      int unitStart = i;
+      while (i < text.length() && Character.isLetter(text.charAt(i))) {
+        i++;
+      }
+
+      Double unit = unitStart == i ? UNITS.get("s") : UNITS.get(text.substring(unitStart, i));
+      if (unit == null) {
+        return INVALID;
+      }
+      micros += number * unit;
+
+      while (i < text.length() && text.charAt(i) == ' ') {
+        i++;
+      }
+    }
+
+    return Math.round(micros / MICROS_PER_MILLI);
+  }
+
+  /**
+   * Formats a time span.
+   *
+   * @param millis the span in milliseconds, or {@link #INFINITY}
+   * @return e.g., <code>1min 30s</code>, <code>0</code> or <code>infinity</code>
+   */
+  public static String format(long millis) {
+    if (millis == INFINITY) {
+      return "infinity";
+    }
+
+    if (millis == 0) {
+      return "0";
+    }
+
+    StringBuilder text = new StringBuilder();
+    long rest = millis;
+
+    for (int i = 0; i < FORMAT_MILLIS.length; i++) {
+      if (rest >= FORMAT_MILLIS[i]) {
+        if (text.length() > 0) {
+          text.append(' ');
+        }
+        text.append(rest / FORMAT_MILLIS[i]).append(FORMAT_UNITS[i]);
+        rest %= FORMAT_MILLIS[i];
+      }
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Adds two spans, either of which may be {@link #INFINITY}.
+   *
+   * @param a a span
+   * @param b another span
+   * @return the sum, {@link #INFINITY} if either is (or the sum overflows)
+   */
+  public static long add(long a, long b) {
+    long sum = a + b;
+    return a == INFINITY || b == INFINITY || sum < 0 ? INFINITY : sum;
+  }
+}
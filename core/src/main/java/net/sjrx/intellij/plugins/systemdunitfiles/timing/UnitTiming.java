@@ -0,0 +1,314 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.google.common.collect.ImmutableSet;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.Assignment;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveConfiguration;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveOption;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * How long starting and stopping a unit can take at most, and the dependencies that order and pull in other units, worked out from its
+ * {@link EffectiveConfiguration}.
+ * <p></p>
+ * The start of a service that systemd waits for (every type but <code>simple</code>, <code>exec</code> and <code>idle</code>, or those
+ * with <code>ExecStartPre=</code> or <code>ExecStartPost=</code> commands) can take up to its start timeout, which covers all of its start
+ * commands. Stopping can take up to the stop timeout. Mounts and swaps wait for their timeouts, sockets only when they run commands, and
+ * all other units start and stop right away.
+ */
+public final class UnitTiming {
+
+  private static final Set<String> TYPES_NOT_WAITED_FOR = ImmutableSet.of("simple", "exec", "idle");
+
+  /**
+   * The values systemd reads as true, see parse_boolean().
+   */
+  private static final Set<String> TRUE_VALUES = ImmutableSet.of("1", "yes", "y", "true", "t", "on");
+
+  private final String unitName;
+
+  private final long startMillis;
+
+  private final String startReason;
+
+  private final long stopMillis;
+
+  private final String stopReason;
+
+  private final Set<String> after;
+
+  private final Set<String> before;
+
+  private final Set<String> pulls;
+
+  private final Set<String> pulledBy;
+
+  private UnitTiming(String unitName, long startMillis, String startReason, long stopMillis, String stopReason, Set<String> after,
+                     Set<String> before, Set<String> pulls, Set<String> pulledBy) {
+    this.unitName = unitName;
+    this.startMillis = startMillis;
+    this.startReason = startReason;
+    this.stopMillis = stopMillis;
+    this.stopReason = stopReason;
+    this.after = after;
+    this.before = before;
+    this.pulls = pulls;
+    this.pulledBy = pulledBy;
+  }
+
+  /**
+   * Works out the timing of a unit.
+   *
+   * @param unitName      the unit name
+   * @param configuration the unit's configuration, or null if there is no file for it (e.g., units that come with systemd)
+   * @param defaults      the manager's <code>DefaultTimeoutStartSec=</code> and <code>DefaultTimeoutStopSec=</code> in milliseconds
+   * @return the timing
+   */
+  static UnitTiming of(String unitName, EffectiveConfiguration configuration, long[] defaults) {
+    if (configuration == null) {
+      return new UnitTiming(unitName, 0, "no unit file", 0, "no unit file", Collections.emptySet(), Collections.emptySet(),
+        Collections.emptySet(), Collections.emptySet());
+    }
+
+    Set<String> after = new LinkedHashSet<>();
+    Set<String> before = new LinkedHashSet<>();
+    Set<String> pulls = new LinkedHashSet<>();
+    Set<String> pulledBy = new LinkedHashSet<>();
+
+    for (EffectiveOption option : configuration.getOptions()) {
+      DependencyType type = DependencyType.forKey(option.getSection(), option.getKey());
+
+      if (type == null) {
+        continue;
+      }
+
+      switch (type) {
+        case AFTER:
+          addNames(after, option);
+          break;
+        case BEFORE:
+          addNames(before, option);
+          break;
+        case REQUIRES:
+        case REQUISITE:
+        case WANTS:
+        case BINDS_TO:
+        case UPHOLDS:
+          addNames(pulls, option);
+          break;
+        case WANTED_BY:
+        case REQUIRED_BY:
+        case UPHELD_BY:
+          addNames(pulledBy, option);
+          break;
+        default:
+          break;
+      }
+    }
+
+    String unitType = unitName.substring(unitName.lastIndexOf('.') + 1);
+    Timeout start;
+    Timeout stop;
+
+    switch (unitType) {
+      case "service":
+        String serviceType = value(configuration, "Service", "Type");
+        if (serviceType == null) {
+          serviceType = value(configuration, "Service", "ExecStart") == null ? "oneshot" : "simple";
+        }
+
+        boolean oneshot = "oneshot".equals(serviceType);
+        int startCommands = count(configuration, "Service", "ExecStartPre") + count(configuration, "Service", "ExecStartPost");
+
+        if (TYPES_NOT_WAITED_FOR.contains(serviceType) && startCommands == 0) {
+          start = new Timeout(0, "Type=" + serviceType);
+        } else {
+          // Oneshot services don't time out unless they say so
+          Timeout timeout = timeout(configuration, "Service", "TimeoutStartSec", oneshot ? TimeSpans.INFINITY : defaults[0]);
+          start = new Timeout(timeout.millis, "Type=" + serviceType + ", " + timeout.reason
+                                              + (startCommands > 0 ? ", " + startCommands + " ExecStartPre=/ExecStartPost=" : ""));
+        }
+
+        if (oneshot && !isTrue(value(configuration, "Service", "RemainAfterExit"))) {
+          stop = new Timeout(0, "Type=oneshot, not active after it ran");
+        } else {
+          stop = timeout(configuration, "Service", "TimeoutStopSec", defaults[1]);
+        }
+        break;
+      case "mount":
+      case "swap":
+        String section = Character.toUpperCase(unitType.charAt(0)) + unitType.substring(1);
+        start = timeout(configuration, section, "TimeoutSec", defaults[0]);
+        stop = timeout(configuration, section, "TimeoutSec", defaults[1]);
+        break;
+      case "socket":
+        boolean startRuns = count(configuration, "Socket", "ExecStartPre") + count(configuration, "Socket", "ExecStartPost") > 0;
+        boolean stopRuns = count(configuration, "Socket", "ExecStopPre") + count(configuration, "Socket", "ExecStopPost") > 0;
+        start = startRuns ? timeout(configuration, "Socket", "TimeoutSec", defaults[0]) : new Timeout(0, "no commands");
+        stop = stopRuns ? timeout(configuration, "Socket", "TimeoutSec", defaults[1]) : new Timeout(0, "no commands");
+        break;
+      default:
+        start = new Timeout(0, "." + unitType + " units don't wait");
+        stop = start;
+        break;
+    }
+
+    return new UnitTiming(unitName, start.millis, start.reason, stop.millis, stop.reason, after, before, pulls, pulledBy);
+  }
+
+  public String getUnitName() {
+    return unitName;
+  }
+
+  /**
+   * Returns how long starting the unit can take at most.
+   *
+   * @return the time in milliseconds, or {@link TimeSpans#INFINITY}
+   */
+  public long getStartMillis() {
+    return startMillis;
+  }
+
+  /**
+   * Returns where the start time comes from.
+   *
+   * @return e.g., <code>Type=notify, TimeoutStartSec=90s (default)</code>
+   */
+  public String getStartReason() {
+    return startReason;
+  }
+
+  /**
+   * Returns how long stopping the unit can take at most.
+   *
+   * @return the time in milliseconds, or {@link TimeSpans#INFINITY}
+   */
+  public long getStopMillis() {
+    return stopMillis;
+  }
+
+  /**
+   * Returns where the stop time comes from.
+   *
+   * @return e.g., <code>TimeoutStopSec=5s</code>
+   */
+  public String getStopReason() {
+    return stopReason;
+  }
+
+  /**
+   * Returns whether another timing has the same dependencies.
+   *
+   * @param other the other timing
+   * @return true if only the times can differ
+   */
+  boolean hasSameDependencies(UnitTiming other) {
+    return after.equals(other.after) && before.equals(other.before) && pulls.equals(other.pulls) && pulledBy.equals(other.pulledBy);
+  }
+
+  Set<String> getAfter() {
+    return after;
+  }
+
+  Set<String> getBefore() {
+    return before;
+  }
+
+  Set<String> getPulls() {
+    return pulls;
+  }
+
+  Set<String> getPulledBy() {
+    return pulledBy;
+  }
+
+  @Override
+  public String toString() {
+    return unitName + " start " + TimeSpans.format(startMillis) + " (" + startReason + "), stop " + TimeSpans.format(stopMillis) + " ("
+           + stopReason + ")";
+  }
+
+  private static void addNames(Set<String> names, EffectiveOption option) {
+    String value = option.getValue();
+
+    if (value != null) {
+      for (String name : value.split("\\s+")) {
+        if (!name.isEmpty() && name.indexOf('%') < 0) {
+          names.add(name);
+        }
+      }
+    }
+  }
+
+  private static String value(EffectiveConfiguration configuration, String section, String key) {
+    EffectiveOption option = configuration.getOption(section, key);
+    return option == null ? null : option.getValue();
+  }
+
+  private static int count(EffectiveConfiguration configuration, String section, String key) {
+    EffectiveOption option = configuration.getOption(section, key);
+    return option == null ? 0 : option.getEffectiveAssignments().size();
+  }
+
+  private static boolean isTrue(String value) {
+    return value != null && TRUE_VALUES.contains(value.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Reads a timeout, from the key itself or from <code>TimeoutSec=</code> which sets both the start and stop timeouts. systemd applies
+   * the assignments to both keys in order, so the last one wins. An invalid value is ignored like systemd does, a value of 0 disables
+   * the timeout.
+   */
+  private static Timeout timeout(EffectiveConfiguration configuration, String section, String key, long defaultMillis) {
+    List<Assignment> assignments = new ArrayList<>(assignments(configuration, section, key));
+
+    if (!key.equals("TimeoutSec")) {
+      assignments.addAll(assignments(configuration, section, "TimeoutSec"));
+      assignments.sort(Comparator.comparingInt((Assignment assignment) -> fileIndex(configuration, assignment.getPath()))
+                         .thenComparingInt(Assignment::getOffset));
+    }
+
+    Timeout timeout = new Timeout(defaultMillis, key + "=" + TimeSpans.format(defaultMillis) + " (default)");
+
+    for (Assignment assignment : assignments) {
+      long millis = assignment.isEmpty() ? TimeSpans.INVALID : TimeSpans.parse(assignment.getValue());
+
+      if (millis != TimeSpans.INVALID) {
+        timeout = new Timeout(millis == 0 ? TimeSpans.INFINITY : millis, assignment.getKey() + "=" + assignment.getValue());
+      }
+    }
+
+    return timeout;
+  }
+
+  private static List<Assignment> assignments(EffectiveConfiguration configuration, String section, String key) {
+    EffectiveOption option = configuration.getOption(section, key);
+    return option == null ? Collections.emptyList() : option.getAssignments();
+  }
+
+  /**
+   * Returns where a file is in the order the files of the unit are applied, the unit file first and then the drop-ins.
+   */
+  private static int fileIndex(EffectiveConfiguration configuration, String path) {
+    return path.equals(configuration.getUnitFile()) ? -1 : configuration.getDropIns().indexOf(path);
+  }
+
+  private static final class Timeout {
+
+    private final long millis;
+
+    private final String reason;
+
+    private Timeout(long millis, String reason) {
+      this.millis = millis;
+      this.reason = reason;
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class DependencyGraphTest extends TestCase {
+
+  private final UnitDependencyCollector collector = new UnitDependencyCollector();
+
+  private final DependencyGraph graph = new DependencyGraph();
+
+  public void testOrderingCycleThroughAfterAndBefore() {
+    // Fixture Setup
+    update("/etc/systemd/system/a.service", "[Unit]\nAfter=b.service\n");
+    update("/etc/systemd/system/b.service", "[Unit]\nAfter=c.service\nWants=a.service\n");
+    update("/etc/systemd/system/a.service.d/override.conf", "[Unit]\nBefore=network.target c.service\n");
+
+    // Exercise SUT
+    List<DependencyCycle> cycles = graph.getCycles();
+
+    // Verification
+    assertEquals(1, cycles.size());
+    DependencyCycle cycle = cycles.get(0);
+    assertEquals(DependencyCycle.Kind.ORDERING, cycle.getKind());
+    assertEquals(Arrays.asList("a.service", "b.service", "c.service"), cycle.getUnits());
+    assertEquals("Ordering cycle: a.service -> b.service -> c.service -> a.service", cycle.getMessage());
+    assertEquals(3, cycle.getEdges().size());
+
+    DependencyEdge before = cycle.getShortestLoop().get(2);
+    assertEquals("/etc/systemd/system/a.service.d/override.conf", before.getPath());
+    assertEquals(new UnitDependency(DependencyType.BEFORE, "c.service", 29), before.getDependency());
+    assertEquals(Collections.singletonList(cycle), graph.getCycles("/etc/systemd/system/b.service"));
+  }
+
+  public void testRequirementLoopsAndOrderingAreSeparate() {
+    // Fixture Setup
+    update("a.service", "[Unit]\nRequires=b.service\nAfter=b.service\n");
+    update("b.service", "[Unit]\nBindsTo=c.service\n[Install]\nRequiredBy=c.service\n");
+    update("c.service", "[Unit]\nAfter=a.service\n");
+    update("d.service", "[Unit]\nAfter=d.service\nRequires=a.service\nWants=e.service\n");
+    update("e.service", "[Unit]\nWants=d.service\n");
+
+    // Exercise SUT
+    List<DependencyCycle> cycles = graph.getCycles();
+
+    // Verification
+    assertEquals(2, cycles.size());
+    assertEquals("Ordering cycle: d.service -> d.service", cycles.get(0).getMessage());
+    assertEquals(DependencyCycle.Kind.REQUIREMENT, cycles.get(1).getKind());
+    assertEquals(Arrays.asList("b.service", "c.service"), cycles.get(1).getUnits());
+  }
+
+  public void testChangesOnlySearchWhatTheyCanReach() {
+    // Fixture Setup
+    int units = 20_000;
+    for (int i = 0; i < units; i++) {
+      // A chain of short ones, every tenth unit also after a target
+      update("unit" + i + ".service", "[Unit]\nAfter=unit" + (i + 1) + ".service" + (i % 10 == 0 ? " basic.target" : "") + "\n");
+    }
+
+    assertEquals(Collections.emptyList(), graph.getCycles());
+    // Every unit, the one after the last and basic.target
+    assertEquals(units + 2, graph.getVisited());
+
+    // Exercise SUT
+    update("unit19990.service", "[Unit]\nAfter=unit19991.service\nBefore=unit19995.service\n");
+    List<DependencyCycle> cycles = graph.getCycles();
+    int visitedForCycle = graph.getVisited();
+
+    update("unit19990.service", "[Unit]\nAfter=unit19991.service\n");
+    List<DependencyCycle> withoutCycle = graph.getCycles();
+    int visitedForFix = graph.getVisited();
+
+    // Verification
+    assertEquals(1, cycles.size());
+    assertEquals(Arrays.asList("unit19990.service", "unit19991.service", "unit19992.service", "unit19993.service",
+      "unit19994.service", "unit19995.service"), cycles.get(0).getUnits());
+    assertTrue("visited " + visitedForCycle, visitedForCycle < 20);
+    assertEquals(Collections.emptyList(), withoutCycle);
+    assertTrue("visited " + visitedForFix, visitedForFix < 20);
+  }
+
+  public void testRemovingAFileSplitsItsCycles() {
+    // Fixture Setup
+    update("a.service", "[Unit]\nAfter=b.service\n");
+    update("b.service", "[Unit]\nAfter=a.service c.service\n");
+    update("c.service", "[Unit]\nAfter=b.service\n");
+    update("x@.service", "[Unit]\nAfter=%i.service\nBefore=%i.service\n");
+    assertEquals(Arrays.asList("a.service", "b.service", "c.service"), graph.getCycles().get(0).getUnits());
+
+    // Exercise SUT
+    graph.remove("a.service");
+    List<DependencyCycle> cycles = graph.getCycles();
+
+    // Verification
+    assertEquals(1, cycles.size());
+    assertEquals(Arrays.asList("b.service", "c.service"), cycles.get(0).getUnits());
+    assertEquals(Collections.emptyList(), graph.getCycles("a.service"));
+  }
+
+  private void update(String path, String text) {
+    String[] names = path.split("/");
+    String unitName = UnitNames.getUnitName(names[names.length - 1], names.length > 1 ? names[names.length - 2] : null);
+
+    graph.update(path, unitName, collector.collect(text));
+  }
+}
@@ -0,0 +1,56 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class UnitDependencyCollectorTest extends TestCase {
+
+  public void testNamesAreSplitOnWhiteSpaceAndContinuations() {
+    // Fixture Setup
+    String text = "[Unit]\n"
+                  + "After=network.target  sshd-keygen.service\n"
+                  + "Wants=a.service \\\n"
+                  + "# between lines\n"
+                  + "  getty@tty1.service\n"
+                  + "Description=After=not.service\n"
+                  + "[Install]\n"
+                  + "WantedBy=multi-user.target\n";
+
+    // Exercise SUT
+    List<UnitDependency> dependencies = new UnitDependencyCollector().collect(text);
+
+    // Verification
+    assertEquals(Arrays.asList(
+      new UnitDependency(DependencyType.AFTER, "network.target", 13),
+      new UnitDependency(DependencyType.AFTER, "sshd-keygen.service", 29),
+      new UnitDependency(DependencyType.WANTS, "a.service", 55),
+      new UnitDependency(DependencyType.WANTS, "getty@tty1.service", 85),
+      new UnitDependency(DependencyType.WANTED_BY, "multi-user.target", 153)), dependencies);
+    assertEquals("network.target", text.substring(13, 13 + "network.target".length()));
+    assertEquals("getty@tty1.service", text.substring(85, 85 + "getty@tty1.service".length()));
+  }
+
+  public void testKeysAreOnlyDependenciesInTheirSection() {
+    // Exercise SUT & Verification
+    assertEquals(Collections.emptyList(), new UnitDependencyCollector().collect("[Service]\nAfter=a.service\nWantedBy=b.target\n"));
+    assertEquals(Collections.singletonList(new UnitDependency(DependencyType.SOCKET_SERVICE, "b.service", 17)),
+      new UnitDependencyCollector().collect("[Socket]\nService=b.service\n"));
+    assertEquals(DependencyType.WANTS, DependencyType.WANTED_BY.getForwardType());
+    assertNull(DependencyType.AFTER.getForwardType());
+  }
+
+  public void testUnitNames() {
+    // Exercise SUT & Verification
+    assertTrue(UnitNames.isUnitName("sshd.service"));
+    assertFalse(UnitNames.isUnitName(".service"));
+    assertFalse(UnitNames.isUnitName("sshd.conf"));
+    assertEquals("sshd.service", UnitNames.getUnitName("override.conf", "sshd.service.d"));
+    assertNull(UnitNames.getUnitName("override.conf", "conf.d"));
+    assertEquals("getty@.service", UnitNames.getTemplateName("getty@tty1.service"));
+    assertNull(UnitNames.getTemplateName("getty@.service"));
+    assertNull(UnitNames.getTemplateName("sshd.service"));
+  }
+}
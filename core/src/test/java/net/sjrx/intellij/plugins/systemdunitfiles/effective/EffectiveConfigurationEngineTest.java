@@ -0,0 +1,168 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class EffectiveConfigurationEngineTest extends TestCase {
+
+  private EffectiveConfigurationEngine engine;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    engine = new EffectiveConfigurationEngine(SearchPath.SYSTEM, SemanticDataRepository.getInstance());
+  }
+
+  public void testUnitFileFirstInTheSearchPathIsUsed() {
+    // Fixture Setup
+    engine.update("/lib/systemd/system/sshd.service", "[Service]\nType=simple\n");
+    engine.update("/rootfs/etc/systemd/system/sshd.service", "[Service]\nType=notify\n");
+    engine.update("/usr/lib/systemd/system/sshd.service", "[Service]\nType=forking\n");
+
+    // Exercise SUT
+    EffectiveConfiguration configuration = engine.getEffectiveConfiguration("sshd.service");
+
+    // Verification
+    assertEquals("/rootfs/etc/systemd/system/sshd.service", configuration.getUnitFile());
+    assertEquals("notify", configuration.getOption("Service", "Type").getValue());
+    assertEquals(1, configuration.getOption("Service", "Type").getAssignments().size());
+    assertNull(engine.getEffectiveConfiguration("other.service"));
+  }
+
+  public void testDropInsAreAppliedByFileNameAndFirstInTheSearchPathMasksTheRest() {
+    // Fixture Setup
+    engine.update("/usr/lib/systemd/system/sshd.service", "[Service]\nType=simple\nKillMode=process\n");
+    engine.update("/usr/lib/systemd/system/sshd.service.d/20-type.conf", "[Service]\nType=forking\n");
+    engine.update("/etc/systemd/system/sshd.service.d/10-type.conf", "[Service]\nType=notify\n");
+    engine.update("/etc/systemd/system/sshd.service.d/30-kill.conf", "[Service]\nKillMode=mixed\n");
+    engine.update("/usr/lib/systemd/system/sshd.service.d/30-kill.conf", "[Service]\nKillMode=none\n");
+    engine.update("/etc/systemd/system/sshd.service.d/README", "Not a drop-in");
+
+    // Exercise SUT
+    EffectiveConfiguration configuration = engine.getEffectiveConfiguration("sshd.service");
+
+    // Verification
+    assertEquals(Arrays.asList(
+      "/etc/systemd/system/sshd.service.d/10-type.conf",
+      "/usr/lib/systemd/system/sshd.service.d/20-type.conf",
+      "/etc/systemd/system/sshd.service.d/30-kill.conf"), configuration.getDropIns());
+    assertEquals("forking", configuration.getOption("Service", "Type").getValue());
+    assertEquals("mixed", configuration.getOption("Service", "KillMode").getValue());
+    assertFalse(configuration.isSource("/usr/lib/systemd/system/sshd.service.d/30-kill.conf"));
+
+    EffectiveOption type = configuration.getOption("Service", "Type");
+    Assignment overridden = type.findAssignment("/etc/systemd/system/sshd.service.d/10-type.conf", 10);
+    assertNotNull(overridden);
+    assertEquals("/usr/lib/systemd/system/sshd.service.d/20-type.conf", type.getOverriddenBy(overridden).getPath());
+  }
+
+  public void testListsAreResetByEmptyAssignmentsAndScalarsToTheirDefault() {
+    // Fixture Setup
+    engine.update("/usr/lib/systemd/system/app.service", "[Unit]\n"
+                                                         + "After=a.service\n"
+                                                         + "[Service]\n"
+                                                         + "Type=notify\n"
+                                                         + "ExecStartPre=/bin/a\n"
+                                                         + "ExecStartPre=/bin/b\n"
+                                                         + "Environment=A=1 \\\n"
+                                                         + "  B=2\n");
+    engine.update("/etc/systemd/system/app.service.d/override.conf", "[Unit]\n"
+                                                                     + "After=\n"
+                                                                     + "After=b.service\n"
+                                                                     + "[Service]\n"
+                                                                     + "Type=\n"
+                                                                     + "ExecStartPre=\n"
+                                                                     + "ExecStartPre=/bin/c\n"
+                                                                     + "Environment=C=3\n");
+
+    // Exercise SUT
+    EffectiveConfiguration configuration = engine.getEffectiveConfiguration("app.service");
+
+    // Verification
+    assertEquals(MergeKind.APPEND_ONLY_LIST, configuration.getOption("Unit", "After").getKind());
+    assertEquals("a.service b.service", configuration.getOption("Unit", "After").getValue());
+    assertNull(configuration.getOption("Service", "Type").getValue());
+    assertEquals(MergeKind.LIST, configuration.getOption("Service", "ExecStartPre").getKind());
+    assertEquals("/bin/c", configuration.getOption("Service", "ExecStartPre").getValue());
+    assertEquals("A=1 B=2 C=3", configuration.getOption("Service", "Environment").getValue());
+
+    EffectiveOption execStartPre = configuration.getOption("Service", "ExecStartPre");
+    assertEquals("", execStartPre.getOverriddenBy(execStartPre.getAssignments().get(0)).getValue());
+    assertNull(execStartPre.getOverriddenBy(execStartPre.getAssignments().get(3)));
+
+    assertEquals("# /usr/lib/systemd/system/app.service\n"
+                 + "# /etc/systemd/system/app.service.d/override.conf\n"
+                 + "\n"
+                 + "[Unit]\n"
+                 + "After=a.service\n"
+                 + "After=b.service\n"
+                 + "\n"
+                 + "[Service]\n"
+                 + "ExecStartPre=/bin/c\n"
+                 + "Environment=A=1 B=2\n"
+                 + "Environment=C=3\n", configuration.format());
+  }
+
+  public void testInstancesUseTheTemplateAndItsDropIns() {
+    // Fixture Setup
+    engine.update("/usr/lib/systemd/system/getty@.service", "[Service]\nType=idle\nKillMode=process\n");
+    engine.update("/usr/lib/systemd/system/getty@.service.d/10-kill.conf", "[Service]\nKillMode=mixed\n");
+    engine.update("/usr/lib/systemd/system/getty@tty1.service.d/10-kill.conf", "[Service]\nKillMode=none\n");
+    engine.update("/etc/systemd/system/getty@.service.d/20-type.conf", "[Service]\nType=simple\n");
+
+    // Exercise SUT
+    EffectiveConfiguration tty1 = engine.getEffectiveConfiguration("getty@tty1.service");
+    EffectiveConfiguration tty2 = engine.getEffectiveConfiguration("getty@tty2.service");
+
+    // Verification
+    assertEquals("/usr/lib/systemd/system/getty@.service", tty1.getUnitFile());
+    assertEquals(Arrays.asList(
+      "/usr/lib/systemd/system/getty@tty1.service.d/10-kill.conf",
+      "/etc/systemd/system/getty@.service.d/20-type.conf"), tty1.getDropIns());
+    assertEquals("none", tty1.getOption("Service", "KillMode").getValue());
+    assertEquals("simple", tty1.getOption("Service", "Type").getValue());
+    assertEquals("mixed", tty2.getOption("Service", "KillMode").getValue());
+  }
+
+  public void testOnlyAffectedUnitsAreMergedAgain() {
+    // Fixture Setup
+    for (int i = 0; i < 1000; i++) {
+      engine.update("/usr/lib/systemd/system/unit" + i + ".service", "[Service]\nType=simple\n");
+      for (int j = 0; j < 20; j++) {
+        engine.update("/etc/systemd/system/unit" + i + ".service.d/" + j + ".conf", "[Service]\nKillMode=process\n");
+      }
+      engine.getEffectiveConfiguration("unit" + i + ".service");
+    }
+    engine.update("/usr/lib/systemd/system/getty@.service", "[Service]\nType=idle\n");
+    engine.getEffectiveConfiguration("getty@tty1.service");
+    engine.getEffectiveConfiguration("getty@tty2.service");
+    int merges = engine.getMerges();
+
+    // Exercise SUT
+    engine.update("/etc/systemd/system/unit7.service.d/3.conf", "[Service]\nKillMode=mixed\n");
+    engine.remove("/etc/systemd/system/unit8.service.d/19.conf");
+    engine.update("/etc/systemd/system/getty@.service.d/type.conf", "[Service]\nType=simple\n");
+    for (int i = 0; i < 1000; i++) {
+      engine.getEffectiveConfiguration("unit" + i + ".service");
+    }
+
+    // Verification
+    assertEquals(merges + 2, engine.getMerges());
+    assertEquals("process", engine.getEffectiveConfiguration("unit7.service").getOption("Service", "KillMode").getValue());
+    assertEquals(19, engine.getEffectiveConfiguration("unit8.service").getDropIns().size());
+    assertEquals("simple", engine.getEffectiveConfiguration("getty@tty2.service").getOption("Service", "Type").getValue());
+    assertEquals(merges + 3, engine.getMerges());
+  }
+
+  public void testFilesThatArentUnitsAreIgnored() {
+    // Exercise SUT & Verification
+    assertFalse(engine.update("/etc/systemd/system/conf.d/a.conf", "[Service]\nType=simple\n"));
+    assertFalse(engine.update("/etc/systemd/system.conf", "[Manager]\n"));
+    assertTrue(engine.update("/etc/systemd/system/a.service.d/a.conf", "[Service]\nType=simple\n"));
+    assertEquals(Collections.emptySet(), engine.getUnitNames());
+    assertNull(engine.getEffectiveConfiguration("a.service").getUnitFile());
+  }
+}
@@ -0,0 +1,88 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lint;
+
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.List;
+
+public class UnitFileLinterTest extends TestCase {
+
+  private final UnitFileLinter linter = new UnitFileLinter(SemanticDataRepository.getInstance());
+
+  public void testValidFileHasNoProblems() {
+    // Exercise SUT
+    List<Problem> problems = linter.lint("[Service]\n"
+                                         + "Type=simple\n"
+                                         + "KillMode=process\n"
+                                         + "X-Custom=anything\n"
+                                         + "\n"
+                                         + "[X-Extra]\n"
+                                         + "Whatever=value\n");
+
+    // Verification
+    assertTrue(problems.toString(), problems.isEmpty());
+  }
+
+  public void testUnknownKeyIsReportedAtTheKey() {
+    // Exercise SUT
+    List<Problem> problems = linter.lint("[Service]\nType=simple\n  Unknown\\ Key=1\n");
+
+    // Verification
+    assertEquals(1, problems.size());
+    Problem problem = problems.get(0);
+    assertEquals(LintRule.UNKNOWN_KEY_IN_SECTION, problem.getRule());
+    assertEquals(UnitFileLinter.UNKNOWN_KEY_MESSAGE, problem.getMessage());
+    assertEquals(24, problem.getOffset());
+    assertEquals("Unknown\\ Key".length(), problem.getLength());
+    assertEquals(3, problem.getLine());
+    assertEquals(3, problem.getColumn());
+  }
+
+  public void testInvalidValueIsReportedOverTheValue() {
+    // Exercise SUT
+    List<Problem> problems = linter.lint("[Service]\nKillMode=sometimes\n");
+
+    // Verification
+    assertEquals(1, problems.size());
+    Problem problem = problems.get(0);
+    assertEquals(LintRule.INVALID_VALUE, problem.getRule());
+    assertEquals(SemanticDataRepository.getInstance().getOptionValidator("Service", "KillMode").getErrorMessage("sometimes"),
+      problem.getMessage());
+    assertEquals(19, problem.getOffset());
+    assertEquals("sometimes".length(), problem.getLength());
+    assertEquals(2, problem.getLine());
+    assertEquals(10, problem.getColumn());
+  }
+
+  public void testValuesAreJoinedOverContinuationLines() {
+    // Exercise SUT
+    List<Problem> valid = linter.lint("[Service]\nKillMode=\\\n# comment\n  process  \\\n\n");
+    List<Problem> invalid = linter.lint("[Service]\nKillMode=pro\\\ncess\n");
+
+    // Verification
+    assertTrue(valid.toString(), valid.isEmpty());
+    assertEquals(1, invalid.size());
+    assertEquals(LintRule.INVALID_VALUE, invalid.get(0).getRule());
+    assertEquals("pro\\\ncess".length(), invalid.get(0).getLength());
+  }
+
+  public void testDeprecatedKeyIsReported() {
+    // Exercise SUT
+    List<Problem> problems = linter.lint("[Service]\nMemoryLimit=1G\n");
+
+    // Verification
+    assertEquals(1, problems.size());
+    assertEquals(LintRule.DEPRECATED_OPTIONS, problems.get(0).getRule());
+    assertEquals(UnitFileLinter.getDeprecatedOptionMessage(SemanticDataRepository.getInstance().getDeprecation("Service", "MemoryLimit")),
+      problems.get(0).getMessage());
+    assertEquals(10, problems.get(0).getOffset());
+  }
+
+  public void testPropertiesOutsideOfSectionsAreNotChecked() {
+    // Exercise SUT
+    List<Problem> problems = linter.lint("Unknown=1\n");
+
+    // Verification
+    assertTrue(problems.toString(), problems.isEmpty());
+  }
+}
@@ -0,0 +1,163 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class DocumentationBundleTest extends TestCase {
+
+  private static final String SEMANTIC_DATA_ROOT = "net/sjrx/intellij/plugins/systemdunitfiles/semanticdata/";
+
+  public void testLookupOfDocumentedKeys() throws IOException {
+    // Fixture Setup
+    Map<String, String> documents = new LinkedHashMap<>();
+    documents.put("Service/Type", "<p>Configures the process start-up type.</p>\n");
+    documents.put("Unit/After", "<p>These two settings expect a space-separated list of unit names.</p>\n");
+    documents.put("Unit/Before", "<p>These two settings expect a space-separated list of unit names.</p>\n");
+    documents.put("Service/WorkingDirectory", "<p>Takes a directory path relative to the service's root directory — or ~</p>\n");
+    documents.put("Socket/WorkingDirectory", "<p>Takes a directory path relative to the service's root directory — or ~</p>\n");
+
+    // Exercise SUT
+    DocumentationBundle bundle = DocumentationBundle.read(writeBundle(documents));
+
+    // Verification
+    assertEquals(5, bundle.size());
+    assertEquals(3, bundle.getDocumentCount());
+
+    for (Map.Entry<String, String> document : documents.entrySet()) {
+      String[] sectionAndKey = document.getKey().split("/");
+      assertEquals(document.getValue(), bundle.getDocumentation(sectionAndKey[0], sectionAndKey[1]));
+    }
+  }
+
+  public void testLookupOfUndocumentedKeys() throws IOException {
+    // Fixture Setup
+    Map<String, String> documents = new LinkedHashMap<>();
+    documents.put("Service/Type", "<p>Type</p>");
+    documents.put("Unit/After", "<p>After</p>");
+
+    // Exercise SUT
+    DocumentationBundle bundle = DocumentationBundle.read(writeBundle(documents));
+
+    // Verification
+    assertNull(bundle.getDocumentation("Unit", "Type"));
+    assertNull(bundle.getDocumentation("Service", "Typ"));
+    assertNull(bundle.getDocumentation("Service", "Typeé"));
+    assertNull(bundle.getDocumentation("Servic", "e/Type"));
+    assertNull(bundle.getDocumentation("", ""));
+    assertNull(DocumentationBundle.read(writeBundle(new HashMap<>())).getDocumentation("Unit", "After"));
+  }
+
+  public void testCorruptBundleIsRejected() {
+    // Fixture Setup
+    ByteBuffer buffer = ByteBuffer.wrap("<p>This is some HTML</p>".getBytes(StandardCharsets.UTF_8));
+
+    // Exercise SUT
+    try {
+      DocumentationBundle.read(buffer);
+      fail("Expected that an HTML file would not be accepted as a bundle");
+    } catch (IOException e) {
+      // Verification
+      assertTrue(e.getMessage().contains("corrupt"));
+    }
+  }
+
+  public void testTruncatedBundleIsRejected() throws IOException {
+    // Fixture Setup
+    ByteBuffer complete = writeBundle(new TreeMap<>(java.util.Collections.singletonMap("Unit/After", "<p>After</p>")));
+    ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(complete.array(), complete.limit() - 4));
+
+    // Exercise SUT
+    try {
+      DocumentationBundle.read(truncated);
+      fail("Expected that a truncated bundle would not be accepted");
+    } catch (IOException e) {
+      // Verification
+      assertTrue(e.getMessage().contains("corrupt"));
+    }
+  }
+
+  public void testGeneratedBundleSharesDocumentsBetweenSections() throws IOException {
+    // Exercise SUT
+    DocumentationBundle bundle = DocumentationBundle.load(SEMANTIC_DATA_ROOT);
+
+    // Verification
+    assertNotNull("Expected the documentation bundle on the test classpath, run generateDataFromManPages", bundle);
+    assertTrue(bundle.getDocumentCount() < bundle.size());
+
+    String workingDirectory = bundle.getDocumentation("Service", "WorkingDirectory");
+    assertNotNull(workingDirectory);
+    assertEquals(workingDirectory, bundle.getDocumentation("Socket", "WorkingDirectory"));
+    assertEquals(workingDirectory, bundle.getDocumentation("Mount", "WorkingDirectory"));
+    assertEquals(workingDirectory, bundle.getDocumentation("Swap", "WorkingDirectory"));
+  }
+
+  /**
+   * Writes a bundle in the same format as DocumentationBundleWriter in buildSrc.
+   */
+  private static ByteBuffer writeBundle(Map<String, String> documents) throws IOException {
+    ByteArrayOutputStream data = new ByteArrayOutputStream();
+    Map<String, int[]> documentLocations = new HashMap<>();
+    List<int[]> entries = new ArrayList<>();
+
+    for (String name : new TreeMap<>(documents).keySet()) {
+      byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      int nameOffset = data.size();
+      data.write(nameBytes);
+
+      int[] documentLocation = documentLocations.get(documents.get(name));
+      if (documentLocation == null) {
+        byte[] documentBytes = documents.get(name).getBytes(StandardCharsets.UTF_8);
+        documentLocation = new int[] {data.size(), documentBytes.length};
+        data.write(documentBytes);
+        documentLocations.put(documents.get(name), documentLocation);
+      }
+
+      entries.add(new int[] {name.hashCode(), nameOffset, nameBytes.length, documentLocation[0], documentLocation[1]});
+    }
+
+    int slotCount = Integer.highestOneBit(Math.max(2, entries.size() * 2) - 1) << 1;
+    int[] slots = new int[slotCount];
+    Arrays.fill(slots, -1);
+
+    for (int i = 0; i < entries.size(); i++) {
+      int slot = entries.get(i)[0] & (slotCount - 1);
+      while (slots[slot] != -1) {
+        slot = (slot + 1) & (slotCount - 1);
+      }
+      slots[slot] = i;
+    }
+
+    ByteArrayOutputStream bundle = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bundle);
+    out.writeInt(0x53444f43);
+    out.writeInt(1);
+    out.writeInt(entries.size());
+    out.writeInt(slotCount);
+    for (int slot : slots) {
+      out.writeInt(slot);
+    }
+    for (int[] entry : entries) {
+      for (int field : entry) {
+        out.writeInt(field);
+      }
+    }
+    out.writeInt(documentLocations.size());
+    out.writeInt(data.size());
+    data.writeTo(out);
+    out.flush();
+
+    return ByteBuffer.wrap(bundle.toByteArray());
+  }
+}
@@ -0,0 +1,222 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.BooleanOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.DocumentationOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.KillModeOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.ModeStringOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.NullOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.RestartOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.ServiceTypeOptionValue;
+
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class SemanticDataRepositoryTest extends TestCase {
+  
+  private static final int LOOKUPS_PER_THREAD = 100_000;
+  
+  public void testInteresting() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+  
+    assertTrue(sdr.getOptionValidator("Socket", "SendSIGKILL") instanceof BooleanOptionValue);
+    
+    assertTrue(sdr.getOptionValidator("Unit", "Documentation") instanceof DocumentationOptionValue);
+  
+    assertTrue(sdr.getOptionValidator("Service", "KillMode") instanceof KillModeOptionValue);
+    assertTrue(sdr.getOptionValidator("Mount", "KillMode") instanceof KillModeOptionValue);
+    
+    assertTrue(sdr.getOptionValidator("Socket", "DirectoryMode") instanceof ModeStringOptionValue);
+  
+  
+    assertTrue(sdr.getOptionValidator("Unit", "XXXX") instanceof NullOptionValue);
+    assertTrue(sdr.getOptionValidator("XXXX", "Yes") instanceof NullOptionValue);
+  
+    assertTrue(sdr.getOptionValidator("Service", "Restart") instanceof RestartOptionValue);
+    
+    assertTrue(sdr.getOptionValidator("Service", "Type") instanceof ServiceTypeOptionValue);
+  }
+  
+  public void testKeyMembershipMatchesAllowedKeywords() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    for (String section : sdr.getAllowedSectionNames()) {
+      for (String key : sdr.getAllowedKeywordsInSection(section)) {
+        assertTrue(section + "." + key, sdr.isKeyAllowedInSection(section, key));
+      }
+    }
+    
+    assertTrue(sdr.isKeyAllowedInSection("Service", "WorkingDirectory"));
+    assertTrue(sdr.isKeyAllowedInSection("Mount", "WorkingDirectory"));
+    assertFalse(sdr.isKeyAllowedInSection("Unit", "WorkingDirectory"));
+    assertFalse(sdr.isKeyAllowedInSection("Service", "XXXX"));
+    assertFalse(sdr.isKeyAllowedInSection("XXXX", "WorkingDirectory"));
+  }
+  
+  public void testAllowedKeywordsAreSorted() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    List<String> keywords = new ArrayList<>(sdr.getAllowedKeywordsInSection("Service"));
+    List<String> sorted = new ArrayList<>(keywords);
+    Collections.sort(sorted);
+    
+    assertEquals(sorted, keywords);
+  }
+  
+  public void testSharedOptionsHaveSameDocumentationLocationInEverySection() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    for (String section : new String[] {"Service", "Socket", "Mount", "Swap"}) {
+      assertEquals("systemd.exec.xml", sdr.getKeywordFileLocationInDocumentation(section, "WorkingDirectory"));
+      assertEquals("systemd.kill.xml", sdr.getKeywordFileLocationInDocumentation(section, "KillMode"));
+    }
+  }
+  
+  public void testDeprecatedKeysHaveStructuredReplacements() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    DeprecationInfo memoryLimit = sdr.getDeprecation("Service", "MemoryLimit");
+    assertNotNull(memoryLimit);
+    assertEquals("MemoryMax=", memoryLimit.getReplacementText());
+    assertEquals(Collections.singletonList("MemoryMax"), memoryLimit.getReplacementKeys());
+    
+    DeprecationInfo cpuShares = sdr.getDeprecation("Service", "CPUShares");
+    assertNotNull(cpuShares);
+    assertTrue(cpuShares.getReplacementKeys().containsAll(Arrays.asList("CPUWeight", "StartupCPUWeight")));
+    
+    assertNull(sdr.getDeprecation("Service", "ExecStart"));
+    assertNull(sdr.getDeprecation("Service", "XXXX"));
+    assertNull(sdr.getDeprecation("XXXX", "MemoryLimit"));
+  }
+  
+  public void testGetInstanceDoesNotLock() throws Exception {
+    assertFalse(Modifier.isSynchronized(SemanticDataRepository.class.getMethod("getInstance").getModifiers()));
+    assertSame(SemanticDataRepository.getInstance(), SemanticDataRepository.getInstance());
+  }
+  
+  public void testRepositoryCannotBeModifiedByCallers() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    try {
+      sdr.getAllowedKeywordsInSection("Service").clear();
+      fail("Expected that the allowed keywords could not be modified");
+    } catch (UnsupportedOperationException e) {
+      // Expected
+    }
+    
+    assertFalse(sdr.getAllowedKeywordsInSection("Service").isEmpty());
+  }
+  
+  public void testLookupsOfUnknownKeysAndSectionsDoNotAddEntries() {
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    int keysBefore = sdr.getAllowedKeywordsInSection("Service").size();
+    
+    assertNull(sdr.getKeywordLocationInDocumentation("Service", "NotARealKey"));
+    assertNull(sdr.getKeywordFileLocationInDocumentation("Service", "NotARealKey"));
+    assertNull(sdr.getKeywordLocationInDocumentation("NotARealSection", "NotARealKey"));
+    assertNull(sdr.getKeywordFileLocationInDocumentation("NotARealSection", "NotARealKey"));
+    
+    assertEquals(keysBefore, sdr.getAllowedKeywordsInSection("Service").size());
+    assertFalse(sdr.getAllowedKeywordsInSection("Service").contains("NotARealKey"));
+    assertFalse(sdr.getAllowedSectionNames().contains("NotARealSection"));
+  }
+  
+  /**
+   * Hammers the repository from many threads with a mix of known and unknown keys (as would happen from parallel highlighting passes),
+   * and verifies that nothing blows up and that the repository is unchanged afterwards.
+   */
+  public void testConcurrentLookupsAreReadOnly() throws Exception {
+    // Fixture Setup
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    
+    Map<String, Integer> keywordCountsBefore = new HashMap<>();
+    for (String section : sdr.getAllowedSectionNames()) {
+      keywordCountsBefore.put(section, sdr.getAllowedKeywordsInSection(section).size());
+    }
+    
+    List<String> keys = new ArrayList<>(sdr.getAllowedKeywordsInSection("Service"));
+    for (int i = 0; i < 1000; i++) {
+      keys.add("UnknownKey" + i);
+    }
+    String[] sections = {"Service", "Socket", "Unit", "Install", "UnknownSection"};
+    
+    int threadCount = Math.max(4, Runtime.getRuntime().availableProcessors());
+    
+    // Exercise SUT
+    List<Integer> singleThreadFound = runLookups(sdr, 1, sections, keys);
+    List<Integer> multiThreadFound = runLookups(sdr, threadCount, sections, keys);
+    
+    // Verification
+    assertTrue(singleThreadFound.get(0) > 0);
+    assertEquals("Expected the same answers with other threads looking up at the same time", singleThreadFound.get(0),
+      multiThreadFound.get(0));
+    
+    for (String section : sdr.getAllowedSectionNames()) {
+      assertEquals("Expected no growth in section " + section, keywordCountsBefore.get(section),
+        Integer.valueOf(sdr.getAllowedKeywordsInSection(section).size()));
+    }
+    
+    assertEquals(keywordCountsBefore.keySet(), sdr.getAllowedSectionNames());
+    assertFalse(sdr.getAllowedKeywordsInSection("Service").contains("UnknownKey1"));
+  }
+  
+  private static List<Integer> runLookups(SemanticDataRepository sdr, int threadCount, String[] sections, List<String> keys) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+    CountDownLatch start = new CountDownLatch(1);
+    
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      
+      for (int t = 0; t < threadCount; t++) {
+        final int offset = t;
+        futures.add(executor.submit(() -> {
+          start.await();
+          
+          int found = 0;
+          for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+            String section = sections[(i + offset) % sections.length];
+            String key = keys.get((i * 31 + offset) % keys.size());
+            
+            switch (i & 3) {
+              case 0:
+                found += sdr.getKeywordLocationInDocumentation(section, key) != null ? 1 : 0;
+                break;
+              case 1:
+                found += sdr.getKeywordFileLocationInDocumentation(section, key) != null ? 1 : 0;
+                break;
+              case 2:
+                found += sdr.getAllowedKeywordsInSection(section).contains(key) ? 1 : 0;
+                break;
+              default:
+                found += sdr.getOptionValidator(section, key) != null ? 1 : 0;
+                break;
+            }
+          }
+          return found;
+        }));
+      }
+      
+      start.countDown();
+      
+      List<Integer> found = new ArrayList<>();
+      for (Future<Integer> future : futures) {
+        found.add(future.get());
+      }
+      
+      return found;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+public class SemanticDataSnapshotTest extends TestCase {
+  
+  private static final String SEMANTIC_DATA_ROOT = "net/sjrx/intellij/plugins/systemdunitfiles/semanticdata/";
+  
+  public void testSnapshotContainsSameDataAsJsonAndGperfFiles() throws IOException {
+    // Fixture Setup
+    SemanticDataSnapshot snapshot = SemanticDataSnapshot.load(SEMANTIC_DATA_ROOT);
+    assertNotNull("Expected the semantic data snapshot on the test classpath, run generateSemanticDataSnapshot", snapshot);
+    
+    // Exercise SUT
+    Map<String, Map<String, Map<String, String>>> keywordsFromJson = SemanticDataRepository.loadSectionToKeywordMapFromJson();
+    Map<String, Map<String, String>> validatorsFromGperf = SemanticDataRepository.loadValidatorMapFromGperf();
+    
+    // Verification
+    assertEquals(keywordsFromJson, snapshot.getSectionNameToKeyValues());
+    assertEquals(validatorsFromGperf, snapshot.getSectionToKeyAndValidatorMap());
+  }
+  
+  public void testCorruptSnapshotIsRejected() {
+    // Fixture Setup
+    ByteBuffer buffer = ByteBuffer.wrap(new byte[] {'{', '"', 'U', 'n', 'i', 't', '"', ':'});
+    
+    // Exercise SUT
+    try {
+      SemanticDataSnapshot.read(buffer);
+      fail("Expected that a JSON file would not be accepted as a snapshot");
+    } catch (IOException e) {
+      // Verification
+      assertTrue(e.getMessage().contains("corrupt"));
+    }
+  }
+  
+  public void testTruncatedSnapshotIsRejected() throws IOException {
+    // Fixture Setup
+    ByteBuffer complete = ResourceBuffers.open(SEMANTIC_DATA_ROOT + SemanticDataSnapshot.RESOURCE_NAME);
+    assertNotNull("Expected the semantic data snapshot on the test classpath, run generateSemanticDataSnapshot", complete);
+    byte[] bytes = new byte[complete.remaining()];
+    complete.get(bytes);
+    
+    for (int length : new int[] {12, 16, bytes.length / 2, bytes.length - 4}) {
+      ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, length);
+      
+      // Exercise SUT
+      try {
+        SemanticDataSnapshot.read(truncated);
+        fail("Expected that a snapshot truncated to " + length + " bytes would not be accepted");
+      } catch (IOException e) {
+        // Verification
+        assertTrue(e.getMessage().contains("corrupt"));
+      }
+    }
+  }
+  
+  public void testRepositoryLoadsFromSnapshot() {
+    // Fixture Setup
+    
+    // Exercise SUT
+    SemanticDataRepository repository = new SemanticDataRepository();
+    
+    // Verification
+    assertTrue("Expected the repository to use the snapshot rather than the JSON and gperf files", repository.isLoadedFromSnapshot());
+  }
+}
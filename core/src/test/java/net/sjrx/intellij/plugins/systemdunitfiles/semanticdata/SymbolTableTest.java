@@ -0,0 +1,79 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class SymbolTableTest extends TestCase {
+  
+  public void testIdsAreDenseAndAssignedInSortedOrder() {
+    // Fixture Setup
+    SymbolTable table = SymbolTable.of(Arrays.asList("Service", "Unit", "Install", "Socket", "Service"));
+    
+    // Verification
+    assertEquals(4, table.size());
+    assertEquals(0, table.getId("Install"));
+    assertEquals(1, table.getId("Service"));
+    assertEquals(2, table.getId("Socket"));
+    assertEquals(3, table.getId("Unit"));
+    
+    for (int i = 0; i < table.size(); i++) {
+      assertEquals(i, table.getId(table.getSymbol(i)));
+    }
+  }
+  
+  public void testUnknownSymbolsAreNotFound() {
+    // Fixture Setup
+    SymbolTable table = SymbolTable.of(Arrays.asList("Service", "Unit"));
+    
+    // Verification
+    assertEquals(SymbolTable.NOT_FOUND, table.getId("Servic"));
+    assertEquals(SymbolTable.NOT_FOUND, table.getId(""));
+    assertEquals(SymbolTable.NOT_FOUND, table.getId(null));
+    assertEquals(SymbolTable.NOT_FOUND, SymbolTable.of(Collections.emptyList()).getId("Unit"));
+  }
+  
+  public void testInternReturnsTheTableInstance() {
+    // Fixture Setup
+    SymbolTable table = SymbolTable.of(Collections.singletonList("ExecStart"));
+    String copy = new String("ExecStart");
+    String unknown = new String("ExecStop");
+    
+    // Verification
+    assertSame(table.getSymbol(0), table.intern(copy));
+    assertSame(unknown, table.intern(unknown));
+  }
+  
+  public void testLookupByRange() {
+    // Fixture Setup
+    SymbolTable table = SymbolTable.of(Arrays.asList("Aa", "BB", "ExecStart"));
+    StringBuilder text = new StringBuilder("  ExecStart=/bin/true BB");
+    
+    // Verification
+    assertEquals(table.getId("ExecStart"), table.getId(text, 2, 11));
+    assertEquals(table.getId("BB"), table.getId(text, 22, 24));
+    assertEquals(SymbolTable.NOT_FOUND, table.getId(text, 2, 10));
+    assertEquals(SymbolTable.NOT_FOUND, table.getId(text, 0, 0));
+  }
+  
+  public void testLargeTableWithCollidingHashes() {
+    // Fixture Setup ("Aa" and "BB" have the same hash code, so these strings collide in pairs)
+    Set<String> symbols = new HashSet<>();
+    for (int i = 0; i < 2000; i++) {
+      symbols.add("Aa" + i);
+      symbols.add("BB" + i);
+    }
+    
+    // Exercise SUT
+    SymbolTable table = SymbolTable.of(symbols);
+    
+    // Verification
+    assertEquals(symbols.size(), table.size());
+    for (String symbol : symbols) {
+      assertEquals(symbol, table.getSymbol(table.getId(symbol)));
+    }
+  }
+}
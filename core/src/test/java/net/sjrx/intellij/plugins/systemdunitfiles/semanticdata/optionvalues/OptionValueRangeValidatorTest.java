@@ -0,0 +1,105 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import junit.framework.TestCase;
+
+public class OptionValueRangeValidatorTest extends TestCase {
+  
+  public void testBooleanValues() {
+    BooleanOptionValue validator = new BooleanOptionValue();
+    
+    assertValid(validator, "1", "yes", "y", "true", "t", "on", "0", "no", "n", "false", "f", "off", "YES", "False", "oN");
+    assertInvalid(validator, "", "2", "yess", "tru", "o", "enabled");
+  }
+  
+  public void testDocumentationValues() {
+    DocumentationOptionValue validator = new DocumentationOptionValue();
+    
+    assertValid(validator, "man:systemd.unit(5)", "http://example.com https://example.com", "file:/usr/share/doc info:foo \t man:bar");
+    assertInvalid(validator, "", "foo", "man:bar foo", "https:/example.com", " man:bar");
+    
+    assertEquals("Documentation foo does not match expected syntax, each value should be a space separated list beginning with "
+                 + "(http://, https://, file:/, info:, man:)", validator.getErrorMessage("man:bar foo man:baz"));
+  }
+  
+  public void testKillModeValues() {
+    KillModeOptionValue validator = new KillModeOptionValue();
+    
+    assertValid(validator, "control-group", "process", "mixed", "none");
+    assertInvalid(validator, "", "Process", "processes", "proces");
+  }
+  
+  public void testModeValues() {
+    ModeStringOptionValue validator = new ModeStringOptionValue();
+    
+    assertValid(validator, "755", "0755", "000", "7777");
+    assertInvalid(validator, "", "75", "75555", "0855", "abc", "0o755");
+  }
+  
+  public void testRestartValues() {
+    RestartOptionValue validator = new RestartOptionValue();
+    
+    assertValid(validator, "no", "on-success", "on-failure", "on-abnormal", "on-watchdog", "on-abort", "always");
+    assertInvalid(validator, "", "yes", "ALWAYS", "on");
+  }
+  
+  public void testServiceTypeValues() {
+    ServiceTypeOptionValue validator = new ServiceTypeOptionValue();
+    
+    assertValid(validator, "simple", "forking", "oneshot", "dbus", "notify", "idle", "exec");
+    assertInvalid(validator, "", "Simple", "fork", "execs");
+  }
+  
+  public void testNullValues() {
+    assertValid(new NullOptionValue(), "", "anything at all");
+  }
+  
+  /**
+   * Values are validated where they are in the document, without being copied out, see OptionValueValidationBenchmark for the garbage.
+   */
+  public void testValuesInLargerText() {
+    // Fixture Setup
+    String text = "[Service]\n"
+                  + "TTYReset=Yes\n"
+                  + "Documentation=man:systemd.unit(5) https://www.freedesktop.org/software/systemd/man/\n"
+                  + "KillMode=mixed\n"
+                  + "UMask=0022\n"
+                  + "Restart=on-failure\n"
+                  + "Type=notify\n"
+                  + "ExecStart=/bin/true\n";
+    
+    OptionValueRangeValidator[] validators = {
+      new BooleanOptionValue(),
+      new DocumentationOptionValue(),
+      new KillModeOptionValue(),
+      new ModeStringOptionValue(),
+      new RestartOptionValue(),
+      new ServiceTypeOptionValue(),
+      new NullOptionValue()
+    };
+    
+    int lineStart = text.indexOf('\n') + 1;
+    for (OptionValueRangeValidator validator : validators) {
+      int lineEnd = text.indexOf('\n', lineStart);
+      int valueStart = text.indexOf('=', lineStart) + 1;
+      
+      // Exercise SUT & Verification
+      assertTrue(validator.getClass().getSimpleName(), validator.isValid(text, valueStart, lineEnd));
+      
+      lineStart = lineEnd + 1;
+    }
+  }
+  
+  private static void assertValid(OptionValueInformation validator, String... values) {
+    for (String value : values) {
+      assertTrue(value + " should be valid", validator.isValid("<<" + value + ">>", 2, 2 + value.length()));
+      assertNull(value + " should be valid", validator.getErrorMessage(value));
+    }
+  }
+  
+  private static void assertInvalid(OptionValueInformation validator, String... values) {
+    for (String value : values) {
+      assertFalse(value + " should be invalid", validator.isValid("<<" + value + ">>", 2, 2 + value.length()));
+      assertNotNull(value + " should be invalid", validator.getErrorMessage(value));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ValidationResultCacheTest extends TestCase {
+  
+  public void testRepeatedValuesAreHits() {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(100);
+    OptionValueInformation validator = new MemoizingOptionValue(new ServiceTypeOptionValue(), cache);
+    
+    // Exercise SUT
+    for (int i = 0; i < 10; i++) {
+      assertTrue(validator.isValid("Type=notify", 5, 11));
+      assertNotNull(validator.getErrorMessage("notifyy"));
+    }
+    
+    // Verification
+    assertEquals(2, cache.getMissCount());
+    assertEquals(18, cache.getHitCount());
+    assertEquals(2, cache.size());
+  }
+  
+  public void testResultsMatchTheValidator() {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(100);
+    OptionValueInformation delegate = new KillModeOptionValue();
+    OptionValueInformation validator = new MemoizingOptionValue(delegate, cache);
+    
+    // Exercise SUT & Verification
+    for (int i = 0; i < 2; i++) {
+      for (String value : new String[]{"process", "mixed", "none", "control-group", "Process", "", "proces", "processs"}) {
+        assertEquals(value, delegate.getErrorMessage(value), validator.getErrorMessage(value));
+        assertEquals(value, delegate.isValid(value, 0, value.length()), validator.isValid(value, 0, value.length()));
+      }
+    }
+  }
+  
+  public void testValidatorIsPartOfTheKey() {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(100);
+    OptionValueInformation killMode = new MemoizingOptionValue(new KillModeOptionValue(), cache);
+    OptionValueInformation restart = new MemoizingOptionValue(new RestartOptionValue(), cache);
+    
+    // Exercise SUT
+    boolean validKillMode = killMode.isValid("none", 0, 4);
+    boolean validRestart = restart.isValid("none", 0, 4);
+    
+    // Verification
+    assertTrue(validKillMode);
+    assertFalse(validRestart);
+    assertEquals(2, cache.getMissCount());
+  }
+  
+  public void testValueRangeIsTheKeyNotTheText() {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(100);
+    OptionValueInformation validator = new MemoizingOptionValue(new RestartOptionValue(), cache);
+    
+    // Exercise SUT
+    assertTrue(validator.isValid("Restart=always", 8, 14));
+    assertTrue(validator.isValid("  always  ", 2, 8));
+    assertFalse(validator.isValid("Restart=always", 7, 14));
+    
+    // Verification
+    assertEquals(1, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+  
+  public void testCacheIsBounded() {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(50);
+    OptionValueInformation validator = new MemoizingOptionValue(new ModeStringOptionValue(), cache);
+    
+    // Exercise SUT
+    for (int i = 0; i < 1000; i++) {
+      validator.getErrorMessage(Integer.toString(i));
+    }
+    
+    // Verification
+    assertTrue(cache.size() <= 50);
+    assertTrue(cache.getStats().evictionCount() > 0);
+  }
+  
+  public void testConcurrentUse() throws Exception {
+    // Fixture Setup
+    ValidationResultCache cache = new ValidationResultCache(1000);
+    OptionValueInformation delegate = new ModeStringOptionValue();
+    OptionValueInformation validator = new MemoizingOptionValue(delegate, cache);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    
+    List<Callable<Boolean>> tasks = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      tasks.add(() -> {
+        for (int i = 0; i < 2000; i++) {
+          String value = Integer.toString(i % 1000);
+          
+          if (!String.valueOf(delegate.getErrorMessage(value)).equals(String.valueOf(validator.getErrorMessage(value)))) {
+            return false;
+          }
+        }
+        return true;
+      });
+    }
+    
+    // Exercise SUT
+    List<Future<Boolean>> results;
+    try {
+      results = executor.invokeAll(tasks);
+    } finally {
+      executor.shutdown();
+    }
+    
+    // Verification
+    for (Future<Boolean> result : results) {
+      assertTrue(result.get());
+    }
+    assertEquals(16000, cache.getHitCount() + cache.getMissCount());
+    assertTrue(cache.getHitCount() > cache.getMissCount());
+  }
+}
@@ -0,0 +1,176 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.streaming;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class UnitFileStreamParserTest extends TestCase {
+
+  private static final String EXAMPLE = "# A comment\n"
+                                        + "[Unit]\n"
+                                        + "Description=Example ünit\n"
+                                        + "\n"
+                                        + "[Service]\n"
+                                        + "ExecStart=/bin/daemon \\\n"
+                                        + "# between lines\n"
+                                        + "  --flag\n"
+                                        + "Type = simple\n";
+
+  public void testSectionsPropertiesAndComments() {
+    // Exercise SUT
+    List<String> events = parse(EXAMPLE);
+
+    // Verification
+    assertEquals(Arrays.asList(
+      "comment '# A comment' @0",
+      "section 'Unit' @12",
+      "key 'Description' @19",
+      "segment 'Example ünit' @31",
+      "end @43",
+      "section 'Service' @45",
+      "key 'ExecStart' @55",
+      "segment '/bin/daemon ' @65",
+      "continuation @77",
+      "comment '# between lines' @79",
+      "segment '  --flag' @95",
+      "end @103",
+      "key 'Type' @104",
+      "segment 'simple' @111",
+      "end @117",
+      "end document"), events);
+  }
+
+  public void testEscapedSpacesInKeysAreUnescaped() {
+    // Exercise SUT
+    List<String> events = parse("[X-Section]\nKey\\ With\\ Spaces=value\n");
+
+    // Verification
+    assertEquals("key 'Key With Spaces' @12", events.get(1));
+  }
+
+  public void testBadCharactersAreReportedTogether() {
+    // Exercise SUT
+    List<String> events = parse("Key=before\n[Unit]\nKey\n=value\n");
+
+    // Verification
+    assertEquals(Arrays.asList(
+      "bad 'Key=before' @0",
+      "section 'Unit' @11",
+      "key 'Key' @18",
+      "bad '\n' @21",
+      "segment 'value' @23",
+      "end @28",
+      "end document"), events);
+  }
+
+  public void testValueCutShortByTheEndOfTheFileIsEnded() {
+    // Exercise SUT & Verification
+    assertEquals(Arrays.asList("section 'A' @0", "key 'K' @4", "segment '' @6", "end @6", "end document"), parse("[A]\nK="));
+    assertEquals(Arrays.asList("section 'A' @0", "key 'K' @4", "segment 'v ' @6", "continuation @8", "end @9", "end document"),
+      parse("[A]\nK=v \\\n"));
+  }
+
+  public void testFilesAndBuffersGiveTheSameEvents() throws IOException {
+    // Fixture Setup
+    StringBuilder large = new StringBuilder();
+
+    while (large.length() < 2 * 1024 * 1024) {
+      large.append(EXAMPLE);
+    }
+
+    UnitFileStreamParser parser = new UnitFileStreamParser();
+
+    for (String text : new String[] {EXAMPLE, large.toString(), EXAMPLE, ""}) {
+      Path file = Files.createTempFile("unit", ".service");
+
+      try {
+        Files.write(file, text.getBytes(StandardCharsets.UTF_8));
+
+        // Exercise SUT
+        RecordingHandler fromFile = new RecordingHandler();
+        parser.parse(file, fromFile);
+
+        RecordingHandler fromBytes = new RecordingHandler();
+        parser.parse(ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), fromBytes);
+
+        // Verification
+        List<String> expected = parse(text);
+        assertEquals(expected, fromFile.events);
+        assertEquals(expected, fromBytes.events);
+      } finally {
+        Files.delete(file);
+      }
+    }
+  }
+
+  public void testMalformedUtf8IsReplaced() {
+    // Fixture Setup
+    byte[] bytes = "[Unit]\nDescription=?\n".getBytes(StandardCharsets.UTF_8);
+    bytes[19] = (byte) 0xC3;
+
+    RecordingHandler handler = new RecordingHandler();
+
+    // Exercise SUT
+    new UnitFileStreamParser().parse(ByteBuffer.wrap(bytes), handler);
+
+    // Verification
+    assertEquals("segment '\uFFFD' @19", handler.events.get(2));
+  }
+
+  private static List<String> parse(String text) {
+    RecordingHandler handler = new RecordingHandler();
+    new UnitFileStreamParser().parse(text, handler);
+    return handler.events;
+  }
+
+  private static class RecordingHandler implements UnitFileHandler {
+    private final List<String> events = new ArrayList<>();
+
+    @Override
+    public void startSection(CharSequence name, int offset) {
+      events.add("section '" + name + "' @" + offset);
+    }
+
+    @Override
+    public void key(CharSequence key, int offset) {
+      events.add("key '" + key + "' @" + offset);
+    }
+
+    @Override
+    public void valueSegment(CharSequence text, int offset) {
+      events.add("segment '" + text + "' @" + offset);
+    }
+
+    @Override
+    public void continuation(int offset) {
+      events.add("continuation @" + offset);
+    }
+
+    @Override
+    public void endValue(int offset) {
+      events.add("end @" + offset);
+    }
+
+    @Override
+    public void comment(CharSequence text, int offset) {
+      events.add("comment '" + text + "' @" + offset);
+    }
+
+    @Override
+    public void badCharacters(CharSequence text, int offset) {
+      events.add("bad '" + text + "' @" + offset);
+    }
+
+    @Override
+    public void endDocument() {
+      events.add("end document");
+    }
+  }
+}
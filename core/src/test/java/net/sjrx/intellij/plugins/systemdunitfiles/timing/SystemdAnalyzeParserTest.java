@@ -0,0 +1,86 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import junit.framework.TestCase;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+public class SystemdAnalyzeParserTest extends TestCase {
+
+  private final SystemdAnalyzeParser parser = new SystemdAnalyzeParser();
+
+  public void testBlameOutputHasDurations() throws Exception {
+    // Fixture Setup
+    String output = "1min 2.345s db.service\n"
+                    + "      523ms app.service\n"
+                    + "      860us systemd-fsck@dev-sda1.service\n"
+                    + "Some other line\n";
+    MeasuredBoot boot = new MeasuredBoot("web01");
+
+    // Exercise SUT
+    int units = parser.parse(new BufferedReader(new StringReader(output)), boot);
+
+    // Verification
+    assertEquals(3, units);
+    assertEquals(62_345, boot.getUnit("db.service").getDurationMillis());
+    assertEquals(MeasuredUnit.UNKNOWN, boot.getUnit("db.service").getActiveAtMillis());
+    assertEquals(523, boot.getUnit("app.service").getDurationMillis());
+    assertEquals(1, boot.getUnit("systemd-fsck@dev-sda1.service").getDurationMillis());
+    assertEquals("web01", boot.getUnit("app.service").getHost());
+  }
+
+  public void testCriticalChainOutputHasActivationTimes() throws Exception {
+    // Fixture Setup
+    String output = "The time when unit became active or started is printed after the \"@\" character.\n"
+                    + "The time the unit took to start is printed after the \"+\" character.\n"
+                    + "\n"
+                    + "multi-user.target @1min 5.3s\n"
+                    + "└─app.service @1min 2.4s +2.9s\n"
+                    + "  └─db.service @52ms +1min 2.345s\n"
+                    + "    └─network.target @50ms\n";
+    MeasuredBoot boot = new MeasuredBoot("web01");
+
+    // Exercise SUT
+    int units = parser.parse(new BufferedReader(new StringReader(output)), boot);
+
+    // Verification
+    assertEquals(4, units);
+    assertEquals(65_300, boot.getUnit("multi-user.target").getActiveAtMillis());
+    assertEquals(MeasuredUnit.UNKNOWN, boot.getUnit("multi-user.target").getDurationMillis());
+    assertEquals(62_400, boot.getUnit("app.service").getActiveAtMillis());
+    assertEquals(2_900, boot.getUnit("app.service").getDurationMillis());
+    assertEquals("@52ms +1min 2s 345ms", boot.getUnit("db.service").format());
+  }
+
+  public void testPlotLabelsHaveWhenUnitsStartedActivating() throws Exception {
+    // Fixture Setup
+    String output = "<svg width=\"1180px\" height=\"2450px\" version=\"1.1\" xmlns=\"http://www.w3.org/2000/svg\">\n"
+                    + "  <rect class=\"activating\" x=\"105.479\" y=\"200.000\" width=\"6.200\" height=\"19.000\" />\n"
+                    + "  <text class=\"left\" x=\"110.479\" y=\"214.000\">db.service (62ms)</text>\n"
+                    + "  <text class=\"right\" x=\"995.000\" y=\"234.000\">app.service (1.5s)</text>\n"
+                    + "  <text class=\"left\" x=\"20.000\" y=\"254.000\">sysinit.target</text>\n";
+    MeasuredBoot boot = new MeasuredBoot("web01");
+
+    // Exercise SUT
+    int units = parser.parse(new BufferedReader(new StringReader(output)), boot);
+
+    // Verification
+    assertEquals(2, units);
+    assertEquals(62, boot.getUnit("db.service").getDurationMillis());
+    assertEquals(1_055 + 62, boot.getUnit("db.service").getActiveAtMillis());
+    assertEquals(10_000 + 1_500, boot.getUnit("app.service").getActiveAtMillis());
+    assertNull(boot.getUnit("sysinit.target"));
+  }
+
+  public void testOutputsOfTheSameBootAreMerged() {
+    // Fixture Setup
+    MeasuredBoot boot = new MeasuredBoot("web01");
+
+    // Exercise SUT
+    parser.parseLine("└─db.service @52ms", boot);
+    parser.parseLine("  700ms db.service", boot);
+
+    // Verification
+    assertEquals("@52ms +700ms", boot.getUnit("db.service").format());
+  }
+}
@@ -0,0 +1,217 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.SearchPath;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.List;
+
+public class TimeBudgetAnalyzerTest extends TestCase {
+
+  private TimeBudgetAnalyzer analyzer;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    analyzer = new TimeBudgetAnalyzer(SearchPath.SYSTEM, SemanticDataRepository.getInstance());
+
+    analyzer.update("/etc/systemd/system/db.service", "[Unit]\n"
+                                                      + "After=network.target\n"
+                                                      + "[Service]\n"
+                                                      + "Type=notify\n"
+                                                      + "ExecStart=/usr/bin/db\n"
+                                                      + "TimeoutStartSec=30s\n"
+                                                      + "TimeoutStopSec=10\n"
+                                                      + "[Install]\n"
+                                                      + "WantedBy=multi-user.target\n");
+    analyzer.update("/etc/systemd/system/app.service", "[Unit]\n"
+                                                       + "Requires=db.service\n"
+                                                       + "After=db.service\n"
+                                                       + "[Service]\n"
+                                                       + "Type=forking\n"
+                                                       + "ExecStart=/usr/bin/app\n"
+                                                       + "[Install]\n"
+                                                       + "WantedBy=multi-user.target\n");
+    analyzer.update("/etc/systemd/system/web.service", "[Unit]\n"
+                                                       + "After=network.target\n"
+                                                       + "[Service]\n"
+                                                       + "ExecStart=/usr/bin/web\n"
+                                                       + "[Install]\n"
+                                                       + "WantedBy=multi-user.target\n");
+  }
+
+  public void testTimeSpansAreParsedAndFormattedLikeSystemd() {
+    // Exercise SUT & Verification
+    assertEquals(90_000, TimeSpans.parse("90"));
+    assertEquals(90_000, TimeSpans.parse("1min 30s"));
+    assertEquals(90_000, TimeSpans.parse("1m30s"));
+    assertEquals(500, TimeSpans.parse("0.5s"));
+    assertEquals(TimeSpans.INFINITY, TimeSpans.parse("infinity"));
+    assertEquals(TimeSpans.INVALID, TimeSpans.parse("5 fortnights"));
+    assertEquals(TimeSpans.INVALID, TimeSpans.parse(""));
+
+    assertEquals("1min 30s", TimeSpans.format(90_000));
+    assertEquals("1h 500ms", TimeSpans.format(3_600_500));
+    assertEquals("0", TimeSpans.format(0));
+    assertEquals("infinity", TimeSpans.format(TimeSpans.add(TimeSpans.INFINITY, 5)));
+  }
+
+  public void testBootCriticalPathFollowsTheLongestChainOfTimeouts() {
+    // Exercise SUT
+    TimeBudget budget = analyzer.analyzeBoot("multi-user.target");
+
+    // Verification
+    assertEquals(120_000, budget.getTotalMillis());
+
+    List<TimeBudget.Step> steps = budget.getSteps();
+    assertSize(3, steps);
+    assertStep(steps.get(0), "db.service", 0, 30_000);
+    assertEquals("Type=notify, TimeoutStartSec=30s", steps.get(0).getReason());
+    assertStep(steps.get(1), "app.service", 30_000, 90_000);
+    assertEquals("Type=forking, TimeoutStartSec=1min 30s (default)", steps.get(1).getReason());
+    assertStep(steps.get(2), "multi-user.target", 120_000, 0);
+
+    assertEquals("Boot to multi-user.target: worst case 2min\n"
+                 + "  @0 db.service +30s (Type=notify, TimeoutStartSec=30s)\n"
+                 + "  @30s app.service +1min 30s (Type=forking, TimeoutStartSec=1min 30s (default))\n"
+                 + "  @2min multi-user.target +0 (no unit file)\n", budget.format());
+  }
+
+  public void testUnitsNotPulledInDontCount() {
+    // Fixture Setup
+    analyzer.update("/etc/systemd/system/slow.service", "[Unit]\n"
+                                                        + "Before=app.service\n"
+                                                        + "[Service]\n"
+                                                        + "Type=oneshot\n"
+                                                        + "ExecStart=/usr/bin/slow\n");
+
+    // Exercise SUT
+    TimeBudget before = analyzer.analyzeBoot("multi-user.target");
+    analyzer.update("/etc/systemd/system/slow.service.d/enable.conf", "[Install]\nRequiredBy=app.service\n");
+    TimeBudget after = analyzer.analyzeBoot("multi-user.target");
+
+    // Verification
+    assertEquals(120_000, before.getTotalMillis());
+    assertEquals(TimeSpans.INFINITY, after.getTotalMillis());
+    assertEquals("slow.service", after.getSteps().get(0).getUnitName());
+    assertEquals("Type=oneshot, TimeoutStartSec=infinity (default)", after.getSteps().get(0).getReason());
+  }
+
+  public void testShutdownStopsUnitsOrderedAfterOthersFirst() {
+    // Exercise SUT
+    TimeBudget budget = analyzer.analyzeShutdown();
+
+    // Verification
+    assertEquals(100_000, budget.getTotalMillis());
+
+    List<TimeBudget.Step> steps = budget.getSteps();
+    assertSize(2, steps);
+    assertStep(steps.get(0), "app.service", 0, 90_000);
+    assertStep(steps.get(1), "db.service", 90_000, 10_000);
+    assertEquals("TimeoutStopSec=10", steps.get(1).getReason());
+  }
+
+  public void testEditingATimeoutOnlyRecomputesTheUnitsWaitingForIt() {
+    // Fixture Setup
+    analyzer.analyzeBoot("multi-user.target");
+    analyzer.analyzeShutdown();
+    int evaluations = analyzer.getEvaluations();
+
+    // Exercise SUT
+    analyzer.update("/etc/systemd/system/app.service.d/timeout.conf", "[Service]\nTimeoutStartSec=5min\n");
+    TimeBudget boot = analyzer.analyzeBoot("multi-user.target");
+    TimeBudget shutdown = analyzer.analyzeShutdown();
+
+    // Verification
+    assertEquals(330_000, boot.getTotalMillis());
+    assertEquals(100_000, shutdown.getTotalMillis());
+    // app.service and multi-user.target, the stop times didn't change
+    assertEquals(evaluations + 2, analyzer.getEvaluations());
+  }
+
+  public void testTheLastOfTimeoutSecAndTimeoutStartSecWins() {
+    // Fixture Setup
+    analyzer.update("/etc/systemd/system/db.service.d/timeout.conf", "[Service]\nTimeoutSec=1min\n");
+    analyzer.update("/etc/systemd/system/app.service.d/timeout.conf", "[Service]\nTimeoutSec=1min\nTimeoutStartSec=2min\n");
+
+    // Exercise SUT
+    UnitTiming db = analyzer.getTiming("db.service");
+    UnitTiming app = analyzer.getTiming("app.service");
+
+    // Verification
+    assertEquals(60_000, db.getStartMillis());
+    assertEquals("Type=notify, TimeoutSec=1min", db.getStartReason());
+    assertEquals(60_000, db.getStopMillis());
+    assertEquals("TimeoutSec=1min", db.getStopReason());
+
+    assertEquals(120_000, app.getStartMillis());
+    assertEquals("Type=forking, TimeoutStartSec=2min", app.getStartReason());
+    assertEquals("TimeoutSec=1min", app.getStopReason());
+  }
+
+  public void testEditingADependencyRebuildsTheGraph() {
+    // Fixture Setup
+    analyzer.analyzeBoot("multi-user.target");
+
+    // Exercise SUT
+    analyzer.update("/etc/systemd/system/app.service", "[Service]\n"
+                                                       + "Type=forking\n"
+                                                       + "ExecStart=/usr/bin/app\n"
+                                                       + "[Install]\n"
+                                                       + "WantedBy=multi-user.target\n");
+    TimeBudget budget = analyzer.analyzeBoot("multi-user.target");
+
+    // Verification
+    assertEquals(90_000, budget.getTotalMillis());
+    assertSize(2, budget.getSteps());
+    assertEquals("app.service", budget.getSteps().get(0).getUnitName());
+  }
+
+  public void testOrderingCyclesDontHang() {
+    // Fixture Setup
+    analyzer.update("/etc/systemd/system/db.service.d/cycle.conf", "[Unit]\nAfter=app.service\n");
+
+    // Exercise SUT
+    TimeBudget budget = analyzer.analyzeBoot("multi-user.target");
+
+    // Verification
+    assertEquals(120_000, budget.getTotalMillis());
+  }
+
+  public void testMeasuredCriticalPathAndOrderingDelays() {
+    // Fixture Setup
+    analyzer.update("/etc/systemd/system/cache.service", "[Unit]\n"
+                                                         + "Before=app.service\n"
+                                                         + "[Install]\n"
+                                                         + "WantedBy=multi-user.target\n");
+    MeasuredBoot boot = new MeasuredBoot("web01");
+    boot.record("network.target", 50, 0);
+    boot.record("db.service", MeasuredUnit.UNKNOWN, 4_000);
+    boot.record("cache.service", MeasuredUnit.UNKNOWN, 1_000);
+    boot.record("app.service", MeasuredUnit.UNKNOWN, 500);
+
+    // Exercise SUT
+    TimeBudget budget = analyzer.analyzeMeasuredBoot("multi-user.target", boot);
+    List<OrderingDelay> delays = analyzer.findOrderingDelays("multi-user.target", boot);
+
+    // Verification
+    assertEquals("Measured boot to multi-user.target on web01", budget.getTitle());
+    assertEquals(4_500, budget.getTotalMillis());
+    assertStep(budget.getSteps().get(0), "db.service", 0, 4_000);
+    assertEquals("measured +4s", budget.getSteps().get(0).getReason());
+    assertStep(budget.getSteps().get(1), "app.service", 4_000, 500);
+
+    assertEquals("[app.service waited 3s longer for db.service (web01), multi-user.target waited 500ms longer for app.service (web01)]",
+      delays.toString());
+  }
+
+  private static void assertStep(TimeBudget.Step step, String unitName, long startsAtMillis, long durationMillis) {
+    assertEquals(unitName, step.getUnitName());
+    assertEquals(startsAtMillis, step.getStartsAtMillis());
+    assertEquals(durationMillis, step.getDurationMillis());
+  }
+
+  private static void assertSize(int size, List<?> list) {
+    assertEquals(list.toString(), size, list.size());
+  }
+}
@@ -0,0 +1,37 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.gradle;
+
+import org.gradle.api.Plugin;
+import org.gradle.api.Project;
+import org.gradle.language.base.plugins.LifecycleBasePlugin;
+
+import java.io.File;
+
+/**
+ * Adds a <code>lintUnitFiles</code> task ({@link UnitFileLintTask}) that checks the unit files under <code>src</code>, which
+ * <code>check</code> depends on when the project has one.
+ */
+public class UnitFileLintPlugin implements Plugin<Project> {
+
+  public static final String TASK_NAME = "lintUnitFiles";
+
+  /**
+   * The unit files the plugin supports, and drop-ins (<code>.conf</code> files in a directory such as <code>foo.service.d</code>).
+   */
+  static final String[] UNIT_FILE_PATTERNS = {
+    "**/*.automount", "**/*.device", "**/*.mount", "**/*.path", "**/*.service", "**/*.slice", "**/*.socket", "**/*.swap", "**/*.target",
+    "**/*.timer", "**/*.d/*.conf"
+  };
+
+  @Override
+  public void apply(Project project) {
+    UnitFileLintTask task = project.getTasks().create(TASK_NAME, UnitFileLintTask.class);
+    task.setGroup(LifecycleBasePlugin.VERIFICATION_GROUP);
+    task.setDescription("Checks unit files for unknown keys, invalid values and deprecated options.");
+    task.setSource(project.fileTree("src"));
+    task.include(UNIT_FILE_PATTERNS);
+    task.setReportsDir(new File(project.getBuildDir(), "reports/unit-file-lint"));
+
+    project.getPlugins().withType(LifecycleBasePlugin.class,
+      plugin -> project.getTasks().getByName(LifecycleBasePlugin.CHECK_TASK_NAME).dependsOn(task));
+  }
+}
@@ -0,0 +1,280 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.gradle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.FileTree;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.SkipWhenEmpty;
+import org.gradle.api.tasks.SourceTask;
+import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.incremental.IncrementalTaskInputs;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks unit files with the plugin's inspections (unknown keys, invalid values and deprecated options) and fails if there are any
+ * problems.
+ * <p></p>
+ * The problems are written to {@value #REPORT_FILE_NAME} in the reports directory, one JSON object per line in the same format as the
+ * command line linter, but with paths relative to the source directory so that the output only depends on the files' contents and
+ * relative paths, which makes the task cacheable. The report is also what makes the task incremental: when only some files changed since
+ * the last run, only those are checked again and the problems of the others are taken from the last report.
+ */
+@CacheableTask
+public class UnitFileLintTask extends SourceTask {
+
+  static final String REPORT_FILE_NAME = "unit-file-lint.jsonl";
+
+  /**
+   * Files per thread below which fewer threads are used, so that a few changed files are checked without starting threads.
+   */
+  private static final int FILES_PER_THREAD = 64;
+
+  private static final int MAX_LOGGED_PROBLEMS = 50;
+
+  private static final String FILE_FIELD = "file";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private File reportsDir;
+
+  private boolean ignoreFailures;
+
+  @Override
+  @InputFiles
+  @SkipWhenEmpty
+  @PathSensitive(PathSensitivity.RELATIVE)
+  public FileTree getSource() {
+    return super.getSource();
+  }
+
+  @OutputDirectory
+  public File getReportsDir() {
+    return reportsDir;
+  }
+
+  public void setReportsDir(File reportsDir) {
+    this.reportsDir = reportsDir;
+  }
+
+  @Internal
+  public File getReportFile() {
+    return new File(reportsDir, REPORT_FILE_NAME);
+  }
+
+  /**
+   * Returns whether the build goes on when there are problems, which are then only reported.
+   */
+  @Input
+  public boolean getIgnoreFailures() {
+    return ignoreFailures;
+  }
+
+  public void setIgnoreFailures(boolean ignoreFailures) {
+    this.ignoreFailures = ignoreFailures;
+  }
+
+  @TaskAction
+  public void lint(IncrementalTaskInputs inputs) throws IOException {
+    long start = System.nanoTime();
+
+    Map<File, String> relativePaths = new HashMap<>();
+    getSource().visit(details -> {
+      if (!details.isDirectory()) {
+        relativePaths.put(details.getFile(), details.getRelativePath().getPathString());
+      }
+    });
+
+    // The report lines of each file with problems, sorted so that the report is the same whatever order the files are checked in
+    Map<String, List<String>> reportLines = new TreeMap<>();
+    List<File> outOfDate = new ArrayList<>();
+    File reportFile = getReportFile();
+
+    if (inputs.isIncremental() && reportFile.isFile()) {
+      reportLines.putAll(readReport(reportFile));
+      reportLines.keySet().retainAll(new HashSet<>(relativePaths.values()));
+      inputs.outOfDate(details -> outOfDate.add(details.getFile()));
+    } else {
+      outOfDate.addAll(relativePaths.keySet());
+    }
+
+    // Without a report, the next run checks every file, so nothing is lost if this one doesn't finish
+    Files.deleteIfExists(reportFile.toPath());
+
+    for (File file : outOfDate) {
+      reportLines.remove(relativePaths.get(file));
+    }
+    reportLines.putAll(lint(outOfDate, relativePaths));
+    reportLines.values().removeIf(List::isEmpty);
+
+    int problems = writeReport(reportFile, reportLines);
+
+    getLogger().info("Checked {} of {} unit files in {} ms", outOfDate.size(), relativePaths.size(), (System.nanoTime() - start) / 1000000);
+
+    if (problems > 0) {
+      logProblems(reportLines);
+
+      String message = "Found " + problems + " problems in " + reportLines.size() + " unit files, see the report at " + reportFile;
+
+      if (!ignoreFailures) {
+        throw new GradleException(message);
+      }
+
+      getLogger().warn(message);
+    }
+  }
+
+  private Map<String, List<String>> lint(List<File> files, Map<File, String> relativePaths) throws IOException {
+    Map<String, List<String>> reportLines = new ConcurrentHashMap<>();
+
+    if (files.isEmpty()) {
+      return reportLines;
+    }
+
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    int threads = Math.min(Runtime.getRuntime().availableProcessors(), (files.size() + FILES_PER_THREAD - 1) / FILES_PER_THREAD);
+
+    if (threads == 1) {
+      lint(new UnitFileLinter(sdr), files, 0, 1, relativePaths, reportLines);
+      return reportLines;
+    }
+
+    // Threads of our own rather than the common pool, so that nothing of the plugin stays behind in the daemon
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      List<Callable<Void>> tasks = new ArrayList<>();
+
+      for (int i = 0; i < threads; i++) {
+        int first = i;
+        tasks.add(() -> {
+          lint(new UnitFileLinter(sdr), files, first, threads, relativePaths, reportLines);
+          return null;
+        });
+      }
+
+      for (Future<Void> future : executor.invokeAll(tasks)) {
+        future.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new GradleException("Interrupted while checking unit files", e);
+    } catch (ExecutionException e) {
+      throw new GradleException("Could not check unit files", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return reportLines;
+  }
+
+  /**
+   * Checks every <code>step</code>th file starting with the <code>first</code>.
+   */
+  private void lint(UnitFileLinter linter, List<File> files, int first, int step, Map<File, String> relativePaths,
+                    Map<String, List<String>> reportLines) throws IOException {
+    for (int i = first; i < files.size(); i += step) {
+      File file = files.get(i);
+      String path = relativePaths.get(file);
+      List<String> lines = new ArrayList<>();
+
+      try {
+        for (Problem problem : linter.lint(file.toPath())) {
+          ObjectNode line = mapper.createObjectNode();
+          line.put(FILE_FIELD, path);
+          line.put("rule", problem.getRule().getId());
+          line.put("line", problem.getLine());
+          line.put("column", problem.getColumn());
+          line.put("offset", problem.getOffset());
+          line.put("length", problem.getLength());
+          line.put("message", problem.getMessage());
+          lines.add(mapper.writeValueAsString(line));
+        }
+      } catch (IOException e) {
+        ObjectNode line = mapper.createObjectNode();
+        line.put(FILE_FIELD, path);
+        line.put("error", String.valueOf(e.getMessage()));
+        lines.add(mapper.writeValueAsString(line));
+      }
+
+      reportLines.put(path, lines);
+    }
+  }
+
+  private Map<String, List<String>> readReport(File reportFile) throws IOException {
+    Map<String, List<String>> reportLines = new HashMap<>();
+
+    for (String line : Files.readAllLines(reportFile.toPath(), StandardCharsets.UTF_8)) {
+      if (!line.isEmpty()) {
+        String path = mapper.readTree(line).path(FILE_FIELD).asText();
+        reportLines.computeIfAbsent(path, key -> new ArrayList<>()).add(line);
+      }
+    }
+
+    return reportLines;
+  }
+
+  private static int writeReport(File reportFile, Map<String, List<String>> reportLines) throws IOException {
+    int problems = 0;
+
+    try (BufferedWriter writer = Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8)) {
+      for (List<String> lines : reportLines.values()) {
+        for (String line : lines) {
+          writer.write(line);
+          writer.write('\n');
+          problems++;
+        }
+      }
+    }
+
+    return problems;
+  }
+
+  private void logProblems(Map<String, List<String>> reportLines) throws IOException {
+    int logged = 0;
+
+    for (List<String> lines : reportLines.values()) {
+      for (String line : lines) {
+        if (logged++ == MAX_LOGGED_PROBLEMS) {
+          return;
+        }
+
+        JsonNode problem = mapper.readTree(line);
+
+        if (problem.has("error")) {
+          getLogger().error("{}: {}", problem.path(FILE_FIELD).asText(), problem.path("error").asText());
+        } else {
+          getLogger().error("{}:{}:{}: {} [{}]", problem.path(FILE_FIELD).asText(), problem.path("line").asInt(),
+            problem.path("column").asInt(), problem.path("message").asText(), problem.path("rule").asText());
+        }
+      }
+    }
+  }
+}
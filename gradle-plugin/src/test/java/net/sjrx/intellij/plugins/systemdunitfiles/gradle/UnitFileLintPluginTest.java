@@ -0,0 +1,131 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.gradle;
+
+import junit.framework.TestCase;
+import org.apache.commons.io.FileUtils;
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.gradle.testkit.runner.TaskOutcome;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class UnitFileLintPluginTest extends TestCase {
+
+  private static final String TASK = ":" + UnitFileLintPlugin.TASK_NAME;
+
+  private Path projectDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    projectDir = Files.createTempDirectory("unit-file-lint-plugin");
+
+    write("settings.gradle", "rootProject.name = 'units'\n");
+    write("build.gradle", "plugins {\n  id 'base'\n  id 'net.sjrx.systemd-unit-file-lint'\n}\n");
+
+    for (int i = 0; i < 100; i++) {
+      write("src/main/systemd/unit-" + i + ".service", "[Service]\nType=simple\n");
+    }
+    write("src/main/systemd/unit-0.service.d/override.conf", "[Service]\nKillMode=process\n");
+    write("src/main/systemd/README.md", "Not=a unit file\n");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    FileUtils.deleteDirectory(projectDir.toFile());
+    super.tearDown();
+  }
+
+  public void testOnlyChangedFilesAreCheckedAgain() throws IOException {
+    // Exercise SUT & Verification
+    BuildResult result = run("check", "--info");
+    assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+    assertTrue(result.getOutput(), result.getOutput().contains("Checked 101 of 101 unit files"));
+
+    result = run("check");
+    assertEquals(TaskOutcome.UP_TO_DATE, result.task(TASK).getOutcome());
+
+    write("src/main/systemd/unit-1.service", "[Service]\nType=forking\n");
+    result = run("check", "--info");
+    assertEquals(TaskOutcome.SUCCESS, result.task(TASK).getOutcome());
+    assertTrue(result.getOutput(), result.getOutput().contains("Checked 1 of 101 unit files"));
+  }
+
+  public void testProblemsFailTheBuild() throws IOException {
+    // Fixture Setup
+    write("src/main/systemd/unit-2.service", "[Service]\nType=simple\nKillMode=never\n");
+    write("src/main/systemd/unit-3.service", "[Service]\nType=simple\nUnknown=1\n");
+
+    // Exercise SUT
+    BuildResult result = runner("check").buildAndFail();
+
+    // Verification
+    assertEquals(TaskOutcome.FAILED, result.task(TASK).getOutcome());
+    assertTrue(result.getOutput(), result.getOutput().contains("main/systemd/unit-3.service:3:1: "));
+
+    List<String> report = Files.readAllLines(projectDir.resolve("build/reports/unit-file-lint/" + UnitFileLintTask.REPORT_FILE_NAME));
+    assertEquals(2, report.size());
+    assertTrue(report.get(0), report.get(0).contains("\"file\":\"main/systemd/unit-2.service\",\"rule\":\"InvalidValue\",\"line\":3"));
+    assertTrue(report.get(1),
+      report.get(1).contains("\"file\":\"main/systemd/unit-3.service\",\"rule\":\"UnknownKeyInSection\",\"line\":3"));
+
+    // Exercise SUT (the build fails until both files are fixed)
+    write("src/main/systemd/unit-2.service", "[Service]\nType=simple\nKillMode=process\n");
+    result = runner("check").buildAndFail();
+
+    // Verification
+    assertTrue(result.getOutput(), result.getOutput().contains("Found 1 problems in 1 unit files"));
+  }
+
+  public void testProblemsInUnchangedFilesAreCarriedOver() throws IOException {
+    // Fixture Setup (failures don't fail the build, so that each run is recorded and the next one is incremental)
+    write("build.gradle",
+      "plugins {\n  id 'base'\n  id 'net.sjrx.systemd-unit-file-lint'\n}\nlintUnitFiles {\n  ignoreFailures = true\n}\n");
+    write("src/main/systemd/unit-2.service", "[Service]\nType=simple\nKillMode=never\n");
+    write("src/main/systemd/unit-3.service", "[Service]\nType=simple\nUnknown=1\n");
+    run("check");
+
+    // Exercise SUT
+    write("src/main/systemd/unit-2.service", "[Service]\nType=simple\nKillMode=process\n");
+    BuildResult result = run("check", "--info");
+
+    // Verification
+    assertTrue(result.getOutput(), result.getOutput().contains("Checked 1 of 101 unit files"));
+    assertTrue(result.getOutput(), result.getOutput().contains("Found 1 problems in 1 unit files"));
+
+    List<String> report = Files.readAllLines(projectDir.resolve("build/reports/unit-file-lint/" + UnitFileLintTask.REPORT_FILE_NAME));
+    assertEquals(1, report.size());
+    assertTrue(report.get(0), report.get(0).contains("\"file\":\"main/systemd/unit-3.service\",\"rule\":\"UnknownKeyInSection\""));
+  }
+
+  public void testResultsAreReusedFromTheBuildCache() throws IOException {
+    // Fixture Setup
+    write("settings.gradle", "rootProject.name = 'units'\nbuildCache {\n  local {\n    directory = file('cache')\n  }\n}\n");
+
+    // Exercise SUT
+    BuildResult first = run(UnitFileLintPlugin.TASK_NAME, "--build-cache");
+    FileUtils.deleteDirectory(projectDir.resolve("build").toFile());
+    BuildResult second = run(UnitFileLintPlugin.TASK_NAME, "--build-cache");
+
+    // Verification
+    assertEquals(TaskOutcome.SUCCESS, first.task(TASK).getOutcome());
+    assertEquals(TaskOutcome.FROM_CACHE, second.task(TASK).getOutcome());
+  }
+
+  private BuildResult run(String... arguments) {
+    return runner(arguments).build();
+  }
+
+  private GradleRunner runner(String... arguments) {
+    return GradleRunner.create().withProjectDir(projectDir.toFile()).withPluginClasspath().withArguments(arguments);
+  }
+
+  private void write(String path, String text) throws IOException {
+    File file = projectDir.resolve(path).toFile();
+    FileUtils.writeStringToFile(file, text, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,137 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads and writes JSON-RPC 2.0 messages framed with <code>Content-Length</code> headers, the base protocol of the Language Server
+ * Protocol.
+ */
+final class JsonRpcConnection {
+
+  static final int METHOD_NOT_FOUND = -32601;
+
+  static final int INTERNAL_ERROR = -32603;
+
+  private static final String CONTENT_LENGTH = "content-length:";
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final InputStream in;
+
+  private final OutputStream out;
+
+  JsonRpcConnection(InputStream in, OutputStream out) {
+    this.in = new BufferedInputStream(in);
+    this.out = out;
+  }
+
+  ObjectMapper getMapper() {
+    return mapper;
+  }
+
+  /**
+   * Reads the next message.
+   *
+   * @return the message, or null at the end of the input
+   * @throws IOException if the input isn't a valid message
+   */
+  JsonNode read() throws IOException {
+    int contentLength = -1;
+
+    for (String header = readHeaderLine(); ; header = readHeaderLine()) {
+      if (header == null) {
+        return null;
+      }
+
+      if (header.isEmpty()) {
+        if (contentLength >= 0) {
+          break;
+        }
+        // Tolerate blank lines between messages
+        continue;
+      }
+
+      if (header.toLowerCase().startsWith(CONTENT_LENGTH)) {
+        try {
+          contentLength = Integer.parseInt(header.substring(CONTENT_LENGTH.length()).trim());
+        } catch (NumberFormatException e) {
+          throw new IOException("Invalid header: " + header);
+        }
+      }
+    }
+
+    byte[] content = new byte[contentLength];
+    int read = 0;
+
+    while (read < contentLength) {
+      int count = in.read(content, read, contentLength - read);
+      if (count < 0) {
+        throw new EOFException("Message ended after " + read + " of " + contentLength + " bytes");
+      }
+      read += count;
+    }
+
+    return mapper.readTree(content);
+  }
+
+  private String readHeaderLine() throws IOException {
+    StringBuilder line = new StringBuilder();
+
+    for (int c = in.read(); c != '\n'; c = in.read()) {
+      if (c < 0) {
+        return line.length() == 0 ? null : line.toString();
+      }
+      if (c != '\r') {
+        line.append((char) c);
+      }
+    }
+
+    return line.toString();
+  }
+
+  /**
+   * Writes a message, can be called from any thread.
+   */
+  synchronized void write(JsonNode message) throws IOException {
+    byte[] content = mapper.writeValueAsBytes(message);
+
+    out.write(("Content-Length: " + content.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+    out.write(content);
+    out.flush();
+  }
+
+  void respond(JsonNode id, JsonNode result) throws IOException {
+    ObjectNode response = mapper.createObjectNode();
+    response.put("jsonrpc", "2.0");
+    response.set("id", id);
+    response.set("result", result == null ? mapper.nullNode() : result);
+    write(response);
+  }
+
+  void respondWithError(JsonNode id, int code, String message) throws IOException {
+    ObjectNode response = mapper.createObjectNode();
+    response.put("jsonrpc", "2.0");
+    response.set("id", id);
+    ObjectNode error = response.putObject("error");
+    error.put("code", code);
+    error.put("message", message);
+    write(response);
+  }
+
+  void notify(String method, JsonNode params) throws IOException {
+    ObjectNode notification = mapper.createObjectNode();
+    notification.put("jsonrpc", "2.0");
+    notification.put("method", method);
+    notification.set("params", params);
+    write(notification);
+  }
+}
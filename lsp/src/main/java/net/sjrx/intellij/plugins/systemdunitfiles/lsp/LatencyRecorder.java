@@ -0,0 +1,82 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records how long the server takes to handle each message, per method, so that percentiles can be reported.
+ * <p></p>
+ * Every sample is kept (8 bytes each), which is plenty for the length of an editing session and gives exact percentiles.
+ */
+final class LatencyRecorder {
+
+  private final Map<String, Samples> samplesByMethod = new TreeMap<>();
+
+  synchronized void record(String method, long nanos) {
+    samplesByMethod.computeIfAbsent(method, m -> new Samples()).add(nanos);
+  }
+
+  /**
+   * Returns a percentile of the time taken by a method.
+   *
+   * @param method     the method, e.g., textDocument/completion
+   * @param percentile the percentile, e.g., 99
+   * @return the time in nanoseconds, or -1 if the method wasn't called
+   */
+  synchronized long getPercentile(String method, double percentile) {
+    Samples samples = samplesByMethod.get(method);
+
+    return samples == null ? -1 : samples.getPercentile(percentile);
+  }
+
+  synchronized int getCount(String method) {
+    Samples samples = samplesByMethod.get(method);
+
+    return samples == null ? 0 : samples.size;
+  }
+
+  @Override
+  public synchronized String toString() {
+    StringBuilder report = new StringBuilder();
+
+    for (Map.Entry<String, Samples> entry : samplesByMethod.entrySet()) {
+      Samples samples = entry.getValue();
+
+      report.append(String.format("%s: %d calls, p50 %d \u00b5s, p99 %d \u00b5s, max %d \u00b5s%n", entry.getKey(), samples.size,
+        samples.getPercentile(50) / 1000, samples.getPercentile(99) / 1000, samples.getPercentile(100) / 1000));
+    }
+
+    return report.toString();
+  }
+
+  private static final class Samples {
+
+    private long[] nanos = new long[64];
+
+    private int size;
+
+    private boolean sorted = true;
+
+    void add(long sample) {
+      if (size == nanos.length) {
+        nanos = Arrays.copyOf(nanos, size * 2);
+      }
+
+      nanos[size++] = sample;
+      sorted = false;
+    }
+
+    long getPercentile(double percentile) {
+      if (!sorted) {
+        Arrays.sort(nanos, 0, size);
+        sorted = true;
+      }
+
+      // Nearest rank
+      int rank = (int) Math.ceil(percentile / 100 * size);
+
+      return nanos[Math.max(0, Math.min(size, rank) - 1)];
+    }
+  }
+}
@@ -0,0 +1,495 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileScanner;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileTokenSource;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * The text of an open document together with its tokens, kept per line so that an edit only re-lexes the lines around it.
+ * <p></p>
+ * The tokens are exactly the ones from lexing the whole text, each kept with the line it starts on, along with the state at the start of
+ * each line. A few tokens span lines (white space after a line continuation, or a section header whose ] is on a later line), the lines
+ * starting inside them have no state ({@link #INSIDE_TOKEN}) and lexing can't restart there. After an edit, lexing restarts at the line
+ * before the edit (the scanner looks one character past the end of a token), or before the previous ] if one was added or removed (a [
+ * without a ] is a bad character because no ] follows it anywhere), and stops at the first line after the edit that starts in the same
+ * state as before, from there on nothing can have changed. So typing in a value re-lexes a line or two, while opening a line continuation
+ * re-lexes the lines it now swallows.
+ * <p></p>
+ * The problems found in each section are kept as well, from the line the section starts on (see {@link #isSectionStart(int)}), and
+ * forgotten when any of its lines are re-lexed. A section can be checked on its own since the linter starts afresh at each header.
+ * <p></p>
+ * Positions are (line, character) pairs as in the Language Server Protocol, where characters are UTF-16 code units, i.e., Java chars.
+ */
+final class UnitFileDocument {
+
+  /**
+   * The start state of a line that starts inside a token.
+   */
+  static final int INSIDE_TOKEN = -1;
+
+  /**
+   * Ints per token in {@link #lineTokens}: the token, its start and end (relative to the start of the line) and the state after it.
+   */
+  private static final int TOKEN_INTS = 4;
+
+  private static final int[] NO_TOKENS = new int[0];
+
+  private final UnitFileScanner scanner = new UnitFileScanner();
+
+  private final StringBuilder text;
+
+  private int lineCount;
+
+  private int[] lineStarts;
+
+  private int[] startStates;
+
+  private int[][] lineTokens;
+
+  private List<Problem>[] sectionProblems;
+
+  private int endState;
+
+  private int lastRelexedLines;
+
+  private int[] tokenBuffer = new int[64 * TOKEN_INTS];
+
+  UnitFileDocument(String text) {
+    this.text = new StringBuilder(text);
+    setText(text);
+  }
+
+  CharSequence getText() {
+    return text;
+  }
+
+  int getLineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Returns how many lines the last edit lexed.
+   */
+  int getLastRelexedLines() {
+    return lastRelexedLines;
+  }
+
+  /**
+   * Replaces the whole text.
+   */
+  void setText(String newText) {
+    text.setLength(0);
+    text.append(newText);
+
+    lineCount = 1;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        lineCount++;
+      }
+    }
+
+    lineStarts = new int[lineCount];
+    startStates = new int[lineCount];
+    lineTokens = new int[lineCount][];
+    sectionProblems = newProblemsArray(lineCount);
+
+    int line = 1;
+    for (int i = 0; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        lineStarts[line++] = i + 1;
+      }
+    }
+
+    relex(0, UnitFileScanner.YYINITIAL, lineCount);
+  }
+
+  /**
+   * Replaces a range of the text.
+   *
+   * @param startLine      the line of the start of the range
+   * @param startCharacter the character in the line of the start of the range
+   * @param endLine        the line of the end of the range
+   * @param endCharacter   the character in the line of the end of the range (exclusive)
+   * @param newText        the replacement
+   */
+  void replace(int startLine, int startCharacter, int endLine, int endCharacter, String newText) {
+    int startOffset = getOffset(startLine, startCharacter);
+    int endOffset = Math.max(startOffset, getOffset(endLine, endCharacter));
+
+    // The lines that contained the range, which are replaced by the lines that now contain the new text
+    int firstLine = getLine(startOffset);
+    int lastLine = getLine(endOffset);
+    int delta = newText.length() - (endOffset - startOffset);
+
+    // Where the tokens may have changed, see the class comment
+    int relexFrom = Math.max(0, startOffset - 1);
+    if (newText.indexOf(']') >= 0 || indexOf(text, ']', startOffset, endOffset) >= 0) {
+      relexFrom = Math.min(relexFrom, lastIndexOf(text, ']', startOffset) + 1);
+    }
+
+    int relexLine = getLine(relexFrom);
+    while (startStates[relexLine] == INSIDE_TOKEN) {
+      relexLine--;
+    }
+
+    text.replace(startOffset, endOffset, newText);
+
+    int regionStart = lineStarts[firstLine];
+    boolean lastLineOfDocument = lastLine == lineCount - 1;
+    int regionEnd = lastLineOfDocument ? text.length() : lineStarts[lastLine + 1] + delta;
+
+    int newLineCount = 1;
+    for (int i = regionStart; i < regionEnd; i++) {
+      if (text.charAt(i) == '\n' && (i + 1 < regionEnd || lastLineOfDocument)) {
+        newLineCount++;
+      }
+    }
+
+    spliceLines(firstLine, lastLine - firstLine + 1, newLineCount);
+
+    int line = firstLine + 1;
+    for (int i = regionStart; i < regionEnd; i++) {
+      if (text.charAt(i) == '\n' && (i + 1 < regionEnd || lastLineOfDocument)) {
+        lineStarts[line++] = i + 1;
+      }
+    }
+
+    for (int i = firstLine + newLineCount; i < lineCount; i++) {
+      lineStarts[i] += delta;
+    }
+
+    relex(relexLine, startStates[relexLine], firstLine + newLineCount);
+  }
+
+  /**
+   * Makes room for the lines replacing some lines, the new lines have no tokens yet.
+   */
+  private void spliceLines(int from, int removed, int added) {
+    int newLineCount = lineCount - removed + added;
+    int tail = lineCount - from - removed;
+
+    int[] newLineStarts = newLineCount > lineStarts.length ? Arrays.copyOf(lineStarts, newLineCount + newLineCount / 2) : lineStarts;
+    int[] newStartStates = newLineCount > startStates.length ? Arrays.copyOf(startStates, newLineStarts.length) : startStates;
+    int[][] newLineTokens = newLineCount > lineTokens.length ? Arrays.copyOf(lineTokens, newLineStarts.length) : lineTokens;
+    List<Problem>[] newSectionProblems =
+      newLineCount > sectionProblems.length ? Arrays.copyOf(sectionProblems, newLineStarts.length) : sectionProblems;
+
+    System.arraycopy(lineStarts, from + removed, newLineStarts, from + added, tail);
+    System.arraycopy(startStates, from + removed, newStartStates, from + added, tail);
+    System.arraycopy(lineTokens, from + removed, newLineTokens, from + added, tail);
+    System.arraycopy(sectionProblems, from + removed, newSectionProblems, from + added, tail);
+
+    Arrays.fill(newLineTokens, from, from + added, null);
+    Arrays.fill(newSectionProblems, from, from + added, null);
+    if (newLineCount < lineCount) {
+      Arrays.fill(newLineTokens, newLineCount, lineCount, null);
+      Arrays.fill(newSectionProblems, newLineCount, lineCount, null);
+    }
+
+    lineStarts = newLineStarts;
+    startStates = newStartStates;
+    lineTokens = newLineTokens;
+    sectionProblems = newSectionProblems;
+    lineCount = newLineCount;
+  }
+
+  /**
+   * Lexes from the start of a line until a line at or after <code>changedEnd</code> starts in the state it started in before.
+   *
+   * @param line       the line to start at, which doesn't start inside a token
+   * @param state      the state at the start of the line
+   * @param changedEnd the line after the last line whose text changed, the start states of the lines before it can't be compared
+   */
+  private void relex(int line, int state, int changedEnd) {
+    int firstLine = line;
+    int size = 0;
+
+    scanner.reset(text, lineStarts[line], text.length(), state);
+    startStates[line] = state;
+    sectionProblems[line] = null;
+
+    for (int token = scanner.advance(); token != UnitFileScanner.NO_TOKEN; token = scanner.advance()) {
+      int start = scanner.getTokenStart();
+
+      while (line + 1 < lineCount && start >= lineStarts[line + 1]) {
+        lineTokens[line] = Arrays.copyOf(tokenBuffer, size);
+        size = 0;
+        line++;
+
+        if (start > lineStarts[line]) {
+          startStates[line] = INSIDE_TOKEN;
+        } else if (line >= changedEnd && startStates[line] == state) {
+          relexed(firstLine, line);
+          return;
+        } else {
+          startStates[line] = state;
+        }
+
+        sectionProblems[line] = null;
+      }
+
+      if (size + TOKEN_INTS > tokenBuffer.length) {
+        tokenBuffer = Arrays.copyOf(tokenBuffer, tokenBuffer.length * 2);
+      }
+
+      state = scanner.getState();
+      tokenBuffer[size++] = token;
+      tokenBuffer[size++] = start - lineStarts[line];
+      tokenBuffer[size++] = scanner.getTokenEnd() - lineStarts[line];
+      tokenBuffer[size++] = state;
+    }
+
+    lineTokens[line] = Arrays.copyOf(tokenBuffer, size);
+
+    // Only the last line can be empty, which starts at the end of the last token
+    for (line++; line < lineCount; line++) {
+      lineTokens[line] = NO_TOKENS;
+      startStates[line] = lineStarts[line] == scanner.getTokenEnd() ? state : INSIDE_TOKEN;
+      sectionProblems[line] = null;
+    }
+
+    endState = state;
+    relexed(firstLine, lineCount);
+  }
+
+  private void relexed(int firstLine, int endLine) {
+    lastRelexedLines = endLine - firstLine;
+
+    // The section before may now end elsewhere
+    sectionProblems[getSectionStart(Math.max(0, firstLine - 1))] = null;
+    sectionProblems[getSectionStart(firstLine)] = null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Problem>[] newProblemsArray(int length) {
+    return (List<Problem>[]) new List<?>[length];
+  }
+
+  private static int indexOf(CharSequence text, char c, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (text.charAt(i) == c) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int lastIndexOf(CharSequence text, char c, int before) {
+    for (int i = before - 1; i >= 0; i--) {
+      if (text.charAt(i) == c) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the offset of a position, positions past the end of a line are at the end of the line (before the new line).
+   */
+  int getOffset(int line, int character) {
+    if (line < 0) {
+      return 0;
+    }
+    if (line >= lineCount) {
+      return text.length();
+    }
+
+    return Math.min(lineStarts[line] + Math.max(character, 0), getLineContentEnd(line));
+  }
+
+  /**
+   * Returns the line containing an offset.
+   */
+  int getLine(int offset) {
+    int line = Arrays.binarySearch(lineStarts, 0, lineCount, offset);
+
+    // Lines can't be empty except the last, so a match is the only line starting there
+    return line >= 0 ? line : -line - 2;
+  }
+
+  int getLineStart(int line) {
+    return lineStarts[line];
+  }
+
+  /**
+   * Returns the end of a line, without its new line.
+   */
+  int getLineContentEnd(int line) {
+    int end = line + 1 < lineCount ? lineStarts[line + 1] : text.length();
+
+    return end > lineStarts[line] && text.charAt(end - 1) == '\n' ? end - 1 : end;
+  }
+
+  int getStartState(int line) {
+    return startStates[line];
+  }
+
+  int getTokenCount(int line) {
+    return lineTokens[line].length / TOKEN_INTS;
+  }
+
+  int getToken(int line, int index) {
+    return lineTokens[line][index * TOKEN_INTS];
+  }
+
+  /**
+   * Returns the offset (in the document) of the start of a token.
+   */
+  int getTokenStart(int line, int index) {
+    return lineStarts[line] + lineTokens[line][index * TOKEN_INTS + 1];
+  }
+
+  int getTokenEnd(int line, int index) {
+    return lineStarts[line] + lineTokens[line][index * TOKEN_INTS + 2];
+  }
+
+  /**
+   * Returns the index of the token at a position in a line, the one containing the character before the position if there is one (so
+   * that the end of a word is part of the word), otherwise the one starting at the position, or -1 if there is none.
+   */
+  int findToken(int line, int offset) {
+    int[] tokens = lineTokens[line];
+    int start = lineStarts[line];
+
+    for (int i = 0; i < tokens.length; i += TOKEN_INTS) {
+      if (start + tokens[i + 1] < offset && offset <= start + tokens[i + 2]) {
+        return i / TOKEN_INTS;
+      }
+    }
+
+    for (int i = 0; i < tokens.length; i += TOKEN_INTS) {
+      if (start + tokens[i + 1] == offset) {
+        return i / TOKEN_INTS;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the name of the section a line is in, or null before the first section.
+   */
+  String getSectionName(int line) {
+    for (int i = line; i >= 0; i--) {
+      int[] tokens = lineTokens[i];
+
+      for (int j = tokens.length - TOKEN_INTS; j >= 0; j -= TOKEN_INTS) {
+        if (tokens[j] == UnitFileScanner.SECTION) {
+          int start = lineStarts[i] + tokens[j + 1];
+          int end = text.indexOf("]", start);
+          return text.substring(start + 1, end);
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Returns whether a section starts at the start of a line. The first line also counts as one, for anything before the first section.
+   */
+  boolean isSectionStart(int line) {
+    int state = startStates[line];
+
+    return line == 0 || (state == UnitFileScanner.YYINITIAL || state == UnitFileScanner.IN_SECTION) && lineTokens[line].length > 0
+                        && lineTokens[line][0] == UnitFileScanner.SECTION && lineTokens[line][1] == 0;
+  }
+
+  /**
+   * Returns the start of the section a line is in.
+   */
+  int getSectionStart(int line) {
+    while (!isSectionStart(line)) {
+      line--;
+    }
+
+    return line;
+  }
+
+  /**
+   * Checks the sections that changed since the last time and passes the problems of each section, with offsets, lines and columns
+   * relative to the line it starts on, along with that line.
+   *
+   * @param linter   the linter
+   * @param consumer receives the problems of each section, in order
+   */
+  void lint(UnitFileLinter linter, ObjIntConsumer<List<Problem>> consumer) {
+    for (int line = 0, end; line < lineCount; line = end) {
+      end = line + 1;
+      while (end < lineCount && !isSectionStart(end)) {
+        end++;
+      }
+
+      if (sectionProblems[line] == null) {
+        CharSequence section = text.subSequence(lineStarts[line], end < lineCount ? lineStarts[end] : text.length());
+        sectionProblems[line] = linter.lint(section, tokens(line, end));
+      }
+
+      consumer.accept(sectionProblems[line], line);
+    }
+  }
+
+  static String unescapeKey(String key) {
+    return key.indexOf('\\') < 0 ? key : key.replace("\\ ", " ");
+  }
+
+  /**
+   * Returns the tokens of the whole document, replayed from the ones kept for each line.
+   */
+  UnitFileTokenSource tokens() {
+    return tokens(0, lineCount);
+  }
+
+  /**
+   * Returns the tokens of some lines, with offsets relative to the start of the first of them.
+   *
+   * @param firstLine the first line, which doesn't start inside a token
+   * @param endLine   the line after the last line, which doesn't start inside a token (or the line count)
+   * @return the tokens
+   */
+  UnitFileTokenSource tokens(int firstLine, int endLine) {
+    int base = lineStarts[firstLine];
+    int end = endLine < lineCount ? lineStarts[endLine] : text.length();
+    int stateAtEnd = endLine < lineCount ? startStates[endLine] : endState;
+
+    return new UnitFileTokenSource() {
+      private int line = firstLine;
+
+      private int index = -TOKEN_INTS;
+
+      @Override
+      public int advance() {
+        index += TOKEN_INTS;
+
+        while (line < endLine && index >= lineTokens[line].length) {
+          line++;
+          index = 0;
+        }
+
+        return line < endLine ? lineTokens[line][index] : UnitFileScanner.NO_TOKEN;
+      }
+
+      @Override
+      public int getTokenStart() {
+        return (line < endLine ? lineStarts[line] + lineTokens[line][index + 1] : end) - base;
+      }
+
+      @Override
+      public int getTokenEnd() {
+        return (line < endLine ? lineStarts[line] + lineTokens[line][index + 2] : end) - base;
+      }
+
+      @Override
+      public int getState() {
+        return line < endLine ? lineTokens[line][index + 3] : stateAtEnd;
+      }
+    };
+  }
+}
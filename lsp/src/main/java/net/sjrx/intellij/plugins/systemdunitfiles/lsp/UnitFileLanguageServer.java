@@ -0,0 +1,407 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileScanner;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.LintRule;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A Language Server Protocol server for unit files over stdio, offering the plugin's completion, documentation and inspections to other
+ * editors.
+ * <p></p>
+ * Messages are handled one at a time in the order they arrive. Each open document is kept as a {@link UnitFileDocument}, which re-lexes
+ * only the lines an incremental change touches, and completion, hover and diagnostics all work from its tokens. Diagnostics are kept per
+ * section, so only the sections a change touches are checked again. The semantic data is loaded in the background as soon as the server
+ * starts and stays loaded for as long as it runs. The time taken by each message is recorded and the percentiles are written to standard
+ * error on exit.
+ */
+public final class UnitFileLanguageServer {
+
+  /**
+   * TextDocumentSyncKind.Incremental.
+   */
+  private static final int SYNC_INCREMENTAL = 2;
+
+  private static final int SEVERITY_WARNING = 2;
+
+  private static final int TAG_DEPRECATED = 2;
+
+  private static final int COMPLETION_MODULE = 9;
+
+  private static final int COMPLETION_PROPERTY = 10;
+
+  private static final int COMPLETION_VALUE = 12;
+
+  private static final String SOURCE = "systemd";
+
+  private final JsonRpcConnection connection;
+
+  private final PrintStream log;
+
+  private final Map<String, UnitFileDocument> documents = new HashMap<>();
+
+  private final LatencyRecorder latencies = new LatencyRecorder();
+
+  private UnitFileLinter linter;
+
+  private boolean shutdown;
+
+  private boolean exited;
+
+  UnitFileLanguageServer(InputStream in, OutputStream out, PrintStream log) {
+    this.connection = new JsonRpcConnection(in, out);
+    this.log = log;
+
+    Thread loader = new Thread(SemanticDataRepository::getInstance, "Semantic data loader");
+    loader.setDaemon(true);
+    loader.start();
+  }
+
+  public static void main(String[] args) throws IOException {
+    // Standard out is the transport, so anything else written to it would corrupt the messages
+    PrintStream out = System.out;
+    System.setOut(System.err);
+
+    System.exit(new UnitFileLanguageServer(System.in, out, System.err).run());
+  }
+
+  /**
+   * Handles messages until the client sends <code>exit</code> or closes the input.
+   *
+   * @return the exit code, 0 if the client asked the server to shut down first as it should
+   */
+  int run() throws IOException {
+    try {
+      JsonNode message;
+
+      while (!exited && (message = connection.read()) != null) {
+        long start = System.nanoTime();
+        String method = message.path("method").asText(null);
+
+        handle(message, method);
+
+        if (method != null) {
+          latencies.record(method, System.nanoTime() - start);
+        }
+      }
+    } finally {
+      log.print(latencies);
+      log.flush();
+    }
+
+    return shutdown ? 0 : 1;
+  }
+
+  LatencyRecorder getLatencies() {
+    return latencies;
+  }
+
+  private void handle(JsonNode message, String method) throws IOException {
+    JsonNode id = message.get("id");
+    JsonNode params = message.path("params");
+
+    if (method == null) {
+      // A response to a request from the server, which doesn't send any
+      return;
+    }
+
+    try {
+      JsonNode result;
+
+      switch (method) {
+        case "initialize":
+          result = initialize();
+          break;
+        case "shutdown":
+          shutdown = true;
+          result = null;
+          break;
+        case "exit":
+          exited = true;
+          return;
+        case "textDocument/didOpen":
+          didOpen(params);
+          return;
+        case "textDocument/didChange":
+          didChange(params);
+          return;
+        case "textDocument/didClose":
+          didClose(params);
+          return;
+        case "textDocument/completion":
+          result = completion(params);
+          break;
+        case "textDocument/hover":
+          result = hover(params);
+          break;
+        default:
+          if (id != null) {
+            connection.respondWithError(id, JsonRpcConnection.METHOD_NOT_FOUND, "Unsupported method " + method);
+          }
+          return;
+      }
+
+      if (id != null) {
+        connection.respond(id, result);
+      }
+    } catch (RuntimeException e) {
+      log.println("Failed to handle " + method + ": " + e);
+      e.printStackTrace(log);
+
+      if (id != null) {
+        connection.respondWithError(id, JsonRpcConnection.INTERNAL_ERROR, String.valueOf(e.getMessage()));
+      }
+    }
+  }
+
+  private JsonNode initialize() {
+    ObjectNode result = connection.getMapper().createObjectNode();
+    ObjectNode capabilities = result.putObject("capabilities");
+
+    ObjectNode sync = capabilities.putObject("textDocumentSync");
+    sync.put("openClose", true);
+    sync.put("change", SYNC_INCREMENTAL);
+
+    capabilities.putObject("completionProvider").putArray("triggerCharacters").add("=").add("[");
+    capabilities.put("hoverProvider", true);
+
+    result.putObject("serverInfo").put("name", "unit-file-language-server");
+    return result;
+  }
+
+  private void didOpen(JsonNode params) throws IOException {
+    JsonNode textDocument = params.path("textDocument");
+    String uri = textDocument.path("uri").asText();
+
+    documents.put(uri, new UnitFileDocument(textDocument.path("text").asText()));
+    publishDiagnostics(uri);
+  }
+
+  private void didChange(JsonNode params) throws IOException {
+    String uri = params.path("textDocument").path("uri").asText();
+    UnitFileDocument document = documents.get(uri);
+
+    if (document == null) {
+      return;
+    }
+
+    for (JsonNode change : params.path("contentChanges")) {
+      JsonNode range = change.get("range");
+      String text = change.path("text").asText();
+
+      if (range == null) {
+        document.setText(text);
+      } else {
+        document.replace(range.path("start").path("line").asInt(), range.path("start").path("character").asInt(),
+          range.path("end").path("line").asInt(), range.path("end").path("character").asInt(), text);
+      }
+    }
+
+    publishDiagnostics(uri);
+  }
+
+  private void didClose(JsonNode params) throws IOException {
+    String uri = params.path("textDocument").path("uri").asText();
+
+    if (documents.remove(uri) != null) {
+      ObjectNode diagnostics = connection.getMapper().createObjectNode();
+      diagnostics.put("uri", uri);
+      diagnostics.putArray("diagnostics");
+      connection.notify("textDocument/publishDiagnostics", diagnostics);
+    }
+  }
+
+  private void publishDiagnostics(String uri) throws IOException {
+    UnitFileDocument document = documents.get(uri);
+
+    if (linter == null) {
+      linter = new UnitFileLinter(SemanticDataRepository.getInstance());
+    }
+
+    ObjectNode params = connection.getMapper().createObjectNode();
+    params.put("uri", uri);
+    ArrayNode diagnostics = params.putArray("diagnostics");
+
+    document.lint(linter, (problems, line) -> {
+      int start = document.getLineStart(line);
+
+      for (Problem problem : problems) {
+        ObjectNode diagnostic = diagnostics.addObject();
+
+        ObjectNode range = diagnostic.putObject("range");
+        setPosition(range.putObject("start"), line + problem.getLine() - 1, problem.getColumn() - 1);
+        setPosition(range.putObject("end"), document, start + problem.getOffset() + problem.getLength());
+
+        diagnostic.put("severity", SEVERITY_WARNING);
+        diagnostic.put("code", problem.getRule().getId());
+        diagnostic.put("source", SOURCE);
+        diagnostic.put("message", problem.getMessage());
+
+        if (problem.getRule() == LintRule.DEPRECATED_OPTIONS) {
+          diagnostic.putArray("tags").add(TAG_DEPRECATED);
+        }
+      }
+    });
+
+    connection.notify("textDocument/publishDiagnostics", params);
+  }
+
+  private JsonNode completion(JsonNode params) {
+    UnitFileDocument document = documents.get(params.path("textDocument").path("uri").asText());
+    ArrayNode items = connection.getMapper().createArrayNode();
+
+    if (document == null) {
+      return items;
+    }
+
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    int line = Math.min(params.path("position").path("line").asInt(), document.getLineCount() - 1);
+    int offset = document.getOffset(line, params.path("position").path("character").asInt());
+    int lineStartState = document.getStartState(line);
+
+    if (lineStartState != UnitFileScanner.YYINITIAL && lineStartState != UnitFileScanner.IN_SECTION) {
+      // Values aren't completed on continuation lines, like in the IDE
+      return items;
+    }
+
+    int keyIndex = -1;
+    int separatorIndex = -1;
+
+    for (int i = 0; i < document.getTokenCount(line); i++) {
+      int token = document.getToken(line, i);
+
+      if (i == 0 && document.getTokenStart(line, i) < offset && isSectionHeader(document, line, i)) {
+        // Completing a section header, e.g., [Serv
+        for (String sectionName : new TreeSet<>(sdr.getAllowedSectionNames())) {
+          addItem(items, document, sectionName, COMPLETION_MODULE, "Section", document.getTokenStart(line, i),
+            document.getLineContentEnd(line), "[" + sectionName + "]");
+        }
+        return items;
+      } else if (token == UnitFileScanner.KEY) {
+        keyIndex = i;
+      } else if (token == UnitFileScanner.SEPARATOR) {
+        separatorIndex = i;
+      }
+    }
+
+    String sectionName = document.getSectionName(line);
+
+    if (sectionName == null) {
+      return items;
+    }
+
+    if (separatorIndex >= 0 && keyIndex >= 0 && document.getTokenEnd(line, separatorIndex) <= offset) {
+      boolean completedValue = separatorIndex + 1 == document.getTokenCount(line)
+                               || document.getToken(line, separatorIndex + 1) == UnitFileScanner.COMPLETED_VALUE;
+
+      if (!completedValue) {
+        return items;
+      }
+
+      String key = UnitFileDocument.unescapeKey(
+        document.getText().subSequence(document.getTokenStart(line, keyIndex), document.getTokenEnd(line, keyIndex)).toString());
+
+      for (String value : new TreeSet<>(sdr.getOptionValidator(sectionName, key).getAutoCompleteOptions())) {
+        addItem(items, document, value, COMPLETION_VALUE, key + " value", document.getTokenEnd(line, separatorIndex),
+          document.getLineContentEnd(line), value);
+      }
+    } else if (lineStartState == UnitFileScanner.IN_SECTION && (keyIndex < 0 || offset <= document.getTokenEnd(line, keyIndex))) {
+      int start = keyIndex < 0 ? offset : document.getTokenStart(line, keyIndex);
+      int end = keyIndex < 0 ? offset : document.getTokenEnd(line, keyIndex);
+
+      for (String keyword : new TreeSet<>(sdr.getAllowedKeywordsInSection(sectionName))) {
+        addItem(items, document, keyword, COMPLETION_PROPERTY, "Option", start, end, keyword + "=");
+      }
+    }
+
+    return items;
+  }
+
+  private static boolean isSectionHeader(UnitFileDocument document, int line, int index) {
+    int token = document.getToken(line, index);
+
+    return token == UnitFileScanner.SECTION
+           || token == UnitFileScanner.BAD_CHARACTER && document.getText().charAt(document.getTokenStart(line, index)) == '[';
+  }
+
+  private void addItem(ArrayNode items, UnitFileDocument document, String label, int kind, String detail, int start, int end,
+                       String newText) {
+    ObjectNode item = items.addObject();
+    item.put("label", label);
+    item.put("kind", kind);
+    item.put("detail", detail);
+
+    ObjectNode textEdit = item.putObject("textEdit");
+    ObjectNode range = textEdit.putObject("range");
+    setPosition(range.putObject("start"), document, start);
+    setPosition(range.putObject("end"), document, end);
+    textEdit.put("newText", newText);
+  }
+
+  private JsonNode hover(JsonNode params) {
+    UnitFileDocument document = documents.get(params.path("textDocument").path("uri").asText());
+
+    if (document == null) {
+      return null;
+    }
+
+    int line = Math.min(params.path("position").path("line").asInt(), document.getLineCount() - 1);
+    int offset = document.getOffset(line, params.path("position").path("character").asInt());
+    int index = document.findToken(line, offset);
+
+    if (index < 0) {
+      return null;
+    }
+
+    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    int token = document.getToken(line, index);
+    int start = document.getTokenStart(line, index);
+    String documentation;
+
+    if (token == UnitFileScanner.SECTION) {
+      documentation = sdr.getDocumentationContentForSection(document.getSectionName(line));
+    } else if (token == UnitFileScanner.KEY) {
+      String sectionName = document.getSectionName(line);
+      String key = UnitFileDocument.unescapeKey(document.getText().subSequence(start, document.getTokenEnd(line, index)).toString());
+      documentation = sectionName == null ? null : sdr.getDocumentationContentForKeyInSection(sectionName, key);
+    } else {
+      return null;
+    }
+
+    if (documentation == null) {
+      return null;
+    }
+
+    ObjectNode hover = connection.getMapper().createObjectNode();
+    // The documentation is HTML, which Markdown allows inline
+    hover.putObject("contents").put("kind", "markdown").put("value", documentation);
+
+    ObjectNode range = hover.putObject("range");
+    setPosition(range.putObject("start"), document, start);
+    setPosition(range.putObject("end"), document, Math.min(document.getTokenEnd(line, index), document.getLineContentEnd(line)));
+    return hover;
+  }
+
+  private static void setPosition(ObjectNode position, UnitFileDocument document, int offset) {
+    int line = document.getLine(offset);
+
+    setPosition(position, line, offset - document.getLineStart(line));
+  }
+
+  private static void setPosition(ObjectNode position, int line, int character) {
+    position.put("line", line);
+    position.put("character", character);
+  }
+}
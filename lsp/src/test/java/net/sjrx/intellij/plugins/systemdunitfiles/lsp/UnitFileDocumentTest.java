@@ -0,0 +1,132 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileScanner;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.Problem;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class UnitFileDocumentTest extends TestCase {
+
+  private static final String[] FRAGMENTS = {
+    "[Service]\n", "[Unit", "]", "Type=simple\n", "KillMode=", "process", "\\\n", "\\", "\n", " ", "\t", "#", "; comment\n",
+    "Key\\ Name", "=", "X-Key=1\n", "\n\n", "[X-Extra]\n", "MemoryLimit=1G\n", "\r\n", "ü"
+  };
+
+  public void testRandomEditsGiveTheSameTokensAsLexingTheWholeText() {
+    // Fixture Setup
+    Random random = new Random(0x15B);
+    UnitFileLinter linter = new UnitFileLinter(SemanticDataRepository.getInstance());
+
+    for (int document = 0; document < 200; document++) {
+      UnitFileDocument sut = new UnitFileDocument(randomText(random, 30));
+
+      for (int edit = 0; edit < 50; edit++) {
+        String text = sut.getText().toString();
+        int start = random.nextInt(text.length() + 1);
+        int end = Math.min(text.length(), start + random.nextInt(10));
+        String replacement = random.nextInt(3) == 0 ? "" : randomText(random, 3);
+
+        int startLine = sut.getLine(start);
+        int endLine = sut.getLine(end);
+
+        // Exercise SUT
+        sut.replace(startLine, start - sut.getLineStart(startLine), endLine, end - sut.getLineStart(endLine), replacement);
+
+        // Verification
+        String expectedText = text.substring(0, start) + replacement + text.substring(end);
+        assertEquals(expectedText, sut.getText().toString());
+        assertSameTokens(new UnitFileDocument(expectedText), sut);
+        assertEquals(linter.lint(expectedText), linter.lint(sut.getText(), sut.tokens()));
+        assertEquals(describe(linter.lint(expectedText), 0, 0), lintBySection(sut, linter));
+      }
+    }
+  }
+
+  public void testTypingInALargeFileOnlyRelexesTheLine() {
+    // Fixture Setup
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append("[Service]\nType=simple\nExecStart=/bin/true\n\n");
+    }
+    UnitFileDocument sut = new UnitFileDocument(text.toString());
+    int line = sut.getLineCount() / 2 + 1;
+    assertEquals("Type=simple", sut.getText().subSequence(sut.getLineStart(line), sut.getLineContentEnd(line)).toString());
+
+    // Exercise SUT
+    sut.replace(line, "Type=simple".length(), line, "Type=simple".length(), "x");
+
+    // Verification
+    assertEquals(1, sut.getLastRelexedLines());
+
+    // Exercise SUT (a line continuation swallows the next line, which is then a value rather than a key)
+    sut.replace(line, "Type=simplex".length(), line, "Type=simplex".length(), " \\");
+
+    // Verification
+    assertEquals(2, sut.getLastRelexedLines());
+    assertEquals(UnitFileScanner.VALUE_CONTINUATION, sut.getStartState(line + 1));
+    assertSameTokens(new UnitFileDocument(sut.getText().toString()), sut);
+  }
+
+  public void testPositionsPastTheEndOfALineAreAtItsEnd() {
+    // Fixture Setup
+    UnitFileDocument sut = new UnitFileDocument("[Unit]\nA=b\n");
+
+    // Exercise SUT & Verification
+    assertEquals(3, sut.getLineCount());
+    assertEquals(6, sut.getOffset(0, 100));
+    assertEquals(10, sut.getOffset(1, 3));
+    assertEquals(11, sut.getOffset(5, 0));
+    assertEquals(2, sut.getLine(11));
+    assertEquals("Unit", sut.getSectionName(1));
+    assertEquals(UnitFileScanner.IN_SECTION, sut.getStartState(1));
+  }
+
+  private static List<String> lintBySection(UnitFileDocument document, UnitFileLinter linter) {
+    List<String> problems = new ArrayList<>();
+    document.lint(linter, (sectionProblems, line) -> problems.addAll(describe(sectionProblems, document.getLineStart(line), line)));
+    return problems;
+  }
+
+  private static List<String> describe(List<Problem> problems, int offset, int line) {
+    List<String> descriptions = new ArrayList<>();
+
+    for (Problem problem : problems) {
+      descriptions.add(problem.getRule() + " at " + (offset + problem.getOffset()) + "+" + problem.getLength() + " ("
+                       + (line + problem.getLine()) + ":" + problem.getColumn() + "): " + problem.getMessage());
+    }
+
+    return descriptions;
+  }
+
+  private static String randomText(Random random, int fragments) {
+    StringBuilder text = new StringBuilder();
+    int count = random.nextInt(fragments + 1);
+
+    for (int i = 0; i < count; i++) {
+      text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+    }
+
+    return text.toString();
+  }
+
+  private static void assertSameTokens(UnitFileDocument expected, UnitFileDocument actual) {
+    assertEquals(expected.getLineCount(), actual.getLineCount());
+
+    for (int line = 0; line < expected.getLineCount(); line++) {
+      assertEquals(expected.getLineStart(line), actual.getLineStart(line));
+      assertEquals("State at the start of line " + line, expected.getStartState(line), actual.getStartState(line));
+      assertEquals(expected.getTokenCount(line), actual.getTokenCount(line));
+
+      for (int i = 0; i < expected.getTokenCount(line); i++) {
+        assertEquals(expected.getToken(line, i), actual.getToken(line, i));
+        assertEquals(expected.getTokenStart(line, i), actual.getTokenStart(line, i));
+        assertEquals(expected.getTokenEnd(line, i), actual.getTokenEnd(line, i));
+      }
+    }
+  }
+}
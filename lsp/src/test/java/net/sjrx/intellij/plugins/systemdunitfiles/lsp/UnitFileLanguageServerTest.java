@@ -0,0 +1,221 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lsp;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class UnitFileLanguageServerTest extends TestCase {
+
+  private static final String URI = "file:///etc/systemd/system/test.service";
+
+  private final ByteArrayOutputStream requests = new ByteArrayOutputStream();
+
+  private final JsonRpcConnection client = new JsonRpcConnection(new ByteArrayInputStream(new byte[0]), requests);
+
+  private int nextId = 1;
+
+  public void testSession() throws IOException {
+    // Fixture Setup
+    request("initialize", params());
+    notification("initialized", params());
+    didOpen("[Service]\nType=simple\nUnknown=1\nMemoryLimit=1G\nWorkingDirectory=/\n");
+    int keyCompletion = request("textDocument/completion", position(2, 0));
+    int valueCompletion = request("textDocument/completion", position(1, 5));
+    int sectionCompletion = request("textDocument/completion", position(0, 3));
+    int hover = request("textDocument/hover", position(4, 2));
+    didChange(2, 0, 3, 0, "");
+    int unsupported = request("textDocument/formatting", params());
+    request("shutdown", null);
+    notification("exit", null);
+
+    // Exercise SUT
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    UnitFileLanguageServer sut = new UnitFileLanguageServer(new ByteArrayInputStream(requests.toByteArray()), responses,
+      new PrintStream(new ByteArrayOutputStream()));
+    int exitCode = sut.run();
+
+    // Verification
+    assertEquals(0, exitCode);
+
+    Map<Integer, JsonNode> results = new HashMap<>();
+    List<JsonNode> diagnostics = new ArrayList<>();
+    readResponses(responses, results, diagnostics);
+
+    assertEquals(2, results.get(1).path("capabilities").path("textDocumentSync").path("change").asInt());
+
+    assertEquals(2, diagnostics.size());
+    Set<String> codes = new HashSet<>();
+    for (JsonNode diagnostic : diagnostics.get(0).path("diagnostics")) {
+      codes.add(diagnostic.path("code").asText());
+    }
+    assertTrue(codes.toString(), codes.contains("UnknownKeyInSection"));
+    assertTrue(codes.toString(), codes.contains("DeprecatedOptions"));
+
+    JsonNode unknownKey = findDiagnostic(diagnostics.get(0), "UnknownKeyInSection");
+    assertEquals(2, unknownKey.path("range").path("start").path("line").asInt());
+    assertEquals("Unknown".length(), unknownKey.path("range").path("end").path("character").asInt());
+    assertNull(findDiagnostic(diagnostics.get(1), "UnknownKeyInSection"));
+
+    assertTrue(labels(results.get(keyCompletion)).contains("KillMode"));
+    assertEquals("KillMode=", findItem(results.get(keyCompletion), "KillMode").path("textEdit").path("newText").asText());
+    assertTrue(labels(results.get(valueCompletion)).contains("simple"));
+    assertTrue(labels(results.get(sectionCompletion)).contains("Service"));
+    assertEquals("markdown", results.get(hover).path("contents").path("kind").asText());
+    assertEquals(JsonRpcConnection.METHOD_NOT_FOUND, results.get(unsupported).path("code").asInt());
+  }
+
+  public void testEditsOnALargeFile() throws IOException {
+    // Fixture Setup
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append("[Service]\nType=simple\nKillMode=process\nWorkingDirectory=/\n\n");
+    }
+
+    request("initialize", params());
+    didOpen(text.toString());
+
+    int edits = 2000;
+    List<Integer> completions = new ArrayList<>();
+    List<Integer> hovers = new ArrayList<>();
+    for (int i = 0; i < edits; i++) {
+      int line = 5 * (i * 7 % 5000) + 2;
+
+      // Retype the value of a KillMode, then ask for completion and documentation there
+      didChange(line, "KillMode=".length(), line, "KillMode=process".length(), "control-group");
+      completions.add(request("textDocument/completion", position(line, "KillMode=".length())));
+      hovers.add(request("textDocument/hover", position(line, 1)));
+      didChange(line, "KillMode=".length(), line, "KillMode=control-group".length(), "process");
+    }
+
+    request("shutdown", null);
+    notification("exit", null);
+
+    ByteArrayOutputStream responses = new ByteArrayOutputStream();
+    UnitFileLanguageServer sut = new UnitFileLanguageServer(new ByteArrayInputStream(requests.toByteArray()), responses,
+      new PrintStream(new ByteArrayOutputStream()));
+
+    // Exercise SUT
+    int exitCode = sut.run();
+
+    // Verification
+    assertEquals(0, exitCode);
+
+    LatencyRecorder latencies = sut.getLatencies();
+    assertEquals(2 * edits, latencies.getCount("textDocument/didChange"));
+    assertEquals(edits, latencies.getCount("textDocument/completion"));
+    assertEquals(edits, latencies.getCount("textDocument/hover"));
+
+    Map<Integer, JsonNode> results = new HashMap<>();
+    readResponses(responses, results, new ArrayList<>());
+
+    for (int completion : completions) {
+      assertTrue(labels(results.get(completion)).contains("control-group"));
+    }
+    for (int hover : hovers) {
+      assertTrue(results.containsKey(hover));
+    }
+  }
+
+  private ObjectNode params() {
+    return client.getMapper().createObjectNode();
+  }
+
+  private ObjectNode position(int line, int character) {
+    ObjectNode params = params();
+    params.putObject("textDocument").put("uri", URI);
+    params.putObject("position").put("line", line).put("character", character);
+    return params;
+  }
+
+  private void didOpen(String text) throws IOException {
+    ObjectNode params = params();
+    params.putObject("textDocument").put("uri", URI).put("languageId", "systemd").put("version", 1).put("text", text);
+    notification("textDocument/didOpen", params);
+  }
+
+  private void didChange(int startLine, int startCharacter, int endLine, int endCharacter, String text) throws IOException {
+    ObjectNode params = params();
+    params.putObject("textDocument").put("uri", URI);
+
+    ObjectNode change = params.putArray("contentChanges").addObject();
+    ObjectNode range = change.putObject("range");
+    range.putObject("start").put("line", startLine).put("character", startCharacter);
+    range.putObject("end").put("line", endLine).put("character", endCharacter);
+    change.put("text", text);
+
+    notification("textDocument/didChange", params);
+  }
+
+  private int request(String method, JsonNode params) throws IOException {
+    int id = nextId++;
+
+    ObjectNode message = params();
+    message.put("jsonrpc", "2.0");
+    message.put("id", id);
+    message.put("method", method);
+    if (params != null) {
+      message.set("params", params);
+    }
+
+    client.write(message);
+    return id;
+  }
+
+  private void notification(String method, JsonNode params) throws IOException {
+    client.notify(method, params);
+  }
+
+  private static void readResponses(ByteArrayOutputStream responses, Map<Integer, JsonNode> results, List<JsonNode> diagnostics)
+    throws IOException {
+    JsonRpcConnection connection = new JsonRpcConnection(new ByteArrayInputStream(responses.toByteArray()), new ByteArrayOutputStream());
+
+    for (JsonNode message = connection.read(); message != null; message = connection.read()) {
+      if (message.has("id")) {
+        results.put(message.get("id").asInt(), message.has("error") ? message.get("error") : message.get("result"));
+      } else if (message.path("method").asText().equals("textDocument/publishDiagnostics")) {
+        diagnostics.add(message.get("params"));
+      }
+    }
+  }
+
+  private static JsonNode findDiagnostic(JsonNode params, String code) {
+    for (JsonNode diagnostic : params.path("diagnostics")) {
+      if (diagnostic.path("code").asText().equals(code)) {
+        return diagnostic;
+      }
+    }
+
+    return null;
+  }
+
+  private static Set<String> labels(JsonNode items) {
+    Set<String> labels = new HashSet<>();
+
+    for (JsonNode item : items) {
+      labels.add(item.path("label").asText());
+    }
+
+    return labels;
+  }
+
+  private static JsonNode findItem(JsonNode items, String label) {
+    for (JsonNode item : items) {
+      if (item.path("label").asText().equals(label)) {
+        return item;
+      }
+    }
+
+    return null;
+  }
+}
@@ -0,0 +1,150 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+import com.intellij.lexer.FlexLexer;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link UnitFileFastLexer} and the lexer generated from SystemdUnitFile.flex.
+ * <p></p>
+ * Besides the number of files lexed per second, the <code>tokens</code> and <code>bytes</code> counters report tokens per second and
+ * (UTF-8) bytes per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class UnitFileLexerBenchmark {
+
+  private static final String SMALL = "[Unit]\n"
+                                      + "Description=Small\n"
+                                      + "\n"
+                                      + "[Service]\n"
+                                      + "ExecStart=/bin/true\n";
+
+  private static final String TYPICAL = "#  This file is part of a package.\n"
+                                        + "#\n"
+                                        + "#  It is installed with the package and shouldn't be edited.\n"
+                                        + "\n"
+                                        + "[Unit]\n"
+                                        + "Description=OpenBSD Secure Shell server\n"
+                                        + "Documentation=man:sshd(8) man:sshd_config(5)\n"
+                                        + "After=network.target auditd.service\n"
+                                        + "ConditionPathExists=!/etc/ssh/sshd_not_to_be_run\n"
+                                        + "\n"
+                                        + "[Service]\n"
+                                        + "EnvironmentFile=-/etc/default/ssh\n"
+                                        + "ExecStartPre=/usr/sbin/sshd -t\n"
+                                        + "ExecStart=/usr/sbin/sshd -D $SSHD_OPTS \\\n"
+                                        + "    -o LogLevel=VERBOSE \\\n"
+                                        + "    -o PermitRootLogin=no\n"
+                                        + "ExecReload=/usr/sbin/sshd -t\n"
+                                        + "ExecReload=/bin/kill -HUP $MAINPID\n"
+                                        + "KillMode=process\n"
+                                        + "Restart=on-failure\n"
+                                        + "RestartPreventExitStatus=255\n"
+                                        + "Type=notify\n"
+                                        + "RuntimeDirectory=sshd\n"
+                                        + "RuntimeDirectoryMode=0755\n"
+                                        + "\n"
+                                        + "[Install]\n"
+                                        + "WantedBy=multi-user.target\n"
+                                        + "Alias=sshd.service\n";
+
+  private static final int LARGE_SECTIONS = 5000;
+
+  @Param({"small", "typical", "large"})
+  public String file;
+
+  @Param({"generated", "fast"})
+  public String lexer;
+
+  private String text;
+
+  private int bytes;
+
+  private FlexLexer flexLexer;
+
+  /**
+   * Tokens and bytes lexed, JMH reports them per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Counters {
+    public long tokens;
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void clear() {
+      tokens = 0;
+      bytes = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    switch (file) {
+      case "small":
+        text = SMALL;
+        break;
+      case "typical":
+        text = TYPICAL;
+        break;
+      case "large":
+        text = generateLargeFile();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown file " + file);
+    }
+
+    bytes = text.getBytes(StandardCharsets.UTF_8).length;
+    flexLexer = "fast".equals(lexer) ? new UnitFileFastLexer() : new UnitFileLexer((Reader) null);
+  }
+
+  @Benchmark
+  public int lex(Counters counters) throws IOException {
+    flexLexer.reset(text, 0, text.length(), UnitFileLexer.YYINITIAL);
+
+    int tokens = 0;
+
+    while (flexLexer.advance() != null) {
+      tokens++;
+    }
+
+    counters.tokens += tokens;
+    counters.bytes += bytes;
+
+    return tokens;
+  }
+
+  private static String generateLargeFile() {
+    StringBuilder text = new StringBuilder();
+
+    for (int i = 0; i < LARGE_SECTIONS; i++) {
+      text.append("[Service]\n")
+        .append("# Generated section ").append(i).append('\n')
+        .append("ExecStart=/usr/bin/generated-").append(i).append(" --first-option=").append(i).append(" \\\n")
+        .append("    --second-option \\\n")
+        .append("    --third-option\n")
+        .append("Environment=\"A=").append(i).append("\" \"B=two words\"\n")
+        .append("Restart=on-failure\n")
+        .append("\n");
+    }
+
+    return text.toString();
+  }
+}
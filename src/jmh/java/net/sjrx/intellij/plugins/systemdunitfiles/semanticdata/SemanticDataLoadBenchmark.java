@@ -0,0 +1,45 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how long it takes to get the semantic data from the snapshot and from the JSON and gperf files.
+ * <p></p>
+ * Run it in single shot mode (<code>-bm ss</code>) for the time of the first load, which is what the user waits for in a fresh IDE.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SemanticDataLoadBenchmark {
+
+  private static final String SEMANTIC_DATA_ROOT = "net/sjrx/intellij/plugins/systemdunitfiles/semanticdata/";
+
+  @Param({"snapshot", "json+gperf"})
+  public String source;
+
+  @Setup
+  public void setUp() throws IOException {
+    if (SemanticDataSnapshot.load(SEMANTIC_DATA_ROOT) == null) {
+      throw new IllegalStateException("The semantic data snapshot hasn't been generated, run generateSemanticDataSnapshot");
+    }
+  }
+
+  @Benchmark
+  public Object load() throws IOException {
+    if ("snapshot".equals(source)) {
+      return SemanticDataSnapshot.load(SEMANTIC_DATA_ROOT);
+    }
+
+    return new Object[] {SemanticDataRepository.loadSectionToKeywordMapFromJson(), SemanticDataRepository.loadValidatorMapFromGperf()};
+  }
+}
@@ -0,0 +1,83 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validates a valid value where it is in a document, the common case in a highlighting pass.
+ * <p></p>
+ * This should produce no garbage, run it with the GC profiler (<code>-prof gc</code>) and <code>gc.alloc.rate.norm</code> should be
+ * (close to) zero bytes per operation for every validator.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class OptionValueValidationBenchmark {
+
+  private static final String TEXT = "[Service]\n"
+                                     + "TTYReset=Yes\n"
+                                     + "Documentation=man:systemd.unit(5) https://www.freedesktop.org/software/systemd/man/\n"
+                                     + "KillMode=mixed\n"
+                                     + "UMask=0022\n"
+                                     + "Restart=on-failure\n"
+                                     + "Type=notify\n"
+                                     + "ExecStart=/bin/true\n";
+
+  @Param({"TTYReset", "Documentation", "KillMode", "UMask", "Restart", "Type", "ExecStart"})
+  public String key;
+
+  private OptionValueRangeValidator validator;
+
+  private int start;
+
+  private int end;
+
+  @Setup
+  public void setUp() {
+    switch (key) {
+      case "TTYReset":
+        validator = new BooleanOptionValue();
+        break;
+      case "Documentation":
+        validator = new DocumentationOptionValue();
+        break;
+      case "KillMode":
+        validator = new KillModeOptionValue();
+        break;
+      case "UMask":
+        validator = new ModeStringOptionValue();
+        break;
+      case "Restart":
+        validator = new RestartOptionValue();
+        break;
+      case "Type":
+        validator = new ServiceTypeOptionValue();
+        break;
+      case "ExecStart":
+        validator = new NullOptionValue();
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown key " + key);
+    }
+
+    start = TEXT.indexOf('\n' + key + '=') + key.length() + 2;
+    end = TEXT.indexOf('\n', start);
+
+    if (!validator.isValid(TEXT, start, end)) {
+      throw new IllegalStateException("Expected the value of " + key + " to be valid");
+    }
+  }
+
+  @Benchmark
+  public boolean isValid() {
+    return validator.isValid(TEXT, start, end);
+  }
+}
@@ -4,15 +4,15 @@ package net.sjrx.intellij.plugins.systemdunitfiles.generated;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.psi.PsiElement;
 import com.intellij.lang.ASTNode;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileElementTypeFactory;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileTokenType;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.*;
 
 public interface UnitFileElementTypeHolder {
 
-  IElementType PROPERTY = new UnitFileElementType("PROPERTY");
-  IElementType SECTION_GROUPS = new UnitFileElementType("SECTION_GROUPS");
-  IElementType VALUE = new UnitFileElementType("VALUE");
+  IElementType PROPERTY = UnitFileElementTypeFactory.create("PROPERTY");
+  IElementType SECTION_GROUPS = UnitFileElementTypeFactory.create("SECTION_GROUPS");
+  IElementType VALUE = UnitFileElementTypeFactory.create("VALUE");
 
   IElementType COMMENT = new UnitFileTokenType("COMMENT");
   IElementType COMPLETED_VALUE = new UnitFileTokenType("COMPLETED_VALUE");
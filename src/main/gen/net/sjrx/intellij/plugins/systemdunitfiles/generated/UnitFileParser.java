@@ -4,7 +4,7 @@ package net.sjrx.intellij.plugins.systemdunitfiles.generated;
 import com.intellij.lang.PsiBuilder;
 import com.intellij.lang.PsiBuilder.Marker;
 import static net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder.*;
-import static com.intellij.lang.parser.GeneratedParserUtilBase.*;
+import static net.sjrx.intellij.plugins.systemdunitfiles.parser.UnitFileParserUtil.*;
 import com.intellij.psi.tree.IElementType;
 import com.intellij.lang.ASTNode;
 import com.intellij.psi.tree.TokenSet;
@@ -122,7 +122,7 @@ public class UnitFileParser implements PsiParser, LightPsiParser {
   }
 
   /* ********************************************************** */
-  // key_ separator_ value?
+  // key_ separator_ <<parseLazyValue>>?
   public static boolean property(PsiBuilder builder_, int level_) {
     if (!recursion_guard_(builder_, level_, "property")) return false;
     if (!nextTokenIs(builder_, KEY)) return false;
@@ -136,10 +136,10 @@ public class UnitFileParser implements PsiParser, LightPsiParser {
     return result_ || pinned_;
   }
 
-  // value?
+  // <<parseLazyValue>>?
   private static boolean property_2(PsiBuilder builder_, int level_) {
     if (!recursion_guard_(builder_, level_, "property_2")) return false;
-    value(builder_, level_ + 1);
+    parseLazyValue(builder_, level_ + 1);
     return true;
   }
 
@@ -186,7 +186,7 @@ public class UnitFileParser implements PsiParser, LightPsiParser {
   }
 
   /* ********************************************************** */
-  // (comment_|crlf_)* section_groups*
+  // (comment_|crlf_)* <<parseLazySection>>*
   static boolean unitFile(PsiBuilder builder_, int level_) {
     if (!recursion_guard_(builder_, level_, "unitFile")) return false;
     boolean result_;
@@ -217,12 +217,12 @@ public class UnitFileParser implements PsiParser, LightPsiParser {
     return result_;
   }
 
-  // section_groups*
+  // <<parseLazySection>>*
   private static boolean unitFile_1(PsiBuilder builder_, int level_) {
     if (!recursion_guard_(builder_, level_, "unitFile_1")) return false;
     while (true) {
       int pos_ = current_position_(builder_);
-      if (!section_groups(builder_, level_ + 1)) break;
+      if (!parseLazySection(builder_, level_ + 1)) break;
       if (!empty_element_parsed_guard_(builder_, "unitFile_1", pos_)) break;
     }
     return true;
@@ -259,5 +259,4 @@ public class UnitFileParser implements PsiParser, LightPsiParser {
     if (!result_) result_ = comment_(builder_, level_ + 1);
     return result_;
   }
-
 }
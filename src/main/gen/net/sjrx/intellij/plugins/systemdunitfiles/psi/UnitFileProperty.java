@@ -4,8 +4,9 @@ package net.sjrx.intellij.plugins.systemdunitfiles.psi;
 import java.util.List;
 import org.jetbrains.annotations.*;
 import com.intellij.psi.PsiElement;
+import com.intellij.psi.StubBasedPsiElement;
 
-public interface UnitFileProperty extends PsiElement {
+public interface UnitFileProperty extends StubBasedPsiElement<UnitFilePropertyStub> {
 
   @Nullable
   UnitFileValue getValue();
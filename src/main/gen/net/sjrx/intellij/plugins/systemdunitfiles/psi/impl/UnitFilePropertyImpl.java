@@ -7,16 +7,21 @@ import com.intellij.lang.ASTNode;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiElementVisitor;
 import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.stubs.IStubElementType;
 import static net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder.*;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.*;
 
 public class UnitFilePropertyImpl extends UnitFilePropertyType implements UnitFileProperty {
 
-  public UnitFilePropertyImpl(ASTNode node) {
+  public UnitFilePropertyImpl(@NotNull ASTNode node) {
     super(node);
   }
 
+  public UnitFilePropertyImpl(@NotNull UnitFilePropertyStub stub, @NotNull IStubElementType type) {
+    super(stub, type);
+  }
+
   public void accept(@NotNull UnitFileVisitor visitor) {
     visitor.visitProperty(this);
   }
@@ -29,7 +34,7 @@ public class UnitFilePropertyImpl extends UnitFilePropertyType implements UnitFi
   @Override
   @Nullable
   public UnitFileValue getValue() {
-    return findChildByClass(UnitFileValue.class);
+    return PsiTreeUtil.getChildOfType(this, UnitFileValue.class);
   }
 
 }
@@ -2,6 +2,7 @@ package net.sjrx.intellij.plugins.systemdunitfiles;
 
 import com.intellij.openapi.fileTypes.FileTypeConsumer;
 import com.intellij.openapi.fileTypes.FileTypeFactory;
+import com.intellij.openapi.fileTypes.LanguageFileType;
 import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.AutomountFileType;
 import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.DeviceFileType;
 import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.MountFileType;
@@ -14,19 +15,31 @@ import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.TargetFileType;
 import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.TimerFileType;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 public class UnitFileTypeFactory extends FileTypeFactory {
 
+  /**
+   * The file types of unit files, one per unit type that is configured by a file.
+   */
+  public static final List<LanguageFileType> FILE_TYPES = Collections.unmodifiableList(Arrays.asList(
+    AutomountFileType.INSTANCE,
+    DeviceFileType.INSTANCE,
+    MountFileType.INSTANCE,
+    PathFileType.INSTANCE,
+    ServiceFileType.INSTANCE,
+    SliceFileType.INSTANCE,
+    SocketFileType.INSTANCE,
+    SwapFileType.INSTANCE,
+    TargetFileType.INSTANCE,
+    TimerFileType.INSTANCE));
+
   @Override
   public void createFileTypes(@NotNull FileTypeConsumer consumer) {
-    consumer.consume(AutomountFileType.INSTANCE);
-    consumer.consume(DeviceFileType.INSTANCE);
-    consumer.consume(MountFileType.INSTANCE);
-    consumer.consume(PathFileType.INSTANCE);
-    consumer.consume(ServiceFileType.INSTANCE);
-    consumer.consume(SliceFileType.INSTANCE);
-    consumer.consume(SocketFileType.INSTANCE);
-    consumer.consume(SwapFileType.INSTANCE);
-    consumer.consume(TargetFileType.INSTANCE);
-    consumer.consume(TimerFileType.INSTANCE);
+    for (LanguageFileType fileType : FILE_TYPES) {
+      consumer.consume(fileType);
+    }
   }
 }
@@ -8,7 +8,7 @@ import com.intellij.openapi.fileTypes.SyntaxHighlighterBase;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IElementType;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
-import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileLexerAdapter;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileHighlightingLexer;
 import org.jetbrains.annotations.NotNull;
 
 import static com.intellij.openapi.editor.colors.TextAttributesKey.createTextAttributesKey;
@@ -42,7 +42,7 @@ public class UnitFileHighlighter extends SyntaxHighlighterBase {
   @NotNull
   @Override
   public Lexer getHighlightingLexer() {
-    return new UnitFileLexerAdapter();
+    return new UnitFileHighlightingLexer();
   }
 
   @NotNull
@@ -7,12 +7,14 @@ import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
 import com.intellij.util.ProcessingContext;
 import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileIcon;
 import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.UnitFileSectionGroupsImpl;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileModel;
 import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import org.jetbrains.annotations.NotNull;
 
 /**
@@ -20,9 +22,6 @@ import org.jetbrains.annotations.NotNull;
  */
 public class UnitFileKeyCompletionContributor extends CompletionContributor {
 
-
-  private SemanticDataRepository sdr = SemanticDataRepository.getInstance();
-
   /**
    * Default constructor.
    */
@@ -34,17 +33,20 @@ public class UnitFileKeyCompletionContributor extends CompletionContributor {
         protected void addCompletions(@NotNull CompletionParameters parameters,
                                      ProcessingContext context,
                                      @NotNull CompletionResultSet resultSet) {
-          if (parameters.getPosition().getParent() == null) {
+          SemanticDataRepository sdr = SemanticDataService.getInstance().getRepositoryIfLoaded();
+          
+          if (sdr == null) {
             return;
           }
-  
-          if ((parameters.getPosition().getParent().getParent() == null)
-              || (!(parameters.getPosition().getParent().getParent() instanceof UnitFileSectionGroupsImpl))) {
+          
+          PsiElement position = parameters.getPosition();
+          UnitFileModel.Section section = UnitFileModel.forFile(position.getContainingFile()).findSection(position);
+          
+          if (section == null) {
             return;
           }
           
-          
-          String sectionName = ((UnitFileSectionGroupsImpl) parameters.getPosition().getParent().getParent()).getSectionName();
+          String sectionName = section.getName();
 
           for (String keyword : sdr.getAllowedKeywordsInSection(sectionName)) {
             LookupElementBuilder builder =
@@ -7,20 +7,23 @@ import com.intellij.codeInsight.completion.CompletionResultSet;
 import com.intellij.codeInsight.completion.CompletionType;
 import com.intellij.codeInsight.lookup.LookupElementBuilder;
 import com.intellij.patterns.PlatformPatterns;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.TokenSet;
+import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.util.ProcessingContext;
 import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileIcon;
 import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileProperty;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.UnitFilePropertyImpl;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.UnitFileSectionGroupsImpl;
-import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileModel;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import org.jetbrains.annotations.NotNull;
 
 public class UnitFileValueCompletionContributor extends CompletionContributor {
   
-  private SemanticDataRepository sdr = SemanticDataRepository.getInstance();
-  
   /**
    * Default constructor.
    */
@@ -44,26 +47,72 @@ public class UnitFileValueCompletionContributor extends CompletionContributor {
                                       @NotNull ProcessingContext context,
                                       @NotNull CompletionResultSet resultSet) {
           
-          if ((parameters.getPosition().getParent() == null) || (parameters.getPosition().getParent().getParent() == null)) {
+          if (SemanticDataService.getInstance().getRepositoryIfLoaded() == null) {
             return;
           }
-  
-  
-          if (parameters.getPosition().getParent().getParent() instanceof UnitFileProperty) {
-            UnitFilePropertyImpl ufp = (UnitFilePropertyImpl) parameters.getPosition().getParent().getParent();
-            UnitFileSectionGroupsImpl ufsg = (UnitFileSectionGroupsImpl) ufp.getParent();
-            
-            String sectionName = ufsg.getSectionName();
+          
+          PsiElement position = parameters.getPosition();
+          UnitFileModel.Property property = UnitFileModel.forFile(position.getContainingFile()).findProperty(position);
+          
+          if (property == null) {
+            return;
+          }
+          
+          for (String value : property.getValidator().getAutoCompleteOptions()) {
+            LookupElementBuilder builder =
+              LookupElementBuilder.create(value)
+                .withIcon(UnitFileIcon.FILE).appendTailText("(" + property.getKey() + " value)", true);
             
-            String keyName = ufp.getKey();
-      
-            for (String value : sdr.getOptionValidator(sectionName, keyName).getAutoCompleteOptions()) {
-              LookupElementBuilder builder =
-                LookupElementBuilder.create(value)
-                  .withIcon(UnitFileIcon.FILE).appendTailText("(" + keyName + " value)", true);
+            resultSet.addElement(builder);
+          }
+        }
+      }
+    );
+    
+    /*
+     * Dependencies are lists of unit names, which are often split over several lines, so names are completed in continuing values too.
+     */
+    extend(CompletionType.BASIC,
+      PlatformPatterns.psiElement().withElementType(
+        TokenSet.create(UnitFileElementTypeHolder.COMPLETED_VALUE, UnitFileElementTypeHolder.CONTINUING_VALUE))
+        .withLanguage(UnitFileLanguage.INSTANCE),
+      new CompletionProvider<CompletionParameters>() {
         
-              resultSet.addElement(builder);
-            }
+        @Override
+        protected void addCompletions(@NotNull CompletionParameters parameters,
+                                      @NotNull ProcessingContext context,
+                                      @NotNull CompletionResultSet resultSet) {
+          PsiElement position = parameters.getPosition();
+          UnitFilePropertyType property = PsiTreeUtil.getParentOfType(position, UnitFilePropertyType.class);
+          UnitFileSectionType section = PsiTreeUtil.getParentOfType(property, UnitFileSectionType.class);
+          
+          if (section == null) {
+            return;
+          }
+          
+          DependencyType type = DependencyType.forKey(section.getSectionName(), property.getKey());
+          
+          if (type == null) {
+            return;
+          }
+          
+          // Unit names have dots, dashes and @s, which the default prefix stops at, the name starts after the previous white space
+          CharSequence text = position.getNode().getChars();
+          int end = Math.min(parameters.getOffset() - position.getTextRange().getStartOffset(), text.length());
+          int start = end;
+          
+          while (start > 0 && text.charAt(start - 1) > ' ') {
+            start--;
+          }
+          
+          CompletionResultSet unitNames = resultSet.withPrefixMatcher(text.subSequence(start, end).toString());
+          
+          for (String unitName : UnitDependencyIndex.getUnitNames(position.getProject())) {
+            LookupElementBuilder builder =
+              LookupElementBuilder.create(unitName)
+                .withIcon(UnitFileIcon.FILE).appendTailText("(" + type.getKey() + " unit)", true);
+            
+            unitNames.addElement(builder);
           }
         }
       }
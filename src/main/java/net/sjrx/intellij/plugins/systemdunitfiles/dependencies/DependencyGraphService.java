@@ -0,0 +1,178 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.dependencies;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project service that keeps a {@link DependencyGraph} of every unit file and drop-in in the project.
+ * <p></p>
+ * The graph is first loaded from the {@link UnitDependencyIndex}, without reading any files. After that only files whose content changed
+ * are read again, and the graph only searches again what those changes can reach. Files that are created, deleted, moved or renamed load
+ * the graph from the index again, which is rare enough not to be worth tracking.
+ */
+public final class DependencyGraphService {
+
+  private final Project project;
+
+  private final DependencyGraph graph = new DependencyGraph();
+
+  private final UnitDependencyCollector collector = new UnitDependencyCollector();
+
+  /**
+   * Path -> the modification stamp of the file, document or PSI its dependencies were read from.
+   */
+  private final Map<String, Long> stamps = new HashMap<>();
+
+  private final Set<VirtualFile> changedFiles = new HashSet<>();
+
+  private boolean loaded;
+
+  public DependencyGraphService(Project project) {
+    this.project = project;
+
+    project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        changed(events);
+      }
+    });
+  }
+
+  /**
+   * Gets the service.
+   *
+   * @param project the project
+   * @return the project's instance
+   */
+  public static DependencyGraphService getInstance(Project project) {
+    return ServiceManager.getService(project, DependencyGraphService.class);
+  }
+
+  /**
+   * Returns the cycles with edges in a file, must be called in a read action while the index is available.
+   * <p></p>
+   * The first call loads the graph from the index, which checks for cancellation so that it doesn't hold up write actions. A cancelled
+   * load is started again by the next call.
+   *
+   * @param file a unit file or drop-in, whose dependencies are read from its PSI if they changed
+   * @return the cycles, see {@link DependencyGraph#getCycles(String)}
+   */
+  public synchronized List<DependencyCycle> getCycles(@NotNull PsiFile file) {
+    VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+    String unitName = virtualFile == null ? null : getUnitName(virtualFile);
+
+    if (unitName == null) {
+      return new ArrayList<>();
+    }
+
+    sync();
+    update(virtualFile.getPath(), unitName, file.getText(), file.getModificationStamp());
+
+    return graph.getCycles(virtualFile.getPath());
+  }
+
+  private synchronized void changed(List<? extends VFileEvent> events) {
+    for (VFileEvent event : events) {
+      VirtualFile file = event.getFile();
+
+      if (event instanceof VFileContentChangeEvent) {
+        if (file != null && getUnitName(file) != null) {
+          changedFiles.add(file);
+        }
+      } else if (file == null || file.isDirectory() || getUnitName(file) != null) {
+        loaded = false;
+      }
+    }
+  }
+
+  private void sync() {
+    if (!loaded) {
+      load();
+    }
+
+    for (VirtualFile file : changedFiles) {
+      String unitName = getUnitName(file);
+
+      if (file.isValid() && unitName != null) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+
+        if (document == null) {
+          update(file.getPath(), unitName, LoadTextUtil.loadText(file), file.getModificationStamp());
+        } else {
+          update(file.getPath(), unitName, document.getImmutableCharSequence(), document.getModificationStamp());
+        }
+      }
+    }
+    changedFiles.clear();
+  }
+
+  private void load() {
+    FileBasedIndex index = FileBasedIndex.getInstance();
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+    Map<VirtualFile, List<UnitDependency>> dependenciesByFile = new HashMap<>();
+
+    for (String path : stamps.keySet()) {
+      graph.remove(path);
+    }
+    stamps.clear();
+
+    for (String unitName : index.getAllKeys(UnitDependencyIndex.NAME, project)) {
+      ProgressManager.checkCanceled();
+
+      index.processValues(UnitDependencyIndex.NAME, unitName, null, (file, dependencies) -> {
+        dependenciesByFile.computeIfAbsent(file, key -> new ArrayList<>()).addAll(dependencies);
+        return true;
+      }, scope);
+    }
+
+    dependenciesByFile.forEach((file, dependencies) -> {
+      ProgressManager.checkCanceled();
+
+      String unitName = getUnitName(file);
+
+      if (unitName != null) {
+        dependencies.sort(Comparator.comparingInt(UnitDependency::getOffset));
+        graph.update(file.getPath(), unitName, dependencies);
+        stamps.put(file.getPath(), file.getModificationStamp());
+      }
+    });
+
+    changedFiles.clear();
+    loaded = true;
+  }
+
+  private void update(String path, String unitName, CharSequence text, long stamp) {
+    Long previous = stamps.put(path, stamp);
+
+    if (previous == null || previous != stamp) {
+      graph.update(path, unitName, collector.collect(text));
+    }
+  }
+
+  private static String getUnitName(VirtualFile file) {
+    VirtualFile parent = file.getParent();
+    return UnitNames.getUnitName(file.getName(), parent == null ? null : parent.getName());
+  }
+}
@@ -7,9 +7,10 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
 import com.intellij.psi.impl.source.tree.LeafPsiElement;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileModel;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.UnitFileSectionGroupsImpl;
 import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -24,8 +25,6 @@ import static com.intellij.lang.documentation.DocumentationMarkup.DEFINITION_STA
 
 public class UnitFileDocumentationProvider extends AbstractDocumentationProvider {
 
-  private static final SemanticDataRepository sdr = SemanticDataRepository.getInstance();
-
   @Nullable
   @Override
   public String getQuickNavigateInfo(PsiElement element, PsiElement originalElement) {
@@ -35,10 +34,22 @@ public class UnitFileDocumentationProvider extends AbstractDocumentationProvider
 
   @Override
   public String generateDoc(PsiElement element, @Nullable PsiElement originalElement) {
+    SemanticDataRepository sdr = SemanticDataService.getInstance().getRepositoryIfLoaded();
+
+    if (sdr == null) {
+      return null;
+    }
+
     if (element.getNode().getElementType().equals(UnitFileElementTypeHolder.KEY)) {
 
-      String sectionName = ((UnitFileSectionGroupsImpl)element.getParent().getParent()).getSectionName();
-      String keyName = element.getNode().getText();
+      UnitFileModel.Property property = UnitFileModel.forFile(element.getContainingFile()).findProperty(element);
+
+      if (property == null) {
+        return null;
+      }
+
+      String sectionName = property.getSection().getName();
+      String keyName = property.getKey();
 
       String keyComment = sdr.getDocumentationContentForKeyInSection(sectionName, keyName);
 
@@ -47,7 +58,13 @@ public class UnitFileDocumentationProvider extends AbstractDocumentationProvider
       }
     } else if (element.getNode().getElementType().equals(UnitFileElementTypeHolder.SECTION)) {
 
-      String sectionName = ((UnitFileSectionGroupsImpl)element.getParent()).getSectionName();
+      UnitFileModel.Section section = UnitFileModel.forFile(element.getContainingFile()).findSection(element);
+
+      if (section == null) {
+        return null;
+      }
+
+      String sectionName = section.getName();
 
       String sectionComment = sdr.getDocumentationContentForSection(sectionName);
 
@@ -66,10 +83,22 @@ public class UnitFileDocumentationProvider extends AbstractDocumentationProvider
   @Override
   public List<String> getUrlFor(PsiElement element, PsiElement originalElement) {
 
+    SemanticDataRepository sdr = SemanticDataService.getInstance().getRepositoryIfLoaded();
+
+    if (sdr == null) {
+      return Collections.emptyList();
+    }
+
     if (element.getNode().getElementType().equals(UnitFileElementTypeHolder.KEY)) {
 
-      String sectionName = ((UnitFileSectionGroupsImpl)element.getParent().getParent()).getSectionName();
-      String keyName = element.getNode().getText();
+      UnitFileModel.Property property = UnitFileModel.forFile(element.getContainingFile()).findProperty(element);
+
+      if (property == null) {
+        return Collections.emptyList();
+      }
+
+      String sectionName = property.getSection().getName();
+      String keyName = property.getKey();
 
       String keyNameToPointTo = sdr.getKeywordLocationInDocumentation(sectionName, keyName);
 
@@ -84,7 +113,13 @@ public class UnitFileDocumentationProvider extends AbstractDocumentationProvider
       return getUrlFor(((LeafPsiElement)element.getNode()).getPrevSibling(), originalElement);
     } else if (element.getNode().getElementType().equals(UnitFileElementTypeHolder.SECTION)) {
 
-      String sectionName = ((UnitFileSectionGroupsImpl)element.getParent()).getSectionName();
+      UnitFileModel.Section section = UnitFileModel.forFile(element.getContainingFile()).findSection(element);
+
+      if (section == null) {
+        return Collections.emptyList();
+      }
+
+      String sectionName = section.getName();
 
       String sectionUrl = sdr.getUrlForSectionName(sectionName);
 
@@ -0,0 +1,127 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.codeInsight.hints.InlayInfo;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import net.sjrx.intellij.plugins.systemdunitfiles.timing.MeasuredTimingHints;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hints after assignments that aren't in effect, with what overrides them: a later assignment to the same option in the file or one of
+ * the unit's drop-ins, or a reset of the list they add to. Assignments in a drop-in that is masked by one with the same name earlier in
+ * the search path are all marked as such.
+ * <p></p>
+ * Times measured by <code>systemd-analyze</code> are shown too, see {@link MeasuredTimingHints}.
+ * <p></p>
+ * The unit's configuration isn't cached here: {@link EffectiveConfigurationService} reads the files whose modification stamps changed
+ * into its engine, so asking for it once per file (see {@link #collect(PsiFile)}) is cheap and sees edits to drop-ins that aren't open.
+ */
+public final class EffectiveConfigurationHints {
+
+  private EffectiveConfigurationHints() {
+  }
+
+  /**
+   * Returns the hints of a file, must be called in a read action.
+   *
+   * @param file a unit file or drop-in
+   * @return the hints of its sections and properties, in order
+   */
+  @NotNull
+  public static List<InlayInfo> collect(@NotNull PsiFile file) {
+    EffectiveConfiguration configuration = getConfiguration(file);
+    List<InlayInfo> hints = new ArrayList<>();
+
+    for (PsiElement element : PsiTreeUtil.findChildrenOfAnyType(file, UnitFileSectionType.class, UnitFilePropertyType.class)) {
+      hints.addAll(getHints(element, configuration));
+    }
+
+    return hints;
+  }
+
+  /**
+   * Returns the hints of an element.
+   *
+   * @param element       a section or property
+   * @param configuration the configuration of the element's unit, see {@link #getConfiguration(PsiFile)}
+   * @return the hints
+   */
+  @NotNull
+  public static List<InlayInfo> getHints(@NotNull PsiElement element, @Nullable EffectiveConfiguration configuration) {
+    if (!(element instanceof UnitFilePropertyType || element instanceof UnitFileSectionType)) {
+      return Collections.emptyList();
+    }
+
+    List<InlayInfo> hints = new ArrayList<>(MeasuredTimingHints.getHints(element));
+
+    if (element instanceof UnitFilePropertyType && configuration != null) {
+      InlayInfo overridden = getOverriddenHint((UnitFilePropertyType) element, configuration);
+
+      if (overridden != null) {
+        hints.add(0, overridden);
+      }
+    }
+
+    return hints;
+  }
+
+  /**
+   * Returns the configuration of the unit of a file, must be called in a read action.
+   *
+   * @param file a unit file or drop-in
+   * @return the configuration, or null if the file isn't a unit file or drop-in or the semantic data hasn't been loaded yet
+   */
+  @Nullable
+  public static EffectiveConfiguration getConfiguration(@NotNull PsiFile file) {
+    VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+    String unitName = virtualFile == null ? null : EffectiveConfigurationService.getUnitName(virtualFile);
+    SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+    SemanticDataRepository sdr = service == null ? null : service.getRepositoryIfLoaded();
+
+    if (unitName == null || sdr == null) {
+      return null;
+    }
+
+    return EffectiveConfigurationService.getInstance(file.getProject()).getEffectiveConfiguration(unitName, sdr);
+  }
+
+  @Nullable
+  private static InlayInfo getOverriddenHint(UnitFilePropertyType property, EffectiveConfiguration configuration) {
+    VirtualFile virtualFile = property.getContainingFile().getOriginalFile().getVirtualFile();
+
+    if (virtualFile == null) {
+      return null;
+    }
+
+    int offset = property.getTextRange().getEndOffset();
+    String path = virtualFile.getPath();
+
+    if (!configuration.isSource(path)) {
+      return new InlayInfo("masked", offset);
+    }
+
+    EffectiveOption option = configuration.getOption(property.getSectionName(), property.getKey());
+    Assignment assignment = option == null ? null : option.findAssignment(path, property.getKeyNode().getStartOffset());
+    Assignment overriddenBy = assignment == null ? null : option.getOverriddenBy(assignment);
+
+    if (overriddenBy == null) {
+      return null;
+    }
+
+    String where = overriddenBy.getPath().equals(path) ? "below" : "in " + overriddenBy.getPath().substring(
+      overriddenBy.getPath().lastIndexOf('/') + 1);
+
+    return new InlayInfo((overriddenBy.isEmpty() ? "reset " : "overridden ") + where, offset);
+  }
+}
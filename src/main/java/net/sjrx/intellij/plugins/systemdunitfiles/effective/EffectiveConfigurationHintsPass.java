@@ -0,0 +1,70 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.codeHighlighting.TextEditorHighlightingPass;
+import com.intellij.codeInsight.daemon.impl.HintRenderer;
+import com.intellij.codeInsight.hints.InlayInfo;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.Inlay;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.psi.PsiFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Works out the {@link EffectiveConfigurationHints} of a file in the background and shows them as inlays in its editor.
+ * <p></p>
+ * Inlays that are already shown with the same text at the same offset are kept, so that the hints don't flicker while typing.
+ */
+final class EffectiveConfigurationHintsPass extends TextEditorHighlightingPass {
+
+  private final PsiFile file;
+
+  private final Editor editor;
+
+  private List<InlayInfo> hints = Collections.emptyList();
+
+  EffectiveConfigurationHintsPass(@NotNull PsiFile file, @NotNull Editor editor) {
+    super(file.getProject(), editor.getDocument(), false);
+    this.file = file;
+    this.editor = editor;
+  }
+
+  @Override
+  public void doCollectInformation(@NotNull ProgressIndicator progress) {
+    hints = EffectiveConfigurationHints.collect(file);
+  }
+
+  @Override
+  public void doApplyInformationToEditor() {
+    List<InlayInfo> added = new ArrayList<>(hints);
+
+    for (Inlay inlay : editor.getInlayModel().getInlineElementsInRange(0, editor.getDocument().getTextLength())) {
+      if (inlay.getRenderer() instanceof Renderer && !added.removeIf(hint -> isShownBy(hint, inlay))) {
+        Disposer.dispose(inlay);
+      }
+    }
+
+    for (InlayInfo hint : added) {
+      editor.getInlayModel().addInlineElement(hint.getOffset(), new Renderer(hint.getText()));
+    }
+  }
+
+  private static boolean isShownBy(InlayInfo hint, Inlay inlay) {
+    return hint.getOffset() == inlay.getOffset() && Objects.equals(hint.getText(), ((Renderer) inlay.getRenderer()).getText());
+  }
+
+  /**
+   * Tells the inlays of this pass apart from those of other plugins.
+   */
+  static final class Renderer extends HintRenderer {
+
+    Renderer(String text) {
+      super(text);
+    }
+  }
+}
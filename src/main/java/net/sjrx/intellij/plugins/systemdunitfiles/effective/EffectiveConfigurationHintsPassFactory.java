@@ -0,0 +1,81 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.codeHighlighting.Pass;
+import com.intellij.codeHighlighting.TextEditorHighlightingPass;
+import com.intellij.codeHighlighting.TextEditorHighlightingPassFactory;
+import com.intellij.codeHighlighting.TextEditorHighlightingPassRegistrar;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the {@link EffectiveConfigurationHintsPass} of unit file editors.
+ * <p></p>
+ * The hints of a file depend on the unit's other files, so the pass runs every time the daemon does (not only when its own file is
+ * dirty), and the open files of a unit are highlighted again when one of its files changes on disk, even if it isn't open.
+ */
+public class EffectiveConfigurationHintsPassFactory extends AbstractProjectComponent implements TextEditorHighlightingPassFactory {
+
+  public EffectiveConfigurationHintsPassFactory(Project project, TextEditorHighlightingPassRegistrar registrar) {
+    super(project);
+    registrar.registerTextEditorHighlightingPass(this, TextEditorHighlightingPassRegistrar.Anchor.LAST, Pass.UPDATE_ALL, false, false);
+
+    project.getMessageBus().connect(project).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+      @Override
+      public void after(@NotNull List<? extends VFileEvent> events) {
+        changed(events);
+      }
+    });
+  }
+
+  @Nullable
+  @Override
+  public TextEditorHighlightingPass createHighlightingPass(@NotNull PsiFile file, @NotNull Editor editor) {
+    return file instanceof UnitFile ? new EffectiveConfigurationHintsPass(file, editor) : null;
+  }
+
+  private void changed(List<? extends VFileEvent> events) {
+    Set<String> unitNames = new HashSet<>();
+
+    for (VFileEvent event : events) {
+      VirtualFile file = event.getFile();
+      String unitName = file == null ? null : EffectiveConfigurationService.getUnitName(file);
+
+      if (unitName != null) {
+        unitNames.add(unitName);
+      }
+    }
+
+    if (unitNames.isEmpty()) {
+      return;
+    }
+
+    for (VirtualFile file : FileEditorManager.getInstance(myProject).getOpenFiles()) {
+      String unitName = file.isValid() ? EffectiveConfigurationService.getUnitName(file) : null;
+
+      if (unitName != null && (unitNames.contains(unitName) || unitNames.contains(UnitNames.getTemplateName(unitName)))) {
+        PsiFile psiFile = PsiManager.getInstance(myProject).findFile(file);
+
+        if (psiFile != null) {
+          DaemonCodeAnalyzer.getInstance(myProject).restart(psiFile);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,142 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project service that keeps an {@link EffectiveConfigurationEngine} for the unit files and drop-ins in the project.
+ * <p></p>
+ * Files are only read into the engine when the configuration of their unit is asked for, and again when their document or file changed
+ * since (by modification stamp), so that the engine only merges the units whose files changed. Files in the project are placed in the
+ * search path by the ends of their paths, see {@link SearchPath}.
+ */
+public final class EffectiveConfigurationService {
+
+  private final Project project;
+
+  private EffectiveConfigurationEngine engine;
+
+  /**
+   * Path -> the modification stamp of the file or document when it was read into the engine.
+   */
+  private final Map<String, Long> stamps = new HashMap<>();
+
+  /**
+   * Unit name -> the paths of its unit files and drop-ins that were read into the engine.
+   */
+  private final Map<String, Set<String>> pathsByUnitName = new HashMap<>();
+
+  public EffectiveConfigurationService(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Gets the service.
+   *
+   * @param project the project
+   * @return the project's instance
+   */
+  public static EffectiveConfigurationService getInstance(Project project) {
+    return ServiceManager.getService(project, EffectiveConfigurationService.class);
+  }
+
+  /**
+   * Returns the unit a file configures.
+   *
+   * @param file a unit file or drop-in
+   * @return the unit name, or null if the file is neither
+   */
+  @Nullable
+  public static String getUnitName(@NotNull VirtualFile file) {
+    VirtualFile parent = file.getParent();
+    return UnitNames.getUnitName(file.getName(), parent == null ? null : parent.getName());
+  }
+
+  /**
+   * Returns the effective configuration of a unit, must be called in a read action.
+   *
+   * @param unitName the unit name
+   * @param sdr      the semantic data
+   * @return the configuration, or null if there is neither a unit file nor a drop-in for the unit in the project
+   */
+  @Nullable
+  public synchronized EffectiveConfiguration getEffectiveConfiguration(@NotNull String unitName, @NotNull SemanticDataRepository sdr) {
+    if (engine == null) {
+      engine = new EffectiveConfigurationEngine(SearchPath.SYSTEM, sdr);
+    }
+
+    sync(unitName);
+
+    String templateName = UnitNames.getTemplateName(unitName);
+    if (templateName != null) {
+      sync(templateName);
+    }
+
+    return engine.getEffectiveConfiguration(unitName);
+  }
+
+  /**
+   * Reads the files of a unit that changed into the engine, and removes those that are gone.
+   */
+  private void sync(String unitName) {
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+    Set<String> found = new HashSet<>();
+
+    for (VirtualFile file : FilenameIndex.getVirtualFilesByName(project, unitName, scope)) {
+      if (!file.isDirectory()) {
+        update(file, found);
+      }
+    }
+
+    for (VirtualFile directory : FilenameIndex.getVirtualFilesByName(project, unitName + ".d", scope)) {
+      if (directory.isDirectory()) {
+        for (VirtualFile file : directory.getChildren()) {
+          if (!file.isDirectory() && unitName.equals(getUnitName(file))) {
+            update(file, found);
+          }
+        }
+      }
+    }
+
+    Set<String> known = pathsByUnitName.computeIfAbsent(unitName, name -> new HashSet<>());
+    for (Iterator<String> paths = known.iterator(); paths.hasNext(); ) {
+      String path = paths.next();
+
+      if (!found.contains(path)) {
+        engine.remove(path);
+        stamps.remove(path);
+        paths.remove();
+      }
+    }
+    known.addAll(found);
+  }
+
+  private void update(VirtualFile file, Set<String> found) {
+    String path = file.getPath();
+    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    long stamp = document == null ? file.getModificationStamp() : document.getModificationStamp();
+
+    found.add(path);
+
+    Long previous = stamps.put(path, stamp);
+    if (previous == null || previous != stamp) {
+      engine.update(path, document == null ? LoadTextUtil.loadText(file) : document.getImmutableCharSequence());
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightVirtualFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Opens the effective configuration of the unit that the current unit file or drop-in configures (see
+ * {@link EffectiveConfiguration#format()}) in a read-only editor, like <code>systemctl cat</code> but merged.
+ * <p></p>
+ * The configuration is worked out in the background, as it may have to wait for the semantic data to be loaded.
+ */
+public class ShowEffectiveConfigurationAction extends AnAction {
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null && file != null
+                                             && EffectiveConfigurationService.getUnitName(file) != null);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+    VirtualFile file = e.getData(CommonDataKeys.VIRTUAL_FILE);
+    String unitName = file == null ? null : EffectiveConfigurationService.getUnitName(file);
+
+    if (project == null || unitName == null) {
+      return;
+    }
+
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, "Merging the configuration of " + unitName, true) {
+
+      private String text;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        SemanticDataRepository sdr = SemanticDataService.getInstance().getRepository();
+
+        // Unsaved changes to the unit's files are read from their documents, see EffectiveConfigurationService
+        EffectiveConfiguration configuration = DumbService.getInstance(project).runReadActionInSmartMode(
+          () -> EffectiveConfigurationService.getInstance(project).getEffectiveConfiguration(unitName, sdr));
+
+        text = configuration == null ? null : configuration.format();
+      }
+
+      @Override
+      public void onSuccess() {
+        if (text == null) {
+          return;
+        }
+
+        LightVirtualFile effective = new LightVirtualFile(unitName, FileTypeManager.getInstance().getFileTypeByFileName(unitName), text);
+        effective.setWritable(false);
+
+        FileEditorManager.getInstance(project).openFile(effective, true);
+      }
+    });
+  }
+}
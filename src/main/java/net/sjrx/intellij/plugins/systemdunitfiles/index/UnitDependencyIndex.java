@@ -0,0 +1,223 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.index;
+
+import com.intellij.openapi.fileTypes.LanguageFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FileTypeIndex;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileTypeFactory;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitDependency;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitDependencyCollector;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Indexes the units that unit files and drop-ins name in their dependencies (e.g., <code>After=</code>, <code>WantedBy=</code>, see
+ * {@link DependencyType}), so that the files that reference a unit can be found without reading every file.
+ * <p></p>
+ * The key is the referenced unit name as written and the value is the file's edges to it, with their types and offsets. Like every file
+ * based index, only files that changed are indexed again. Where a unit is defined is just its file name, which the platform's
+ * {@link FilenameIndex} already knows.
+ */
+public class UnitDependencyIndex extends FileBasedIndexExtension<String, List<UnitDependency>> {
+
+  public static final ID<String, List<UnitDependency>> NAME = ID.create("net.sjrx.intellij.plugins.systemdunitfiles.UnitDependencyIndex");
+
+  /**
+   * Must be incremented when the format or the dependency types change, types are stored by their ordinal.
+   */
+  private static final int VERSION = 1;
+
+  /**
+   * Files are indexed on several threads at once and collectors aren't thread safe.
+   */
+  private static final ThreadLocal<UnitDependencyCollector> COLLECTOR = ThreadLocal.withInitial(UnitDependencyCollector::new);
+
+  private static final DataIndexer<String, List<UnitDependency>, FileContent> INDEXER = inputData -> {
+    Map<String, List<UnitDependency>> dependencies = new HashMap<>();
+
+    for (UnitDependency dependency : COLLECTOR.get().collect(inputData.getContentAsText())) {
+      dependencies.computeIfAbsent(dependency.getUnitName(), key -> new ArrayList<>(1)).add(dependency);
+    }
+
+    return dependencies;
+  };
+
+  private static final DataExternalizer<List<UnitDependency>> EXTERNALIZER = new DataExternalizer<List<UnitDependency>>() {
+    @Override
+    public void save(@NotNull DataOutput out, List<UnitDependency> value) throws IOException {
+      DataInputOutputUtil.writeINT(out, value.size());
+
+      for (UnitDependency dependency : value) {
+        out.writeByte(dependency.getType().ordinal());
+        IOUtil.writeUTF(out, dependency.getUnitName());
+        DataInputOutputUtil.writeINT(out, dependency.getOffset());
+      }
+    }
+
+    @Override
+    public List<UnitDependency> read(@NotNull DataInput in) throws IOException {
+      DependencyType[] types = DependencyType.values();
+      int size = DataInputOutputUtil.readINT(in);
+      List<UnitDependency> value = new ArrayList<>(size);
+
+      for (int i = 0; i < size; i++) {
+        DependencyType type = types[in.readByte()];
+        String unitName = IOUtil.readUTF(in);
+        value.add(new UnitDependency(type, unitName, DataInputOutputUtil.readINT(in)));
+      }
+
+      return value;
+    }
+  };
+
+  @NotNull
+  @Override
+  public ID<String, List<UnitDependency>> getName() {
+    return NAME;
+  }
+
+  @NotNull
+  @Override
+  public DataIndexer<String, List<UnitDependency>, FileContent> getIndexer() {
+    return INDEXER;
+  }
+
+  @NotNull
+  @Override
+  public KeyDescriptor<String> getKeyDescriptor() {
+    return EnumeratorStringDescriptor.INSTANCE;
+  }
+
+  @NotNull
+  @Override
+  public DataExternalizer<List<UnitDependency>> getValueExternalizer() {
+    return EXTERNALIZER;
+  }
+
+  @Override
+  public int getVersion() {
+    return VERSION;
+  }
+
+  /**
+   * Unit files and drop-ins, whether or not they have one of our file types (drop-ins are <code>.conf</code> files).
+   */
+  @NotNull
+  @Override
+  public FileBasedIndex.InputFilter getInputFilter() {
+    return file -> !file.isDirectory()
+                   && UnitNames.getUnitName(file.getName(), file.getParent() == null ? null : file.getParent().getName()) != null;
+  }
+
+  @Override
+  public boolean dependsOnFileContent() {
+    return true;
+  }
+
+  /**
+   * Returns the files that name a unit in their dependencies.
+   *
+   * @param project  the project
+   * @param unitName the unit name as written, e.g., <code>getty@tty1.service</code>
+   * @param scope    where to look
+   * @return the files
+   */
+  public static Collection<VirtualFile> getReferencingFiles(Project project, String unitName, GlobalSearchScope scope) {
+    return FileBasedIndex.getInstance().getContainingFiles(NAME, unitName, scope);
+  }
+
+  /**
+   * Returns the dependencies of a file on a unit.
+   *
+   * @param project  the project
+   * @param file     the file, usually one of {@link #getReferencingFiles(Project, String, GlobalSearchScope)}
+   * @param unitName the unit name as written
+   * @return the dependencies, empty if the file doesn't name the unit
+   */
+  public static List<UnitDependency> getDependencies(Project project, VirtualFile file, String unitName) {
+    List<UnitDependency> dependencies = new ArrayList<>();
+
+    FileBasedIndex.getInstance().processValues(NAME, unitName, file, (f, value) -> {
+      dependencies.addAll(value);
+      return true;
+    }, GlobalSearchScope.fileScope(project, file));
+
+    return dependencies;
+  }
+
+  /**
+   * Returns the names of the units in a project, both those defined by a file and those only named in dependencies (e.g.,
+   * <code>network-online.target</code> is usually provided by systemd). Names with specifiers (e.g., <code>%i</code>) are left out.
+   * <p></p>
+   * As with all keys of an index, a unit that was named in a file that has since changed may still be returned.
+   *
+   * @param project the project
+   * @return the unit names
+   */
+  public static Set<String> getUnitNames(Project project) {
+    Set<String> unitNames = new HashSet<>();
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+
+    for (LanguageFileType fileType : UnitFileTypeFactory.FILE_TYPES) {
+      for (VirtualFile file : FileTypeIndex.getFiles(fileType, scope)) {
+        unitNames.add(file.getName());
+      }
+    }
+
+    FileBasedIndex.getInstance().processAllKeys(NAME, unitName -> {
+      if (unitName.indexOf('%') < 0 && UnitNames.isUnitName(unitName)) {
+        unitNames.add(unitName);
+      }
+      return true;
+    }, project);
+
+    return unitNames;
+  }
+
+  /**
+   * Returns the files that define a unit, for an instance without a file of its own that is the template's file.
+   *
+   * @param project  the project
+   * @param unitName the unit name
+   * @param scope    where to look
+   * @return the files, empty if the unit isn't defined in the scope
+   */
+  public static List<VirtualFile> findUnitFiles(Project project, String unitName, GlobalSearchScope scope) {
+    Collection<VirtualFile> files = FilenameIndex.getVirtualFilesByName(project, unitName, scope);
+
+    if (files.isEmpty()) {
+      String templateName = UnitNames.getTemplateName(unitName);
+
+      if (templateName != null) {
+        files = FilenameIndex.getVirtualFilesByName(project, templateName, scope);
+      }
+    }
+
+    return files.isEmpty() ? Collections.emptyList() : new ArrayList<>(files);
+  }
+}
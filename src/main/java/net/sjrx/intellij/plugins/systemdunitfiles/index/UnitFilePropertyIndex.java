@@ -0,0 +1,58 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.stubs.StringStubIndexExtension;
+import com.intellij.psi.stubs.StubIndex;
+import com.intellij.psi.stubs.StubIndexKey;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileProperty;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Indexes the properties of unit files by section and key (e.g., every <code>WantedBy=</code> in an <code>[Install]</code> section), from
+ * their stubs, so that the properties are found and read without building the files' trees.
+ */
+public class UnitFilePropertyIndex extends StringStubIndexExtension<UnitFileProperty> {
+
+  public static final StubIndexKey<String, UnitFileProperty> KEY =
+    StubIndexKey.createIndexKey("net.sjrx.intellij.plugins.systemdunitfiles.UnitFilePropertyIndex");
+
+  private static final int VERSION = 1;
+
+  @NotNull
+  @Override
+  public StubIndexKey<String, UnitFileProperty> getKey() {
+    return KEY;
+  }
+
+  @Override
+  public int getVersion() {
+    return super.getVersion() + VERSION;
+  }
+
+  /**
+   * Returns the key properties are indexed by.
+   *
+   * @param sectionName the section name
+   * @param key         the key
+   * @return the index key, e.g., <code>Install/WantedBy</code>
+   */
+  public static String getIndexKey(String sectionName, String key) {
+    return sectionName + "/" + key;
+  }
+
+  /**
+   * Returns the properties with a key in a section.
+   *
+   * @param project     the project
+   * @param sectionName the section name
+   * @param key         the key
+   * @param scope       where to look
+   * @return the properties, backed by stubs for files that aren't open
+   */
+  public static Collection<UnitFileProperty> getProperties(Project project, String sectionName, String key, GlobalSearchScope scope) {
+    return StubIndex.getElements(KEY, getIndexKey(sectionName, key), project, scope, UnitFileProperty.class);
+  }
+}
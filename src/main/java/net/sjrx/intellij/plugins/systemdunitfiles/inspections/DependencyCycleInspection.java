@@ -0,0 +1,50 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
+
+import com.intellij.codeInspection.InspectionManager;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.codeInspection.ProblemHighlightType;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyCycle;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyEdge;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyGraphService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reports the dependencies in a file that are part of an ordering cycle or a requirement loop across the units of the project, see
+ * {@link DependencyCycle}. systemd only finds these when it loads the units at boot and then breaks ordering cycles by dropping jobs.
+ * <p></p>
+ * Every edge of the cycle that is in the file is reported, with the cycle's shortest loop as the message.
+ */
+public class DependencyCycleInspection extends LocalInspectionTool {
+
+  @Override
+  public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+    VirtualFile virtualFile = file.getOriginalFile().getVirtualFile();
+
+    if (virtualFile == null) {
+      return null;
+    }
+
+    List<ProblemDescriptor> problems = new ArrayList<>();
+
+    for (DependencyCycle cycle : DependencyGraphService.getInstance(file.getProject()).getCycles(file)) {
+      for (DependencyEdge edge : cycle.getEdges()) {
+        if (edge.getPath().equals(virtualFile.getPath())) {
+          int offset = edge.getDependency().getOffset();
+          TextRange range = new TextRange(offset, offset + edge.getDependency().getUnitName().length());
+
+          problems.add(manager.createProblemDescriptor(file, range, cycle.getMessage(), ProblemHighlightType.GENERIC_ERROR_OR_WARNING,
+            isOnTheFly));
+        }
+      }
+    }
+
+    return problems.toArray(ProblemDescriptor.EMPTY_ARRAY);
+  }
+}
@@ -1,62 +1,51 @@
 package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
 
-import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
-import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElementVisitor;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileValueType;
 import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.OptionValueInformation;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 public class InvalidValueInspection extends LocalInspectionTool {
   
-  private SemanticDataRepository sdr = SemanticDataRepository.getInstance();
-  
+  @NotNull
   @Override
-  public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
+  public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
     
-    ArrayList<ProblemDescriptor> problems = new ArrayList<>();
+    SemanticDataRepository sdr = SemanticDataService.getInstance().getRepositoryIfLoaded();
     
-    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
-    
-    Collection<UnitFileSectionType> sections = PsiTreeUtil.collectElementsOfType(file, UnitFileSectionType.class);
+    if (sdr == null) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
     
-    for (UnitFileSectionType section : sections) {
-      
-      
-      Collection<UnitFilePropertyType> keyAndValuePropertiesInSection =
-        PsiTreeUtil.collectElementsOfType(section, UnitFilePropertyType.class);
-      
-      for (final UnitFilePropertyType keyAndValueProperty : keyAndValuePropertiesInSection) {
-  
-        String key = keyAndValueProperty.getKey();
-        String value = keyAndValueProperty.getValueText();
-  
-        if (value == null) {
-          continue;
-        }
+    return new PropertyInspectionVisitor(sdr) {
+      @Override
+      void visitPropertyInSection(@NotNull UnitFilePropertyType property, @NotNull String sectionName, int sectionId) {
         
-        OptionValueInformation ovi = sdr.getOptionValidator(section.getSectionName(), key);
+        ASTNode valueNode = property.getValueNode();
         
-        String errorMessage = ovi.getErrorMessage(value);
-        
-        if (errorMessage != null) {
-          problems.add(manager.createProblemDescriptor(keyAndValueProperty.getValueNode().getPsi(), errorMessage, true,
-            ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly));
+        if (valueNode == null) {
+          return;
         }
         
+        UnitFileValueType value = (UnitFileValueType) valueNode.getPsi();
+        OptionValueInformation validator = sdr.getMemoizingOptionValidator(sectionId, sdr.getKeySymbols().getId(property.getKey()));
+        
+        // Only build the value as a String (and the message) when there is something to report.
+        if (!value.isValid(validator)) {
+          String errorMessage = validator.getErrorMessage(value.getValue());
+          
+          if (errorMessage != null) {
+            holder.registerProblem(valueNode.getPsi(), errorMessage, ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
+          }
+        }
       }
-    }
-    
-    return problems.toArray(new ProblemDescriptor[0]);
+    };
   }
-  
-  
 }
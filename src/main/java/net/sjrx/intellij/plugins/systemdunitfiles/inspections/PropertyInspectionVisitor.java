@@ -0,0 +1,57 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
+
+import com.intellij.psi.PsiElement;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileProperty;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileVisitor;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Visitor for inspections that check each property on its own, given the section it is in.
+ * <p></p>
+ * The platform only visits the elements in the region that is being highlighted, so after an edit only the affected properties are
+ * checked again. Properties are visited in file order, so the name and id of the enclosing section are only worked out once per section.
+ */
+abstract class PropertyInspectionVisitor extends UnitFileVisitor {
+  
+  private final SemanticDataRepository sdr;
+  
+  private PsiElement currentSection;
+  
+  private String currentSectionName;
+  
+  private int currentSectionId;
+  
+  PropertyInspectionVisitor(@NotNull SemanticDataRepository sdr) {
+    this.sdr = sdr;
+  }
+  
+  @Override
+  public final void visitProperty(@NotNull UnitFileProperty o) {
+    PsiElement section = o.getParent();
+    
+    if (!(section instanceof UnitFileSectionType)) {
+      return;
+    }
+    
+    if (section != currentSection) {
+      currentSection = section;
+      currentSectionName = ((UnitFileSectionType) section).getSectionName();
+      currentSectionId = sdr.getSectionSymbols().getId(currentSectionName);
+    }
+    
+    visitPropertyInSection((UnitFilePropertyType) o, currentSectionName, currentSectionId);
+  }
+  
+  /**
+   * Checks a property.
+   *
+   * @param property    the property
+   * @param sectionName the name of the section the property is in
+   * @param sectionId   the id of the section (from {@link SemanticDataRepository#getSectionSymbols()}), which may be
+   *                    {@link net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable#NOT_FOUND}
+   */
+  abstract void visitPropertyInSection(@NotNull UnitFilePropertyType property, @NotNull String sectionName, int sectionId);
+}
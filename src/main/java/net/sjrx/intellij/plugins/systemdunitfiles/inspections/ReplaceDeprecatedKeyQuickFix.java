@@ -0,0 +1,41 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
+
+import com.intellij.codeInspection.LocalQuickFix;
+import com.intellij.codeInspection.ProblemDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Renames a deprecated key to one of the keys the documentation says to use instead, the value is left as is.
+ */
+public class ReplaceDeprecatedKeyQuickFix implements LocalQuickFix {
+  
+  private final String replacementKey;
+  
+  ReplaceDeprecatedKeyQuickFix(String replacementKey) {
+    this.replacementKey = replacementKey;
+  }
+  
+  @NotNull
+  @Override
+  public String getName() {
+    return "Replace with " + replacementKey;
+  }
+  
+  @NotNull
+  @Override
+  public String getFamilyName() {
+    return "Replace deprecated key";
+  }
+  
+  @Override
+  public void applyFix(@NotNull Project project, @NotNull ProblemDescriptor descriptor) {
+    PsiElement key = descriptor.getPsiElement();
+    
+    if (key instanceof LeafPsiElement) {
+      ((LeafPsiElement) key).replaceWithText(replacementKey);
+    }
+  }
+}
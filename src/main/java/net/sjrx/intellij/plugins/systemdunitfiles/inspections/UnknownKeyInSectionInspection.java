@@ -1,19 +1,15 @@
 package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
 
-import com.intellij.codeInspection.InspectionManager;
 import com.intellij.codeInspection.LocalInspectionTool;
-import com.intellij.codeInspection.ProblemDescriptor;
 import com.intellij.codeInspection.ProblemHighlightType;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElementVisitor;
+import net.sjrx.intellij.plugins.systemdunitfiles.lint.UnitFileLinter;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
-import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
 import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.Collection;
-
 /**
  * The purpose of this inspection is to catch any warnings that may be generated by systemd when processing a unit file.
  *
@@ -29,42 +25,38 @@ import java.util.Collection;
 public class UnknownKeyInSectionInspection extends LocalInspectionTool {
 
   private static final String IGNORED_SECTION_OR_KEY_PREFIX = "X-";
-  static final String INSPECTION_TOOL_TIP_TEXT =
-    "This key is unrecognized which will cause systemd to generate a warning when loading this unit.";
+  static final String INSPECTION_TOOL_TIP_TEXT = UnitFileLinter.UNKNOWN_KEY_MESSAGE;
 
+  @NotNull
   @Override
-  public ProblemDescriptor[] checkFile(@NotNull PsiFile file, @NotNull InspectionManager manager, boolean isOnTheFly) {
-
-    ArrayList<ProblemDescriptor> problems = new ArrayList<>();
+  public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
 
-    SemanticDataRepository sdr = SemanticDataRepository.getInstance();
+    SemanticDataRepository sdr = SemanticDataService.getInstance().getRepositoryIfLoaded();
 
-    Collection<UnitFileSectionType> sections = PsiTreeUtil.collectElementsOfType(file, UnitFileSectionType.class);
-
-    for (UnitFileSectionType section : sections) {
+    if (sdr == null) {
+      return PsiElementVisitor.EMPTY_VISITOR;
+    }
 
-      if (section.getSectionName().startsWith(IGNORED_SECTION_OR_KEY_PREFIX)) {
-        continue;
-      }
+    return new PropertyInspectionVisitor(sdr) {
+      @Override
+      void visitPropertyInSection(@NotNull UnitFilePropertyType property, @NotNull String sectionName, int sectionId) {
 
-      Collection<UnitFilePropertyType> keyAndValuePropertiesInSection =
-        PsiTreeUtil.collectElementsOfType(section, UnitFilePropertyType.class);
+        if (sectionName.startsWith(IGNORED_SECTION_OR_KEY_PREFIX)) {
+          return;
+        }
 
-      for (final UnitFilePropertyType keyAndValueProperty : keyAndValuePropertiesInSection) {
+        String key = property.getKey();
 
-        if (keyAndValueProperty.getKey().startsWith(IGNORED_SECTION_OR_KEY_PREFIX)) {
-          continue;
+        if (key.startsWith(IGNORED_SECTION_OR_KEY_PREFIX)) {
+          return;
         }
 
-        if (!sdr.getAllowedKeywordsInSection(section.getSectionName()).contains(keyAndValueProperty.getKey())) {
+        if (!sdr.isKeyAllowedInSection(sectionId, sdr.getKeySymbols().getId(key))) {
           // TODO Figure out what highlight to use
 
-          problems.add(manager.createProblemDescriptor(keyAndValueProperty.getKeyNode().getPsi(), INSPECTION_TOOL_TIP_TEXT, true,
-                                                       ProblemHighlightType.GENERIC_ERROR_OR_WARNING, isOnTheFly));
+          holder.registerProblem(property.getKeyNode().getPsi(), INSPECTION_TOOL_TIP_TEXT, ProblemHighlightType.GENERIC_ERROR_OR_WARNING);
         }
       }
-    }
-
-    return problems.toArray(new ProblemDescriptor[0]);
+    };
   }
 }
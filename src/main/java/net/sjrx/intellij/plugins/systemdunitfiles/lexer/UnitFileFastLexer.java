@@ -0,0 +1,61 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+import com.intellij.lexer.FlexLexer;
+import com.intellij.psi.TokenType;
+import com.intellij.psi.tree.IElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+
+/**
+ * A hand-written version of the lexer generated from SystemdUnitFile.flex, which produces exactly the same tokens and lexical states.
+ * <p></p>
+ * The scanning is done by {@link UnitFileScanner}, this only maps its tokens to the element types.
+ */
+public class UnitFileFastLexer implements FlexLexer {
+
+  private static final IElementType[] TOKEN_TYPES = new IElementType[UnitFileScanner.BAD_CHARACTER + 1];
+
+  static {
+    TOKEN_TYPES[UnitFileScanner.COMMENT] = UnitFileElementTypeHolder.COMMENT;
+    TOKEN_TYPES[UnitFileScanner.COMPLETED_VALUE] = UnitFileElementTypeHolder.COMPLETED_VALUE;
+    TOKEN_TYPES[UnitFileScanner.CONTINUING_VALUE] = UnitFileElementTypeHolder.CONTINUING_VALUE;
+    TOKEN_TYPES[UnitFileScanner.CRLF] = UnitFileElementTypeHolder.CRLF;
+    TOKEN_TYPES[UnitFileScanner.KEY] = UnitFileElementTypeHolder.KEY;
+    TOKEN_TYPES[UnitFileScanner.SECTION] = UnitFileElementTypeHolder.SECTION;
+    TOKEN_TYPES[UnitFileScanner.SEPARATOR] = UnitFileElementTypeHolder.SEPARATOR;
+    TOKEN_TYPES[UnitFileScanner.BAD_CHARACTER] = TokenType.BAD_CHARACTER;
+  }
+
+  private final UnitFileScanner scanner = new UnitFileScanner();
+
+  @Override
+  public void yybegin(int state) {
+    scanner.setState(state);
+  }
+
+  @Override
+  public int yystate() {
+    return scanner.getState();
+  }
+
+  @Override
+  public int getTokenStart() {
+    return scanner.getTokenStart();
+  }
+
+  @Override
+  public int getTokenEnd() {
+    return scanner.getTokenEnd();
+  }
+
+  @Override
+  public void reset(CharSequence buf, int start, int end, int initialState) {
+    scanner.reset(buf, start, end, initialState);
+  }
+
+  @Override
+  public IElementType advance() {
+    int token = scanner.advance();
+
+    return token == UnitFileScanner.NO_TOKEN ? null : TOKEN_TYPES[token];
+  }
+}
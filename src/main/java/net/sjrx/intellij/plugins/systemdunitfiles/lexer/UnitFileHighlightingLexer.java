@@ -0,0 +1,53 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The lexer used by the editor highlighter, it reports states so that highlighting can be restarted at the start of any line in a
+ * section.
+ * <p></p>
+ * When the document changes, the editor highlighter only restarts lexing from a token whose state is the lexer's initial state, which
+ * for {@link UnitFileLexer} is <code>YYINITIAL</code>, and that state is only used before the first section header. So without this a
+ * keystroke deep in a large file re-lexes everything from the top of the file.
+ * <p></p>
+ * This swaps the state numbers of <code>YYINITIAL</code> and <code>IN_SECTION</code> (where every line in a section starts). So the
+ * initial state is <code>IN_SECTION</code>, except at offset 0, where nothing can precede the token and the lexer must start in
+ * <code>YYINITIAL</code>. Restarting at any token with the state that was reported for it lexes exactly the same tokens as before, because
+ * the lexer has no rules that depend on anything other than the state and the text.
+ */
+public class UnitFileHighlightingLexer extends UnitFileLexerAdapter {
+  
+  /**
+   * The state reported for <code>YYINITIAL</code> after the start of the file (i.e., comments and white space before the first section).
+   */
+  static final int PREAMBLE = UnitFileLexer.IN_SECTION;
+  
+  @Override
+  public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+    int lexerState;
+    
+    if (initialState == UnitFileLexer.YYINITIAL) {
+      lexerState = startOffset == 0 ? UnitFileLexer.YYINITIAL : UnitFileLexer.IN_SECTION;
+    } else if (initialState == PREAMBLE) {
+      lexerState = UnitFileLexer.YYINITIAL;
+    } else {
+      lexerState = initialState;
+    }
+    
+    super.start(buffer, startOffset, endOffset, lexerState);
+  }
+  
+  @Override
+  public int getState() {
+    int lexerState = super.getState();
+    
+    if (lexerState == UnitFileLexer.IN_SECTION) {
+      return UnitFileLexer.YYINITIAL;
+    } else if (lexerState == UnitFileLexer.YYINITIAL) {
+      return getTokenStart() == 0 ? UnitFileLexer.YYINITIAL : PREAMBLE;
+    } else {
+      return lexerState;
+    }
+  }
+}
@@ -1,16 +1,14 @@
 package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
 
 import com.intellij.lexer.FlexAdapter;
-import com.intellij.lexer.FlexLexer;
-import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
-import org.jetbrains.annotations.NotNull;
-
-import java.io.Reader;
 
+/**
+ * Lexes unit files with {@link UnitFileFastLexer}, which produces the same tokens as the lexer generated from SystemdUnitFile.flex.
+ */
 public class UnitFileLexerAdapter extends FlexAdapter {
 
   public UnitFileLexerAdapter() {
-    super(new UnitFileLexer((Reader) null));
+    super(new UnitFileFastLexer());
   }
 
 }
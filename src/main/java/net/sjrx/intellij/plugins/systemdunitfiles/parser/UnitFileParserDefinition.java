@@ -11,11 +11,12 @@ import com.intellij.psi.PsiFile;
 import com.intellij.psi.TokenType;
 import com.intellij.psi.tree.IFileElementType;
 import com.intellij.psi.tree.TokenSet;
-import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileParser;
 import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileLexerAdapter;
 import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileFileElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
 import org.jetbrains.annotations.NotNull;
 
 public class UnitFileParserDefinition implements ParserDefinition {
@@ -24,7 +25,7 @@ public class UnitFileParserDefinition implements ParserDefinition {
 
   private static final TokenSet COMMENTS = TokenSet.create(UnitFileElementTypeHolder.COMMENT);
 
-  private static final IFileElementType FILE = new IFileElementType(UnitFileLanguage.INSTANCE);
+  private static final IFileElementType FILE = new UnitFileFileElementType();
 
   @NotNull
   @Override
@@ -62,6 +63,12 @@ public class UnitFileParserDefinition implements ParserDefinition {
 
   @Override
   public PsiFile createFile(FileViewProvider viewProvider) {
+    // Unit files are about to be inspected, so start loading what we know about them
+    SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+    if (service != null) {
+      service.preload();
+    }
+
     return new UnitFile(viewProvider);
   }
 
@@ -0,0 +1,71 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.parser;
+
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.parser.GeneratedParserUtilBase;
+import com.intellij.psi.tree.IElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+
+/**
+ * External rules for the generated parser (see <code>parserUtilClass</code> in SystemdUnitFile.bnf), which produce the lazily parsed
+ * elements.
+ */
+public class UnitFileParserUtil extends GeneratedParserUtilBase {
+  
+  /**
+   * Collapses a section, i.e., the header and everything up to the next header, into one lazily parsed element.
+   *
+   * @param builder the builder
+   * @param level   the nesting level
+   * @return true if there was a section
+   */
+  public static boolean parseLazySection(PsiBuilder builder, int level) {
+    if (!nextTokenIs(builder, "<section header>", UnitFileElementTypeHolder.SECTION)) {
+      return false;
+    }
+    
+    PsiBuilder.Marker section = builder.mark();
+    
+    do {
+      builder.advanceLexer();
+    } while (!builder.eof() && builder.getTokenType() != UnitFileElementTypeHolder.SECTION);
+    
+    section.collapse(UnitFileElementTypeHolder.SECTION_GROUPS);
+    
+    return true;
+  }
+  
+  /**
+   * Collapses a value, i.e., its continuation lines up to the line that completes it, into one lazily parsed element.
+   * <p></p>
+   * The <code>value</code> rule only matches tokens, so its extent is found by scanning them rather than by running the rule, and the
+   * value isn't parsed until something needs its children.
+   *
+   * @param builder the builder
+   * @param level   the nesting level
+   * @return true if there was a value
+   */
+  public static boolean parseLazyValue(PsiBuilder builder, int level) {
+    IElementType type = builder.getTokenType();
+    
+    if (type != UnitFileElementTypeHolder.CONTINUING_VALUE && type != UnitFileElementTypeHolder.COMPLETED_VALUE) {
+      return false;
+    }
+    
+    PsiBuilder.Marker value = builder.mark();
+    
+    while (builder.getTokenType() == UnitFileElementTypeHolder.CONTINUING_VALUE) {
+      builder.advanceLexer();
+    }
+    
+    if (builder.getTokenType() != UnitFileElementTypeHolder.COMPLETED_VALUE) {
+      // A continuation at the end of the file, not a value
+      value.rollbackTo();
+      return false;
+    }
+    
+    builder.advanceLexer();
+    value.collapse(UnitFileElementTypeHolder.VALUE);
+    
+    return true;
+  }
+}
@@ -0,0 +1,102 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * A view of a value that is spread over continuation lines as a single CharSequence, without copying the text of the lines.
+ * <p></p>
+ * Each line is trimmed and its trailing backslash (if any) reads as a space, the same as {@link UnitFileValueType#getValue()} does before
+ * trimming the result.
+ */
+final class ContinuedValueSequence implements CharSequence {
+  
+  private final CharSequence[] lines;
+  
+  private final int[] lineStarts;
+  
+  /**
+   * Offset in this sequence at which each line starts, with the total length at the end.
+   */
+  private final int[] offsets;
+  
+  /**
+   * Whether the last character of each line is a backslash that reads as a space.
+   */
+  private final boolean[] continued;
+  
+  private int currentLine;
+  
+  ContinuedValueSequence(List<CharSequence> lineTexts) {
+    int lineCount = lineTexts.size();
+    
+    lines = new CharSequence[lineCount];
+    lineStarts = new int[lineCount];
+    offsets = new int[lineCount + 1];
+    continued = new boolean[lineCount];
+    
+    for (int i = 0; i < lineCount; i++) {
+      CharSequence line = lineTexts.get(i);
+      
+      int start = 0;
+      int end = line.length();
+      
+      while (start < end && line.charAt(start) <= ' ') {
+        start++;
+      }
+      while (end > start && line.charAt(end - 1) <= ' ') {
+        end--;
+      }
+      
+      lines[i] = line;
+      lineStarts[i] = start;
+      continued[i] = end > start && line.charAt(end - 1) == '\\';
+      offsets[i + 1] = offsets[i] + (end - start);
+    }
+  }
+  
+  @Override
+  public int length() {
+    return offsets[lines.length];
+  }
+  
+  @Override
+  public char charAt(int index) {
+    if (index < 0 || index >= length()) {
+      throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for length " + length());
+    }
+    
+    // Validators mostly read forwards, so start looking from the last line we were on.
+    if (index < offsets[currentLine]) {
+      currentLine = 0;
+    }
+    while (index >= offsets[currentLine + 1]) {
+      currentLine++;
+    }
+    
+    if (continued[currentLine] && index == offsets[currentLine + 1] - 1) {
+      return ' ';
+    }
+    
+    return lines[currentLine].charAt(lineStarts[currentLine] + index - offsets[currentLine]);
+  }
+  
+  @NotNull
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    StringBuilder sb = new StringBuilder(end - start);
+    
+    for (int i = start; i < end; i++) {
+      sb.append(charAt(i));
+    }
+    
+    return sb.toString();
+  }
+  
+  @NotNull
+  @Override
+  public String toString() {
+    return subSequence(0, length()).toString();
+  }
+}
@@ -3,10 +3,16 @@ package net.sjrx.intellij.plugins.systemdunitfiles.psi;
 import com.intellij.extapi.psi.PsiFileBase;
 import com.intellij.openapi.fileTypes.FileType;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubTree;
+import com.intellij.psi.util.PsiTreeUtil;
 import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
 import net.sjrx.intellij.plugins.systemdunitfiles.filetypes.ServiceFileType;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class UnitFile extends PsiFileBase {
 
   public UnitFile(@NotNull FileViewProvider viewProvider) {
@@ -19,6 +25,29 @@ public class UnitFile extends PsiFileBase {
     return ServiceFileType.INSTANCE;
   }
 
+  /**
+   * Returns the properties of the file in order, from the stubs (see {@link UnitFilePropertyStub}) unless the file's tree is already
+   * loaded, so that going over the properties of many files doesn't build their trees.
+   *
+   * @return the properties
+   */
+  public List<UnitFilePropertyType> getProperties() {
+    StubTree stubTree = getStubTree();
+
+    if (stubTree == null) {
+      return new ArrayList<>(PsiTreeUtil.findChildrenOfType(this, UnitFilePropertyType.class));
+    }
+
+    List<UnitFilePropertyType> properties = new ArrayList<>();
+    for (StubElement<?> child : stubTree.getRoot().getChildrenStubs()) {
+      if (child.getPsi() instanceof UnitFilePropertyType) {
+        properties.add((UnitFilePropertyType) child.getPsi());
+      }
+    }
+
+    return properties;
+  }
+
   public String toString() {
     return "unit configuration file (systemd)";
   }
@@ -0,0 +1,33 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.psi.tree.IElementType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the element types that are parsed lazily or have stubs (see <code>elementTypeFactory</code> in SystemdUnitFile.bnf).
+ */
+public final class UnitFileElementTypeFactory {
+  
+  private UnitFileElementTypeFactory() {
+  }
+  
+  /**
+   * Creates an element type.
+   *
+   * @param debugName the name of the element type in the generated holder
+   * @return the element type
+   */
+  @NotNull
+  public static IElementType create(@NotNull String debugName) {
+    switch (debugName) {
+      case "SECTION_GROUPS":
+        return new UnitFileSectionGroupsElementType(debugName);
+      case "VALUE":
+        return new UnitFileValueElementType(debugName);
+      case "PROPERTY":
+        return new UnitFilePropertyElementType(debugName);
+      default:
+        throw new IllegalArgumentException("Unknown element type: " + debugName);
+    }
+  }
+}
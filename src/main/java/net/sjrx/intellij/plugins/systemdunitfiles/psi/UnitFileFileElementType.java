@@ -0,0 +1,47 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.StubBuilder;
+import com.intellij.psi.stubs.DefaultStubBuilder;
+import com.intellij.psi.stubs.PsiFileStub;
+import com.intellij.psi.tree.IStubFileElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Element type of a unit file, whose stub tree is the file's properties (see {@link UnitFilePropertyStub}).
+ */
+public class UnitFileFileElementType extends IStubFileElementType<PsiFileStub<UnitFile>> {
+
+  /**
+   * Must be incremented when what is kept in the stubs changes.
+   */
+  private static final int STUB_VERSION = 1;
+
+  public UnitFileFileElementType() {
+    super("unitfile.FILE", UnitFileLanguage.INSTANCE);
+  }
+
+  @NotNull
+  @Override
+  public String getExternalId() {
+    return "unitfile.FILE";
+  }
+
+  @Override
+  public int getStubVersion() {
+    return STUB_VERSION;
+  }
+
+  @Override
+  public StubBuilder getBuilder() {
+    return new DefaultStubBuilder() {
+      @Override
+      protected boolean skipChildProcessingWhenBuildingStubs(@NotNull ASTNode parent, @NotNull ASTNode node) {
+        // There are no stubs inside a property, and skipping them means multi-line values aren't expanded
+        return parent.getElementType() == UnitFileElementTypeHolder.PROPERTY;
+      }
+    };
+  }
+}
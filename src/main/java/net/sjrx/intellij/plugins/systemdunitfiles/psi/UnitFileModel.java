@@ -0,0 +1,268 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.NullOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.OptionValueInformation;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The sections and properties of a unit file, with the section names, keys and values already extracted from the PSI and resolved
+ * against the {@link SemanticDataRepository}.
+ * <p></p>
+ * Completion and documentation need the same information about the file, so it is built with one walk over the file and cached until
+ * the PSI changes, see {@link #forFile(PsiFile)}. Instances are immutable.
+ */
+public final class UnitFileModel {
+
+  private static final OptionValueInformation NULL_VALIDATOR = new NullOptionValue();
+
+  private final List<Section> sections;
+
+  private final Map<PsiElement, Section> sectionsByElement;
+
+  private final Map<PsiElement, Property> propertiesByElement;
+
+  private UnitFileModel(List<Section> sections, Map<PsiElement, Section> sectionsByElement, Map<PsiElement, Property> propertiesByElement) {
+    this.sections = sections;
+    this.sectionsByElement = sectionsByElement;
+    this.propertiesByElement = propertiesByElement;
+  }
+
+  /**
+   * Returns the model for a file, it is only rebuilt after the PSI has been modified.
+   * <p></p>
+   * This doesn't wait for the semantic data to load, until it has the ids are {@link SymbolTable#NOT_FOUND} and the validators accept
+   * anything, and the model isn't cached.
+   *
+   * @param file the unit file
+   * @return the model
+   */
+  @NotNull
+  public static UnitFileModel forFile(@NotNull PsiFile file) {
+    return CachedValuesManager.getCachedValue(file, () -> {
+      SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+      SemanticDataRepository sdr = service == null ? null : service.getRepositoryIfLoaded();
+
+      if (sdr == null) {
+        return CachedValueProvider.Result.create(build(file, null), ModificationTracker.EVER_CHANGED);
+      }
+
+      return CachedValueProvider.Result.create(build(file, sdr), PsiModificationTracker.MODIFICATION_COUNT);
+    });
+  }
+
+  /**
+   * Builds the model without caching it.
+   *
+   * @param file the unit file
+   * @param sdr the semantic data to resolve the names against, or null if it isn't loaded
+   * @return a new model
+   */
+  @NotNull
+  static UnitFileModel build(@NotNull PsiFile file, @Nullable SemanticDataRepository sdr) {
+    SymbolTable sectionSymbols = sdr == null ? null : sdr.getSectionSymbols();
+    SymbolTable keySymbols = sdr == null ? null : sdr.getKeySymbols();
+
+    List<Section> sections = new ArrayList<>();
+    Map<PsiElement, Section> sectionsByElement = new HashMap<>();
+    Map<PsiElement, Property> propertiesByElement = new HashMap<>();
+
+    for (PsiElement child = file.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (!(child instanceof UnitFileSectionType)) {
+        continue;
+      }
+
+      UnitFileSectionType sectionElement = (UnitFileSectionType) child;
+      String sectionName = sectionElement.getSectionName();
+      Section section = new Section(sectionElement, sectionName,
+        sectionSymbols == null ? SymbolTable.NOT_FOUND : sectionSymbols.getId(sectionName));
+
+      for (PsiElement grandChild = sectionElement.getFirstChild(); grandChild != null; grandChild = grandChild.getNextSibling()) {
+        if (!(grandChild instanceof UnitFilePropertyType)) {
+          continue;
+        }
+
+        UnitFilePropertyType propertyElement = (UnitFilePropertyType) grandChild;
+        String key = propertyElement.getKey();
+        int keyId = keySymbols == null ? SymbolTable.NOT_FOUND : keySymbols.getId(key);
+
+        Property property = new Property(propertyElement, section, key, keyId, propertyElement.getValueText(),
+          sdr == null ? NULL_VALIDATOR : sdr.getOptionValidator(section.sectionId, keyId));
+
+        section.properties.add(property);
+        propertiesByElement.put(propertyElement, property);
+      }
+
+      sections.add(section);
+      sectionsByElement.put(sectionElement, section);
+    }
+
+    return new UnitFileModel(Collections.unmodifiableList(sections), sectionsByElement, propertiesByElement);
+  }
+
+  /**
+   * Returns the sections in the order they appear in the file.
+   *
+   * @return the sections
+   */
+  public List<Section> getSections() {
+    return sections;
+  }
+
+  /**
+   * Returns the section that contains an element.
+   *
+   * @param element an element in the file (e.g., a key, or the section header)
+   * @return the section or null if the element isn't in a section
+   */
+  @Nullable
+  public Section findSection(@Nullable PsiElement element) {
+    UnitFileSectionType sectionElement = PsiTreeUtil.getParentOfType(element, UnitFileSectionType.class, false);
+
+    return sectionElement == null ? null : sectionsByElement.get(sectionElement);
+  }
+
+  /**
+   * Returns the property that contains an element.
+   *
+   * @param element an element in the file (e.g., a key, or a value)
+   * @return the property or null if the element isn't in a property
+   */
+  @Nullable
+  public Property findProperty(@Nullable PsiElement element) {
+    UnitFilePropertyType propertyElement = PsiTreeUtil.getParentOfType(element, UnitFilePropertyType.class, false);
+
+    return propertyElement == null ? null : propertiesByElement.get(propertyElement);
+  }
+
+  /**
+   * A section in the file and its properties.
+   */
+  public static final class Section {
+    private final UnitFileSectionType element;
+    private final String name;
+    private final int sectionId;
+    private final List<Property> properties = new ArrayList<>();
+    private final List<Property> unmodifiableProperties = Collections.unmodifiableList(properties);
+
+    private Section(UnitFileSectionType element, String name, int sectionId) {
+      this.element = element;
+      this.name = name;
+      this.sectionId = sectionId;
+    }
+
+    public UnitFileSectionType getElement() {
+      return element;
+    }
+
+    /**
+     * Returns the section name.
+     *
+     * @return the name without the brackets (e.g., Service)
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the id of the section.
+     *
+     * @return the id in {@link SemanticDataRepository#getSectionSymbols()} or {@link SymbolTable#NOT_FOUND}
+     */
+    public int getSectionId() {
+      return sectionId;
+    }
+
+    /**
+     * Returns the properties in the order they appear in the section.
+     *
+     * @return the properties
+     */
+    public List<Property> getProperties() {
+      return unmodifiableProperties;
+    }
+  }
+
+  /**
+   * A key and value in a section.
+   */
+  public static final class Property {
+    private final UnitFilePropertyType element;
+    private final Section section;
+    private final String key;
+    private final int keyId;
+    private final String value;
+    private final OptionValueInformation validator;
+
+    private Property(UnitFilePropertyType element, Section section, String key, int keyId, String value,
+                     OptionValueInformation validator) {
+      this.element = element;
+      this.section = section;
+      this.key = key;
+      this.keyId = keyId;
+      this.value = value;
+      this.validator = validator;
+    }
+
+    public UnitFilePropertyType getElement() {
+      return element;
+    }
+
+    public Section getSection() {
+      return section;
+    }
+
+    /**
+     * Returns the key.
+     *
+     * @return the key, see {@link UnitFilePropertyType#getKey()}
+     */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Returns the id of the key.
+     *
+     * @return the id in {@link SemanticDataRepository#getKeySymbols()} or {@link SymbolTable#NOT_FOUND}
+     */
+    public int getKeyId() {
+      return keyId;
+    }
+
+    /**
+     * Returns the value.
+     *
+     * @return the value, see {@link UnitFilePropertyType#getValueText()}, or null if the property has no value
+     */
+    @Nullable
+    public String getValue() {
+      return value;
+    }
+
+    /**
+     * Returns the validator for this key in its section.
+     *
+     * @return the validator, never null
+     */
+    public OptionValueInformation getValidator() {
+      return validator;
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.IndexSink;
+import com.intellij.psi.stubs.StubElement;
+import com.intellij.psi.stubs.StubInputStream;
+import com.intellij.psi.stubs.StubOutputStream;
+import com.intellij.util.io.StringRef;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitFilePropertyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.impl.UnitFilePropertyImpl;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * Element type of a property, whose stub ({@link UnitFilePropertyStub}) keeps what cross-file queries need without the file's tree.
+ */
+public class UnitFilePropertyElementType extends IStubElementType<UnitFilePropertyStub, UnitFileProperty> {
+
+  /**
+   * Longer values (e.g., scripts in <code>ExecStart=</code>) are read from the tree, dependency lists and most other values are shorter.
+   */
+  static final int MAX_STUB_VALUE_LENGTH = 256;
+
+  public UnitFilePropertyElementType(@NotNull @NonNls String debugName) {
+    super(debugName, UnitFileLanguage.INSTANCE);
+  }
+
+  @NotNull
+  @Override
+  public String getExternalId() {
+    return "unitfile." + super.toString();
+  }
+
+  @Override
+  public UnitFileProperty createPsi(@NotNull UnitFilePropertyStub stub) {
+    return new UnitFilePropertyImpl(stub, this);
+  }
+
+  @NotNull
+  @Override
+  public UnitFilePropertyStub createStub(@NotNull UnitFileProperty psi, StubElement parentStub) {
+    UnitFilePropertyType property = (UnitFilePropertyType) psi;
+    String value = property.getValueText();
+
+    if (value != null && value.length() > MAX_STUB_VALUE_LENGTH) {
+      value = null;
+    }
+
+    return new UnitFilePropertyStub(parentStub, this, property.getSectionName(), property.getKey(), value);
+  }
+
+  @Override
+  public void serialize(@NotNull UnitFilePropertyStub stub, @NotNull StubOutputStream dataStream) throws IOException {
+    // Sections and keys are few and repeat across files, so they go in the name table, values are mostly different
+    dataStream.writeName(stub.getSectionName());
+    dataStream.writeName(stub.getKey());
+    dataStream.writeBoolean(stub.getValue() != null);
+
+    if (stub.getValue() != null) {
+      dataStream.writeUTFFast(stub.getValue());
+    }
+  }
+
+  @NotNull
+  @Override
+  public UnitFilePropertyStub deserialize(@NotNull StubInputStream dataStream, StubElement parentStub) throws IOException {
+    String sectionName = StringRef.toString(dataStream.readName());
+    String key = StringRef.toString(dataStream.readName());
+    String value = dataStream.readBoolean() ? dataStream.readUTFFast() : null;
+
+    SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+    SemanticDataRepository sdr = service == null ? null : service.getRepositoryIfLoaded();
+
+    if (sdr != null) {
+      // The same instances as properties read from the tree
+      sectionName = sdr.getSectionSymbols().intern(sectionName);
+      key = sdr.getKeySymbols().intern(key);
+    }
+
+    return new UnitFilePropertyStub(parentStub, this, sectionName, key, value);
+  }
+
+  @Override
+  public void indexStub(@NotNull UnitFilePropertyStub stub, @NotNull IndexSink sink) {
+    sink.occurrence(UnitFilePropertyIndex.KEY, UnitFilePropertyIndex.getIndexKey(stub.getSectionName(), stub.getKey()));
+  }
+}
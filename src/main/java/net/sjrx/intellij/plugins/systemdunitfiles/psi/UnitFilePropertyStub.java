@@ -0,0 +1,46 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.stubs.StubBase;
+import com.intellij.psi.stubs.StubElement;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The stub of a property: its section name, key and, when it is short, its value.
+ * <p></p>
+ * Sections are parsed lazily and reparsed on their own (see {@link UnitFileSectionGroupsElementType}), which a stub element type can't
+ * be, so properties are the only stubs and are children of the file's stub, each one knows the name of the section it is in.
+ */
+public class UnitFilePropertyStub extends StubBase<UnitFileProperty> {
+
+  private final String sectionName;
+
+  private final String key;
+
+  private final String value;
+
+  UnitFilePropertyStub(StubElement parent, IStubElementType elementType, String sectionName, String key, @Nullable String value) {
+    super(parent, elementType);
+    this.sectionName = sectionName;
+    this.key = key;
+    this.value = value;
+  }
+
+  public String getSectionName() {
+    return sectionName;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns the value, if it is short enough to be kept in the stub (see {@link UnitFilePropertyElementType#MAX_STUB_VALUE_LENGTH}).
+   *
+   * @return the value, as {@link UnitFilePropertyType#getValueText()}, or null if it is too long or the property has no value
+   */
+  @Nullable
+  public String getValue() {
+    return value;
+  }
+}
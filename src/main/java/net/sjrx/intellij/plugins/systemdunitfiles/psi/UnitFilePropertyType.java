@@ -1,25 +1,74 @@
 package net.sjrx.intellij.plugins.systemdunitfiles.psi;
 
-import com.intellij.extapi.psi.ASTWrapperPsiElement;
+import com.intellij.extapi.psi.StubBasedPsiElementBase;
 import com.intellij.lang.ASTNode;
+import com.intellij.psi.stubs.IStubElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class UnitFilePropertyType extends ASTWrapperPsiElement {
+/**
+ * A property, backed by its stub (see {@link UnitFilePropertyStub}) in files whose tree isn't loaded.
+ * <p></p>
+ * {@link #getSectionName()}, {@link #getKey()} and (for short values) {@link #getValueText()} are read from the stub when there is one,
+ * everything else loads the tree.
+ */
+public class UnitFilePropertyType extends StubBasedPsiElementBase<UnitFilePropertyStub> {
+  
+  /**
+   * The children and key of this property, worked out once and cached on the element until the file is modified.
+   */
+  private final CachedValueProvider<Parts> partsProvider = () -> CachedValueProvider.Result.create(new Parts(getNode()), this);
   
   public UnitFilePropertyType(@NotNull ASTNode node) {
     super(node);
   }
   
+  public UnitFilePropertyType(@NotNull UnitFilePropertyStub stub, @NotNull IStubElementType nodeType) {
+    super(stub, nodeType);
+  }
+  
+  /**
+   * Returns the name of the section the property is in.
+   *
+   * @return the section name, see {@link UnitFileSectionType#getSectionName()}
+   */
+  public String getSectionName() {
+    UnitFilePropertyStub stub = getGreenStub();
+    if (stub != null) {
+      return stub.getSectionName();
+    }
+    
+    UnitFileSectionType section = PsiTreeUtil.getParentOfType(this, UnitFileSectionType.class);
+    return section == null ? null : section.getSectionName();
+  }
+  
   /**
    * Returns the key for the property.
+   * <p></p>
+   * Keys that systemd knows about are the instance from {@link SemanticDataRepository#getKeySymbols()}, so the many properties with the
+   * same key share one String.
    *
    * @return the key for this property
    */
   public String getKey() {
-    ASTNode keyNode = this.getKeyNode();
+    UnitFilePropertyStub stub = getGreenStub();
+    if (stub != null) {
+      return stub.getKey();
+    }
     
-    return keyNode.getText().replaceAll("\\\\ ", " ");
+    Parts parts = getParts();
+    if (parts.key != null) {
+      return parts.key;
+    } else {
+      throw missingKeyNode();
+    }
   }
   
   /**
@@ -28,11 +77,11 @@ public class UnitFilePropertyType extends ASTWrapperPsiElement {
    * @return the key node for this property
    */
   public ASTNode getKeyNode() {
-    ASTNode keyNode = this.getNode().findChildByType(UnitFileElementTypeHolder.KEY);
+    ASTNode keyNode = getParts().keyNode;
     if (keyNode != null) {
       return keyNode;
     } else {
-      throw new IllegalStateException("Every instance of " + this.getClass() + "should have a key node underneath");
+      throw missingKeyNode();
     }
   }
   
@@ -42,8 +91,7 @@ public class UnitFilePropertyType extends ASTWrapperPsiElement {
    * @return the value for this property
    */
   public ASTNode getValueNode() {
-    // Probably need to fix this as well
-    return this.getNode().findChildByType(UnitFileElementTypeHolder.VALUE);
+    return getParts().valueNode;
   }
   
   /**
@@ -52,10 +100,103 @@ public class UnitFilePropertyType extends ASTWrapperPsiElement {
    * @return the value for this property
    */
   public String getValueText() {
-    if (getValueNode() != null) {
-      return ((UnitFileValueType) getValueNode().getPsi()).getValue();
+    UnitFilePropertyStub stub = getGreenStub();
+    if (stub != null && stub.getValue() != null) {
+      return stub.getValue();
+    }
+    
+    ASTNode valueNode = getValueNode();
+    
+    if (valueNode != null) {
+      return ((UnitFileValueType) valueNode.getPsi()).getValue();
     } else {
       return null;
     }
   }
+  
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + getElementType() + ")";
+  }
+  
+  private IllegalStateException missingKeyNode() {
+    return new IllegalStateException("Every instance of " + this.getClass() + "should have a key node underneath");
+  }
+  
+  private Parts getParts() {
+    return CachedValuesManager.getCachedValue(this, partsProvider);
+  }
+  
+  /**
+   * Works out the key from its text, where an escaped space (i.e., <code>\ </code>) is a space.
+   *
+   * @param text the text of the key node
+   * @return the key, the instance from the symbol table if systemd knows about it
+   */
+  @NotNull
+  static String getKey(@NotNull CharSequence text) {
+    SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+    SemanticDataRepository sdr = service == null ? null : service.getRepositoryIfLoaded();
+    
+    if (indexOfEscapedSpace(text, 0) < 0) {
+      // By far the most common case, no need to copy the text if the key is known.
+      if (sdr != null) {
+        int keyId = sdr.getKeySymbols().getId(text, 0, text.length());
+        
+        if (keyId != SymbolTable.NOT_FOUND) {
+          return sdr.getKeySymbols().getSymbol(keyId);
+        }
+      }
+      
+      return text.toString();
+    }
+    
+    StringBuilder key = new StringBuilder(text.length());
+    
+    int from = 0;
+    int escape;
+    while ((escape = indexOfEscapedSpace(text, from)) >= 0) {
+      key.append(text, from, escape).append(' ');
+      from = escape + 2;
+    }
+    key.append(text, from, text.length());
+    
+    return sdr == null ? key.toString() : sdr.getKeySymbols().intern(key.toString());
+  }
+  
+  private static int indexOfEscapedSpace(CharSequence text, int from) {
+    for (int i = from; i < text.length() - 1; i++) {
+      if (text.charAt(i) == '\\' && text.charAt(i + 1) == ' ') {
+        return i;
+      }
+    }
+    
+    return -1;
+  }
+  
+  /**
+   * The children of a property node.
+   */
+  private static final class Parts {
+    private final ASTNode keyNode;
+    private final ASTNode valueNode;
+    private final String key;
+    
+    private Parts(ASTNode node) {
+      ASTNode keyNode = null;
+      ASTNode valueNode = null;
+      
+      for (ASTNode child = node.getFirstChildNode(); child != null; child = child.getTreeNext()) {
+        if (keyNode == null && child.getElementType() == UnitFileElementTypeHolder.KEY) {
+          keyNode = child;
+        } else if (valueNode == null && child.getElementType() == UnitFileElementTypeHolder.VALUE) {
+          valueNode = child;
+        }
+      }
+      
+      this.keyNode = keyNode;
+      this.valueNode = valueNode;
+      this.key = keyNode == null ? null : getKey(keyNode.getChars());
+    }
+  }
 }
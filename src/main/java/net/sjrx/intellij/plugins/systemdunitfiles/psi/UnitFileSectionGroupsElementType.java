@@ -0,0 +1,50 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.lang.Language;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.project.Project;
+import com.intellij.psi.tree.IReparseableElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileLexerAdapter;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Element type of a section (its header and everything up to the next header), which can be reparsed on its own.
+ * <p></p>
+ * The file is parsed into sections without looking inside them, and each section is parsed when something first needs its children.
+ * After an edit inside a section, only that section is reparsed, as long as the new text still lexes as exactly one section that ends on a
+ * complete line (see {@link #isParsable(CharSequence, Language, Project)}), otherwise the platform falls back to reparsing the file.
+ */
+public class UnitFileSectionGroupsElementType extends IReparseableElementType {
+  
+  public UnitFileSectionGroupsElementType(@NotNull @NonNls String debugName) {
+    super(debugName, UnitFileLanguage.INSTANCE);
+  }
+  
+  @Override
+  public boolean isParsable(@NotNull CharSequence buffer, @NotNull Language fileLanguage, @NotNull Project project) {
+    if (buffer.length() == 0 || buffer.charAt(buffer.length() - 1) != '\n') {
+      // Whatever follows the section would continue its last line.
+      return false;
+    }
+    
+    Lexer lexer = new UnitFileLexerAdapter();
+    lexer.start(buffer);
+    
+    if (lexer.getTokenType() != UnitFileElementTypeHolder.SECTION) {
+      return false;
+    }
+    
+    for (lexer.advance(); lexer.getTokenType() != null; lexer.advance()) {
+      if (lexer.getTokenType() == UnitFileElementTypeHolder.SECTION) {
+        return false;
+      }
+    }
+    
+    // Otherwise the section ends in the middle of a property or a value, and the next section header wouldn't be lexed as one.
+    return lexer.getState() == UnitFileLexer.IN_SECTION;
+  }
+}
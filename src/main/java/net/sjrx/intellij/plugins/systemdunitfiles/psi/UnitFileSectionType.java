@@ -2,23 +2,63 @@ package net.sjrx.intellij.plugins.systemdunitfiles.psi;
 
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable;
 import org.jetbrains.annotations.NotNull;
 
 public class UnitFileSectionType extends ASTWrapperPsiElement {
 
+  private final CachedValueProvider<String> sectionNameProvider =
+    () -> CachedValueProvider.Result.create(computeSectionName(), this);
+
   public UnitFileSectionType(@NotNull ASTNode node) {
     super(node);
   }
 
   /**
    * Returns the section name of a section in a file.
+   * <p></p>
+   * The name is worked out once and cached on the element until the file is modified, sections that systemd knows about are the
+   * instance from {@link SemanticDataRepository#getSectionSymbols()}.
    *
    * @return the section name
    */
   public String getSectionName() {
-    String sectionNameWithBrackets = getNode().getFirstChildNode().getText().trim();
+    return CachedValuesManager.getCachedValue(this, sectionNameProvider);
+  }
+
+  private String computeSectionName() {
+    CharSequence header = getNode().getFirstChildNode().getChars();
+
+    int start = 0;
+    int end = header.length();
+
+    while (start < end && header.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && header.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    // Without the brackets
+    start++;
+    end--;
+
+    SemanticDataService service = SemanticDataService.getInstanceIfRegistered();
+    SemanticDataRepository sdr = service == null ? null : service.getRepositoryIfLoaded();
+
+    if (sdr != null) {
+      int sectionId = sdr.getSectionSymbols().getId(header, start, end);
+
+      if (sectionId != SymbolTable.NOT_FOUND) {
+        return sdr.getSectionSymbols().getSymbol(sectionId);
+      }
+    }
 
-    return sectionNameWithBrackets.substring(1, sectionNameWithBrackets.length() - 1);
+    return header.subSequence(start, end).toString();
   }
 
 }
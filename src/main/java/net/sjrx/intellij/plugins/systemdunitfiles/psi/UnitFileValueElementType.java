@@ -0,0 +1,44 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.lang.PsiBuilder;
+import com.intellij.lang.PsiBuilderFactory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.tree.ILazyParseableElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileParser;
+import net.sjrx.intellij.plugins.systemdunitfiles.lexer.UnitFileLexerAdapter;
+import org.jetbrains.annotations.NonNls;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Element type of a value, which isn't expanded into its lines (and the comments between them) until something asks for its children.
+ * <p></p>
+ * {@link UnitFileValueType} works with the text of values on a single line directly, so in practice only values with continuation lines
+ * are ever expanded.
+ */
+public class UnitFileValueElementType extends ILazyParseableElementType {
+  
+  public UnitFileValueElementType(@NotNull @NonNls String debugName) {
+    super(debugName, UnitFileLanguage.INSTANCE);
+  }
+  
+  @Override
+  protected ASTNode doParseContents(@NotNull ASTNode chameleon, @NotNull PsiElement psi) {
+    PsiBuilder builder = PsiBuilderFactory.getInstance().createBuilder(psi.getProject(), chameleon, new ValueLexer(), getLanguage(),
+      chameleon.getChars());
+    
+    return new UnitFileParser().parse(this, builder).getFirstChildNode();
+  }
+  
+  /**
+   * Lexes the text of a value on its own, i.e., as it would be lexed after the separator.
+   */
+  private static class ValueLexer extends UnitFileLexerAdapter {
+    @Override
+    public void start(@NotNull CharSequence buffer, int startOffset, int endOffset, int initialState) {
+      super.start(buffer, startOffset, endOffset, UnitFileLexer.WAITING_FOR_VALUE);
+    }
+  }
+}
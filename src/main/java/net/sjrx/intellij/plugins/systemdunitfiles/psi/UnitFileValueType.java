@@ -2,9 +2,13 @@ package net.sjrx.intellij.plugins.systemdunitfiles.psi;
 
 import com.intellij.extapi.psi.ASTWrapperPsiElement;
 import com.intellij.lang.ASTNode;
-import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiReference;
 import com.intellij.psi.tree.IElementType;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
 import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import net.sjrx.intellij.plugins.systemdunitfiles.references.UnitNameReference;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.OptionValueRangeValidator;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -12,8 +16,6 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 public class UnitFileValueType extends ASTWrapperPsiElement {
   
@@ -29,6 +31,11 @@ public class UnitFileValueType extends ASTWrapperPsiElement {
   }
   
   
+  private final CachedValueProvider<String> valueProvider = () -> CachedValueProvider.Result.create(computeValue(), this);
+  
+  private final CachedValueProvider<PsiReference[]> referencesProvider =
+    () -> CachedValueProvider.Result.create(UnitNameReference.createReferences(this), this);
+  
   public UnitFileValueType(@NotNull ASTNode node) {
     super(node);
   }
@@ -43,43 +50,164 @@ public class UnitFileValueType extends ASTWrapperPsiElement {
    * <p/>
    * This will go over all the value containing nodes and skip the comments. It may not actually match systemd exactly right now, but that
    * probably doesn't matter at the moment.
+   * <p></p>
+   * The value is worked out once and cached on the element until the file is modified.
    *
    * @return retrieves the value of this value.
    */
   public String getValue() {
+    return CachedValuesManager.getCachedValue(this, valueProvider);
+  }
+  
+  private String computeValue() {
+    CharSequence text = getNode().getChars();
+    
+    if (isSingleLine(text)) {
+      StringBuilder value = new StringBuilder(text.length());
+      appendLine(value, text);
+      return value.toString().trim();
+    }
     
-    String value = getAllChildrenForRealzies()
-      .filter(child -> valueTypes.contains(child.getNode().getElementType()))
-       .map(PsiElement::getText)
-                     .map(text -> text.trim().replaceFirst("\\\\$"," "))
-       .collect(Collectors.joining());
+    ASTNode firstLine = null;
+    StringBuilder value = null;
+    
+    for (ASTNode child = getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+      if (!valueTypes.contains(child.getElementType())) {
+        continue;
+      }
+      
+      if (firstLine == null) {
+        firstLine = child;
+      } else {
+        if (value == null) {
+          value = new StringBuilder();
+          appendLine(value, firstLine.getChars());
+        }
+        appendLine(value, child.getChars());
+      }
+    }
+    
+    if (firstLine == null) {
+      return "";
+    }
+    
+    if (value == null) {
+      value = new StringBuilder();
+      appendLine(value, firstLine.getChars());
+    }
     
     // Transform \\n (trailing line to a space), as per: https://www.freedesktop.org/software/systemd/man/systemd.syntax.html#
-    return value.trim();
+    return value.toString().trim();
+  }
+  
+  /**
+   * Whether a value is on one line, in which case it is a single token (so the value's node doesn't need to be expanded).
+   */
+  private static boolean isSingleLine(CharSequence text) {
+    for (int i = 0; i < text.length() - 1; i++) {
+      if (text.charAt(i) == '\n') {
+        return false;
+      }
+    }
+    
+    return true;
+  }
+  
+  /**
+   * Appends a line of the value trimmed, with a trailing backslash read as a space.
+   */
+  private static void appendLine(StringBuilder value, CharSequence line) {
+    int start = 0;
+    int end = line.length();
+    
+    while (start < end && line.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && line.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    
+    if (end > start && line.charAt(end - 1) == '\\') {
+      value.append(line, start, end - 1).append(' ');
+    } else {
+      value.append(line, start, end);
+    }
   }
   
   /**
-   * Returns all the children of the node as a stream.
+   * Returns the references to the units named in the value of a dependency (e.g., <code>After=</code>), see
+   * {@link UnitNameReference}.
+   * <p></p>
+   * The references are worked out once and cached on the element until the file is modified.
    *
-   * @see com.intellij.psi.PsiElement#getChildren() - doesn't return leaf nodes in some cases I don't know why.
+   * @return the references, empty for other keys
+   */
+  @NotNull
+  @Override
+  public PsiReference[] getReferences() {
+    return CachedValuesManager.getCachedValue(this, referencesProvider);
+  }
+  
+  /**
+   * Validates the logical value (i.e., the same value as {@link #getValue()}) without building it as a String.
+   * <p></p>
+   * Values on a single line (by far the most common) are validated directly over the text of the token, values with continuation lines
+   * are validated over a view that joins the lines.
    *
+   * @param validator the validator
+   * @return true if the value is valid
    */
-  private Stream<PsiElement> getAllChildrenForRealzies() {
+  public boolean isValid(OptionValueRangeValidator validator) {
+    CharSequence firstLine = null;
+    List<CharSequence> lines = null;
+    
+    CharSequence nodeText = getNode().getChars();
     
-    PsiElement child = this.getFirstChild();
-    if (child == null) {
-      return Stream.empty();
+    if (isSingleLine(nodeText)) {
+      firstLine = nodeText;
+    } else {
+      for (ASTNode child = getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+        if (!valueTypes.contains(child.getElementType())) {
+          continue;
+        }
+        
+        if (firstLine == null) {
+          firstLine = child.getChars();
+        } else {
+          if (lines == null) {
+            lines = new ArrayList<>();
+            lines.add(firstLine);
+          }
+          lines.add(child.getChars());
+        }
+      }
     }
-  
-    List<PsiElement> elements = new ArrayList<>();
     
-    do {
-      elements.add(child);
-      child = child.getNextSibling();
-
-    }  while (child != null);
+    if (firstLine == null) {
+      return validator.isValid("", 0, 0);
+    }
+    
+    CharSequence text = lines == null ? firstLine : new ContinuedValueSequence(lines);
+    
+    int start = 0;
+    int end = text.length();
+    
+    while (start < end && text.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && text.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    
+    if (lines == null && end > start && text.charAt(end - 1) == '\\') {
+      // A single line ending in a backslash, it reads as a trailing space.
+      end--;
+      while (end > start && text.charAt(end - 1) <= ' ') {
+        end--;
+      }
+    }
     
-    return elements.stream();
+    return validator.isValid(text, start, end);
   }
   
 }
@@ -0,0 +1,40 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.references;
+
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.AbstractElementManipulator;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.impl.source.tree.LeafPsiElement;
+import com.intellij.util.IncorrectOperationException;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileValueType;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Changes part of a value, which is how references to a unit are updated when its file is renamed.
+ * <p></p>
+ * The range must be on one line of the value (as unit names are), only the token of that line is replaced.
+ */
+public class UnitFileValueManipulator extends AbstractElementManipulator<UnitFileValueType> {
+
+  @Override
+  public UnitFileValueType handleContentChange(@NotNull UnitFileValueType element, @NotNull TextRange range, String newContent)
+    throws IncorrectOperationException {
+    PsiElement token = element.findElementAt(range.getStartOffset());
+
+    if (!(token instanceof LeafPsiElement)) {
+      throw new IncorrectOperationException("No value at " + range + " in " + element.getText());
+    }
+
+    TextRange tokenRange = token.getTextRange().shiftRight(-element.getTextRange().getStartOffset());
+
+    if (!tokenRange.contains(range)) {
+      throw new IncorrectOperationException(range + " spans more than one line of " + element.getText());
+    }
+
+    String text = token.getText();
+    int start = range.getStartOffset() - tokenRange.getStartOffset();
+    int end = range.getEndOffset() - tokenRange.getStartOffset();
+
+    ((LeafPsiElement) token).replaceWithText(text.substring(0, start) + newContent + text.substring(end));
+    return element;
+  }
+}
@@ -0,0 +1,158 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.references;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiElementResolveResult;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiPolyVariantReferenceBase;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.search.GlobalSearchScope;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileValueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit named in a dependency, e.g., <code>network-online.target</code> in <code>After=network-online.target</code>, which resolves to
+ * the files that define the unit.
+ * <p></p>
+ * The reference is soft, as most dependencies are on units that systemd or other packages provide and that aren't in the project.
+ */
+public class UnitNameReference extends PsiPolyVariantReferenceBase<UnitFileValueType> {
+
+  private final String unitName;
+
+  private final DependencyType type;
+
+  UnitNameReference(@NotNull UnitFileValueType element, TextRange rangeInElement, String unitName, DependencyType type) {
+    super(element, rangeInElement, true);
+    this.unitName = unitName;
+    this.type = type;
+  }
+
+  /**
+   * Returns the references to the units named in a value, split on white space like {@link
+   * net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitDependencyCollector} does.
+   *
+   * @param value the value
+   * @return the references, empty if the key isn't one of {@link DependencyType}
+   */
+  public static PsiReference[] createReferences(UnitFileValueType value) {
+    if (!(value.getParent() instanceof UnitFilePropertyType) || !(value.getParent().getParent() instanceof UnitFileSectionType)) {
+      return PsiReference.EMPTY_ARRAY;
+    }
+
+    UnitFilePropertyType property = (UnitFilePropertyType) value.getParent();
+    String sectionName = ((UnitFileSectionType) property.getParent()).getSectionName();
+    DependencyType type = DependencyType.forKey(sectionName, property.getKey());
+
+    if (type == null) {
+      return PsiReference.EMPTY_ARRAY;
+    }
+
+    List<PsiReference> references = new ArrayList<>();
+    int valueStart = value.getNode().getStartOffset();
+
+    for (ASTNode child = value.getNode().getFirstChildNode(); child != null; child = child.getTreeNext()) {
+      boolean continuing = child.getElementType() == UnitFileElementTypeHolder.CONTINUING_VALUE;
+
+      if (!continuing && child.getElementType() != UnitFileElementTypeHolder.COMPLETED_VALUE) {
+        continue;
+      }
+
+      CharSequence text = child.getChars();
+      int end = text.length();
+
+      if (continuing) {
+        // Without the line continuation
+        while (end > 0 && text.charAt(end - 1) != '\\') {
+          end--;
+        }
+        end = Math.max(end - 1, 0);
+      }
+
+      int offset = child.getStartOffset() - valueStart;
+
+      for (int i = 0; i < end; i++) {
+        if (text.charAt(i) <= ' ') {
+          continue;
+        }
+
+        int start = i;
+        while (i < end && text.charAt(i) > ' ') {
+          i++;
+        }
+
+        String unitName = text.subSequence(start, i).toString();
+        references.add(new UnitNameReference(value, new TextRange(offset + start, offset + i), unitName, type));
+      }
+    }
+
+    return references.toArray(PsiReference.EMPTY_ARRAY);
+  }
+
+  public String getUnitName() {
+    return unitName;
+  }
+
+  public DependencyType getType() {
+    return type;
+  }
+
+  @NotNull
+  @Override
+  public ResolveResult[] multiResolve(boolean incompleteCode) {
+    Project project = getElement().getProject();
+    PsiManager psiManager = PsiManager.getInstance(project);
+    List<PsiFile> files = new ArrayList<>();
+
+    for (VirtualFile file : UnitDependencyIndex.findUnitFiles(project, unitName, GlobalSearchScope.allScope(project))) {
+      PsiFile psiFile = psiManager.findFile(file);
+
+      if (psiFile != null) {
+        files.add(psiFile);
+      }
+    }
+
+    return PsiElementResolveResult.createResults(files);
+  }
+
+  /**
+   * Renames the unit, an instance of a template that is renamed (e.g., <code>getty@tty1.service</code> when <code>getty@.service</code>
+   * is renamed to <code>console@.service</code>) keeps its instance name.
+   */
+  @Override
+  public PsiElement handleElementRename(String newElementName) {
+    String templateName = UnitNames.getTemplateName(unitName);
+    int at = newElementName.indexOf('@');
+    int dot = newElementName.lastIndexOf('.');
+
+    if (templateName != null && at > 0 && dot == at + 1) {
+      String instance = unitName.substring(unitName.indexOf('@') + 1, unitName.lastIndexOf('.'));
+      return super.handleElementRename(newElementName.substring(0, at + 1) + instance + newElementName.substring(dot));
+    }
+
+    return super.handleElementRename(newElementName);
+  }
+
+  /**
+   * Unit names are completed by the value completion contributor, which knows all the units in the project.
+   */
+  @NotNull
+  @Override
+  public Object[] getVariants() {
+    return EMPTY_ARRAY;
+  }
+}
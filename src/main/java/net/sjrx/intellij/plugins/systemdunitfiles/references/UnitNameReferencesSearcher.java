@@ -0,0 +1,112 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.references;
+
+import com.intellij.openapi.application.QueryExecutorBase;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.SearchScope;
+import com.intellij.psi.search.searches.ReferencesSearch;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.util.Processor;
+import com.intellij.util.indexing.FileBasedIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitDependency;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileValueType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the dependencies on a unit file with {@link UnitDependencyIndex}, so that only the files that name the unit are parsed, rather
+ * than every file that contains the name somewhere in its text.
+ * <p></p>
+ * The usages of a template (e.g., <code>getty@.service</code>) include those of its instances (e.g., <code>getty@tty1.service</code>).
+ */
+public class UnitNameReferencesSearcher extends QueryExecutorBase<PsiReference, ReferencesSearch.SearchParameters> {
+
+  public UnitNameReferencesSearcher() {
+    super(true);
+  }
+
+  @Override
+  public void processQuery(@NotNull ReferencesSearch.SearchParameters queryParameters, @NotNull Processor<? super PsiReference> consumer) {
+    PsiElement target = queryParameters.getElementToSearch();
+    SearchScope searchScope = queryParameters.getEffectiveSearchScope();
+
+    if (!(target instanceof PsiFile) || !(searchScope instanceof GlobalSearchScope)) {
+      return;
+    }
+
+    String unitName = ((PsiFile) target).getName();
+
+    if (!UnitNames.isUnitName(unitName)) {
+      return;
+    }
+
+    Project project = queryParameters.getProject();
+    GlobalSearchScope scope = (GlobalSearchScope) searchScope;
+
+    for (String name : getNamesOf(project, unitName)) {
+      for (VirtualFile file : UnitDependencyIndex.getReferencingFiles(project, name, scope)) {
+        if (!processFile(project, file, name, target, consumer)) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns the names a unit is referenced by, its own and for a template the names of its instances.
+   */
+  private static List<String> getNamesOf(Project project, String unitName) {
+    List<String> names = new ArrayList<>();
+    names.add(unitName);
+
+    int at = unitName.indexOf('@');
+
+    if (at > 0 && unitName.lastIndexOf('.') == at + 1) {
+      FileBasedIndex.getInstance().processAllKeys(UnitDependencyIndex.NAME, name -> {
+        if (unitName.equals(UnitNames.getTemplateName(name))) {
+          names.add(name);
+        }
+        return true;
+      }, project);
+    }
+
+    return names;
+  }
+
+  private static boolean processFile(Project project, VirtualFile file, String unitName, PsiElement target,
+                                     Processor<? super PsiReference> consumer) {
+    PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+
+    if (psiFile == null) {
+      return true;
+    }
+
+    for (UnitDependency dependency : UnitDependencyIndex.getDependencies(project, file, unitName)) {
+      UnitFileValueType value = PsiTreeUtil.getParentOfType(psiFile.findElementAt(dependency.getOffset()), UnitFileValueType.class);
+
+      if (value == null) {
+        continue;
+      }
+
+      int offsetInValue = dependency.getOffset() - value.getTextRange().getStartOffset();
+
+      for (PsiReference reference : value.getReferences()) {
+        if (reference.getRangeInElement().getStartOffset() == offsetInValue && reference.isReferenceTo(target)
+            && !consumer.process(reference)) {
+          return false;
+        }
+      }
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,195 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Application service that controls when the {@link SemanticDataRepository} is loaded.
+ * <p></p>
+ * Loading the repository takes long enough that it shouldn't happen on whatever thread first needs it (possibly the EDT), so it is
+ * started on a pooled thread when the first unit file is parsed, see {@link #preload()}. Until it is done, features that can do without it
+ * (inspections, completion and documentation) should use {@link #getRepositoryIfLoaded()} and do nothing, once it is loaded highlighting
+ * is restarted so that the inspections catch up.
+ * <p></p>
+ * If loading fails, the next call to {@link #getRepository()} or {@link #getRepositoryIfLoaded()} loads it again.
+ * <p></p>
+ * In unit test mode the repository is loaded synchronously, so tests see the same results regardless of timing.
+ */
+public final class SemanticDataService {
+  
+  private static final Logger LOG = Logger.getInstance(SemanticDataService.class);
+  
+  private final Supplier<SemanticDataRepository> source;
+  
+  /**
+   * The current load, replaced with a new one when it fails.
+   */
+  private final AtomicReference<FutureTask<SemanticDataRepository>> loader = new AtomicReference<>(new FutureTask<>(this::load));
+  
+  private final AtomicBoolean loadStarted = new AtomicBoolean();
+  
+  /**
+   * Whether anyone called {@link #getRepositoryIfLoaded()} before the repository was loaded, and so may have missed out on it.
+   */
+  private volatile boolean callersTurnedAway;
+  
+  private volatile long loadTimeNanos = -1;
+  
+  public SemanticDataService() {
+    this(SemanticDataRepository::getInstance);
+  }
+  
+  SemanticDataService(@NotNull Supplier<SemanticDataRepository> source) {
+    this.source = source;
+  }
+  
+  /**
+   * Gets the service.
+   *
+   * @return the application's instance
+   */
+  public static SemanticDataService getInstance() {
+    return ServiceManager.getService(SemanticDataService.class);
+  }
+  
+  /**
+   * Gets the service if it is registered, it isn't when there is no application or in lightweight tests (e.g., parsing tests) that run
+   * against a mock application without the plugin's services. Code that also runs in those (the parser and PSI) should use this.
+   *
+   * @return the application's instance, or null
+   */
+  @Nullable
+  public static SemanticDataService getInstanceIfRegistered() {
+    return ApplicationManager.getApplication() == null ? null : ServiceManager.getService(SemanticDataService.class);
+  }
+  
+  /**
+   * Starts loading the repository on a pooled thread, if that hasn't already happened.
+   */
+  public void preload() {
+    if (!loadStarted.compareAndSet(false, true)) {
+      return;
+    }
+    
+    Application application = ApplicationManager.getApplication();
+    
+    if (application.isUnitTestMode()) {
+      loader.get().run();
+    } else {
+      application.executeOnPooledThread(this::loadInBackground);
+    }
+  }
+  
+  /**
+   * Gets the repository without waiting for it to load.
+   *
+   * @return the repository, or null if it isn't loaded yet (in which case loading is started) or loading it failed
+   */
+  @Nullable
+  public SemanticDataRepository getRepositoryIfLoaded() {
+    FutureTask<SemanticDataRepository> task = loader.get();
+    
+    if (!task.isDone()) {
+      /*
+       * Set before checking again, so that either the background thread sees it when it is done, or we see that it is done.
+       */
+      callersTurnedAway = true;
+      preload();
+      
+      if (!task.isDone()) {
+        return null;
+      }
+    }
+    
+    try {
+      return Uninterruptibles.getUninterruptibly(task);
+    } catch (ExecutionException e) {
+      retry(task, e);
+      return null;
+    }
+  }
+  
+  /**
+   * Gets the repository, loading it on this thread if it isn't loaded yet or waiting for the background load to finish.
+   *
+   * @return the repository
+   */
+  @NotNull
+  public SemanticDataRepository getRepository() {
+    FutureTask<SemanticDataRepository> task = loader.get();
+    loadStarted.set(true);
+    
+    // Does nothing if the load has already started elsewhere
+    task.run();
+    
+    try {
+      return Uninterruptibles.getUninterruptibly(task);
+    } catch (ExecutionException e) {
+      retry(task, e);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new IllegalStateException("Could not load semantic data", e.getCause());
+    }
+  }
+  
+  /**
+   * Returns how long it took to load the repository.
+   *
+   * @return the time in milliseconds, or -1 if the repository hasn't been loaded yet
+   */
+  public long getLoadTimeMillis() {
+    long nanos = loadTimeNanos;
+    
+    return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+  }
+  
+  private SemanticDataRepository load() {
+    long start = System.nanoTime();
+    
+    SemanticDataRepository repository = source.get();
+    
+    loadTimeNanos = System.nanoTime() - start;
+    
+    LOG.info("Loaded semantic data for " + repository.getSectionSymbols().size() + " sections and " + repository.getKeySymbols().size()
+             + " keys in " + getLoadTimeMillis() + " ms on thread " + Thread.currentThread().getName());
+    
+    return repository;
+  }
+  
+  /**
+   * Replaces a failed load with a new one, that is started by the next caller.
+   */
+  private void retry(FutureTask<SemanticDataRepository> failed, ExecutionException e) {
+    if (loader.compareAndSet(failed, new FutureTask<>(this::load))) {
+      LOG.warn("Could not load semantic data, it will be loaded again when it is next needed", e.getCause());
+      loadStarted.set(false);
+    }
+  }
+  
+  private void loadInBackground() {
+    loader.get().run();
+    
+    if (callersTurnedAway) {
+      ApplicationManager.getApplication().invokeLater(() -> {
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+          DaemonCodeAnalyzer.getInstance(project).restart();
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.codeInsight.daemon.DaemonCodeAnalyzer;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.testFramework.LightVirtualFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Imports the output of <code>systemd-analyze blame</code>, <code>critical-chain</code> and <code>plot</code> saved on hosts, into the
+ * {@link MeasuredTimingService} in the background, then shows the measured critical paths and the ordering dependencies that held units
+ * up the most. The outputs of each host are expected in a directory named after it, picking directories imports every file in them.
+ */
+public class ImportSystemdAnalyzeAction extends AnAction {
+
+  private static final String TITLE = "Import systemd-analyze Output";
+
+  private static final String DEFAULT_TARGET = "multi-user.target";
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    e.getPresentation().setEnabledAndVisible(e.getProject() != null);
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+
+    if (project == null) {
+      return;
+    }
+
+    FileChooserDescriptor descriptor = new FileChooserDescriptor(true, true, false, false, false, true)
+      .withTitle(TITLE).withDescription("Pick the outputs, or the directories of the hosts they were saved on");
+    VirtualFile[] chosen = FileChooser.chooseFiles(descriptor, project, null);
+
+    if (chosen.length == 0) {
+      return;
+    }
+
+    String input = Messages.showInputDialog(project, "Unit the critical paths lead to:", TITLE, null, DEFAULT_TARGET, null);
+
+    if (input == null) {
+      return;
+    }
+
+    String target = input.trim();
+    if (!UnitNames.isUnitName(target)) {
+      Messages.showErrorDialog(project, "'" + target + "' isn't a unit name, e.g., " + DEFAULT_TARGET, TITLE);
+      return;
+    }
+
+    List<VirtualFile> outputs = new ArrayList<>();
+    for (VirtualFile file : chosen) {
+      VfsUtilCore.iterateChildrenRecursively(file, null, child -> {
+        if (!child.isDirectory()) {
+          outputs.add(child);
+        }
+        return true;
+      });
+    }
+
+    MeasuredTimingService service = MeasuredTimingService.getInstance(project);
+
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, "Importing systemd-analyze output", true) {
+
+      private IOException failure;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        SemanticDataRepository sdr = SemanticDataService.getInstance().getRepository();
+
+        try {
+          service.load(outputs, target, sdr, indicator);
+        } catch (IOException ex) {
+          failure = ex;
+        }
+      }
+
+      @Override
+      public void onSuccess() {
+        if (failure != null) {
+          Messages.showErrorDialog(project, "Couldn't read the output: " + failure.getMessage(), TITLE);
+          return;
+        }
+
+        DaemonCodeAnalyzer.getInstance(project).restart();
+
+        LightVirtualFile report = new LightVirtualFile("Measured boot to " + target, PlainTextFileType.INSTANCE, service.getReport());
+        report.setWritable(false);
+        FileEditorManager.getInstance(project).openFile(report, true);
+      }
+    });
+  }
+}
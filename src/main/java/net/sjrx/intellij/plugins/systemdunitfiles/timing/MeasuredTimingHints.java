@@ -0,0 +1,102 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.codeInsight.hints.InlayInfo;
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveConfigurationService;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFileSectionType;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hints with the times imported into the {@link MeasuredTimingService}: after the first section header, how long the unit took to start
+ * (on the slowest host), and after <code>After=</code> and <code>Before=</code>, the ordering delays they caused.
+ */
+public final class MeasuredTimingHints {
+
+  private MeasuredTimingHints() {
+  }
+
+  /**
+   * Returns the hints of an element.
+   *
+   * @param element a section or property of a unit file or drop-in
+   * @return the hints
+   */
+  @NotNull
+  public static List<InlayInfo> getHints(@NotNull PsiElement element) {
+    VirtualFile file = element.getContainingFile().getOriginalFile().getVirtualFile();
+    String unitName = file == null ? null : EffectiveConfigurationService.getUnitName(file);
+
+    if (unitName == null) {
+      return Collections.emptyList();
+    }
+
+    MeasuredTimingService service = MeasuredTimingService.getInstance(element.getProject());
+
+    if (element instanceof UnitFileSectionType && PsiTreeUtil.getPrevSiblingOfType(element, UnitFileSectionType.class) == null) {
+      InlayInfo hint = getMeasuredHint((UnitFileSectionType) element, service.getMeasurements(unitName));
+      return hint == null ? Collections.emptyList() : Collections.singletonList(hint);
+    }
+
+    if (element instanceof UnitFilePropertyType) {
+      return getDelayHints((UnitFilePropertyType) element, unitName, service.getOrderingDelays());
+    }
+
+    return Collections.emptyList();
+  }
+
+  private static InlayInfo getMeasuredHint(UnitFileSectionType section, List<MeasuredUnit> measurements) {
+    MeasuredUnit slowest = null;
+
+    for (MeasuredUnit measured : measurements) {
+      if (slowest == null || measured.getDurationMillis() > slowest.getDurationMillis()) {
+        slowest = measured;
+      }
+    }
+
+    if (slowest == null) {
+      return null;
+    }
+
+    ASTNode header = section.getNode().getFirstChildNode();
+    int offset = header.getStartOffset() + header.getText().trim().length();
+    String where = measurements.size() == 1 ? slowest.getHost() : slowest.getHost() + ", slowest of " + measurements.size();
+
+    return new InlayInfo("measured " + slowest.format() + " (" + where + ")", offset);
+  }
+
+  private static List<InlayInfo> getDelayHints(UnitFilePropertyType property, String unitName, List<OrderingDelay> delays) {
+    boolean after = "After".equals(property.getKey());
+
+    if (!"Unit".equals(property.getSectionName()) || !after && !"Before".equals(property.getKey()) || property.getValueText() == null) {
+      return Collections.emptyList();
+    }
+
+    List<String> names = Arrays.asList(property.getValueText().trim().split("\\s+"));
+    List<String> texts = new ArrayList<>();
+
+    for (OrderingDelay delay : delays) {
+      String time = TimeSpans.format(delay.getDelayMillis());
+
+      if (after && unitName.equals(delay.getUnitName()) && names.contains(delay.getDependency())) {
+        texts.add("waited " + time + " for " + delay.getDependency() + " (" + delay.getHost() + ")");
+      } else if (!after && unitName.equals(delay.getDependency()) && names.contains(delay.getUnitName())) {
+        texts.add("held up " + delay.getUnitName() + " " + time + " (" + delay.getHost() + ")");
+      }
+    }
+
+    if (texts.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    return Collections.singletonList(new InlayInfo(String.join(", ", texts), property.getTextRange().getEndOffset()));
+  }
+}
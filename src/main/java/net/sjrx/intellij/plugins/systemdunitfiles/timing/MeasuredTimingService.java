@@ -0,0 +1,185 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project service that keeps the times <code>systemd-analyze</code> measured on hosts, imported from its output (see
+ * {@link SystemdAnalyzeParser}), for the units in the project.
+ * <p></p>
+ * The outputs of a host are the files in a directory named after it. Outputs are read a line at a time in the background and only the
+ * units the project names (see {@link UnitDependencyIndex#getUnitNames(Project)}) are kept, so dumps of many hosts don't need to fit
+ * in memory. The measured critical paths and ordering delays are worked out once, when importing.
+ */
+public final class MeasuredTimingService {
+
+  /**
+   * How many ordering delays of each host are pointed out, longest first.
+   */
+  private static final int DELAYS_PER_HOST = 10;
+
+  private static final int LINES_PER_CANCEL_CHECK = 1000;
+
+  private final Project project;
+
+  private volatile Measurements measurements = new Measurements();
+
+  public MeasuredTimingService(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Gets the service.
+   *
+   * @param project the project
+   * @return the project's instance
+   */
+  public static MeasuredTimingService getInstance(Project project) {
+    return ServiceManager.getService(project, MeasuredTimingService.class);
+  }
+
+  /**
+   * Replaces the measured times with those in outputs, must not be called in a read action as it waits for the index.
+   *
+   * @param outputs   the outputs of <code>systemd-analyze blame</code>, <code>critical-chain</code> or <code>plot</code>
+   * @param target    the target the critical paths lead to, e.g., <code>multi-user.target</code>
+   * @param sdr       the semantic data
+   * @param indicator the progress, checked for cancellation
+   * @throws IOException if an output can't be read
+   */
+  public void load(@NotNull Collection<VirtualFile> outputs, @NotNull String target, @NotNull SemanticDataRepository sdr,
+                   @NotNull ProgressIndicator indicator) throws IOException {
+    Set<String> unitNames = DumbService.getInstance(project).runReadActionInSmartMode(() -> UnitDependencyIndex.getUnitNames(project));
+    SystemdAnalyzeParser parser = new SystemdAnalyzeParser();
+    Map<String, MeasuredBoot> boots = new LinkedHashMap<>();
+    int read = 0;
+
+    for (VirtualFile output : outputs) {
+      indicator.checkCanceled();
+      indicator.setText2(output.getPath());
+      indicator.setFraction((double) read++ / outputs.size());
+
+      VirtualFile parent = output.getParent();
+      String host = parent == null ? output.getNameWithoutExtension() : parent.getName();
+      MeasuredBoot boot = boots.computeIfAbsent(host, MeasuredBoot::new);
+
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(output.getInputStream(), StandardCharsets.UTF_8))) {
+        int lines = 0;
+
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+          parser.parseLine(line, boot);
+
+          if (++lines % LINES_PER_CANCEL_CHECK == 0) {
+            indicator.checkCanceled();
+          }
+        }
+      }
+
+      boot.retain(unitName -> unitNames.contains(unitName) || unitNames.contains(UnitNames.getTemplateName(unitName)));
+    }
+
+    Measurements loaded = new Measurements();
+    TimeBudgetService budgets = TimeBudgetService.getInstance(project);
+
+    for (MeasuredBoot boot : boots.values()) {
+      indicator.checkCanceled();
+
+      for (MeasuredUnit unit : boot.getUnits()) {
+        loaded.add(unit.getUnitName(), unit);
+
+        String templateName = UnitNames.getTemplateName(unit.getUnitName());
+        if (templateName != null) {
+          loaded.add(templateName, unit);
+        }
+      }
+
+      DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+        loaded.criticalPaths.add(budgets.analyzeMeasuredBoot(target, boot, sdr));
+
+        List<OrderingDelay> delays = budgets.findOrderingDelays(target, boot, sdr);
+        loaded.delays.addAll(delays.subList(0, Math.min(delays.size(), DELAYS_PER_HOST)));
+      });
+    }
+
+    measurements = loaded;
+  }
+
+  /**
+   * Returns the measured times of a unit.
+   *
+   * @param unitName the unit name, for a template those of its instances
+   * @return the times, one per host (and instance)
+   */
+  public List<MeasuredUnit> getMeasurements(@NotNull String unitName) {
+    return measurements.byUnitName.getOrDefault(unitName, Collections.emptyList());
+  }
+
+  /**
+   * Returns the ordering delays that are among the longest of a host.
+   *
+   * @return the delays
+   */
+  public List<OrderingDelay> getOrderingDelays() {
+    return Collections.unmodifiableList(measurements.delays);
+  }
+
+  /**
+   * Writes the measured critical path of each host and the ordering delays that held units up the most.
+   *
+   * @return the text
+   */
+  public String getReport() {
+    Measurements current = measurements;
+    StringBuilder report = new StringBuilder();
+
+    for (TimeBudget path : current.criticalPaths) {
+      report.append(path.format()).append('\n');
+    }
+
+    if (!current.delays.isEmpty()) {
+      report.append("Ordering dependencies that held units up the most:\n");
+
+      for (OrderingDelay delay : current.delays) {
+        report.append("  ").append(delay).append('\n');
+      }
+    }
+
+    return report.toString();
+  }
+
+  private static final class Measurements {
+
+    /**
+     * Unit name (or template name) -> the times measured on each host.
+     */
+    private final Map<String, List<MeasuredUnit>> byUnitName = new HashMap<>();
+
+    private final List<TimeBudget> criticalPaths = new ArrayList<>();
+
+    private final List<OrderingDelay> delays = new ArrayList<>();
+
+    private void add(String unitName, MeasuredUnit unit) {
+      byUnitName.computeIfAbsent(unitName, name -> new ArrayList<>()).add(unit);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileTypes.PlainTextFileType;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.testFramework.LightVirtualFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Asks for a target and opens the worst case time budget of booting to it and of shutting down (see {@link TimeBudget#format()}) in a
+ * read-only editor, like <code>systemd-analyze critical-chain</code> but from the timeouts in the project's unit files.
+ * <p></p>
+ * The first analysis reads every unit file and drop-in in the project, so it runs in the background and can be cancelled.
+ */
+public class ShowTimeBudgetAction extends AnAction {
+
+  private static final String DEFAULT_TARGET = "multi-user.target";
+
+  @Override
+  public void update(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+
+    // The units are found through the index
+    e.getPresentation().setVisible(project != null);
+    e.getPresentation().setEnabled(project != null && !DumbService.isDumb(project));
+  }
+
+  @Override
+  public void actionPerformed(@NotNull AnActionEvent e) {
+    Project project = e.getProject();
+
+    if (project == null) {
+      return;
+    }
+
+    String target = Messages.showInputDialog(project, "Unit to boot to:", "Show Time Budget", null, DEFAULT_TARGET, null);
+
+    if (target == null) {
+      return;
+    }
+
+    target = target.trim();
+    if (!UnitNames.isUnitName(target)) {
+      Messages.showErrorDialog(project, "'" + target + "' isn't a unit name, e.g., " + DEFAULT_TARGET, "Show Time Budget");
+      return;
+    }
+
+    String unitName = target;
+
+    ProgressManager.getInstance().run(new Task.Backgroundable(project, "Analyzing the time budget of " + unitName, true) {
+
+      private String report;
+
+      @Override
+      public void run(@NotNull ProgressIndicator indicator) {
+        SemanticDataRepository sdr = SemanticDataService.getInstance().getRepository();
+        TimeBudgetService service = TimeBudgetService.getInstance(project);
+
+        report = DumbService.getInstance(project).runReadActionInSmartMode(
+          () -> service.analyzeBoot(unitName, sdr).format() + "\n" + service.analyzeShutdown(sdr).format());
+      }
+
+      @Override
+      public void onSuccess() {
+        LightVirtualFile budget = new LightVirtualFile("Time budget of " + unitName, PlainTextFileType.INSTANCE, report);
+        budget.setWritable(false);
+
+        FileEditorManager.getInstance(project).openFile(budget, true);
+      }
+    });
+  }
+}
@@ -0,0 +1,182 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.FileBasedIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitNames;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.SearchPath;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Project service that keeps a {@link TimeBudgetAnalyzer} for the unit files and drop-ins in the project.
+ * <p></p>
+ * Every analysis finds the unit files and drop-ins of the units in the project (see {@link UnitDependencyIndex}), and only reads those
+ * whose document or file changed since (by modification stamp), so that editing a single timeout only recomputes the units waiting for
+ * it. The loops over the units check for cancellation, files read before the analysis is cancelled don't have to be read again.
+ */
+public final class TimeBudgetService {
+
+  private final Project project;
+
+  private TimeBudgetAnalyzer analyzer;
+
+  /**
+   * Path -> the modification stamp of the file or document when it was read into the analyzer.
+   */
+  private final Map<String, Long> stamps = new HashMap<>();
+
+  public TimeBudgetService(Project project) {
+    this.project = project;
+  }
+
+  /**
+   * Gets the service.
+   *
+   * @param project the project
+   * @return the project's instance
+   */
+  public static TimeBudgetService getInstance(Project project) {
+    return ServiceManager.getService(project, TimeBudgetService.class);
+  }
+
+  /**
+   * Works out the worst case time until a target is reached, must be called in a read action while the index is available.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @param sdr    the semantic data
+   * @return the critical path, see {@link TimeBudgetAnalyzer#analyzeBoot(String)}
+   */
+  public synchronized TimeBudget analyzeBoot(@NotNull String target, @NotNull SemanticDataRepository sdr) {
+    sync(sdr);
+    return analyzer.analyzeBoot(target);
+  }
+
+  /**
+   * Works out the worst case time until every unit is stopped, must be called in a read action while the index is available.
+   *
+   * @param sdr the semantic data
+   * @return the critical path, see {@link TimeBudgetAnalyzer#analyzeShutdown()}
+   */
+  public synchronized TimeBudget analyzeShutdown(@NotNull SemanticDataRepository sdr) {
+    sync(sdr);
+    return analyzer.analyzeShutdown();
+  }
+
+  /**
+   * Works out the critical path of a measured boot, must be called in a read action while the index is available.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @param boot   the measured times
+   * @param sdr    the semantic data
+   * @return the critical path, see {@link TimeBudgetAnalyzer#analyzeMeasuredBoot(String, MeasuredBoot)}
+   */
+  public synchronized TimeBudget analyzeMeasuredBoot(@NotNull String target, @NotNull MeasuredBoot boot,
+                                                     @NotNull SemanticDataRepository sdr) {
+    sync(sdr);
+    return analyzer.analyzeMeasuredBoot(target, boot);
+  }
+
+  /**
+   * Finds the ordering dependencies that held units up the most in a measured boot, must be called in a read action while the index is
+   * available.
+   *
+   * @param target the target, e.g., <code>multi-user.target</code>
+   * @param boot   the measured times
+   * @param sdr    the semantic data
+   * @return the delays, see {@link TimeBudgetAnalyzer#findOrderingDelays(String, MeasuredBoot)}
+   */
+  public synchronized List<OrderingDelay> findOrderingDelays(@NotNull String target, @NotNull MeasuredBoot boot,
+                                                             @NotNull SemanticDataRepository sdr) {
+    sync(sdr);
+    return analyzer.findOrderingDelays(target, boot);
+  }
+
+  /**
+   * Reads the files that changed into the analyzer, and removes those that are gone.
+   */
+  private void sync(SemanticDataRepository sdr) {
+    if (analyzer == null) {
+      analyzer = new TimeBudgetAnalyzer(SearchPath.SYSTEM, sdr);
+    }
+
+    GlobalSearchScope scope = GlobalSearchScope.allScope(project);
+    Set<String> unitNames = UnitDependencyIndex.getUnitNames(project);
+
+    // Units that only have drop-ins, e.g., to enable a unit that comes with systemd, are only known by the files that name others
+    for (String name : FileBasedIndex.getInstance().getAllKeys(UnitDependencyIndex.NAME, project)) {
+      ProgressManager.checkCanceled();
+
+      for (VirtualFile file : UnitDependencyIndex.getReferencingFiles(project, name, scope)) {
+        String unitName = getUnitName(file);
+
+        if (unitName != null) {
+          unitNames.add(unitName);
+        }
+      }
+    }
+
+    Set<String> found = new HashSet<>();
+    for (String unitName : unitNames) {
+      ProgressManager.checkCanceled();
+
+      for (VirtualFile file : FilenameIndex.getVirtualFilesByName(project, unitName, scope)) {
+        if (!file.isDirectory()) {
+          update(file, found);
+        }
+      }
+
+      for (VirtualFile directory : FilenameIndex.getVirtualFilesByName(project, unitName + ".d", scope)) {
+        if (directory.isDirectory()) {
+          for (VirtualFile file : directory.getChildren()) {
+            if (!file.isDirectory() && unitName.equals(getUnitName(file))) {
+              update(file, found);
+            }
+          }
+        }
+      }
+    }
+
+    for (String path : new HashSet<>(stamps.keySet())) {
+      if (!found.contains(path)) {
+        analyzer.remove(path);
+        stamps.remove(path);
+      }
+    }
+  }
+
+  private void update(VirtualFile file, Set<String> found) {
+    String path = file.getPath();
+
+    if (!found.add(path)) {
+      return;
+    }
+
+    Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+    long stamp = document == null ? file.getModificationStamp() : document.getModificationStamp();
+
+    Long previous = stamps.put(path, stamp);
+    if (previous == null || previous != stamp) {
+      analyzer.update(path, document == null ? LoadTextUtil.loadText(file) : document.getImmutableCharSequence());
+    }
+  }
+
+  private static String getUnitName(VirtualFile file) {
+    VirtualFile parent = file.getParent();
+    return UnitNames.getUnitName(file.getName(), parent == null ? null : parent.getName());
+  }
+}
@@ -0,0 +1,93 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.effective;
+
+import com.intellij.codeInsight.hints.InlayInfo;
+import com.intellij.openapi.application.WriteAction;
+import com.intellij.openapi.editor.Inlay;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class EffectiveConfigurationHintsTest extends AbstractUnitFileTest {
+
+  public void testAssignmentsOverriddenByDropInsHaveHints() {
+    // Fixture Setup
+    PsiFile file = myFixture.addFileToProject("usr/lib/systemd/system/a.service", "[Unit]\n"
+                                                                                  + "After=b.service\n"
+                                                                                  + "[Service]\n"
+                                                                                  + "Type=simple\n"
+                                                                                  + "KillMode=process\n"
+                                                                                  + "KillMode=mixed\n");
+    myFixture.addFileToProject("etc/systemd/system/a.service.d/override.conf", "[Unit]\nAfter=\n[Service]\nType=notify\n");
+
+    // Exercise SUT
+    List<String> hints = getHints(file);
+
+    // Verification
+    assertEquals(Arrays.asList("Type: overridden in override.conf", "KillMode: overridden below"), hints);
+  }
+
+  public void testDropInChangesAreSeen() {
+    // Fixture Setup
+    PsiFile file = myFixture.addFileToProject("usr/lib/systemd/system/a.service", "[Service]\nType=simple\n");
+    assertEquals(Collections.emptyList(), getHints(file));
+
+    // Exercise SUT
+    myFixture.addFileToProject("etc/systemd/system/a.service.d/override.conf", "[Service]\nType=\n");
+
+    // Verification
+    assertEquals(Collections.singletonList("Type: reset in override.conf"), getHints(file));
+    EffectiveConfiguration configuration = EffectiveConfigurationService.getInstance(getProject())
+      .getEffectiveConfiguration("a.service", SemanticDataService.getInstance().getRepository());
+    assertNull(configuration.getOption("Service", "Type").getValue());
+  }
+
+  public void testDropInContentChangesAreSeen() throws Exception {
+    // Fixture Setup
+    PsiFile file = myFixture.addFileToProject("usr/lib/systemd/system/a.service", "[Service]\nType=simple\n");
+    PsiFile dropIn = myFixture.addFileToProject("etc/systemd/system/a.service.d/override.conf", "[Service]\nType=notify\n");
+    assertEquals(Collections.singletonList("Type: overridden in override.conf"), getHints(file));
+
+    // Exercise SUT
+    WriteAction.run(() -> VfsUtil.saveText(dropIn.getVirtualFile(), "[Service]\nType=\n"));
+
+    // Verification
+    assertEquals(Collections.singletonList("Type: reset in override.conf"), getHints(file));
+  }
+
+  public void testHintsAreShownInTheEditor() {
+    // Fixture Setup
+    PsiFile file = myFixture.addFileToProject("usr/lib/systemd/system/a.service", "[Service]\nType=simple\nKillMode=process\n");
+    myFixture.addFileToProject("etc/systemd/system/a.service.d/override.conf", "[Service]\nType=notify\n");
+    myFixture.configureFromExistingVirtualFile(file.getVirtualFile());
+
+    // Exercise SUT
+    myFixture.doHighlighting();
+
+    // Verification
+    List<Inlay> inlays = myFixture.getEditor().getInlayModel().getInlineElementsInRange(0, file.getTextLength());
+    assertSize(1, inlays);
+    assertEquals(PsiTreeUtil.findChildOfType(file, UnitFilePropertyType.class).getTextRange().getEndOffset(), inlays.get(0).getOffset());
+    assertEquals("overridden in override.conf", ((EffectiveConfigurationHintsPass.Renderer) inlays.get(0).getRenderer()).getText());
+  }
+
+  private static List<String> getHints(PsiFile file) {
+    EffectiveConfiguration configuration = EffectiveConfigurationHints.getConfiguration(file);
+    List<String> hints = new ArrayList<>();
+
+    for (UnitFilePropertyType property : PsiTreeUtil.findChildrenOfType(file, UnitFilePropertyType.class)) {
+      for (InlayInfo hint : EffectiveConfigurationHints.getHints(property, configuration)) {
+        hints.add(property.getKey() + ": " + hint.getText());
+      }
+    }
+
+    return hints;
+  }
+}
@@ -0,0 +1,74 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyGraphService;
+
+import java.util.List;
+
+public class DependencyCycleInspectionTest extends AbstractUnitFileTest {
+
+  public void testOrderingCycleAcrossFilesIsReported() {
+    // Fixture Setup
+    myFixture.addFileToProject("b.service", "[Unit]\nAfter=c.service\n");
+    myFixture.addFileToProject("c.service.d/override.conf", "[Unit]\nAfter=a.service\n");
+    String file = "[Unit]\n"
+                  + "After=network.target b.service\n";
+
+    // Exercise SUT
+    setupFileInEditor("a.service", file);
+    enableInspection(DependencyCycleInspection.class);
+    List<HighlightInfo> highlights = myFixture.doHighlighting();
+
+    // Verification
+    assertSize(1, highlights);
+    HighlightInfo info = highlights.get(0);
+    assertEquals("Ordering cycle: a.service -> b.service -> c.service -> a.service", info.getDescription());
+    assertEquals("b.service", info.getText());
+  }
+
+  public void testEditingTheFileBreaksTheCycle() {
+    // Fixture Setup
+    myFixture.addFileToProject("b.service", "[Unit]\nRequires=a.service\n");
+    setupFileInEditor("a.service", "[Unit]\nBindsTo=b.service\n");
+    enableInspection(DependencyCycleInspection.class);
+    assertSize(1, myFixture.doHighlighting());
+
+    // Exercise SUT
+    Document document = myFixture.getEditor().getDocument();
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText("[Unit]\nWants=b.service\n"));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    List<HighlightInfo> highlights = myFixture.doHighlighting();
+
+    // Verification
+    assertSize(0, highlights);
+  }
+
+  public void testCancelledLoadIsStartedAgain() {
+    // Fixture Setup
+    myFixture.addFileToProject("b.service", "[Unit]\nAfter=a.service\n");
+    PsiFile file = myFixture.addFileToProject("a.service", "[Unit]\nAfter=b.service\n");
+    DependencyGraphService service = DependencyGraphService.getInstance(getProject());
+    ProgressIndicator indicator = new EmptyProgressIndicator();
+    indicator.cancel();
+
+    // Exercise SUT
+    try {
+      ProgressManager.getInstance().runProcess(() -> service.getCycles(file), indicator);
+      fail("Expected the load to be cancelled");
+    } catch (ProcessCanceledException expected) {
+      // The graph is loaded again below
+    }
+
+    // Verification
+    assertSize(1, service.getCycles(file));
+  }
+}
@@ -1,10 +1,12 @@
 package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
 
 import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInsight.intention.IntentionAction;
 import com.intellij.psi.PsiElement;
 import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class DeprecatedOptionsInspectionTest extends AbstractUnitFileTest {
   
@@ -102,4 +104,36 @@ public class DeprecatedOptionsInspectionTest extends AbstractUnitFileTest {
     // Verification
     assertSize(9, highlights);
   }
+  
+  public void testQuickFixReplacesDeprecatedKey() {
+    String file = "[Service]\n"
+                  + "MemoryLimit=8";
+    
+    // Fixture Setup
+    setupFileInEditor("file.service", file);
+    enableInspection(DeprecatedOptionsInspection.class);
+    
+    // Exercise SUT
+    IntentionAction action = myFixture.findSingleIntention("Replace with MemoryMax");
+    myFixture.launchAction(action);
+    
+    // Verification
+    myFixture.checkResult("[Service]\n"
+                          + "MemoryMax=8");
+  }
+  
+  public void testQuickFixIsOfferedForEachReplacementKey() {
+    String file = "[Service]\n"
+                  + "CPUShares=52";
+    
+    // Fixture Setup
+    setupFileInEditor("file.service", file);
+    enableInspection(DeprecatedOptionsInspection.class);
+    
+    // Exercise SUT
+    List<String> fixes = myFixture.getAllQuickFixes().stream().map(IntentionAction::getText).collect(Collectors.toList());
+    
+    // Verification
+    assertContainsElements(fixes, "Replace with CPUWeight", "Replace with StartupCPUWeight");
+  }
 }
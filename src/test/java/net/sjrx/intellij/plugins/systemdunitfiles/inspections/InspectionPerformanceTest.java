@@ -0,0 +1,135 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.inspections;
+
+import com.intellij.codeInsight.daemon.impl.HighlightInfo;
+import com.intellij.codeInspection.LocalInspectionTool;
+import com.intellij.codeInspection.ProblemsHolder;
+import com.intellij.psi.PsiElementVisitor;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.psi.UnitFilePropertyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that after a keystroke in a large generated unit file, with all the inspections enabled, only the edited section is inspected
+ * again.
+ */
+public class InspectionPerformanceTest extends AbstractUnitFileTest {
+
+  private static final int LINES = 5000;
+
+  private static final int KEYSTROKES = 20;
+
+  private static final int PROPERTIES_PER_SECTION = 50;
+
+  public void testHighlightingAfterKeystrokeInLargeFileOnlyInspectsEditedSection() {
+    // Fixture Setup
+    StringBuilder file = new StringBuilder();
+    int line = 0;
+    int section = 0;
+    int middleOffset = -1;
+
+    while (line < LINES) {
+      file.append("[Service]\n");
+      line++;
+
+      for (int i = 0; i < PROPERTIES_PER_SECTION && line < LINES; i++, line++) {
+        if (middleOffset < 0 && line >= LINES / 2) {
+          file.append("Type=");
+          middleOffset = file.length();
+          file.append("simple\n");
+          continue;
+        }
+
+        switch (i % 5) {
+          case 0:
+            file.append("ExecStart=/usr/bin/generated-").append(section).append('-').append(i).append(" --flag\n");
+            break;
+          case 1:
+            file.append("KillMode=process\n");
+            break;
+          case 2:
+            file.append("TTYReset=maybe\n");
+            break;
+          case 3:
+            file.append("MemoryLimit=8\n");
+            break;
+          default:
+            file.append("NotARealKey").append(i).append("=value\n");
+            break;
+        }
+      }
+
+      section++;
+    }
+
+    setupFileInEditor("file.service", file.toString());
+    enableInspection(UnknownKeyInSectionInspection.class);
+    enableInspection(InvalidValueInspection.class);
+    enableInspection(DeprecatedOptionsInspection.class);
+    CountingInspection counting = new CountingInspection();
+    myFixture.enableInspections(counting);
+
+    List<HighlightInfo> initialHighlights = myFixture.doHighlighting();
+    assertFalse(initialHighlights.isEmpty());
+
+    myFixture.getEditor().getCaretModel().moveToOffset(middleOffset);
+
+    // Exercise SUT
+    int maximumVisited = 0;
+
+    for (int i = 0; i < KEYSTROKES; i++) {
+      myFixture.type(i % 2 == 0 ? 'x' : '\b');
+
+      counting.visitedProperties.set(0);
+      myFixture.doHighlighting();
+      maximumVisited = Math.max(maximumVisited, counting.visitedProperties.get());
+    }
+
+    // Verification
+    assertTrue("Expected the edited property to be inspected again", maximumVisited > 0);
+    assertTrue("Expected only the properties of the edited section to be inspected again, but " + maximumVisited + " were",
+      maximumVisited <= PROPERTIES_PER_SECTION);
+
+    assertEquals(initialHighlights.size(), myFixture.doHighlighting().size());
+  }
+
+  /**
+   * Counts the properties it is asked to check, alongside the real inspections.
+   */
+  private static final class CountingInspection extends LocalInspectionTool {
+
+    private final AtomicInteger visitedProperties = new AtomicInteger();
+
+    @NotNull
+    @Override
+    public String getShortName() {
+      return "CountingInspection";
+    }
+
+    @NotNull
+    @Override
+    public String getDisplayName() {
+      return "Counting inspection";
+    }
+
+    @NotNull
+    @Override
+    public String getGroupDisplayName() {
+      return "Tests";
+    }
+
+    @NotNull
+    @Override
+    public PsiElementVisitor buildVisitor(@NotNull ProblemsHolder holder, boolean isOnTheFly) {
+      return new PropertyInspectionVisitor(SemanticDataService.getInstance().getRepository()) {
+        @Override
+        void visitPropertyInSection(@NotNull UnitFilePropertyType property, @NotNull String sectionName, int sectionId) {
+          visitedProperties.incrementAndGet();
+        }
+      };
+    }
+  }
+}
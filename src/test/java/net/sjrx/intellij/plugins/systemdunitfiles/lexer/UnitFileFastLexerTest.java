@@ -0,0 +1,179 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+import com.intellij.lexer.FlexLexer;
+import com.intellij.psi.tree.IElementType;
+import junit.framework.TestCase;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileLexer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Compares the tokens from {@link UnitFileFastLexer} with the ones from the lexer generated from SystemdUnitFile.flex.
+ */
+public class UnitFileFastLexerTest extends TestCase {
+
+  private static final String CORPUS_ROOT = "net/sjrx/intellij/plugins/systemdunitfiles/lexer/corpus/";
+
+  private static final String[] CORPUS = {
+    "sshd.service",
+    "docker.socket",
+    "continuations.service",
+    "crlf.service",
+    "malformed.service",
+    "unicode.service",
+  };
+
+  private static final int[] STATES = {
+    UnitFileLexer.YYINITIAL,
+    UnitFileLexer.IN_SECTION,
+    UnitFileLexer.WAITING_FOR_SEPARATOR,
+    UnitFileLexer.WAITING_FOR_VALUE,
+    UnitFileLexer.VALUE_CONTINUATION,
+  };
+
+  /**
+   * Pieces of unit files that the random inputs are made of, chosen so that every rule in the specification matches some of them, and
+   * so that they overlap in the ways that decide between rules (e.g., a ] on a later line, an escaped space in a key).
+   */
+  private static final String[] FRAGMENTS = {
+    "[", "]", "=", "\\", " ", "\t", "\n", "\f", "\r", "\u000B", "#", ";", "a", "Key", "\\ ", "\n\n", "\\\n",
+    "[Unit]\n", "Description=b\n", "\u00e9", "\u0085", "\u2028", "\u2029", "\uD83D\uDE00", "\uD83D",
+  };
+
+  private static final int RANDOM_INPUTS = 50_000;
+
+  public void testScannerStatesAreTheGeneratedLexerStates() {
+    // Verification
+    assertEquals(UnitFileLexer.YYINITIAL, UnitFileScanner.YYINITIAL);
+    assertEquals(UnitFileLexer.IN_SECTION, UnitFileScanner.IN_SECTION);
+    assertEquals(UnitFileLexer.WAITING_FOR_SEPARATOR, UnitFileScanner.WAITING_FOR_SEPARATOR);
+    assertEquals(UnitFileLexer.WAITING_FOR_VALUE, UnitFileScanner.WAITING_FOR_VALUE);
+    assertEquals(UnitFileLexer.VALUE_CONTINUATION, UnitFileScanner.VALUE_CONTINUATION);
+  }
+
+  public void testCorpusLexesIdentically() throws IOException {
+    for (String name : CORPUS) {
+      // Fixture Setup
+      String text = readCorpusFile(name);
+
+      for (int state : STATES) {
+        // Exercise SUT & Verification
+        assertEquals(name + " from state " + state, lex(new UnitFileLexer((Reader) null), text, 0, text.length(), state),
+          lex(new UnitFileFastLexer(), text, 0, text.length(), state));
+      }
+    }
+  }
+
+  public void testCorpusLexesIdenticallyFromEveryTokenBoundary() throws IOException {
+    for (String name : CORPUS) {
+      // Fixture Setup
+      String text = readCorpusFile(name);
+      FlexLexer reference = new UnitFileLexer((Reader) null);
+      reference.reset(text, 0, text.length(), UnitFileLexer.YYINITIAL);
+
+      // Exercise SUT & Verification
+      int start = 0;
+      int state = UnitFileLexer.YYINITIAL;
+
+      while (reference.advance() != null) {
+        // An editor restarts lexing at a token boundary in the state that the lexer was in at that point, and the text may end
+        // anywhere but in the middle of a surrogate pair (where the generated lexer reads past the end).
+        for (int end = start; end <= Math.min(text.length(), start + 80); end++) {
+          if (end < text.length() && Character.isLowSurrogate(text.charAt(end))) {
+            continue;
+          }
+
+          assertEquals(name + " from " + start + " to " + end, lex(new UnitFileLexer((Reader) null), text, start, end, state),
+            lex(new UnitFileFastLexer(), text, start, end, state));
+        }
+
+        start = reference.getTokenEnd();
+        state = reference.yystate();
+      }
+    }
+  }
+
+  public void testRandomInputsLexIdentically() {
+    // Fixture Setup
+    Random random = new Random(0x5157E3D);
+
+    for (int i = 0; i < RANDOM_INPUTS; i++) {
+      StringBuilder text = new StringBuilder();
+      int fragments = random.nextInt(30);
+
+      for (int j = 0; j < fragments; j++) {
+        text.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+      }
+
+      for (int state : STATES) {
+        // Exercise SUT & Verification
+        assertEquals("Input " + escape(text) + " from state " + state,
+          lex(new UnitFileLexer((Reader) null), text, 0, text.length(), state),
+          lex(new UnitFileFastLexer(), text, 0, text.length(), state));
+      }
+    }
+  }
+
+  public void testLongValueIsOneToken() {
+    // Fixture Setup
+    StringBuilder text = new StringBuilder("[Service]\nExecStart=");
+
+    for (int i = 0; i < 10_000; i++) {
+      text.append("/usr/bin/true ");
+    }
+
+    text.append("\\\n  --last\n");
+
+    // Exercise SUT
+    String tokens = lex(new UnitFileFastLexer(), text, 0, text.length(), UnitFileLexer.YYINITIAL);
+
+    // Verification
+    assertEquals(lex(new UnitFileLexer((Reader) null), text, 0, text.length(), UnitFileLexer.YYINITIAL), tokens);
+    assertTrue(tokens, tokens.startsWith("SECTION [0, 10) 2\nKEY [10, 19) 4\nSEPARATOR [19, 20) 6\nCONTINUING_VALUE [20, "));
+  }
+
+  private static String lex(FlexLexer lexer, CharSequence text, int start, int end, int initialState) {
+    lexer.reset(text, start, end, initialState);
+
+    StringBuilder tokens = new StringBuilder();
+
+    try {
+      for (IElementType type = lexer.advance(); type != null; type = lexer.advance()) {
+        tokens.append(type).append(" [").append(lexer.getTokenStart()).append(", ").append(lexer.getTokenEnd()).append(") ")
+          .append(lexer.yystate()).append('\n');
+      }
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+
+    return tokens.toString();
+  }
+
+  private static String readCorpusFile(String name) throws IOException {
+    try (InputStream is = UnitFileFastLexerTest.class.getClassLoader().getResourceAsStream(CORPUS_ROOT + name)) {
+      assertNotNull("Missing corpus file " + name, is);
+      return IOUtils.toString(is, StandardCharsets.UTF_8);
+    }
+  }
+
+  private static String escape(CharSequence text) {
+    StringBuilder escaped = new StringBuilder();
+
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+
+      if (c < ' ' || c > '~') {
+        escaped.append(String.format("\\u%04x", (int) c));
+      } else {
+        escaped.append(c);
+      }
+    }
+
+    return escaped.toString();
+  }
+}
@@ -0,0 +1,175 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.lexer;
+
+import com.intellij.lexer.DelegateLexer;
+import com.intellij.lexer.Lexer;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.editor.ex.util.LexerEditorHighlighter;
+import com.intellij.openapi.editor.highlighter.HighlighterIterator;
+import com.intellij.psi.tree.IElementType;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.coloring.UnitFileHighlighter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Checks that highlighting restarts lexing near an edit, and counts how many tokens are re-lexed per keystroke in a large file.
+ */
+public class UnitFileHighlightingLexerTest extends AbstractUnitFileTest {
+  
+  private static final int LINES = 20_000;
+  
+  private static final int KEYSTROKES = 50;
+  
+  public void testRestartingAtAnyLineStartLexesTheSameTokens() {
+    // Fixture Setup
+    String sourceCode = "# preamble\n"
+                        + "\n"
+                        + "[Unit]\n"
+                        + "Description=Hello\n"
+                        + "\n"
+                        + "[Service]\n"
+                        + "ExecStart=/bin/echo \\\n"
+                        + "# a comment\n"
+                        + "  world\n"
+                        + "Type=simple\n"
+                        + "[Install\n"
+                        + "=oops\n";
+    
+    List<String> expected = lex(new UnitFileHighlightingLexer(), sourceCode, 0, 0);
+    
+    Lexer lexer = new UnitFileHighlightingLexer();
+    lexer.start(sourceCode);
+    
+    // Exercise SUT & Verification
+    int index = 0;
+    while (lexer.getTokenType() != null) {
+      List<String> restarted = lex(new UnitFileHighlightingLexer(), sourceCode, lexer.getTokenStart(), lexer.getState());
+      
+      assertEquals("Restarting at " + lexer.getTokenStart(), expected.subList(index, expected.size()), restarted);
+      
+      lexer.advance();
+      index++;
+    }
+  }
+  
+  public void testLinesInSectionsAreRestartable() {
+    // Fixture Setup
+    Lexer lexer = new UnitFileHighlightingLexer();
+    int initialState;
+    lexer.start("");
+    initialState = lexer.getState();
+    
+    // Exercise SUT
+    lexer.start("# preamble\n[Service]\nType=simple\nExecStart=/bin/true \\\n  --flag\n");
+    List<Integer> states = new ArrayList<>();
+    for (; lexer.getTokenType() != null; lexer.advance()) {
+      states.add(lexer.getState());
+    }
+    
+    // Verification (COMMENT, SECTION, KEY, SEPARATOR, COMPLETED_VALUE, KEY, SEPARATOR, CONTINUING_VALUE, COMPLETED_VALUE)
+    assertEquals(9, states.size());
+    assertEquals(initialState, (int) states.get(0));
+    assertTrue(initialState != states.get(1));
+    assertEquals(initialState, (int) states.get(2));
+    assertTrue(initialState != states.get(3));
+    assertEquals(initialState, (int) states.get(5));
+    assertTrue(initialState != states.get(8));
+  }
+  
+  public void testTypingInLargeFileOnlyRelexesNearbyTokens() {
+    // Fixture Setup
+    StringBuilder text = new StringBuilder("# Generated unit\n\n");
+    int middleOffset = -1;
+    
+    for (int line = 0; line < LINES; line++) {
+      if (line % 100 == 0) {
+        text.append("[Service]\n");
+      } else if (line == LINES / 2) {
+        text.append("Type=");
+        middleOffset = text.length();
+        text.append("simple\n");
+      } else if (line % 7 == 0) {
+        text.append("ExecStart=/usr/bin/generated \\\n  --line ").append(line).append('\n');
+        line++;
+      } else {
+        text.append("Environment=LINE=").append(line).append('\n');
+      }
+    }
+    
+    // Exercise SUT
+    long baseline = countTokensRelexedPerKeystroke(UnitFileLexerAdapter::new, text.toString(), middleOffset);
+    long restartable = countTokensRelexedPerKeystroke(UnitFileHighlightingLexer::new, text.toString(), middleOffset);
+    
+    // Verification
+    assertTrue("Re-lexed " + restartable + " tokens per keystroke", restartable < 50);
+    assertTrue(restartable * 100 < baseline);
+  }
+  
+  private long countTokensRelexedPerKeystroke(Supplier<Lexer> lexerFactory, String text, int offset) {
+    long[] tokens = new long[1];
+    
+    UnitFileHighlighter syntaxHighlighter = new UnitFileHighlighter() {
+      @NotNull
+      @Override
+      public Lexer getHighlightingLexer() {
+        return new DelegateLexer(lexerFactory.get()) {
+          @Override
+          public void advance() {
+            tokens[0]++;
+            super.advance();
+          }
+        };
+      }
+    };
+    
+    Document document = EditorFactory.getInstance().createDocument(text);
+    LexerEditorHighlighter highlighter = new LexerEditorHighlighter(syntaxHighlighter, EditorColorsManager.getInstance().getGlobalScheme());
+    highlighter.setText(document.getImmutableCharSequence());
+    document.addDocumentListener(highlighter);
+    
+    tokens[0] = 0;
+    
+    for (int i = 0; i < KEYSTROKES; i++) {
+      if (i % 2 == 0) {
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.insertString(offset, "x"));
+      } else {
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> document.deleteString(offset, offset + 1));
+      }
+    }
+    
+    // The incremental result must be the same as highlighting from scratch
+    LexerEditorHighlighter fresh = new LexerEditorHighlighter(syntaxHighlighter, EditorColorsManager.getInstance().getGlobalScheme());
+    fresh.setText(document.getImmutableCharSequence());
+    assertEquals(tokens(fresh), tokens(highlighter));
+    
+    return tokens[0] / KEYSTROKES;
+  }
+  
+  private static List<String> tokens(LexerEditorHighlighter highlighter) {
+    List<String> tokens = new ArrayList<>();
+    
+    for (HighlighterIterator it = highlighter.createIterator(0); !it.atEnd(); it.advance()) {
+      tokens.add(it.getTokenType() + "@" + it.getStart() + "-" + it.getEnd());
+    }
+    
+    return tokens;
+  }
+  
+  private static List<String> lex(Lexer lexer, String text, int startOffset, int state) {
+    List<String> tokens = new ArrayList<>();
+    
+    lexer.start(text, startOffset, text.length(), state);
+    
+    for (IElementType type; (type = lexer.getTokenType()) != null; lexer.advance()) {
+      tokens.add(type + "@" + lexer.getTokenStart() + "-" + lexer.getTokenEnd());
+    }
+    
+    return tokens;
+  }
+}
@@ -0,0 +1,48 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+
+public class ContinuedValueSequenceTest extends TestCase {
+  
+  public void testLinesAreTrimmedAndJoined() {
+    // Fixture Setup
+    ContinuedValueSequence sequence = new ContinuedValueSequence(Arrays.asList("man:foo \\", "   man:bar\\", "  man:baz  "));
+    
+    // Verification
+    assertEquals("man:foo  man:bar man:baz", sequence.toString());
+    assertEquals(sequence.toString().length(), sequence.length());
+    
+    for (int i = 0; i < sequence.length(); i++) {
+      assertEquals(sequence.toString().charAt(i), sequence.charAt(i));
+    }
+  }
+  
+  public void testRandomAccess() {
+    // Fixture Setup
+    ContinuedValueSequence sequence = new ContinuedValueSequence(Arrays.asList("ab\\", "", "  \\", "cd"));
+    String expected = "ab  cd";
+    
+    // Verification
+    assertEquals(expected, sequence.toString());
+    
+    int[] order = {5, 0, 3, 1, 4, 2, 5, 0};
+    for (int i : order) {
+      assertEquals(expected.charAt(i), sequence.charAt(i));
+    }
+    
+    assertEquals("b  c", sequence.subSequence(1, 5).toString());
+  }
+  
+  public void testOutOfBounds() {
+    ContinuedValueSequence sequence = new ContinuedValueSequence(Arrays.asList("a\\", "b"));
+    
+    try {
+      sequence.charAt(3);
+      fail("Expected an exception");
+    } catch (IndexOutOfBoundsException e) {
+      // Expected
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.impl.source.tree.LazyParseableElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.UnitFileLanguage;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that edits inside a section only reparse that section, and that values are only expanded when something asks for them.
+ */
+public class IncrementalReparseTest extends AbstractUnitFileTest {
+
+  private static final String FILE = "[Unit]\n"
+                                     + "Description=First\n"
+                                     + "Documentation=man:first \\\n"
+                                     + "  man:second\n"
+                                     + "[Service]\n"
+                                     + "ExecStart=/bin/true\n"
+                                     + "Type=simple\n"
+                                     + "[Install]\n"
+                                     + "WantedBy=multi-user.target \\\n"
+                                     + "  graphical.target\n";
+
+  private static final int SECTIONS = 2000;
+
+  private static final int PROPERTIES_PER_SECTION = 10;
+
+  public void testSectionIsReparseableOnItsOwn() {
+    // Fixture Setup
+    UnitFileSectionGroupsElementType type = (UnitFileSectionGroupsElementType) UnitFileElementTypeHolder.SECTION_GROUPS;
+
+    // Exercise SUT & Verification
+    assertTrue(type.isParsable("[Unit]\nDescription=b\n", UnitFileLanguage.INSTANCE, getProject()));
+    assertTrue(type.isParsable("[Unit]\n# comment\n\nDescription=b \\\n  c\n", UnitFileLanguage.INSTANCE, getProject()));
+    assertFalse(type.isParsable("[Unit]\nDescription=b", UnitFileLanguage.INSTANCE, getProject()));
+    assertFalse(type.isParsable("[Unit]\nDescription=b \\\n", UnitFileLanguage.INSTANCE, getProject()));
+    assertFalse(type.isParsable("[Unit]\nDescription=b\n[Service]\n", UnitFileLanguage.INSTANCE, getProject()));
+    assertFalse(type.isParsable("Description=b\n", UnitFileLanguage.INSTANCE, getProject()));
+    assertFalse(type.isParsable("", UnitFileLanguage.INSTANCE, getProject()));
+  }
+
+  public void testEditInSectionOnlyChangesThatSection() {
+    // Fixture Setup
+    PsiFile file = setupFileInEditor("file.service", FILE);
+    List<UnitFileSectionGroups> sections = getSections(file);
+    assertSize(3, sections);
+
+    UnitFileSectionGroups unit = sections.get(0);
+    UnitFileSectionGroups service = sections.get(1);
+    UnitFileSectionGroups install = sections.get(2);
+
+    List<PsiElement> unitChildren = childrenOf(unit);
+    List<PsiElement> installChildren = childrenOf(install);
+
+    List<PsiElement> changedParents = recordChangedParents();
+
+    // Exercise SUT
+    replaceText(FILE.indexOf("simple"), "simple".length(), "forking");
+
+    // Verification
+    assertSame(unit, getSections(file).get(0));
+    assertSame(service, getSections(file).get(1));
+    assertSame(install, getSections(file).get(2));
+
+    assertEquals(unitChildren, childrenOf(unit));
+    assertEquals(installChildren, childrenOf(install));
+
+    assertFalse(changedParents.isEmpty());
+    for (PsiElement parent : changedParents) {
+      assertTrue("Expected " + parent + " to be in the [Service] section", PsiTreeUtil.isAncestor(service, parent, false));
+    }
+
+    assertEquals("forking", ((UnitFilePropertyType) service.getPropertyList().get(1)).getValueText());
+  }
+
+  public void testEditThatAddsSectionReparsesFile() {
+    // Fixture Setup
+    PsiFile file = setupFileInEditor("file.service", FILE);
+
+    // Exercise SUT
+    replaceText(FILE.indexOf("Type=simple"), 0, "[Socket]\n");
+
+    // Verification
+    List<UnitFileSectionGroups> sections = getSections(file);
+    assertSize(4, sections);
+    assertEquals("Socket", ((UnitFileSectionType) sections.get(2)).getSectionName());
+    assertEquals("simple", ((UnitFilePropertyType) sections.get(2).getPropertyList().get(0)).getValueText());
+  }
+
+  public void testValuesAreOnlyExpandedWhenContinued() {
+    // Fixture Setup
+    PsiFile file = setupFileInEditor("file.service", FILE);
+    List<UnitFileSectionGroups> sections = getSections(file);
+
+    // Exercise SUT
+    List<String> values = new ArrayList<>();
+    for (UnitFileSectionGroups section : sections) {
+      for (UnitFileProperty property : section.getPropertyList()) {
+        values.add(((UnitFilePropertyType) property).getValueText());
+      }
+    }
+
+    // Verification
+    assertEquals("First", values.get(0));
+    assertEquals("man:first \\\n  man:second", values.get(1));
+
+    for (UnitFileSectionGroups section : sections) {
+      for (UnitFileProperty property : section.getPropertyList()) {
+        LazyParseableElement value = (LazyParseableElement) ((UnitFilePropertyType) property).getValueNode();
+
+        assertEquals(value.getText(), value.getText().contains("\n"), value.isParsed());
+      }
+    }
+  }
+
+  public void testEditInLargeFileOnlyReparsesItsSection() {
+    // Fixture Setup
+    StringBuilder text = new StringBuilder();
+    int middleOffset = -1;
+
+    for (int i = 0; i < SECTIONS; i++) {
+      text.append("[Service]\n");
+
+      for (int j = 0; j < PROPERTIES_PER_SECTION; j++) {
+        if (i == SECTIONS / 2 && j == 0) {
+          text.append("Type=");
+          middleOffset = text.length();
+          text.append("simple\n");
+        } else {
+          text.append("ExecStart=/usr/bin/generated-").append(i).append('-').append(j).append(" \\\n  --flag\n");
+        }
+      }
+    }
+
+    PsiFile file = setupFileInEditor("file.service", text.toString());
+    List<UnitFileSectionGroups> sections = getSections(file);
+    UnitFileSectionGroups edited = sections.get(SECTIONS / 2);
+
+    List<PsiElement> changedParents = recordChangedParents();
+
+    // Exercise SUT
+    replaceText(middleOffset, "simple".length(), "forking");
+
+    // Verification
+    assertEquals(sections, getSections(file));
+
+    assertFalse(changedParents.isEmpty());
+    for (PsiElement parent : changedParents) {
+      assertTrue("Expected " + parent + " to be in the edited section", PsiTreeUtil.isAncestor(edited, parent, false));
+    }
+
+    assertEquals("forking", ((UnitFilePropertyType) edited.getPropertyList().get(0)).getValueText());
+  }
+
+  private void replaceText(int offset, int length, String replacement) {
+    Document document = myFixture.getEditor().getDocument();
+
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+      document.replaceString(offset, offset + length, replacement);
+      PsiDocumentManager.getInstance(getProject()).commitDocument(document);
+    });
+  }
+
+  private List<PsiElement> recordChangedParents() {
+    List<PsiElement> parents = new ArrayList<>();
+
+    PsiManager.getInstance(getProject()).addPsiTreeChangeListener(new PsiTreeChangeAdapter() {
+      @Override
+      public void childAdded(@NotNull PsiTreeChangeEvent event) {
+        parents.add(event.getParent());
+      }
+
+      @Override
+      public void childRemoved(@NotNull PsiTreeChangeEvent event) {
+        parents.add(event.getParent());
+      }
+
+      @Override
+      public void childReplaced(@NotNull PsiTreeChangeEvent event) {
+        parents.add(event.getParent());
+      }
+    }, getTestRootDisposable());
+
+    return parents;
+  }
+
+  private static List<UnitFileSectionGroups> getSections(PsiFile file) {
+    return PsiTreeUtil.getChildrenOfTypeAsList(file, UnitFileSectionGroups.class);
+  }
+
+  private static List<PsiElement> childrenOf(PsiElement element) {
+    List<PsiElement> children = new ArrayList<>();
+
+    for (ASTNode child : element.getNode().getChildren(null)) {
+      children.add(child.getPsi());
+    }
+
+    return children;
+  }
+}
@@ -0,0 +1,112 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.lang.ASTNode;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.generated.UnitFileElementTypeHolder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Checks that the key and value accessors give the same results as when they were computed on every call, and that they are now only
+ * computed once per element.
+ */
+public class PsiAccessorPerformanceTest extends AbstractUnitFileTest {
+  
+  private static final int PROPERTIES = 5000;
+  
+  public void testAccessorsAreComputedOnce() {
+    // Fixture Setup
+    StringBuilder file = new StringBuilder("[Service]\n");
+    for (int i = 0; i < PROPERTIES; i++) {
+      switch (i % 4) {
+        case 0:
+          file.append("ExecStart=/usr/bin/generated-").append(i).append(" --flag\n");
+          break;
+        case 1:
+          file.append("Type=simple\n");
+          break;
+        case 2:
+          file.append("Environment=A=").append(i).append(" \\\n  B=2 \\\n  C=3\n");
+          break;
+        default:
+          file.append("X-Some\\ Key").append(i).append("=value\n");
+          break;
+      }
+    }
+    
+    setupFileInEditor("file.service", file.toString());
+    
+    Collection<UnitFilePropertyType> properties = PsiTreeUtil.findChildrenOfType(myFixture.getFile(), UnitFilePropertyType.class);
+    assertSize(PROPERTIES, properties);
+    
+    for (UnitFilePropertyType property : properties) {
+      assertEquals(legacyGetKey(property), property.getKey());
+      assertEquals(legacyGetValueText(property), property.getValueText());
+    }
+    
+    // Exercise SUT
+    List<String> keys = new ArrayList<>();
+    List<String> values = new ArrayList<>();
+    
+    for (UnitFilePropertyType property : properties) {
+      keys.add(property.getKey());
+      values.add(property.getValueText());
+    }
+    
+    // Verification
+    int i = 0;
+    for (UnitFilePropertyType property : properties) {
+      assertSame("Expected the key to be cached", keys.get(i), property.getKey());
+      assertSame("Expected the value to be cached", values.get(i), property.getValueText());
+      i++;
+    }
+  }
+  
+  public void testKnownKeysShareOneInstance() {
+    // Fixture Setup
+    setupFileInEditor("file.service", "[Service]\nType=simple\nType=notify\n[Service]\nType=forking\n");
+    
+    // Exercise SUT
+    List<String> keys = PsiTreeUtil.findChildrenOfType(myFixture.getFile(), UnitFilePropertyType.class).stream()
+                          .map(UnitFilePropertyType::getKey).collect(Collectors.toList());
+    
+    // Verification
+    assertSize(3, keys);
+    assertSame(keys.get(0), keys.get(1));
+    assertSame(keys.get(0), keys.get(2));
+  }
+  
+  /*
+   * How the accessors used to be implemented.
+   */
+  
+  private static String legacyGetKey(UnitFilePropertyType property) {
+    return property.getNode().findChildByType(UnitFileElementTypeHolder.KEY).getText().replaceAll("\\\\ ", " ");
+  }
+  
+  private static String legacyGetValueText(UnitFilePropertyType property) {
+    ASTNode valueNode = property.getNode().findChildByType(UnitFileElementTypeHolder.VALUE);
+    
+    if (valueNode == null) {
+      return null;
+    }
+    
+    List<PsiElement> elements = new ArrayList<>();
+    for (PsiElement child = valueNode.getPsi().getFirstChild(); child != null; child = child.getNextSibling()) {
+      elements.add(child);
+    }
+    
+    return elements.stream()
+             .filter(child -> child.getNode().getElementType() == UnitFileElementTypeHolder.COMPLETED_VALUE
+                              || child.getNode().getElementType() == UnitFileElementTypeHolder.CONTINUING_VALUE)
+             .map(PsiElement::getText)
+             .map(text -> text.trim().replaceFirst("\\\\$", " "))
+             .collect(Collectors.joining())
+             .trim();
+  }
+}
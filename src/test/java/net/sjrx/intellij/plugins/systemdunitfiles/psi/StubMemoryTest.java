@@ -0,0 +1,63 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiRecursiveElementWalkingVisitor;
+import com.intellij.psi.stubs.ObjectStubTree;
+import com.intellij.psi.stubs.StubTreeLoader;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+
+/**
+ * Compares what unit files hold in their trees (what cross-file features used to need) with what they hold in their stubs.
+ */
+public class StubMemoryTest extends AbstractUnitFileTest {
+
+  private static final int FILES = 100;
+
+  /**
+   * The properties in each file, the stub tree has one stub for each and one for the file.
+   */
+  private static final int PROPERTIES_PER_FILE = 8;
+
+  public void testStubsHoldFewerElementsThanTrees() {
+    for (int i = 0; i < FILES; i++) {
+      // Fixture Setup
+      PsiFile file = myFixture.addFileToProject("units/unit-" + i + ".service", unitFile(i));
+
+      // Exercise SUT
+      ObjectStubTree stubTree = StubTreeLoader.getInstance().readOrBuild(getProject(), file.getVirtualFile(), null);
+
+      int[] nodes = new int[1];
+      // With every section and value parsed, as walking the properties of a file leaves it
+      file.accept(new PsiRecursiveElementWalkingVisitor() {
+        @Override
+        public void visitElement(PsiElement element) {
+          nodes[0]++;
+          super.visitElement(element);
+        }
+      });
+
+      // Verification
+      assertNotNull(stubTree);
+      assertEquals(PROPERTIES_PER_FILE + 1, stubTree.getPlainList().size());
+      assertTrue("Expected the tree to have more than " + nodes[0] + " elements", nodes[0] > 4 * stubTree.getPlainList().size());
+    }
+  }
+
+  private static String unitFile(int i) {
+    return "[Unit]\n"
+           + "Description=Generated unit " + i + "\n"
+           + "After=network-online.target unit-" + (i + 1) + ".service\n"
+           + "Wants=network-online.target\n"
+           + "\n"
+           + "[Service]\n"
+           + "Type=simple\n"
+           + "ExecStart=/usr/bin/unit-" + i + " --config /etc/unit-" + i + ".conf\n"
+           + "Restart=on-failure\n"
+           + "Environment=A=1 \\\n"
+           + "  B=2\n"
+           + "\n"
+           + "[Install]\n"
+           + "WantedBy=multi-user.target\n";
+  }
+}
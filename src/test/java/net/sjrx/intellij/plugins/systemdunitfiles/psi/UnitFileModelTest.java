@@ -0,0 +1,135 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SymbolTable;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.KillModeOptionValue;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.optionvalues.NullOptionValue;
+
+import java.util.List;
+
+public class UnitFileModelTest extends AbstractUnitFileTest {
+  
+  public void testSectionsAndPropertiesAreInFileOrder() {
+    // Fixture Setup
+    String file = "# Comment\n"
+                  + "[Unit]\n"
+                  + "Description=Hello\n"
+                  + "; Another comment\n"
+                  + "After=network.target\n"
+                  + "\n"
+                  + "[Service]\n"
+                  + "KillMode=process\n"
+                  + "ExecStart=/bin/echo \\\n"
+                  + "  hello\n"
+                  + "NoValue=\n"
+                  + "[X-Custom]\n";
+    
+    PsiFile psiFile = setupFileInEditor("file.service", file);
+    
+    // Exercise SUT
+    List<UnitFileModel.Section> sections = UnitFileModel.forFile(psiFile).getSections();
+    
+    // Verification
+    assertSize(3, sections);
+    
+    UnitFileModel.Section unit = sections.get(0);
+    assertEquals("Unit", unit.getName());
+    assertSize(2, unit.getProperties());
+    assertEquals("Description", unit.getProperties().get(0).getKey());
+    assertEquals("Hello", unit.getProperties().get(0).getValue());
+    assertEquals("After", unit.getProperties().get(1).getKey());
+    assertEquals("network.target", unit.getProperties().get(1).getValue());
+    
+    UnitFileModel.Section service = sections.get(1);
+    assertEquals("Service", service.getName());
+    assertSize(3, service.getProperties());
+    
+    UnitFileModel.Property killMode = service.getProperties().get(0);
+    assertSame(service, killMode.getSection());
+    assertEquals("process", killMode.getValue());
+    assertInstanceOf(killMode.getValidator(), KillModeOptionValue.class);
+    
+    UnitFileModel.Property execStart = service.getProperties().get(1);
+    assertEquals(execStart.getElement().getValueText(), execStart.getValue());
+    assertInstanceOf(execStart.getValidator(), NullOptionValue.class);
+    
+    assertNull(service.getProperties().get(2).getValue());
+    assertEquals(SymbolTable.NOT_FOUND, service.getProperties().get(2).getKeyId());
+    
+    UnitFileModel.Section custom = sections.get(2);
+    assertEquals("X-Custom", custom.getName());
+    assertEquals(SymbolTable.NOT_FOUND, custom.getSectionId());
+    assertEmpty(custom.getProperties());
+  }
+  
+  public void testModelWithoutSemanticDataHasNoIdsOrValidators() {
+    // Fixture Setup
+    String file = "[Service]\n"
+                  + "KillMode=process\n";
+    
+    PsiFile psiFile = setupFileInEditor("file.service", file);
+    
+    // Exercise SUT
+    List<UnitFileModel.Section> sections = UnitFileModel.build(psiFile, null).getSections();
+    
+    // Verification
+    assertSize(1, sections);
+    assertEquals("Service", sections.get(0).getName());
+    assertEquals(SymbolTable.NOT_FOUND, sections.get(0).getSectionId());
+    
+    UnitFileModel.Property killMode = sections.get(0).getProperties().get(0);
+    assertEquals("KillMode", killMode.getKey());
+    assertEquals("process", killMode.getValue());
+    assertEquals(SymbolTable.NOT_FOUND, killMode.getKeyId());
+    assertInstanceOf(killMode.getValidator(), NullOptionValue.class);
+  }
+  
+  public void testFindPropertyAndSectionFromElements() {
+    // Fixture Setup
+    String file = "[Service]\n"
+                  + "KillMode=process\n";
+    
+    PsiFile psiFile = setupFileInEditor("file.service", file);
+    UnitFileModel model = UnitFileModel.forFile(psiFile);
+    
+    PsiElement key = getAllKeysInFile(psiFile).get(0);
+    PsiElement sectionHeader = getAllSectionInFile(psiFile).get(0);
+    PsiElement value = getAllCompletedValuesInFile(psiFile).get(0);
+    
+    // Exercise SUT & Verification
+    assertSame(model.getSections().get(0).getProperties().get(0), model.findProperty(key));
+    assertSame(model.getSections().get(0).getProperties().get(0), model.findProperty(value));
+    assertNull(model.findProperty(sectionHeader));
+    
+    assertSame(model.getSections().get(0), model.findSection(key));
+    assertSame(model.getSections().get(0), model.findSection(sectionHeader));
+    assertNull(model.findSection(psiFile));
+  }
+  
+  public void testModelIsCachedUntilThePsiChanges() {
+    // Fixture Setup
+    String file = "[Service]\n"
+                  + "KillMode=process\n";
+    
+    PsiFile psiFile = setupFileInEditor("file.service", file);
+    UnitFileModel before = UnitFileModel.forFile(psiFile);
+    
+    // Exercise SUT
+    UnitFileModel unchanged = UnitFileModel.forFile(psiFile);
+    
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> myFixture.getEditor().getDocument().insertString(0, "[Unit]\n"));
+    PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+    
+    UnitFileModel after = UnitFileModel.forFile(psiFile);
+    
+    // Verification
+    assertSame(before, unchanged);
+    assertNotSame(before, after);
+    assertSize(2, after.getSections());
+    assertEquals("Unit", after.getSections().get(0).getName());
+  }
+}
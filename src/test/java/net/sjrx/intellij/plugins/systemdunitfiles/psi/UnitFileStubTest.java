@@ -0,0 +1,77 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.psi;
+
+import com.google.common.base.Strings;
+import com.intellij.psi.impl.source.PsiFileImpl;
+import com.intellij.psi.search.GlobalSearchScope;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitFilePropertyIndex;
+
+import java.util.Collection;
+import java.util.List;
+
+public class UnitFileStubTest extends AbstractUnitFileTest {
+
+  public void testPropertiesAreReadFromStubs() {
+    // Fixture Setup
+    UnitFile file = (UnitFile) myFixture.addFileToProject("a.service",
+      "[Unit]\nAfter=b.service \\\n  c.service\n# Comment\n[Install]\nWantedBy=multi-user.target\n");
+
+    // Exercise SUT
+    List<UnitFilePropertyType> properties = file.getProperties();
+
+    // Verification
+    assertSize(2, properties);
+    assertEquals("Unit", properties.get(0).getSectionName());
+    assertEquals("After", properties.get(0).getKey());
+    assertEquals("b.service c.service", properties.get(0).getValueText());
+    assertEquals("Install", properties.get(1).getSectionName());
+    assertEquals("WantedBy", properties.get(1).getKey());
+    assertEquals("multi-user.target", properties.get(1).getValueText());
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+  }
+
+  public void testLongValuesAreReadFromTheTree() {
+    // Fixture Setup
+    String command = "/usr/bin/run " + Strings.repeat("--flag ", 50).trim();
+    UnitFile file = (UnitFile) myFixture.addFileToProject("a.service", "[Service]\nExecStart=" + command + "\n");
+
+    // Exercise SUT
+    UnitFilePropertyType property = file.getProperties().get(0);
+
+    // Verification
+    assertEquals("ExecStart", property.getKey());
+    assertFalse(((PsiFileImpl) file).isContentsLoaded());
+    assertEquals(command, property.getValueText());
+  }
+
+  public void testPropertiesAreTheSameWithTheTreeLoaded() {
+    // Fixture Setup
+    UnitFile file = (UnitFile) setupFileInEditor("a.service", "[Unit]\nAfter=b.service\n[Service]\nType=simple\n");
+
+    // Exercise SUT
+    List<UnitFilePropertyType> properties = file.getProperties();
+
+    // Verification
+    assertSize(2, properties);
+    assertEquals("Service", properties.get(1).getSectionName());
+    assertEquals("Type", properties.get(1).getKey());
+    assertEquals("simple", properties.get(1).getValueText());
+  }
+
+  public void testIndexFindsPropertiesBySectionAndKey() {
+    // Fixture Setup
+    myFixture.addFileToProject("a.service", "[Unit]\nAfter=b.service\n[Install]\nWantedBy=multi-user.target\n");
+    myFixture.addFileToProject("b.service", "[Install]\nWantedBy=graphical.target\n");
+    myFixture.addFileToProject("c.timer", "[Timer]\nUnit=a.service\n[Install]\nWantedBy=timers.target\n");
+
+    // Exercise SUT
+    Collection<UnitFileProperty> wantedBy =
+      UnitFilePropertyIndex.getProperties(getProject(), "Install", "WantedBy", GlobalSearchScope.allScope(getProject()));
+    Collection<UnitFileProperty> after =
+      UnitFilePropertyIndex.getProperties(getProject(), "Timer", "After", GlobalSearchScope.allScope(getProject()));
+
+    // Verification
+    assertSize(3, wantedBy);
+    assertEmpty(after);
+  }
+}
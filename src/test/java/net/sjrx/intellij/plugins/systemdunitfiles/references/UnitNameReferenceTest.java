@@ -0,0 +1,131 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.references;
+
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.usageView.UsageInfo;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.DependencyType;
+import net.sjrx.intellij.plugins.systemdunitfiles.dependencies.UnitDependency;
+import net.sjrx.intellij.plugins.systemdunitfiles.index.UnitDependencyIndex;
+
+import java.util.Collection;
+import java.util.List;
+
+public class UnitNameReferenceTest extends AbstractUnitFileTest {
+
+  public void testDependencyResolvesToUnitFile() {
+    // Fixture Setup
+    PsiFile target = myFixture.addFileToProject("b.service", "[Unit]\nDescription=B\n");
+    setupFileInEditor("a.service", "[Unit]\nAfter=network.target b" + COMPLETION_POSITION + ".service\n");
+
+    // Exercise SUT
+    PsiReference reference = myFixture.getReferenceAtCaretPositionWithAssertion();
+
+    // Verification
+    assertEquals("b.service", reference.getCanonicalText());
+    assertEquals(target, reference.resolve());
+  }
+
+  public void testInstanceResolvesToTemplate() {
+    // Fixture Setup
+    PsiFile template = myFixture.addFileToProject("getty@.service", "[Service]\nType=idle\n");
+    setupFileInEditor("a.target", "[Unit]\nWants=getty@tty" + COMPLETION_POSITION + "1.service\n");
+
+    // Exercise SUT
+    PsiReference reference = myFixture.getReferenceAtCaretPositionWithAssertion();
+
+    // Verification
+    assertEquals(template, reference.resolve());
+  }
+
+  public void testNamesOnContinuationLinesAreReferences() {
+    // Fixture Setup
+    PsiFile file = setupFileInEditor("a.service", "[Install]\nWantedBy=multi-user.target \\\n  graphical.target\n");
+
+    // Exercise SUT
+    PsiReference first = file.findReferenceAt(file.getText().indexOf("multi-user"));
+    PsiReference second = file.findReferenceAt(file.getText().indexOf("graphical"));
+
+    // Verification
+    assertEquals("multi-user.target", first.getCanonicalText());
+    assertEquals("graphical.target", second.getCanonicalText());
+    assertNull(first.resolve());
+    assertNull(file.findReferenceAt(file.getText().indexOf('\\')));
+  }
+
+  public void testOtherKeysHaveNoReferences() {
+    // Fixture Setup
+    PsiFile file = setupFileInEditor("a.service", "[Unit]\nDescription=b.service\n");
+
+    // Exercise SUT & Verification
+    assertNull(file.findReferenceAt(file.getText().indexOf("b.service")));
+  }
+
+  public void testIndexRecordsDependencies() {
+    // Fixture Setup
+    PsiFile file = myFixture.addFileToProject("a.service", "[Unit]\nAfter=b.service\n[Install]\nWantedBy=multi-user.target\n");
+    myFixture.addFileToProject("a.service.d/override.conf", "[Unit]\nRequires=b.service\n");
+
+    // Exercise SUT
+    Collection<?> files = UnitDependencyIndex.getReferencingFiles(getProject(), "b.service", GlobalSearchScope.allScope(getProject()));
+    List<UnitDependency> dependencies = UnitDependencyIndex.getDependencies(getProject(), file.getVirtualFile(), "multi-user.target");
+
+    // Verification
+    assertSize(2, files);
+    assertEquals(1, dependencies.size());
+    assertEquals(DependencyType.WANTED_BY, dependencies.get(0).getType());
+    assertEquals(file.getText().indexOf("multi-user"), dependencies.get(0).getOffset());
+    assertContainsElements(UnitDependencyIndex.getUnitNames(getProject()), "a.service", "b.service", "multi-user.target");
+  }
+
+  public void testFindUsagesOfUnitFile() {
+    // Fixture Setup
+    PsiFile target = myFixture.addFileToProject("b.service", "[Unit]\nDescription=B\n");
+    myFixture.addFileToProject("a.service", "[Unit]\nAfter=b.service\nWants=b.service\nDescription=b.service\n");
+    myFixture.addFileToProject("c.socket", "[Socket]\nService=b.service\n");
+
+    // Exercise SUT
+    Collection<UsageInfo> usages = myFixture.findUsages(target);
+
+    // Verification
+    assertSize(3, usages);
+  }
+
+  public void testFindUsagesOfTemplateIncludesInstances() {
+    // Fixture Setup
+    PsiFile template = myFixture.addFileToProject("getty@.service", "[Service]\nType=idle\n");
+    myFixture.addFileToProject("a.target", "[Unit]\nWants=getty@tty1.service getty@tty2.service\n");
+
+    // Exercise SUT
+    Collection<UsageInfo> usages = myFixture.findUsages(template);
+
+    // Verification
+    assertSize(2, usages);
+  }
+
+  public void testRenameUpdatesDependencies() {
+    // Fixture Setup
+    PsiFile target = myFixture.addFileToProject("getty@.service", "[Service]\nType=idle\n");
+    setupFileInEditor("a.target", "[Unit]\nWants=getty@tty1.service \\\n  getty@.service\n");
+
+    // Exercise SUT
+    myFixture.renameElement(target, "console@.service");
+
+    // Verification
+    myFixture.checkResult("[Unit]\nWants=console@tty1.service \\\n  console@.service\n");
+  }
+
+  public void testCompletionOfUnitNames() {
+    // Fixture Setup
+    myFixture.addFileToProject("network-setup.service", "[Unit]\nDescription=Setup\n");
+    myFixture.addFileToProject("b.service", "[Unit]\nWants=network-online.target\n");
+    setupFileInEditor("a.service", "[Unit]\nAfter=b.service network-" + COMPLETION_POSITION + "\n");
+
+    // Exercise SUT
+    List<String> completions = getBasicCompletionResultStrings();
+
+    // Verification
+    assertSameElements(completions, "network-setup.service", "network-online.target");
+  }
+}
@@ -0,0 +1,55 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.semanticdata;
+
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SemanticDataServiceTest extends AbstractUnitFileTest {
+  
+  public void testOpeningAUnitFileLoadsTheRepository() {
+    // Fixture Setup
+    SemanticDataService service = SemanticDataService.getInstance();
+    
+    // Exercise SUT
+    setupFileInEditor("file.service", "[Service]\nType=simple");
+    
+    // Verification
+    assertNotNull(service.getRepositoryIfLoaded());
+    assertTrue(service.getLoadTimeMillis() >= 0);
+  }
+  
+  public void testThereIsOnlyOneRepository() {
+    // Fixture Setup
+    SemanticDataService service = SemanticDataService.getInstance();
+    
+    // Exercise SUT
+    SemanticDataRepository repository = service.getRepository();
+    
+    // Verification
+    assertSame(repository, service.getRepositoryIfLoaded());
+    assertSame(repository, SemanticDataRepository.getInstance());
+    assertSame(service, SemanticDataService.getInstance());
+  }
+  
+  public void testFailedLoadIsRetried() {
+    // Fixture Setup
+    AtomicInteger loads = new AtomicInteger();
+    SemanticDataService service = new SemanticDataService(() -> {
+      if (loads.incrementAndGet() == 1) {
+        throw new IllegalStateException("corrupt");
+      }
+      
+      return SemanticDataRepository.getInstance();
+    });
+    
+    // Exercise SUT
+    SemanticDataRepository failed = service.getRepositoryIfLoaded();
+    SemanticDataRepository retried = service.getRepositoryIfLoaded();
+    
+    // Verification
+    assertNull(failed);
+    assertSame(SemanticDataRepository.getInstance(), retried);
+    assertSame(retried, service.getRepository());
+    assertEquals(2, loads.get());
+  }
+}
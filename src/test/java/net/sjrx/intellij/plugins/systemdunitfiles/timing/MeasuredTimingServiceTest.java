@@ -0,0 +1,58 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.codeInsight.hints.InlayInfo;
+import com.intellij.openapi.progress.EmptyProgressIndicator;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.util.PsiTreeUtil;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveConfiguration;
+import net.sjrx.intellij.plugins.systemdunitfiles.effective.EffectiveConfigurationHints;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MeasuredTimingServiceTest extends AbstractUnitFileTest {
+
+  public void testImportedTimesAreShownInTheUnitFiles() throws Exception {
+    // Fixture Setup
+    myFixture.addFileToProject("db.service", "[Service]\nType=notify\nExecStart=/usr/bin/db\n[Install]\nWantedBy=multi-user.target\n");
+    PsiFile app = myFixture.addFileToProject("app.service", "[Unit]\n"
+                                                            + "After=db.service network.target\n"
+                                                            + "[Service]\n"
+                                                            + "ExecStart=/usr/bin/app\n"
+                                                            + "[Install]\n"
+                                                            + "WantedBy=multi-user.target\n");
+    PsiFile web01 = myFixture.addFileToProject("dumps/web01/blame.txt", "4.2s db.service\n300ms app.service\n2s unrelated.service\n");
+    PsiFile web02 = myFixture.addFileToProject("dumps/web02/critical-chain.txt", "multi-user.target @1.5s\n"
+                                                                                 + "└─app.service @1.5s +500ms\n"
+                                                                                 + "  └─db.service @1s +1s\n");
+    MeasuredTimingService service = MeasuredTimingService.getInstance(getProject());
+
+    // Exercise SUT
+    service.load(Arrays.asList(web01.getVirtualFile(), web02.getVirtualFile()), "multi-user.target",
+      SemanticDataService.getInstance().getRepository(), new EmptyProgressIndicator());
+
+    // Verification
+    assertSize(2, service.getMeasurements("db.service"));
+    assertEmpty(service.getMeasurements("unrelated.service"));
+    assertEquals(Arrays.asList("[Unit]: measured @1s 500ms +500ms (web02, slowest of 2)", "After: waited 4s 200ms for db.service (web01), "
+                                                                                + "waited 1s for db.service (web02)"), getHints(app));
+    assertTrue(service.getReport(), service.getReport().startsWith("Measured boot to multi-user.target on web01: worst case 4s 500ms\n"));
+  }
+
+  private static List<String> getHints(PsiFile file) {
+    EffectiveConfiguration configuration = EffectiveConfigurationHints.getConfiguration(file);
+    List<String> hints = new ArrayList<>();
+
+    for (PsiElement element : PsiTreeUtil.findChildrenOfAnyType(file, PsiElement.class)) {
+      for (InlayInfo hint : EffectiveConfigurationHints.getHints(element, configuration)) {
+        hints.add(element.getFirstChild().getText().trim().split("=")[0] + ": " + hint.getText());
+      }
+    }
+
+    return hints;
+  }
+}
@@ -0,0 +1,31 @@
+package net.sjrx.intellij.plugins.systemdunitfiles.timing;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiFile;
+import net.sjrx.intellij.plugins.systemdunitfiles.AbstractUnitFileTest;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataRepository;
+import net.sjrx.intellij.plugins.systemdunitfiles.semanticdata.SemanticDataService;
+
+public class TimeBudgetServiceTest extends AbstractUnitFileTest {
+
+  public void testUnsavedTimeoutIsUsed() {
+    // Fixture Setup
+    SemanticDataRepository sdr = SemanticDataService.getInstance().getRepository();
+    myFixture.addFileToProject("db.service", "[Service]\nType=notify\nExecStart=/usr/bin/db\n[Install]\nWantedBy=multi-user.target\n");
+    PsiFile app = myFixture.addFileToProject("app.service", "[Unit]\nAfter=db.service\n[Service]\nType=notify\nExecStart=/usr/bin/app\n"
+                                                            + "TimeoutStartSec=10s\n[Install]\nWantedBy=multi-user.target\n");
+    TimeBudgetService service = TimeBudgetService.getInstance(getProject());
+    assertEquals(100_000, service.analyzeBoot("multi-user.target", sdr).getTotalMillis());
+
+    // Exercise SUT
+    Document document = PsiDocumentManager.getInstance(getProject()).getDocument(app);
+    WriteCommandAction.runWriteCommandAction(getProject(), () -> document.setText(document.getText().replace("10s", "1min")));
+    TimeBudget budget = service.analyzeBoot("multi-user.target", sdr);
+
+    // Verification
+    assertEquals(150_000, budget.getTotalMillis());
+    assertEquals("app.service", budget.getSteps().get(1).getUnitName());
+  }
+}